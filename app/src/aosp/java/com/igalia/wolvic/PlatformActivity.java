@@ -49,6 +49,6 @@ public class PlatformActivity extends GameActivity {
         return super.onKeyUp(keyCode, event);
     }
 
-    protected native void queueRunnable(Runnable aRunnable);
+    protected native void queueRenderRunnable(Runnable aRunnable);
     protected native boolean platformExit();
 }
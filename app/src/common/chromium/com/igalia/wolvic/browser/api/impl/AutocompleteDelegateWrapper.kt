@@ -16,6 +16,22 @@ class AutocompleteDelegateWrapper(private val storageDelegate: ChromiumLoginStor
         storageDelegate.onLoginSave(login.toLoginEntry())
     }
 
+    /**
+     * Saves a login, like [onLoginSave], and returns a result completed once it has been written.
+     */
+    fun saveLogin(login: WAutocomplete.LoginEntry): WResult<Void> {
+        val result = WResult.create<Void>()
+        GlobalScope.launch(Dispatchers.IO) {
+            try {
+                storageDelegate.saveLogin(login.toLoginEntry()).await()
+                result.complete(null)
+            } catch (e: Exception) {
+                result.completeExceptionally(e)
+            }
+        }
+        return result
+    }
+
     private fun onLoginFetchInternal(domain: String?) : WResult<Array<WAutocomplete.LoginEntry>>? {
         val result = WResult.create<Array<WAutocomplete.LoginEntry>>()
 
@@ -13,6 +13,7 @@ import org.chromium.wolvic.PasswordStoreBackend;
 public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
     private AutocompleteDelegateWrapper mDelegate;
     private PasswordStoreBackend.Listener mListener;
+    private final LoginCache mLoginCache = new LoginCache();
 
     private class FactoryImpl implements PasswordStoreBackend.Factory {
         @Override
@@ -42,6 +43,11 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
                 .build();
     }
 
+    // WResult failures are Throwables, which may also be Errors.
+    private static @NonNull Exception toException(@NonNull Throwable ex) {
+        return ex instanceof Exception ? (Exception) ex : new Exception(ex);
+    }
+
     @Override
     public void addLogin(int replyId, PasswordForm form) {
         updateLogin(replyId, form);
@@ -49,12 +55,25 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
 
     @Override
     public void updateLogin(int replyId, PasswordForm form) {
+        // The login is written asynchronously. The cache is dropped when the write starts and again
+        // once it has landed, so a fetch that read the old rows in between can't repopulate it.
+        mLoginCache.invalidate();
+        final WResult<Void> result;
         try {
-            mDelegate.onLoginSave(fromPasswordForm(form));
-            mListener.onLoginChanged(replyId);
+            result = mDelegate.saveLogin(fromPasswordForm(form));
         } catch (Exception e) {
             mListener.onError(replyId, e);
+            return;
         }
+        result.then(ignored -> {
+            mLoginCache.invalidate();
+            mListener.onLoginChanged(replyId);
+            return null;
+        }).exceptionally(ex -> {
+            mLoginCache.invalidate();
+            mListener.onError(replyId, toException(ex));
+            return null;
+        });
     }
 
     @Override
@@ -66,12 +85,20 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
 
     @Override
     public void getAllLogins(int replyId) {
+        PasswordForm[] cached = mLoginCache.getAllLogins();
+        if (cached != null) {
+            mListener.onCompleteWithLogins(replyId, cached);
+            return;
+        }
+
+        final int generation = mLoginCache.getGeneration();
         final WResult<WAutocomplete.LoginEntry[]> result = mDelegate.onLoginFetch();
         if (result == null) {
             mListener.onCompleteWithLogins(replyId, null);
             return;
         }
         result.then(entries -> {
+            mLoginCache.putAllLogins(generation, entries);
             PasswordForm[] forms = new PasswordForm[entries.length];
             for (int i = 0; i < entries.length; ++i) {
                 forms[i] = toPasswordForm(entries[i]);
@@ -79,19 +106,27 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
             mListener.onCompleteWithLogins(replyId, forms);
             return null;
         }).exceptionally(ex -> {
-            mListener.onError(replyId, (Exception)ex);
+            mListener.onError(replyId, toException(ex));
             return null;
         });
     }
 
     @Override
     public void getLoginsForSignonRealm(int replyId, String signonRealm) {
+        PasswordForm[] cached = mLoginCache.getLoginsForSignonRealm(signonRealm);
+        if (cached != null) {
+            mListener.onCompleteWithLogins(replyId, cached);
+            return;
+        }
+
+        final int generation = mLoginCache.getGeneration();
         final WResult<WAutocomplete.LoginEntry[]> result = mDelegate.onLoginFetch(signonRealm);
         if (result == null) {
             mListener.onCompleteWithLogins(replyId, null);
             return;
         }
         result.then(entries -> {
+            mLoginCache.putLoginsForSignonRealm(generation, signonRealm, entries);
             ArrayList<PasswordForm> forms = new ArrayList<>();
             for (int i = 0; i < entries.length; ++i) {
                 forms.add(toPasswordForm(entries[i]));
@@ -100,7 +135,7 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
             mListener.onCompleteWithLogins(replyId, forms.toArray(new PasswordForm[forms.size()]));
             return null;
         }).exceptionally(ex -> {
-            mListener.onError(replyId, (Exception) ex);
+            mListener.onError(replyId, toException(ex));
             return null;
         });
     }
@@ -110,6 +145,14 @@ public class AutocompleteStorageProxy implements PasswordStoreBackend.Bridge {
         getAllLogins(replyId);
     }
 
+    /**
+     * Drops the cached logins. Called when the logins storage is modified outside of the
+     * password manager, e.g. from the settings or by a sync.
+     */
+    public void invalidateLoginCache() {
+        mLoginCache.invalidate();
+    }
+
     public void onLoginUsed(PasswordForm form) {
         mDelegate.onLoginUsed(fromPasswordForm(form), WAutocomplete.UsedField.PASSWORD);
     }
@@ -45,8 +45,17 @@ class ChromiumLoginStorageDelegate(
 
     @Synchronized
     override fun onLoginSave(login: LoginEntry) {
-        scope.launch {
+        saveLogin(login)
+    }
+
+    /**
+     * Same as [onLoginSave], but returns a [Deferred] completed once the login has been written.
+     */
+    @Synchronized
+    fun saveLogin(login: LoginEntry): Deferred<Unit> {
+        return scope.async {
             loginStorage.value.addOrUpdate(login)
+            Unit
         }
     }
 }
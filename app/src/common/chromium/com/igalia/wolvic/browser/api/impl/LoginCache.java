@@ -0,0 +1,171 @@
+package com.igalia.wolvic.browser.api.impl;
+
+import android.util.Log;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.igalia.wolvic.browser.api.WAutocomplete;
+import com.igalia.wolvic.utils.SystemUtils;
+
+import org.chromium.wolvic.PasswordForm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HashMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * In-memory cache of the stored logins used to answer the password manager without going to the
+ * logins storage on every form fill. Logins are indexed by signon realm, and the whole list is
+ * kept for autofill. Passwords are kept encrypted with a per-process key and only decrypted when
+ * the forms are handed to Chromium.
+ *
+ * The cache is dropped by {@link #invalidate()} whenever the storage changes, either through the
+ * password manager itself, the logins settings or a sync.
+ */
+@AnyThread
+class LoginCache {
+    private static final String LOGTAG = SystemUtils.createLogtag(LoginCache.class);
+    private static final String CIPHER_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH_BITS = 128;
+    private static final int MAX_CACHED_REALMS = 64;
+
+    private static class CachedLogin {
+        final String username;
+        final byte[] encryptedPassword;
+        final byte[] iv;
+        final String origin;
+        final String formActionOrigin;
+        final String httpRealm;
+        final String guid;
+
+        CachedLogin(@NonNull WAutocomplete.LoginEntry entry, @NonNull byte[] iv, @NonNull byte[] encryptedPassword) {
+            this.username = entry.username;
+            this.origin = entry.origin;
+            this.formActionOrigin = entry.formActionOrigin;
+            this.httpRealm = entry.httpRealm;
+            this.guid = entry.guid;
+            this.iv = iv;
+            this.encryptedPassword = encryptedPassword;
+        }
+    }
+
+    private final SecureRandom mRandom = new SecureRandom();
+    private final SecretKey mKey;
+    private final HashMap<String, CachedLogin[]> mLoginsByRealm = new HashMap<>();
+    private CachedLogin[] mAllLogins;
+    // Incremented on every invalidation, so fetches started before it don't populate the cache.
+    private int mGeneration;
+
+    LoginCache() {
+        SecretKey key = null;
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            key = generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            Log.e(LOGTAG, "Unable to create the login cache key, logins won't be cached: " + e.getMessage());
+        }
+        mKey = key;
+    }
+
+    synchronized int getGeneration() {
+        return mGeneration;
+    }
+
+    synchronized void invalidate() {
+        mGeneration++;
+        mAllLogins = null;
+        mLoginsByRealm.clear();
+    }
+
+    /**
+     * @return the cached forms for a signon realm, or null if they need to be fetched.
+     */
+    @Nullable
+    synchronized PasswordForm[] getLoginsForSignonRealm(@NonNull String signonRealm) {
+        return toPasswordForms(mLoginsByRealm.get(signonRealm));
+    }
+
+    /**
+     * @return all the cached forms, or null if they need to be fetched.
+     */
+    @Nullable
+    synchronized PasswordForm[] getAllLogins() {
+        return toPasswordForms(mAllLogins);
+    }
+
+    synchronized void putLoginsForSignonRealm(int generation, @NonNull String signonRealm, @NonNull WAutocomplete.LoginEntry[] entries) {
+        if (generation != mGeneration || mKey == null) {
+            return;
+        }
+        if (mLoginsByRealm.size() >= MAX_CACHED_REALMS) {
+            mLoginsByRealm.clear();
+        }
+        CachedLogin[] logins = encrypt(entries);
+        if (logins != null) {
+            mLoginsByRealm.put(signonRealm, logins);
+        }
+    }
+
+    synchronized void putAllLogins(int generation, @NonNull WAutocomplete.LoginEntry[] entries) {
+        if (generation != mGeneration || mKey == null) {
+            return;
+        }
+        mAllLogins = encrypt(entries);
+    }
+
+    @Nullable
+    private PasswordForm[] toPasswordForms(@Nullable CachedLogin[] logins) {
+        if (logins == null) {
+            return null;
+        }
+        PasswordForm[] forms = new PasswordForm[logins.length];
+        try {
+            for (int i = 0; i < logins.length; i++) {
+                CachedLogin login = logins[i];
+                forms[i] = new PasswordForm(login.username, decrypt(login), login.origin,
+                        login.formActionOrigin, login.httpRealm, login.guid);
+            }
+        } catch (GeneralSecurityException e) {
+            Log.e(LOGTAG, "Unable to decrypt cached login: " + e.getMessage());
+            invalidate();
+            return null;
+        }
+        return forms;
+    }
+
+    @Nullable
+    private CachedLogin[] encrypt(@NonNull WAutocomplete.LoginEntry[] entries) {
+        CachedLogin[] logins = new CachedLogin[entries.length];
+        try {
+            for (int i = 0; i < entries.length; i++) {
+                byte[] iv = new byte[GCM_IV_LENGTH];
+                mRandom.nextBytes(iv);
+                Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+                cipher.init(Cipher.ENCRYPT_MODE, mKey, new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv));
+                String password = entries[i].password != null ? entries[i].password : "";
+                logins[i] = new CachedLogin(entries[i], iv, cipher.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (GeneralSecurityException e) {
+            Log.e(LOGTAG, "Unable to encrypt login: " + e.getMessage());
+            return null;
+        }
+        return logins;
+    }
+
+    @NonNull
+    private String decrypt(@NonNull CachedLogin login) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, mKey, new GCMParameterSpec(GCM_TAG_LENGTH_BITS, login.iv));
+        return new String(cipher.doFinal(login.encryptedPassword), StandardCharsets.UTF_8);
+    }
+}
@@ -93,6 +93,11 @@ public class RuntimeImpl implements WRuntime {
         mAutocompleteStorageProxy.setDelegate(AutocompleteDelegateWrapper.create(storage));
     }
 
+    @Override
+    public void onLoginsChanged() {
+        mAutocompleteStorageProxy.invalidateLoginCache();
+    }
+
     @NonNull
     public AutocompleteStorageProxy getUpLoginPersistence() {
         return mAutocompleteStorageProxy;
@@ -53,6 +53,7 @@ public class SessionImpl implements WSession, DownloadManagerBridge.Delegate {
     SessionFinderImpl mSessionFinder;
     private PermissionManagerBridge.Delegate mChromiumPermissionDelegate;
     private String mInitialUri;
+    private SessionStateImpl mInitialState;
     private WebContents mWebContents;
     private TabImpl mTab;
     private ReadyCallback mReadyCallback = new ReadyCallback();
@@ -76,7 +77,12 @@ public class SessionImpl implements WSession, DownloadManagerBridge.Delegate {
                 mGetSessionFinderCallback.onFinderAvailable(mSessionFinder);
                 mGetSessionFinderCallback = null;
             }
-            if (mInitialUri != null) {
+            if (mInitialState != null) {
+                assert mWebContents == null;
+                mTab.restoreState(mInitialState);
+                mInitialState = null;
+                mInitialUri = null;
+            } else if (mInitialUri != null) {
                 assert mWebContents == null;
                 mTab.loadUrl(mInitialUri);
                 mInitialUri = null;
@@ -135,6 +141,8 @@ public class SessionImpl implements WSession, DownloadManagerBridge.Delegate {
         } else {
             webContents.updateWebContentsVisibility(Visibility.HIDDEN);
             webContents.suspendAllMediaPlayers();
+            // Save the latest scroll position before the tab goes to the background.
+            dispatchSessionStateChange();
         }
         webContents.setAudioMuted(!active);
     }
@@ -250,7 +258,21 @@ public class SessionImpl implements WSession, DownloadManagerBridge.Delegate {
 
     @Override
     public void restoreState(@NonNull WSessionState state) {
+        SessionStateImpl chromiumState = (SessionStateImpl) state;
+        if (chromiumState.isEmpty())
+            return;
+        if (!isOpen()) {
+            // Restore when the session is ready.
+            mInitialState = chromiumState;
+        } else {
+            mTab.restoreState(chromiumState);
+        }
+    }
 
+    /* package */ void dispatchSessionStateChange() {
+        if (mProgressDelegate == null || mTab == null)
+            return;
+        mProgressDelegate.onSessionStateChange(this, mTab.getSessionState());
     }
 
     @Override
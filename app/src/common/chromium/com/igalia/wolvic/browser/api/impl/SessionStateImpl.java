@@ -1,23 +1,130 @@
 package com.igalia.wolvic.browser.api.impl;
 
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
 import com.igalia.wolvic.browser.api.WSessionState;
+import com.igalia.wolvic.utils.SystemUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Compact snapshot of the navigation history of a Chromium tab: the entries (url, title, referrer)
+ * and the index of the current one. The scroll position is only known for the current entry.
+ * The number of entries and the length of the stored strings are bounded so a tab with a long
+ * history does not bloat the saved windows state.
+ */
 public class SessionStateImpl implements WSessionState {
+    private static final String LOGTAG = SystemUtils.createLogtag(SessionStateImpl.class);
+
+    static final int MAX_ENTRIES = 50;
+    static final int MAX_URL_LENGTH = 2048;
+    static final int MAX_TITLE_LENGTH = 256;
+
+    private static final Gson sGson = new Gson();
+
+    public static class Entry {
+        @SerializedName("u")
+        public final String url;
+        @SerializedName("t")
+        public final String title;
+        @SerializedName("r")
+        public final String referrer;
+        @SerializedName("s")
+        public int scrollY;
 
-    public SessionStateImpl() {}
+        public Entry(@NonNull String url, @Nullable String title, @Nullable String referrer) {
+            this.url = url;
+            this.title = title != null && title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title;
+            this.referrer = referrer != null && referrer.length() <= MAX_URL_LENGTH ? referrer : null;
+        }
+
+        static boolean isRestorable(@Nullable String url) {
+            // data: URLs can not be restored and are usually too large to be stored.
+            return url != null && !url.isEmpty() && url.length() <= MAX_URL_LENGTH && !url.startsWith("data:");
+        }
+    }
+
+    @SerializedName("i")
+    private final int mIndex;
+    @SerializedName("e")
+    private final List<Entry> mEntries;
+
+    public SessionStateImpl() {
+        this(Collections.emptyList(), -1);
+    }
+
+    /**
+     * @param entries the history entries, oldest first. Entries that can not be restored are
+     *                dropped and the list is trimmed around the current entry.
+     * @param index the position of the current entry in entries.
+     */
+    public SessionStateImpl(@NonNull List<Entry> entries, int index) {
+        List<Entry> restorable = new ArrayList<>(entries.size());
+        int newIndex = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (!Entry.isRestorable(entry.url)) {
+                continue;
+            }
+            if (i <= index) {
+                newIndex = restorable.size();
+            }
+            restorable.add(entry);
+        }
+
+        if (restorable.size() > MAX_ENTRIES) {
+            // Keep the current entry, favouring back history over forward history.
+            int end = Math.min(restorable.size(), Math.max(newIndex + 1 + MAX_ENTRIES / 4, MAX_ENTRIES));
+            int start = end - MAX_ENTRIES;
+            restorable = new ArrayList<>(restorable.subList(start, end));
+            newIndex -= start;
+        }
+
+        mEntries = restorable;
+        mIndex = restorable.isEmpty() ? -1 : Math.max(newIndex, 0);
+    }
+
+    @NonNull
+    public List<Entry> getEntries() {
+        return mEntries;
+    }
+
+    public int getIndex() {
+        return mIndex;
+    }
+
+    @Nullable
+    public Entry getCurrentEntry() {
+        return isEmpty() ? null : mEntries.get(mIndex);
+    }
 
     @Override
     public boolean isEmpty() {
-        return false;
+        return mEntries == null || mEntries.isEmpty();
     }
 
     @Override
     public String toJson() {
-        return "{}";
+        return sGson.toJson(this);
     }
 
     public static SessionStateImpl fromJson(String json) {
-        // TODO
+        try {
+            SessionStateImpl state = sGson.fromJson(json, SessionStateImpl.class);
+            if (state != null && !state.isEmpty() && state.mIndex >= 0 && state.mIndex < state.mEntries.size()) {
+                return state;
+            }
+        } catch (JsonParseException e) {
+            Log.w(LOGTAG, "Unable to parse session state: " + e.getMessage());
+        }
         return new SessionStateImpl();
     }
-}
\ No newline at end of file
+}
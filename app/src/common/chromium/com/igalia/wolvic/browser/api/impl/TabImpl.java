@@ -5,12 +5,26 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 
 import org.chromium.components.embedder_support.view.ContentView;
+import org.chromium.content_public.browser.GestureListenerManager;
+import org.chromium.content_public.browser.GestureStateListener;
+import org.chromium.content_public.browser.LoadUrlParams;
 import org.chromium.content_public.browser.MediaSession;
+import org.chromium.content_public.browser.NavigationController;
+import org.chromium.content_public.browser.NavigationEntry;
+import org.chromium.content_public.browser.NavigationHistory;
 import org.chromium.content_public.browser.SelectionPopupController;
 import org.chromium.content_public.browser.WebContents;
+import org.chromium.content_public.common.Referrer;
+import org.chromium.network.mojom.ReferrerPolicy;
+import org.chromium.ui.base.PageTransition;
+import org.chromium.url.GURL;
 import org.chromium.wolvic.Tab;
 import org.chromium.wolvic.TabCompositorView;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Controls a single tab content in a browser for chromium backend.
  */
@@ -23,7 +37,15 @@ public class TabImpl extends Tab {
     // TODO: Need to Payment's mediator
     private ContentView mPaymentHandlerContentView;
     private TabCompositorView mPaymentHandlerCompositorView;
-
+    // History entries restored from a saved session state that are not part of the native
+    // navigation controller. They are loaded on demand when navigating back or forward so that
+    // restoring a tab only loads its current page.
+    private final ArrayDeque<SessionStateImpl.Entry> mRestoredBackEntries = new ArrayDeque<>();
+    private final ArrayDeque<SessionStateImpl.Entry> mRestoredForwardEntries = new ArrayDeque<>();
+    // The URL of the restored entry being loaded and the scroll position to apply once it stops.
+    private String mRestoredUrl;
+    private int mPendingScrollY;
+    private int mScrollY;
 
     public TabImpl(@NonNull Context context, @NonNull SessionImpl session, WebContents webContents) {
         super(context, session.getSettings().getUsePrivateMode(), webContents);
@@ -51,6 +73,13 @@ public class TabImpl extends Tab {
         controller.setDelegate(
                 new SelectionPopupControllerDelegate(mWebContents,
                         controller.getDelegateEventHandler(), session));
+
+        GestureListenerManager.fromWebContents(mWebContents).addListener(new GestureStateListener() {
+            @Override
+            public void onScrollOffsetOrExtentChanged(int scrollOffsetY, int scrollExtentY) {
+                mScrollY = scrollOffsetY;
+            }
+        });
     }
 
     /* package */ void createMediaSessionObserver(@NonNull MediaSession mediaSession) {
@@ -68,6 +97,154 @@ public class TabImpl extends Tab {
 
     public void purgeHistory() {
         mWebContents.getNavigationController().clearHistory();
+        mRestoredBackEntries.clear();
+        mRestoredForwardEntries.clear();
+    }
+
+    public boolean canGoBack() {
+        return mWebContents.getNavigationController().canGoBack() || !mRestoredBackEntries.isEmpty();
+    }
+
+    public boolean canGoForward() {
+        return mWebContents.getNavigationController().canGoForward() || !mRestoredForwardEntries.isEmpty();
+    }
+
+    @Override
+    public void goBack() {
+        NavigationController controller = mWebContents.getNavigationController();
+        if (controller.canGoBack() || mRestoredBackEntries.isEmpty()) {
+            super.goBack();
+            return;
+        }
+
+        // We are at the first native entry. Everything from here on becomes restored forward
+        // history because loading the previous entry replaces the current one.
+        NavigationHistory history = controller.getNavigationHistory();
+        for (int i = history.getEntryCount() - 1; i >= history.getCurrentEntryIndex(); i--) {
+            SessionStateImpl.Entry entry = toEntry(history.getEntryAtIndex(i));
+            if (entry != null) {
+                if (i == history.getCurrentEntryIndex()) {
+                    entry.scrollY = mScrollY;
+                }
+                mRestoredForwardEntries.addFirst(entry);
+            }
+        }
+        loadRestoredEntry(mRestoredBackEntries.pollLast(), true);
+    }
+
+    @Override
+    public void goForward() {
+        if (mWebContents.getNavigationController().canGoForward() || mRestoredForwardEntries.isEmpty()) {
+            super.goForward();
+            return;
+        }
+        loadRestoredEntry(mRestoredForwardEntries.pollFirst(), false);
+    }
+
+    /**
+     * Loads the current entry of a saved state and keeps the rest of the entries as restored
+     * history, so only one page is fetched when restoring a tab.
+     */
+    public void restoreState(@NonNull SessionStateImpl state) {
+        SessionStateImpl.Entry current = state.getCurrentEntry();
+        if (current == null) {
+            return;
+        }
+        List<SessionStateImpl.Entry> entries = state.getEntries();
+        mRestoredBackEntries.clear();
+        mRestoredForwardEntries.clear();
+        mRestoredBackEntries.addAll(entries.subList(0, state.getIndex()));
+        mRestoredForwardEntries.addAll(entries.subList(state.getIndex() + 1, entries.size()));
+        loadRestoredEntry(current, true);
+    }
+
+    @NonNull
+    public SessionStateImpl getSessionState() {
+        List<SessionStateImpl.Entry> entries = new ArrayList<>(mRestoredBackEntries);
+        NavigationHistory history = mWebContents.getNavigationController().getNavigationHistory();
+        int index = entries.size() + history.getCurrentEntryIndex();
+        for (int i = 0; i < history.getEntryCount(); i++) {
+            SessionStateImpl.Entry entry = toEntry(history.getEntryAtIndex(i));
+            if (entry == null) {
+                // Keep the index pointing to the same entry.
+                if (i < history.getCurrentEntryIndex()) {
+                    index--;
+                }
+                continue;
+            }
+            if (i == history.getCurrentEntryIndex()) {
+                entry.scrollY = mScrollY;
+            }
+            entries.add(entry);
+        }
+        entries.addAll(mRestoredForwardEntries);
+        return new SessionStateImpl(entries, index);
+    }
+
+    /**
+     * Called when a navigation is committed in the primary main frame.
+     */
+    /* package */ void onNavigationCommitted(int pageTransition, @NonNull String url) {
+        mScrollY = 0;
+        if (url.equals(mRestoredUrl)) {
+            // Loading a restored entry keeps the rest of the restored history.
+            return;
+        }
+        // Any other navigation drops the pending restore, and a new one prunes the forward
+        // history, including the restored entries.
+        mRestoredUrl = null;
+        mPendingScrollY = 0;
+        boolean isHistoryNavigation = (pageTransition & PageTransition.FORWARD_BACK) != 0;
+        boolean isReload = (pageTransition & PageTransition.CORE_MASK) == PageTransition.RELOAD;
+        if (!isHistoryNavigation && !isReload && !mWebContents.getNavigationController().canGoForward()) {
+            mRestoredForwardEntries.clear();
+        }
+    }
+
+    /**
+     * Called when the page stops loading, restores the scroll position of a restored entry.
+     */
+    /* package */ void onPageStopped(@NonNull String url) {
+        if (mRestoredUrl == null || !url.equals(mRestoredUrl)) {
+            return;
+        }
+        if (mPendingScrollY > 0) {
+            mWebContents.evaluateJavaScript(
+                    "window.scrollTo(0, " + mPendingScrollY + " / window.devicePixelRatio);", null);
+        }
+        mRestoredUrl = null;
+        mPendingScrollY = 0;
+    }
+
+    private void loadRestoredEntry(@NonNull SessionStateImpl.Entry entry, boolean replaceCurrent) {
+        // Loaded as a regular top level navigation, so the page can come from the HTTP cache
+        // instead of being revalidated as a reload would.
+        LoadUrlParams params = new LoadUrlParams(entry.url, PageTransition.AUTO_TOPLEVEL);
+        if (entry.referrer != null) {
+            params.setReferrer(new Referrer(entry.referrer, ReferrerPolicy.DEFAULT));
+        }
+        params.setShouldReplaceCurrentEntry(replaceCurrent && !isInitialEntry());
+        mRestoredUrl = entry.url;
+        mPendingScrollY = entry.scrollY;
+        mWebContents.getNavigationController().loadUrl(params);
+    }
+
+    private boolean isInitialEntry() {
+        NavigationEntry entry = mWebContents.getNavigationController().getVisibleEntry();
+        return entry == null || entry.isInitialEntry();
+    }
+
+    private static SessionStateImpl.Entry toEntry(NavigationEntry navigationEntry) {
+        if (navigationEntry == null || navigationEntry.isInitialEntry()) {
+            return null;
+        }
+        String url = navigationEntry.getUrl().getSpec();
+        if (!SessionStateImpl.Entry.isRestorable(url)) {
+            return null;
+        }
+        GURL referrer = navigationEntry.getReferrerUrl();
+        return new SessionStateImpl.Entry(url, navigationEntry.getTitle(),
+                referrer != null && !referrer.isEmpty() ? referrer.getSpec() : null);
     }
 
     public void setPaymentWebContents(WebContents webContents, ContentView contentView, TabCompositorView compositorView) {
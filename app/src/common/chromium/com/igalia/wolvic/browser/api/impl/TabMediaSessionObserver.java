@@ -13,8 +13,6 @@ import com.igalia.wolvic.browser.api.WImage;
 import com.igalia.wolvic.browser.api.WMediaSession;
 import com.igalia.wolvic.browser.api.WResult;
 
-import org.chromium.base.task.PostTask;
-import org.chromium.base.task.TaskTraits;
 import org.chromium.content_public.browser.MediaSession;
 import org.chromium.content_public.browser.MediaSessionObserver;
 import org.chromium.content_public.browser.WebContents;
@@ -29,10 +27,11 @@ import java.util.List;
 
 import org.chromium.media_session.mojom.MediaSessionAction;
 
+/**
+ * Forwards the state of a tab's media session. The position is only reported when Chromium changes
+ * it, as {@link com.igalia.wolvic.browser.Media} extrapolates it from the last reported one.
+ */
 public class TabMediaSessionObserver extends MediaSessionObserver implements MediaImageCallback {
-    /** the time interval for updating position of progress with the seconds unit. */
-    private static final int UPDATE_POSITION_TIME_MS = 500;
-
     private @NonNull SessionImpl mSession;
     private WMediaSessionImpl mMediaSession = new WMediaSessionImpl();
     private MediaImageManager mMediaImageManager;
@@ -41,7 +40,6 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
     private MediaPosition mMediaPosition;
     private boolean mIsActive = false;
     private boolean mIsSuspended = false;
-    private boolean mRunUpdatingPositionTask = false;
 
     public TabMediaSessionObserver(@NonNull MediaSession mediaSession,
                                    @NonNull WebContents webContents, @NonNull SessionImpl session) {
@@ -57,7 +55,6 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
     @Override
     public void mediaSessionDestroyed() {
         mMediaSession = null;
-        stopUpdatingPosition();
     }
 
     @Override
@@ -73,8 +70,8 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
             mIsActive = isActive;
             if (mIsActive) {
                 delegate.onActivated(mSession, mMediaSession);
+                updatePosition();
             } else {
-                stopUpdatingPosition();
                 delegate.onStop(mSession, mMediaSession);
                 delegate.onDeactivated(mSession, mMediaSession);
             }
@@ -82,10 +79,8 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
         if (isSuspended != mIsSuspended) {
             mIsSuspended = isSuspended;
             if (!mIsSuspended) {
-                startUpdatingPosition();
                 delegate.onPlay(mSession, mMediaSession);
             } else {
-                stopUpdatingPosition();
                 delegate.onPause(mSession, mMediaSession);
             }
         }
@@ -112,13 +107,7 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
     @Override
     public void mediaSessionPositionChanged(@Nullable MediaPosition position) {
         mMediaPosition = position;
-        if (mMediaPosition == null) {
-            stopUpdatingPosition();
-            return;
-        }
-
-        if (mIsActive && !mIsSuspended)
-            startUpdatingPosition();
+        updatePosition();
     }
 
     public void onMediaFullscreen(boolean isFullscreen) {
@@ -224,27 +213,17 @@ public class TabMediaSessionObserver extends MediaSessionObserver implements Med
 
         assert mMediaSession != null;
 
-        long now = SystemClock.elapsedRealtime();
-        long rebasedPosition = mMediaPosition.getPosition()
-                + (long) ((now - mMediaPosition.getLastUpdatedTime())
-                * mMediaPosition.getPlaybackRate());
+        // Rebase the position to the current time, from which it is extrapolated while playing.
+        double rebasedPosition = mMediaPosition.getPosition();
+        if (!mIsSuspended) {
+            rebasedPosition += (SystemClock.elapsedRealtime() - mMediaPosition.getLastUpdatedTime())
+                    * mMediaPosition.getPlaybackRate();
+        }
         mSession.getMediaSessionDelegate().onPositionState(
                 mSession, mMediaSession,
-                new WMediaSession.PositionState(mMediaPosition.getDuration() / 1000,
-                        rebasedPosition / 1000,
+                new WMediaSession.PositionState(mMediaPosition.getDuration() / 1000.0,
+                        rebasedPosition / 1000.0,
                         mMediaPosition.getPlaybackRate()));
-
-        if (mRunUpdatingPositionTask)
-            startUpdatingPosition();
-    }
-
-    private void startUpdatingPosition() {
-        mRunUpdatingPositionTask = true;
-        PostTask.postDelayedTask(TaskTraits.UI_DEFAULT, () -> updatePosition(), UPDATE_POSITION_TIME_MS);
-    }
-
-    private void stopUpdatingPosition() {
-        mRunUpdatingPositionTask = false;
     }
 
     @Override
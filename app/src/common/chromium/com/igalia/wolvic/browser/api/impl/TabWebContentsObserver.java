@@ -129,15 +129,23 @@ public class TabWebContentsObserver extends WebContentsObserver {
             return;
         }
 
+        mTab.onNavigationCommitted(navigationHandle.pageTransition(), navigationHandle.getUrl().getSpec());
         navigationDelegate.onLocationChange(mSession, navigationHandle.getUrl().getSpec());
         WSession.HistoryDelegate historyDelegate = mSession.getHistoryDelegate();
         if (historyDelegate != null) {
             historyDelegate.onVisited(mSession, navigationHandle.getUrl().getSpec(), navigationHandle.getReferrerUrl().getSpec(), toWSessionOnVisitedFlags(navigationHandle));
         }
+        mSession.dispatchSessionStateChange();
+    }
+
+    @Override
+    public void titleWasSet(String title) {
+        mSession.dispatchSessionStateChange();
     }
 
     @Override
     public void didStopLoading(GURL url, boolean isKnownValid) {
+        mTab.onPageStopped(url.getSpec());
         @Nullable WSession.ProgressDelegate delegate = mSession.getProgressDelegate();
         if (delegate != null) {
             delegate.onPageStop(mSession, true);
@@ -227,8 +235,9 @@ public class TabWebContentsObserver extends WebContentsObserver {
             if (webContents == null)
                 return;
 
-            delegate.onCanGoBack(mSession, webContents.getNavigationController().canGoBack());
-            delegate.onCanGoForward(mSession, webContents.getNavigationController().canGoForward());
+            // The tab also takes into account the restored history entries.
+            delegate.onCanGoBack(mSession, mTab.canGoBack());
+            delegate.onCanGoForward(mSession, mTab.canGoForward());
         }
     }
 
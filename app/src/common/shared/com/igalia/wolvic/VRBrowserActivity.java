@@ -68,6 +68,7 @@ import com.igalia.wolvic.search.SearchEngineWrapper;
 import com.igalia.wolvic.speech.SpeechRecognizer;
 import com.igalia.wolvic.speech.SpeechServices;
 import com.igalia.wolvic.telemetry.OpenTelemetry;
+import com.igalia.wolvic.telemetry.PerformanceMonitor;
 import com.igalia.wolvic.telemetry.TelemetryService;
 import com.igalia.wolvic.ui.OffscreenDisplay;
 import com.igalia.wolvic.ui.adapters.Language;
@@ -77,6 +78,7 @@ import com.igalia.wolvic.ui.widgets.HorizontalTabsBar;
 import com.igalia.wolvic.ui.widgets.KeyboardWidget;
 import com.igalia.wolvic.ui.widgets.NavigationBarWidget;
 import com.igalia.wolvic.ui.widgets.OverlayContentWidget;
+import com.igalia.wolvic.ui.widgets.PerformanceOverlayWidget;
 import com.igalia.wolvic.ui.widgets.RootWidget;
 import com.igalia.wolvic.ui.widgets.TrayWidget;
 import com.igalia.wolvic.ui.widgets.UISurfaceTextureRenderer;
@@ -222,6 +224,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
     KeyboardWidget mKeyboard;
     NavigationBarWidget mNavigationBar;
     AbstractTabsBar mTabsBar;
+    PerformanceOverlayWidget mPerformanceOverlay;
     TrayWidget mTray;
     WhatsNewWidget mWhatsNewWidget = null;
     WebXRInterstitialWidget mWebXRInterstitial;
@@ -494,6 +497,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
         attachToWindow(mWindows.getFocusedWindow(), null);
 
         addWidgets(Arrays.asList(mRootWidget, mNavigationBar, mKeyboard, mTray, mTabsBar, mWebXRInterstitial));
+        updatePerformanceOverlay();
 
         // Create the platform plugin after widgets are created to be extra safe.
         mPlatformPlugin = createPlatformPlugin(this);
@@ -501,6 +505,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
             mPlatformPlugin.registerListener(this);
 
         mWindows.restoreSessions();
+        SessionStore.get().getBrowserIcons().prefetchTopSites(this);
     }
 
     private void onPresentingImmersiveChange(boolean presenting) {
@@ -518,6 +523,9 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
         if (mTabsBar != null) {
             mTabsBar.attachToWindow(aWindow);
         }
+        if (mPerformanceOverlay != null) {
+            mPerformanceOverlay.attachToWindow(aWindow);
+        }
         mWindows.adjustWindowOffsets();
 
         if (aPrevWindow != null) {
@@ -527,6 +535,9 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
             if (mTabsBar != null) {
                 updateWidget(mTabsBar);
             }
+            if (mPerformanceOverlay != null) {
+                updateWidget(mPerformanceOverlay);
+            }
         }
     }
 
@@ -665,6 +676,8 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
             mOffscreenDisplay.onPause();
         }
         mWidgetContainer.getViewTreeObserver().removeOnGlobalFocusChangeListener(globalFocusListener);
+        PerformanceMonitor.get().stop();
+        SessionStore.get().getBrowserIcons().reportStats();
         super.onPause();
         UISurfaceTextureRenderer.setRenderActive(false);
     }
@@ -672,6 +685,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
     @Override
     protected void onResume() {
         UISurfaceTextureRenderer.setRenderActive(true);
+        PerformanceMonitor.get().start(((VRBrowserApplication)getApplication()).getExecutors().scheduled());
         MotionEventGenerator.clearDevices();
         mWidgetContainer.getViewTreeObserver().addOnGlobalFocusChangeListener(globalFocusListener);
         if (mOffscreenDisplay != null) {
@@ -688,8 +702,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
 
         // If we're signed-in, poll for any new device events (e.g. received tabs) on activity resume.
         // There's no push support right now, so this helps with the perception of speedy tab delivery.
-        ((VRBrowserApplication)getApplicationContext()).getAccounts().refreshDevicesAsync();
-        ((VRBrowserApplication)getApplicationContext()).getAccounts().pollForEventsAsync();
+        ((VRBrowserApplication)getApplicationContext()).getAccounts().pollForEventsInBackground();
 
         super.onResume();
         ((VRBrowserApplication)getApplication()).setCurrentActivity(this);
@@ -812,6 +825,22 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
             mTabsBar.attachToWindow(mWindows.getFocusedWindow());
             updateWidget(mTabsBar);
             mWindows.adjustWindowOffsets();
+        } else if (Objects.equals(key, getString(R.string.settings_key_performance_overlay))) {
+            updatePerformanceOverlay();
+        }
+    }
+
+    private void updatePerformanceOverlay() {
+        if (mSettings.isPerformanceOverlayEnabled()) {
+            if (mPerformanceOverlay == null) {
+                mPerformanceOverlay = new PerformanceOverlayWidget(this);
+                mPerformanceOverlay.attachToWindow(mWindows.getFocusedWindow());
+            }
+            mPerformanceOverlay.show(UIWidget.KEEP_FOCUS);
+        } else if (mPerformanceOverlay != null) {
+            mPerformanceOverlay.hide(UIWidget.REMOVE_WIDGET);
+            mPerformanceOverlay.releaseWidget();
+            mPerformanceOverlay = null;
         }
     }
 
@@ -984,6 +1013,9 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
                 // It looks like these come in all at the same time so just always suspend inactive Sessions.
                 Log.d(LOGTAG, "Memory pressure, suspending inactive sessions.");
                 SessionStore.get().suspendAllInactiveSessions();
+                if (mWindows != null) {
+                    mWindows.onTrimMemory();
+                }
                 break;
             default:
                 Log.e(LOGTAG, "onTrimMemory unknown level: " + level);
@@ -1468,6 +1500,7 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
     @Keep
     @SuppressWarnings("unused")
     private void handlePoorPerformance() {
+        PerformanceMonitor.get().onPoorPerformance();
         runOnUiThread(() -> {
             if (!mSettings.isPerformanceMonitorEnabled()) {
                 return;
@@ -1628,6 +1661,11 @@ public class VRBrowserActivity extends PlatformActivity implements WidgetManager
         return mWidgetHandleIndex++;
     }
 
+    // Queues a runnable to the render thread, sampling how long it waits in the queue.
+    private void queueRunnable(Runnable aRunnable) {
+        queueRenderRunnable(PerformanceMonitor.get().trackQueuedRunnable(aRunnable));
+    }
+
 
     public void addWidgets(final Iterable<? extends Widget> aWidgets) {
         for (Widget widget : aWidgets) {
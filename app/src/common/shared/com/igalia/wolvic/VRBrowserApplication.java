@@ -19,6 +19,7 @@ import com.igalia.wolvic.browser.LoginStorage;
 import com.igalia.wolvic.browser.Places;
 import com.igalia.wolvic.browser.Services;
 import com.igalia.wolvic.browser.SettingsStore;
+import com.igalia.wolvic.browser.components.TopSitesRepository;
 import com.igalia.wolvic.browser.engine.SessionStore;
 import com.igalia.wolvic.db.AppDatabase;
 import com.igalia.wolvic.db.DataRepository;
@@ -27,21 +28,25 @@ import com.igalia.wolvic.speech.SpeechRecognizer;
 import com.igalia.wolvic.speech.SpeechServices;
 import com.igalia.wolvic.telemetry.TelemetryService;
 import com.igalia.wolvic.ui.adapters.Language;
+import com.igalia.wolvic.ui.adapters.ThumbnailLoader;
 import com.igalia.wolvic.ui.widgets.AppServicesProvider;
 import com.igalia.wolvic.utils.BitmapCache;
 import com.igalia.wolvic.utils.ConnectivityReceiver;
 import com.igalia.wolvic.utils.EnvironmentsManager;
 import com.igalia.wolvic.utils.DictionariesManager;
 import com.igalia.wolvic.utils.LocaleUtils;
+import com.igalia.wolvic.utils.NetworkJobScheduler;
 
 public class VRBrowserApplication extends Application implements AppServicesProvider {
 
     private SessionStore mSessionStore;
     private AppExecutors mAppExecutors;
     private BitmapCache mBitmapCache;
+    private ThumbnailLoader mThumbnailLoader;
     private Services mServices;
     private LoginStorage mLoginStorage;
     private Places mPlaces;
+    private TopSitesRepository mTopSites;
     private Accounts mAccounts;
     private DownloadsManager mDownloadsManager;
     private SpeechRecognizer mSpeechRecognizer;
@@ -49,6 +54,7 @@ public class VRBrowserApplication extends Application implements AppServicesProv
     private DictionariesManager mDictionariesManager;
     private Addons mAddons;
     private ConnectivityReceiver mConnectivityManager;
+    private NetworkJobScheduler mNetworkJobScheduler;
     private Activity mCurrentActivity;
 
     protected void onActivityCreate(@NonNull Context activityContext) {
@@ -57,7 +63,10 @@ public class VRBrowserApplication extends Application implements AppServicesProv
         TelemetryService.init(activityContext);
         mConnectivityManager = new ConnectivityReceiver(activityContext);
         mConnectivityManager.init();
+        mNetworkJobScheduler = new NetworkJobScheduler(mConnectivityManager, mAppExecutors.networkIO(), mAppExecutors.scheduled());
+        mNetworkJobScheduler.init();
         mPlaces = new Places(activityContext);
+        mTopSites = new TopSitesRepository(mPlaces);
         mServices = new Services(activityContext, mPlaces);
         mLoginStorage = new LoginStorage(activityContext);
         mAccounts = new Accounts(activityContext);
@@ -67,6 +76,7 @@ public class VRBrowserApplication extends Application implements AppServicesProv
         mDownloadsManager = new DownloadsManager(activityContext);
         mDownloadsManager.init();
         mBitmapCache = new BitmapCache(activityContext, mAppExecutors.diskIO(), mAppExecutors.mainThread());
+        mThumbnailLoader = new ThumbnailLoader(activityContext, mBitmapCache, mAppExecutors.mainThread());
         mEnvironmentsManager = new EnvironmentsManager(activityContext);
         mEnvironmentsManager.init();
         mDictionariesManager = new DictionariesManager(activityContext);
@@ -75,10 +85,12 @@ public class VRBrowserApplication extends Application implements AppServicesProv
     }
 
     protected void onActivityDestroy() {
+        mNetworkJobScheduler.end();
         mConnectivityManager.end();
         mDownloadsManager.end();
         mEnvironmentsManager.end();
         mDictionariesManager.end();
+        mThumbnailLoader.end();
     }
 
     @Override
@@ -121,6 +133,10 @@ public class VRBrowserApplication extends Application implements AppServicesProv
         return mPlaces;
     }
 
+    public TopSitesRepository getTopSites() {
+        return mTopSites;
+    }
+
     public AppDatabase getDatabase() {
         return AppDatabase.getAppDatabase(this, mAppExecutors);
     }
@@ -137,6 +153,11 @@ public class VRBrowserApplication extends Application implements AppServicesProv
         return mBitmapCache;
     }
 
+    @Override
+    public ThumbnailLoader getThumbnailLoader() {
+        return mThumbnailLoader;
+    }
+
     public Accounts getAccounts() {
         return mAccounts;
     }
@@ -179,6 +200,11 @@ public class VRBrowserApplication extends Application implements AppServicesProv
         return mConnectivityManager;
     }
 
+    @Override
+    public NetworkJobScheduler getNetworkJobScheduler() {
+        return mNetworkJobScheduler;
+    }
+
     public Activity getCurrentActivity() { return mCurrentActivity; }
 
     public void setCurrentActivity(Activity activity) { mCurrentActivity = activity; }
@@ -17,6 +17,7 @@ import com.igalia.wolvic.VRBrowserApplication
 import com.igalia.wolvic.telemetry.TelemetryService
 import com.igalia.wolvic.telemetry.TelemetryService.FxA
 import com.igalia.wolvic.utils.BitmapCache
+import com.igalia.wolvic.utils.NetworkJobScheduler
 import com.igalia.wolvic.utils.SystemUtils
 import com.igalia.wolvic.utils.ViewUtils
 import kotlinx.coroutines.CoroutineScope
@@ -31,11 +32,13 @@ import mozilla.components.service.fxa.manager.SyncEnginesStorage
 import mozilla.components.service.fxa.sync.SyncReason
 import mozilla.components.service.fxa.sync.SyncStatusObserver
 import mozilla.components.service.fxa.sync.getLastSynced
+import java.io.IOException
 import java.net.URL
 import java.util.concurrent.CompletableFuture
 import kotlin.concurrent.thread
 
 const val PROFILE_PICTURE_TAG = "fxa_profile_picture"
+private const val POLL_EVENTS_JOB = "fxa-poll-events"
 
 class Accounts constructor(val context: Context) {
 
@@ -86,6 +89,9 @@ class Accounts constructor(val context: Context) {
 
             isSyncing = false
 
+            // Synced logins may have changed.
+            (context.applicationContext as VRBrowserApplication).loginStorage.onLoginsChanged()
+
             services.accountManager.accountProfile()?.email?.let {
                 SettingsStore.getInstance(context).setFxALastSync(it, getLastSynced(context))
             }
@@ -333,6 +339,21 @@ class Accounts constructor(val context: Context) {
         }
     }
 
+    /**
+     * Refreshes the devices and polls for new device events (e.g. received tabs) once the network
+     * is available. Requests made while a poll is pending are merged into it.
+     */
+    fun pollForEventsInBackground() {
+        val scheduler = (context.applicationContext as VRBrowserApplication).networkJobScheduler
+        scheduler.schedule(POLL_EVENTS_JOB, NetworkJobScheduler.FLAG_DEFERRED) {
+            val refreshed = refreshDevicesAsync()?.get()
+            val polled = pollForEventsAsync()?.get()
+            if (refreshed == false || polled == false) {
+                throw IOException("Unable to reach the account server")
+            }
+        }
+    }
+
     fun updateProfileAsync(): CompletableFuture<Profile?>? {
         return CoroutineScope(Dispatchers.Main).future {
             services.accountManager.accountProfile()
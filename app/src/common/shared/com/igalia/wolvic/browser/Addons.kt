@@ -16,12 +16,15 @@ import com.igalia.wolvic.browser.components.WolvicEngineSession
 import com.igalia.wolvic.browser.engine.EngineProvider
 import com.igalia.wolvic.browser.engine.Session
 import com.igalia.wolvic.browser.engine.SessionStore
+import com.igalia.wolvic.VRBrowserApplication
 import com.igalia.wolvic.ui.widgets.WidgetManagerDelegate
+import com.igalia.wolvic.utils.NetworkJobScheduler
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.future.await
 import kotlinx.coroutines.future.future
+import kotlinx.coroutines.runBlocking
 import mozilla.components.concept.engine.CancellableOperation
 import mozilla.components.concept.engine.webextension.Action
 import mozilla.components.concept.engine.webextension.EnableSource
@@ -40,6 +43,7 @@ import java.util.concurrent.CompletableFuture
 import java.util.concurrent.TimeUnit
 
 private const val DAY_IN_MINUTES = 24 * 60L
+private const val REFRESH_COLLECTION_JOB = "addons-refresh-collection"
 
 class Addons(val context: Context, private val sessionStore: SessionStore) {
 
@@ -83,6 +87,19 @@ class Addons(val context: Context, private val sessionStore: SessionStore) {
 
     init {
         initializeWebExtensionSupport()
+        refreshCollection()
+    }
+
+    /**
+     * Refreshes the cached add-ons collection, if it is too old, once the startup is finished and
+     * there is an unmetered network, so that the add-ons panel opens without fetching it.
+     */
+    fun refreshCollection() {
+        val scheduler = (context.applicationContext as VRBrowserApplication).networkJobScheduler
+        scheduler.schedule(REFRESH_COLLECTION_JOB,
+                NetworkJobScheduler.FLAG_DEFERRED or NetworkJobScheduler.FLAG_UNMETERED) {
+            runBlocking { addonCollectionProvider.getFeaturedAddons(allowCache = true) }
+        }
     }
 
     private fun initializeWebExtensionSupport() {
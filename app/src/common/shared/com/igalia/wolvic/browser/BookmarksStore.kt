@@ -152,6 +152,29 @@ class BookmarksStore constructor(val context: Context) {
         notifyAddedListeners()
     }
 
+    /**
+     * Adds several bookmarks, mapped from URL to title, to the mobile root. URLs that are already
+     * bookmarked are skipped. The existing bookmarks are read with a single tree query and the
+     * listeners are notified once. Completes with the number of bookmarks added.
+     */
+    @OptIn(ExperimentalUnsignedTypes::class)
+    fun addBookmarks(aBookmarks: Map<String, String>): CompletableFuture<Int> = GlobalScope.future {
+        val bookmarkedUrls = HashSet<String>()
+        storage.getTree(BookmarkRoot.Root.id, true).getOrThrow()?.let { collectUrls(it, bookmarkedUrls) }
+
+        var added = 0
+        for ((url, title) in aBookmarks) {
+            if (bookmarkedUrls.add(url)) {
+                storage.addItem(BookmarkRoot.Mobile.id, url, title, null)
+                added++
+            }
+        }
+        if (added > 0) {
+            notifyAddedListeners()
+        }
+        added
+    }
+
     fun deleteBookmarkByURL(aURL: String) = GlobalScope.future {
         val bookmark = getBookmarkByUrl(aURL)
         if (bookmark != null) {
@@ -194,6 +217,11 @@ class BookmarksStore constructor(val context: Context) {
         return null
     }
 
+    private fun collectUrls(node: BookmarkNode, urls: MutableSet<String>) {
+        node.url?.let { urls.add(it) }
+        node.children?.forEach { collectUrls(it, urls) }
+    }
+
     private fun notifyListeners() {
         if (listeners.size > 0) {
             val listenersCopy = ArrayList(listeners)
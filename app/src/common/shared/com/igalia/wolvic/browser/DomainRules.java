@@ -0,0 +1,237 @@
+package com.igalia.wolvic.browser;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Immutable set of URL rules compiled into a trie of reversed host labels, so that checking a URL
+ * costs one walk over the labels of its host, whatever the number of rules, and does not allocate.
+ *
+ * Two kinds of rules are supported:
+ * <ul>
+ *     <li>Domain rules, like "example.com", which match the domain and all its subdomains. When
+ *     several domain rules match, the most specific one wins.</li>
+ *     <li>Prefix rules, like "https://example.com/path" or "moz-extension://", which match the
+ *     URLs starting with them. Prefixes with a host are stored in the node of that host.</li>
+ * </ul>
+ * Domain rules take precedence over prefix rules.
+ *
+ * @param <T> type of the value associated with each rule.
+ */
+public class DomainRules<T> {
+
+    private static final String SCHEME_SEPARATOR = "://";
+
+    private static class Node<T> {
+        String[] labels = new String[0];
+        Node<T>[] children = newNodeArray(0);
+        T domainValue;
+        String[] prefixes = new String[0];
+        ArrayList<T> prefixValues = new ArrayList<>();
+
+        @Nullable
+        Node<T> findChild(@NonNull String aHost, int aStart, int aEnd) {
+            int length = aEnd - aStart;
+            for (int i = 0; i < labels.length; i++) {
+                String label = labels[i];
+                if (label.length() == length && aHost.regionMatches(true, aStart, label, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        @NonNull
+        Node<T> getOrAddChild(@NonNull String aLabel) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i].equals(aLabel)) {
+                    return children[i];
+                }
+            }
+            int count = labels.length;
+            String[] labels = new String[count + 1];
+            Node<T>[] children = newNodeArray(count + 1);
+            System.arraycopy(this.labels, 0, labels, 0, count);
+            System.arraycopy(this.children, 0, children, 0, count);
+            labels[count] = aLabel;
+            children[count] = new Node<>();
+            this.labels = labels;
+            this.children = children;
+            return children[count];
+        }
+
+        void addPrefix(@NonNull String aPrefix, @NonNull T aValue) {
+            String[] prefixes = new String[this.prefixes.length + 1];
+            System.arraycopy(this.prefixes, 0, prefixes, 0, this.prefixes.length);
+            prefixes[this.prefixes.length] = aPrefix;
+            this.prefixes = prefixes;
+            prefixValues.add(aValue);
+        }
+
+        @Nullable
+        T matchPrefix(@NonNull String aUrl) {
+            for (int i = 0; i < prefixes.length; i++) {
+                if (aUrl.regionMatches(true, 0, prefixes[i], 0, prefixes[i].length())) {
+                    return prefixValues.get(i);
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Node<T>[] newNodeArray(int aSize) {
+            return (Node<T>[]) new Node[aSize];
+        }
+    }
+
+    public static class Builder<T> {
+        private final Node<T> mRoot = new Node<>();
+
+        /**
+         * Adds a rule matching the domain and its subdomains. A leading dot is ignored.
+         */
+        public Builder<T> addDomain(@NonNull String aDomain, @NonNull T aValue) {
+            String domain = aDomain.toLowerCase(Locale.ROOT);
+            if (domain.startsWith(".")) {
+                domain = domain.substring(1);
+            }
+            getHostNode(domain, 0, domain.length()).domainValue = aValue;
+            return this;
+        }
+
+        /**
+         * Adds a rule matching the URLs that start with the prefix, which must include the scheme.
+         */
+        public Builder<T> addPrefix(@NonNull String aPrefix, @NonNull T aValue) {
+            String prefix = aPrefix.toLowerCase(Locale.ROOT);
+            int hostStart = findHostStart(prefix);
+            int hostEnd = hostStart < 0 ? -1 : findHostEnd(prefix, hostStart);
+            if (hostStart < 0 || hostEnd == hostStart) {
+                // Scheme only rules, like "moz-extension://", are checked for every URL.
+                mRoot.addPrefix(prefix, aValue);
+            } else {
+                getHostNode(prefix, hostStart, hostEnd).addPrefix(prefix, aValue);
+            }
+            return this;
+        }
+
+        public DomainRules<T> build() {
+            return new DomainRules<>(mRoot);
+        }
+
+        @NonNull
+        private Node<T> getHostNode(@NonNull String aHost, int aStart, int aEnd) {
+            Node<T> node = mRoot;
+            int end = aEnd;
+            while (end > aStart) {
+                int dot = aHost.lastIndexOf('.', end - 1);
+                int labelStart = Math.max(dot + 1, aStart);
+                node = node.getOrAddChild(aHost.substring(labelStart, end));
+                end = labelStart - 1;
+            }
+            return node;
+        }
+    }
+
+    private final Node<T> mRoot;
+
+    private DomainRules(@NonNull Node<T> aRoot) {
+        mRoot = aRoot;
+    }
+
+    /**
+     * @return the value of the rule matching the URL, or null if none does.
+     */
+    @Nullable
+    public T match(@Nullable String aUrl) {
+        if (aUrl == null) {
+            return null;
+        }
+
+        T result = mRoot.matchPrefix(aUrl);
+        if (result != null) {
+            return result;
+        }
+
+        int hostStart = findHostStart(aUrl);
+        if (hostStart < 0) {
+            return null;
+        }
+        return matchHost(aUrl, hostStart, findHostEnd(aUrl, hostStart), aUrl);
+    }
+
+    /**
+     * @return the value of the domain rule matching the host, or null if none does.
+     */
+    @Nullable
+    public T matchHost(@Nullable String aHost) {
+        if (aHost == null) {
+            return null;
+        }
+        return matchHost(aHost, 0, aHost.length(), null);
+    }
+
+    // Walks the labels of aHost[aStart, aEnd) from the right. Prefix rules are only checked when the
+    // whole host matches, since they are bound to an exact host.
+    @Nullable
+    private T matchHost(@NonNull String aHost, int aStart, int aEnd, @Nullable String aUrl) {
+        Node<T> node = mRoot;
+        T domainValue = null;
+        int end = aEnd;
+        while (end > aStart) {
+            int dot = aHost.lastIndexOf('.', end - 1);
+            int labelStart = Math.max(dot + 1, aStart);
+            node = node.findChild(aHost, labelStart, end);
+            if (node == null) {
+                return domainValue;
+            }
+            if (node.domainValue != null) {
+                domainValue = node.domainValue;
+            }
+            end = labelStart - 1;
+        }
+        if (domainValue != null || aUrl == null || node == mRoot) {
+            return domainValue;
+        }
+        return node.matchPrefix(aUrl);
+    }
+
+    // Index of the first character of the host of aUrl, or -1 if the URL has no authority.
+    static int findHostStart(@NonNull String aUrl) {
+        int separator = aUrl.indexOf(SCHEME_SEPARATOR);
+        if (separator <= 0) {
+            return -1;
+        }
+        for (int i = 0; i < separator; i++) {
+            char c = aUrl.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '+' && c != '-' && c != '.') {
+                return -1;
+            }
+        }
+        int start = separator + SCHEME_SEPARATOR.length();
+        // Skip the user info, if any.
+        for (int i = start; i < aUrl.length(); i++) {
+            char c = aUrl.charAt(i);
+            if (c == '@') {
+                start = i + 1;
+            } else if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+        }
+        return start;
+    }
+
+    // Index after the last character of the host that starts at aStart.
+    static int findHostEnd(@NonNull String aUrl, int aStart) {
+        for (int i = aStart; i < aUrl.length(); i++) {
+            char c = aUrl.charAt(i);
+            if (c == '/' || c == '?' || c == '#' || c == ':') {
+                return i;
+            }
+        }
+        return aUrl.length();
+    }
+}
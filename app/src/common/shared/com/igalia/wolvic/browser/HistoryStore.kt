@@ -17,8 +17,6 @@ import mozilla.components.concept.storage.*
 import mozilla.components.service.fxa.sync.SyncStatusObserver
 import mozilla.components.support.base.log.logger.Logger
 import java.util.concurrent.CompletableFuture
-import java.util.stream.Collectors
-import java.util.stream.Stream
 
 class HistoryStore constructor(val context: Context) {
 
@@ -26,14 +24,18 @@ class HistoryStore constructor(val context: Context) {
 
     private var listeners = ArrayList<HistoryListener>()
     private var storage = (context.applicationContext as VRBrowserApplication).places.history
+    private val topSites = (context.applicationContext as VRBrowserApplication).topSites
 
     companion object {
+        // URLs that are never recorded in the history nor saved with the session state.
+        private val BLOCK_LIST: DomainRules<Boolean> = DomainRules.Builder<Boolean>()
+                .addPrefix("https://accounts.firefox.com/authorization", true)
+                .addPrefix("https://accounts.firefox.com/oauth", true)
+                .addPrefix("moz-extension://", true)
+                .build()
+
         @JvmStatic
-        val BLOCK_LIST: MutableList<String> = Stream.of(
-                "https://accounts.firefox.com/authorization",
-                "https://accounts.firefox.com/oauth",
-                "moz-extension://"
-        ).collect(Collectors.toList())
+        fun isBlocked(aURL: String?): Boolean = BLOCK_LIST.match(aURL) != null
     }
 
     // Bookmarks might have changed during sync, so notify our listeners.
@@ -42,6 +44,7 @@ class HistoryStore constructor(val context: Context) {
 
         override fun onIdle() {
             Logger(LOGTAG).debug("Detected that sync is finished, notifying listeners")
+            topSites.invalidate()
             notifyListeners()
         }
 
@@ -74,6 +77,7 @@ class HistoryStore constructor(val context: Context) {
 
     internal fun updateStorage() {
         storage = (context.applicationContext as VRBrowserApplication).places.history
+        topSites.reset()
         notifyListeners()
     }
 
@@ -102,18 +106,20 @@ class HistoryStore constructor(val context: Context) {
     }
 
     fun recordVisit(aURL: String, pageVisit: PageVisit) = GlobalScope.future {
-        if(BLOCK_LIST.stream().noneMatch {
-                    aURL.startsWith(it)
-                }) {
+        if (!isBlocked(aURL)) {
+            // Pages visited only once are below the frecency threshold of the top sites.
+            val addsTopSite = topSites.canAdd(aURL, pageVisit.visitType) &&
+                    storage.getVisited(listOf(aURL)).firstOrNull() == true
             storage.recordVisit(aURL, pageVisit)
+            if (addsTopSite) {
+                topSites.invalidate()
+            }
             notifyListeners()
         }
     }
 
     fun recordObservation(aURL: String, observation: PageObservation) = GlobalScope.future {
-        if(BLOCK_LIST.stream().noneMatch {
-                    aURL.startsWith(it)
-                }) {
+        if (!isBlocked(aURL)) {
             storage.recordObservation(aURL, observation)
             notifyListeners()
         }
@@ -121,26 +127,31 @@ class HistoryStore constructor(val context: Context) {
 
     fun deleteHistory(aUrl: String, timestamp: Long) = GlobalScope.future {
         storage.deleteVisit(aUrl, timestamp)
+        topSites.invalidate()
         notifyListeners()
     }
 
     fun deleteVisitsFor(aUrl: String) = GlobalScope.future {
         storage.deleteVisitsFor(aUrl)
+        topSites.invalidate()
         notifyListeners()
     }
 
     fun deleteEverything() = GlobalScope.future {
         storage.deleteEverything()
+        topSites.invalidate()
         notifyListeners()
     }
 
     fun deleteVisitsSince(since: Long) = GlobalScope.future {
         storage.deleteVisitsSince(since)
+        topSites.invalidate()
         notifyListeners()
     }
 
     fun deleteVisitsBetween(startTime: Long, endTime: Long) = GlobalScope.future {
         storage.deleteVisitsBetween(startTime, endTime)
+        topSites.invalidate()
         notifyListeners()
     }
 
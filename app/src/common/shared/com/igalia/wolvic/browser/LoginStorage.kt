@@ -19,9 +19,10 @@ class LoginStorage(
     private val places = (context.applicationContext as AppServicesProvider).places
     private var storage = places.logins
     private val passwordsKeyProvider by lazy { storage.value.crypto }
+    private val runtime = EngineProvider.getOrCreateRuntime(context)
 
     init {
-        EngineProvider.getOrCreateRuntime(context).setUpLoginPersistence(places.logins)
+        runtime.setUpLoginPersistence(places.logins)
         GlobalScope.launch(Dispatchers.IO) {
             storage.value.warmUp()
         }
@@ -38,14 +39,22 @@ class LoginStorage(
 
     fun deleteEverything() = GlobalScope.future {
         storage.value.wipeLocal()
+        onLoginsChanged()
     }
 
     fun delete(login: Login) = GlobalScope.future {
-        storage.value.delete(login.guid);
+        storage.value.delete(login.guid).also { onLoginsChanged() }
     }
 
     fun update(login: Login) = GlobalScope.future {
-        storage.value.update(login.guid, login.toEntry());
+        storage.value.update(login.guid, login.toEntry()).also { onLoginsChanged() }
+    }
+
+    /**
+     * Called after the stored logins changed, so the engine drops any cached login.
+     */
+    fun onLoginsChanged() {
+        runtime.onLoginsChanged()
     }
 
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.igalia.wolvic.browser;
 
+import android.os.SystemClock;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -9,18 +11,26 @@ import com.igalia.wolvic.utils.SystemUtils;
 
 import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * State of the media of a session, as reported by its media session.
+ *
+ * The playback position is not polled: the last reported position is stored along with the time
+ * when it was reported, and the current position is extrapolated from them, using the playback
+ * rate, when it is read. Views that show the position read it periodically only while visible.
+ */
 public class Media implements WMediaSession.Delegate {
     private static final String LOGTAG = SystemUtils.createLogtag(Media.class);
     private boolean mIsFullscreen = false;
     private @Nullable
     WMediaSession mMediaSession;
-    private double mCurrentTime  = 0.0f;
+    // The position reported last, in seconds, and the elapsed realtime when it was reported.
+    private double mPosition = 0.0f;
+    private long mPositionTime = 0;
     private @Nullable WMediaSession.Metadata mMetaData;
     private @Nullable WMediaSession.ElementMetadata mElement;
     private double mPlaybackRate = 1.0f;
     private double mDuration = -1.0f;
     private boolean mPlaying = false;
-    private boolean mEnded = false;
     private double mVolume = 1.0f;
     private boolean mIsMuted = false;
     private CopyOnWriteArrayList<WMediaSession.Delegate> mMediaListeners;
@@ -66,8 +76,18 @@ public class Media implements WMediaSession.Delegate {
 
     public boolean canSkipAd() {  return (mFeatures & WMediaSession.Feature.SKIP_AD) != 0; };
 
+    /**
+     * @return the current playback position in seconds, extrapolated from the last reported one.
+     */
     public double getCurrentTime() {
-        return mCurrentTime;
+        if (!mPlaying) {
+            return mPosition;
+        }
+        double time = mPosition + (SystemClock.elapsedRealtime() - mPositionTime) / 1000.0 * mPlaybackRate;
+        if (mDuration > 0) {
+            time = Math.min(time, mDuration);
+        }
+        return Math.max(time, 0.0);
     }
 
     public WMediaSession.Metadata getMetaData() {
@@ -83,7 +103,7 @@ public class Media implements WMediaSession.Delegate {
     }
 
     public boolean isEnded() {
-        return mEnded;
+        return mDuration >= 0 && getCurrentTime() >= mDuration;
     }
 
     public double getVolume() {
@@ -194,28 +214,32 @@ public class Media implements WMediaSession.Delegate {
 
     @Override
     public void onPlay(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
+        if (!mPlaying) {
+            // The position did not advance while paused.
+            mPositionTime = SystemClock.elapsedRealtime();
+        }
         mPlaying = true;
         mMediaListeners.forEach(listener -> listener.onPlay(session, mediaSession));
     }
 
     @Override
     public void onPause(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
-        mPlaying = false;
+        freezePosition();
         mMediaListeners.forEach(listener -> listener.onPause(session, mediaSession));
     }
 
     @Override
     public void onStop(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
-        mPlaying = false;
+        freezePosition();
         mMediaListeners.forEach(listener -> listener.onStop(session, mediaSession));
     }
 
     @Override
     public void onPositionState(@NonNull WSession session, @NonNull WMediaSession mediaSession, @NonNull WMediaSession.PositionState state) {
-        mCurrentTime = state.position;
+        mPosition = state.position;
+        mPositionTime = SystemClock.elapsedRealtime();
         mPlaybackRate = state.playbackRate;
         mDuration = state.duration;
-        mEnded = state.position >= state.duration;
         mMediaListeners.forEach(listener -> listener.onPositionState(session, mediaSession, state));
     }
 
@@ -238,6 +262,12 @@ public class Media implements WMediaSession.Delegate {
         mMediaListeners.forEach(listener -> listener.onFullscreen(session, mediaSession, enabled, meta));
     }
 
+    private void freezePosition() {
+        mPosition = getCurrentTime();
+        mPositionTime = SystemClock.elapsedRealtime();
+        mPlaying = false;
+    }
+
     public interface ResizeDelegate {
         void onResize(int width, int height);
     }
@@ -6,6 +6,7 @@
 package com.igalia.wolvic.browser
 
 import android.content.Context
+import com.igalia.wolvic.VRBrowserApplication
 import com.igalia.wolvic.browser.engine.SessionStore
 import com.igalia.wolvic.utils.SystemUtils
 import kotlinx.coroutines.CoroutineScope
@@ -88,6 +89,7 @@ class Places(var context: Context) {
             pinned.getPinnedSites().forEach { site ->
                 pinned.removePinnedSite(site)
             }
+            (context.applicationContext as VRBrowserApplication).topSites.invalidate()
         }
     }
 }
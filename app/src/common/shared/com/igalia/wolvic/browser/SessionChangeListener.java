@@ -3,11 +3,17 @@ package com.igalia.wolvic.browser;
 import com.igalia.wolvic.browser.api.WSession;
 import com.igalia.wolvic.browser.engine.Session;
 
+import java.util.List;
+
 public interface SessionChangeListener {
     default void onSessionAdded(Session aSession) {}
     default void onSessionOpened(Session aSession) {}
     default void onSessionClosed(Session aSession) {}
     default void onSessionRemoved(String aId) {}
+    // Called instead of onSessionRemoved() when a group of sessions is destroyed at once.
+    default void onSessionsRemoved(List<String> aIds) {
+        aIds.forEach(this::onSessionRemoved);
+    }
     default void onSessionStateChanged(Session aSession, boolean aActive) {}
     default void onCurrentSessionChange(WSession aOldSession, WSession aSession) {}
     default void onStackSession(Session aSession) {}
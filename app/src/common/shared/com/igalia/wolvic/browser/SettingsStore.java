@@ -15,7 +15,6 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.igalia.wolvic.BuildConfig;
 import com.igalia.wolvic.R;
@@ -31,6 +30,8 @@ import com.igalia.wolvic.ui.viewmodel.SettingsViewModel;
 import com.igalia.wolvic.ui.widgets.WidgetManagerDelegate;
 import com.igalia.wolvic.ui.widgets.menus.library.SortingContextMenuWidget;
 import com.igalia.wolvic.utils.DeviceType;
+import com.igalia.wolvic.utils.NetworkJobScheduler;
+import com.igalia.wolvic.utils.RemoteJson;
 import com.igalia.wolvic.utils.RemoteProperties;
 import com.igalia.wolvic.utils.StringUtils;
 import com.igalia.wolvic.utils.SystemUtils;
@@ -47,6 +48,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -102,6 +104,7 @@ public class SettingsStore {
     public final static boolean UI_HARDWARE_ACCELERATION_DEFAULT = true;
     public final static boolean UI_HARDWARE_ACCELERATION_DEFAULT_MAGIC_LEAP_2 = false;
     public final static boolean PERFORMANCE_MONITOR_DEFAULT = true;
+    public final static boolean PERFORMANCE_OVERLAY_DEFAULT = false;
     public final static boolean DRM_PLAYBACK_DEFAULT = false;
     public final static int TRACKING_DEFAULT = WContentBlocking.EtpLevel.DEFAULT;
     public final static boolean NOTIFICATIONS_DEFAULT = true;
@@ -202,6 +205,9 @@ public class SettingsStore {
 
     private @ScrollDirection int mCachedScrollDirection = SCROLL_DIRECTION_INVALID;
 
+    private String mRemotePropertiesJson;
+    private Map<String, RemoteProperties> mRemoteProperties;
+
     private boolean mDisableLayers = false;
     public void setDisableLayers(final boolean aDisableLayers) {
         mDisableLayers = aDisableLayers;
@@ -250,9 +256,11 @@ public class SettingsStore {
     /**
      * Synchronizes the remote properties with the settings storage and notifies the model.
      * Any consumer listening to the SettingsViewModel will get notified of the properties updates.
+     * The fetch is deferred until the startup is finished and retried if the server can't be reached.
      */
     private void updateRemoteContent(String endpoint, int prefsKey, Consumer<String> onContentAvailable) {
-        ((VRBrowserApplication) mContext.getApplicationContext()).getExecutors().backgroundThread().post(() -> {
+        NetworkJobScheduler scheduler = ((VRBrowserApplication) mContext.getApplicationContext()).getNetworkJobScheduler();
+        scheduler.schedule("remote-content:" + endpoint, NetworkJobScheduler.FLAG_DEFERRED, () -> {
             Request request = new Request(
                     endpoint,
                     Request.Method.GET,
@@ -276,9 +284,12 @@ public class SettingsStore {
                     editor.apply();
                     // Once the JSON content has been received, execute the callback.
                     onContentAvailable.accept(json);
+                } else if (response.getStatus() >= 500) {
+                    throw new IOException("HTTP error: " + response.getStatus());
                 }
             } catch (IOException e) {
                 Log.d(LOGTAG, "Remote data fetch error for " + endpoint + ": " + e.getLocalizedMessage());
+                throw e;
             }
         });
     }
@@ -528,6 +539,16 @@ public class SettingsStore {
         editor.apply();
     }
 
+    public boolean isPerformanceOverlayEnabled() {
+        return mPrefs.getBoolean(mContext.getString(R.string.settings_key_performance_overlay), PERFORMANCE_OVERLAY_DEFAULT);
+    }
+
+    public void setPerformanceOverlayEnabled(boolean isEnabled) {
+        SharedPreferences.Editor editor = mPrefs.edit();
+        editor.putBoolean(mContext.getString(R.string.settings_key_performance_overlay), isEnabled);
+        editor.apply();
+    }
+
     @FloatRange(from = 0, to = 1)
     public float getWindowDistance() {
         return mPrefs.getFloat(mContext.getString(R.string.settings_key_window_distance), WINDOW_DISTANCE_DEFAULT);
@@ -1172,17 +1193,18 @@ public class SettingsStore {
     @Nullable
     public Map<String, RemoteProperties> getRemoteProperties() {
         String json = mPrefs.getString(mContext.getString(R.string.settings_key_remote_props), null);
-
-        Gson gson = new GsonBuilder().create();
-        Type type = new TypeToken<Map<String, RemoteProperties>>() {}.getType();
-
-        Map<String, RemoteProperties> propertiesMap = null;
-        try {
-            propertiesMap = gson.fromJson(json, type);
-
-        } catch (Exception ignored) { }
-
-        return propertiesMap;
+        synchronized (this) {
+            // The properties are read often, so they are only parsed again when they change.
+            if (!Objects.equals(json, mRemotePropertiesJson)) {
+                mRemotePropertiesJson = json;
+                try {
+                    mRemoteProperties = RemoteJson.parseProperties(json);
+                } catch (Exception e) {
+                    mRemoteProperties = null;
+                }
+            }
+            return mRemoteProperties;
+        }
     }
 
     public void setRemoteProperties(@Nullable String json) {
@@ -1,9 +1,8 @@
 package com.igalia.wolvic.browser;
 
 import android.app.Activity;
-import android.text.TextUtils;
-import android.util.ArrayMap;
 import android.util.Log;
+import android.util.LruCache;
 
 import com.igalia.wolvic.utils.SystemUtils;
 
@@ -12,24 +11,43 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
-
+import java.util.Locale;
+
+/**
+ * Per-domain overrides loaded from a JSON asset. Keys are either plain domains, compiled into
+ * {@link DomainRules}, or the SHA-512 hex digest of a domain, matched by hashing every suffix of
+ * the host. Results are kept in a bounded LRU cache keyed by host, including the negative ones,
+ * which are the vast majority.
+ */
 public class UriOverride {
     private final static String LOGTAG = SystemUtils.createLogtag(UriOverride.class);
     private static final String NO_OVERRIDE_FOUND = "NO OVERRIDE FOUND";
-    private ArrayMap<String, String> mOverrideMap;
-    private ArrayMap<String, String> mOverrideCache;
-    private String mOverrideName;
+    private static final int CACHE_SIZE = 128;
+    private static final int HASH_HEX_LENGTH = 128;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final HashMap<String, String> mHashedOverrides;
+    private DomainRules<String> mDomainOverrides;
+    private final LruCache<String, String> mOverrideCache;
+    private final String mOverrideName;
+    private MessageDigest mDigest;
+    private final char[] mHexBuffer = new char[HASH_HEX_LENGTH];
+
     public UriOverride(String name) {
-        mOverrideMap = new ArrayMap<>();
-        mOverrideCache = new ArrayMap<>();
+        mHashedOverrides = new HashMap<>();
+        mDomainOverrides = new DomainRules.Builder<String>().build();
+        mOverrideCache = new LruCache<>(CACHE_SIZE);
         mOverrideName = name;
+        try {
+            mDigest = MessageDigest.getInstance("SHA-512");
+        } catch (NoSuchAlgorithmException e) {
+            Log.e(LOGTAG, "Error while trying to create the domain digest: " + e.getMessage());
+        }
     }
 
     public void loadOverridesFromAssets(Activity aActivity, String aFileName) {
@@ -46,104 +64,93 @@ public class UriOverride {
         }
     }
 
-    public String lookupOverride(final String aUri) {
+    public synchronized String lookupOverride(final String aUri) {
         if (aUri == null) {
             return null;
         }
-        Log.d(LOGTAG, "lookupOverride for: " + aUri);
-        URI uri;
-        try {
-            uri = new URI(aUri);
-        } catch (URISyntaxException e) {
-            Log.d(LOGTAG, "Error parsing URL: " + aUri + " " + e.getMessage());
+        int hostStart = DomainRules.findHostStart(aUri);
+        if (hostStart < 0) {
             return null;
         }
-        String fullDomain = uri.getHost();
-        if (fullDomain == null) {
+        int hostEnd = DomainRules.findHostEnd(aUri, hostStart);
+        if (hostEnd == hostStart) {
             return null;
         }
+        String host = aUri.substring(hostStart, hostEnd).toLowerCase(Locale.ROOT);
 
-        fullDomain = fullDomain.toLowerCase();
-
-        String override = mOverrideCache.get(fullDomain);
-
-        if (override != null) {
-            Log.d(LOGTAG, "Found override: " + override);
-            return override.equals(NO_OVERRIDE_FOUND) ? null : override;
+        String override = mOverrideCache.get(host);
+        if (override == null) {
+            override = mDomainOverrides.matchHost(host);
+            if (override == null) {
+                override = lookupHashedOverride(host);
+            }
+            mOverrideCache.put(host, override != null ? override : NO_OVERRIDE_FOUND);
         }
+        return NO_OVERRIDE_FOUND.equals(override) ? null : override;
+    }
 
-        List<String> domains = Arrays.asList(fullDomain.split("\\."));
-        final int domainCount = domains.size();
-        String[] checkedDomains = new String[domainCount];
-
-        for (int ix = 0; ix < domainCount; ix++) {
-            String domain = TextUtils.join(".", domains.subList(ix, domainCount));
-            checkedDomains[ix] = domain;
-            override = mOverrideCache.get(domain);
-            if (override != null) {
-                Log.d(LOGTAG, "found cached override: " + override);
-                addToCache(checkedDomains, override);
-                return override.equals(NO_OVERRIDE_FOUND) ? null : override;
-            }
-            String domainHash = hashDomain(domain);
-            if (domainHash == null) {
-                Log.d(LOGTAG, "Failed to hash domain: " + domain);
-                return null;
-            }
-            Log.d(LOGTAG, "hash: " + domainHash + " for domain: " + domain);
-            override = mOverrideMap.get(domainHash);
+    // Hashes the suffixes of the host, from the longest one, in place.
+    private String lookupHashedOverride(String aHost) {
+        if (mHashedOverrides.isEmpty() || mDigest == null) {
+            return null;
+        }
+        byte[] bytes = aHost.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        while (start < bytes.length) {
+            mDigest.update(bytes, start, bytes.length - start);
+            String override = mHashedOverrides.get(toHex(mDigest.digest()));
             if (override != null) {
-                Log.d(LOGTAG, "found override from hash: " + override);
-                addToCache(checkedDomains, override);
                 return override;
             }
+            while (start < bytes.length && bytes[start] != '.') {
+                start++;
+            }
+            start++;
         }
-        addToCache(checkedDomains, NO_OVERRIDE_FOUND);
         return null;
     }
 
-    private void addToCache(String[] aDomains, String aOverride) {
-        for (String domain: aDomains) {
-            if (domain == null) {
-                Log.d(LOGTAG, "Found null domain in checked list");
-                continue;
-            } else {
-                Log.d(LOGTAG, domain + " override: " + aOverride);
-            }
-            mOverrideCache.put(domain, aOverride);
+    private String toHex(byte[] aDigest) {
+        for (int i = 0; i < aDigest.length; i++) {
+            mHexBuffer[i * 2] = HEX_DIGITS[(aDigest[i] >> 4) & 0xf];
+            mHexBuffer[i * 2 + 1] = HEX_DIGITS[aDigest[i] & 0xf];
         }
+        return new String(mHexBuffer, 0, aDigest.length * 2);
     }
 
-    private String hashDomain(String aDomain) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-512");
-            byte[] digest = md.digest(aDomain.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (int value: digest) {
-                sb.append(Integer.toString((value & 0xff) + 0x100, 16).substring(1));
+    private static boolean isHash(String aKey) {
+        if (aKey.length() != HASH_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < aKey.length(); i++) {
+            if (Character.digit(aKey.charAt(i), 16) < 0) {
+                return false;
             }
-
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            Log.e(LOGTAG, "Error while trying to hash domain: " + e.getMessage());
         }
-        return null;
+        return true;
     }
 
-    private void importJSONData(final String aData) {
+    private synchronized void importJSONData(final String aData) {
         try {
             JSONObject json = new JSONObject(aData);
+            DomainRules.Builder<String> domainOverrides = new DomainRules.Builder<>();
             Iterator<String> iter = json.keys();
             while (iter.hasNext()) {
                 String key = iter.next();
                 try {
                     String value = json.getString(key);
-                    Log.d(LOGTAG, mOverrideName + " override: " + key + " -> " + value);
-                    mOverrideMap.put(key, value);
+                    if (isHash(key)) {
+                        mHashedOverrides.put(key.toLowerCase(Locale.ROOT), value);
+                    } else {
+                        domainOverrides.addDomain(key, value);
+                    }
                 } catch (JSONException e) {
                     Log.e(LOGTAG, "Failed to find " + mOverrideName + " override while parsing file for key: " + key);
                 }
             }
+            mDomainOverrides = domainOverrides.build();
+            mOverrideCache.evictAll();
+            Log.d(LOGTAG, "Loaded " + json.length() + " " + mOverrideName + " overrides");
 
         } catch (JSONException e) {
             Log.e(LOGTAG, "Failed to import " + mOverrideName + " override JSON data: " + e.getMessage());
@@ -44,25 +44,81 @@ class ComponentsAdapter private constructor(
         fun get(): ComponentsAdapter = instance
     }
 
+    // Changes made while a batch is open. They are applied to the store, with one action for all
+    // the added tabs and one for all the removed ones, when the outermost batch ends.
+    private var batchDepth = 0
+    private val pendingAdds = LinkedHashMap<String, Session>()
+    private val pendingRemoves = LinkedHashSet<String>()
+    // The last link (the session) or unlink (null) of every tab.
+    private val pendingLinks = LinkedHashMap<String, Session?>()
+    private var pendingSelection: String? = null
+
+    // Indexes of the store state, rebuilt when the tabs or the extensions change.
+    private var indexedTabs: List<TabSessionState>? = null
+    private var tabsById: Map<String, TabSessionState> = emptyMap()
+    private var indexedExtensions: Map<String, WebExtensionState>? = null
+    private var popups: List<Pair<Session, String>> = emptyList()
+
+    /**
+     * Starts collecting the changes to the store until the matching [endBatch], so that a restore
+     * or a bulk operation updates the store once. Batches can be nested.
+     */
+    fun beginBatch() {
+        batchDepth++
+    }
+
+    fun endBatch() {
+        check(batchDepth > 0) { "endBatch() called without beginBatch()" }
+        if (--batchDepth == 0) {
+            flush()
+        }
+    }
+
     fun addSession(session: Session) {
+        if (batchDepth > 0) {
+            pendingAdds[session.id] = session
+            return
+        }
         store.dispatch(TabListAction.AddTabAction(
                 tab = session.toTabSessionState()
         ))
     }
 
     fun removeSession(id: String) {
+        if (batchDepth > 0) {
+            removePending(id)
+            return
+        }
         store.dispatch(TabListAction.RemoveTabAction(
                 tabId = id
         ))
     }
 
+    fun removeSessions(ids: List<String>) {
+        if (batchDepth > 0) {
+            ids.forEach { removePending(it) }
+            return
+        }
+        store.dispatch(TabListAction.RemoveTabsAction(
+                tabIds = ids
+        ))
+    }
+
     fun selectSession(session: Session) {
+        if (batchDepth > 0) {
+            pendingSelection = session.id
+            return
+        }
         store.dispatch(TabListAction.SelectTabAction(
                 tabId = session.id
         ))
     }
 
     fun link(session: Session) {
+        if (batchDepth > 0) {
+            pendingLinks[session.id] = session
+            return
+        }
         store.dispatch(EngineAction.LinkEngineSessionAction(
                 session.id,
                 WolvicEngineSession(session)
@@ -71,21 +127,73 @@ class ComponentsAdapter private constructor(
 
     fun unlink(session: Session) {
         // Whenever a extension popup is closed we have to notify to unset the popupSession
-        store.state.extensions.map { it.value }.forEach {
-            it.popupSession?.let {
-                engineSession ->
-                if ((engineSession as WolvicEngineSession).session == session) {
-                    store.dispatch(
-                            WebExtensionAction.UpdatePopupSessionAction(it.id, popupSession = null)
-                    )
-                }
+        for ((popupSession, extensionId) in getPopups()) {
+            if (popupSession == session) {
+                store.dispatch(
+                        WebExtensionAction.UpdatePopupSessionAction(extensionId, popupSession = null)
+                )
             }
         }
+        if (batchDepth > 0) {
+            pendingLinks[session.id] = null
+            return
+        }
         store.dispatch(EngineAction.UnlinkEngineSessionAction(
                 session.id
         ))
     }
 
+    /**
+     * @return the session shown in the popup of an extension, if any.
+     */
+    fun getPopupSession(): Session? {
+        return getPopups().firstOrNull()?.first
+    }
+
+    private fun removePending(id: String) {
+        pendingLinks.remove(id)
+        if (pendingAdds.remove(id) == null) {
+            pendingRemoves.add(id)
+        }
+    }
+
+    private fun flush() {
+        if (pendingRemoves.isNotEmpty()) {
+            store.dispatch(TabListAction.RemoveTabsAction(pendingRemoves.toList()))
+        }
+        if (pendingAdds.isNotEmpty()) {
+            store.dispatch(TabListAction.AddMultipleTabsAction(pendingAdds.values.map { it.toTabSessionState() }))
+        }
+        for ((id, session) in pendingLinks) {
+            if (session == null) {
+                store.dispatch(EngineAction.UnlinkEngineSessionAction(id))
+            } else if (!pendingAdds.containsKey(id)) {
+                // Added tabs are already linked.
+                store.dispatch(EngineAction.LinkEngineSessionAction(id, WolvicEngineSession(session)))
+            }
+        }
+        pendingSelection?.let { id ->
+            if (!pendingRemoves.contains(id) || pendingAdds.containsKey(id)) {
+                store.dispatch(TabListAction.SelectTabAction(tabId = id))
+            }
+        }
+        pendingRemoves.clear()
+        pendingAdds.clear()
+        pendingLinks.clear()
+        pendingSelection = null
+    }
+
+    private fun getPopups(): List<Pair<Session, String>> {
+        val extensions = store.state.extensions
+        if (extensions !== indexedExtensions) {
+            popups = extensions.values.mapNotNull { extension ->
+                extension.popupSession?.let { Pair((it as WolvicEngineSession).session, extension.id) }
+            }
+            indexedExtensions = extensions
+        }
+        return popups
+    }
+
     init {
         // This flow calls listeners when an Add-On request a Session selection
         store.flowScoped(dispatcher = Dispatchers.Main) { flow ->
@@ -99,9 +207,13 @@ class ComponentsAdapter private constructor(
     }
 
     fun getSessionStateForSession(session: Session?): SessionState? {
-        return store.state.tabs.firstOrNull {
-            it.id == session?.id
+        val id = session?.id ?: return null
+        val tabs = store.state.tabs
+        if (tabs !== indexedTabs) {
+            tabsById = tabs.associateBy { it.id }
+            indexedTabs = tabs
         }
+        return tabsById[id]
     }
 
     fun getSortedEnabledExtensions(): List<WebExtensionState> {
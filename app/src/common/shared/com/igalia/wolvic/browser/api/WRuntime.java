@@ -128,6 +128,13 @@ public interface WRuntime {
     @NonNull
     void setUpLoginPersistence(Lazy<LoginsStorage> storage);
 
+    /**
+     * Notifies that the logins storage was modified outside of the runtime (e.g. from the
+     * settings or by a sync), so any cached login must be discarded.
+     */
+    @AnyThread
+    default void onLoginsChanged() {}
+
     /**
      * Creates a Client for fetching resources via HTTP/s.
      */
@@ -3,6 +3,7 @@ package com.igalia.wolvic.browser.components
 import android.content.Context
 import android.widget.ImageView
 import com.igalia.wolvic.R
+import com.igalia.wolvic.VRBrowserApplication
 import com.igalia.wolvic.browser.engine.EngineProvider
 import com.igalia.wolvic.utils.UrlUtils
 import mozilla.components.browser.icons.BrowserIcons
@@ -14,12 +15,18 @@ import mozilla.components.concept.engine.Engine
 class BrowserIconsHelper(context: Context, engine: Engine, store: BrowserStore) {
 
     private val browserIcons: BrowserIcons
+    private val faviconStore: FaviconStore
     private val aboutPageFavicon = R.mipmap.ic_launcher
+    private var topSites: TopSitesRepository? = null
+    private val topSitesListener = TopSitesRepository.Listener { sites ->
+        faviconStore.prefetch(sites.map { it.url })
+    }
 
     init {
         browserIcons =
             BrowserIcons(context.applicationContext, EngineProvider.createClient(context))
         browserIcons.install(engine, store)
+        faviconStore = FaviconStore(context.applicationContext, browserIcons)
     }
 
     fun loadIntoView(
@@ -30,8 +37,7 @@ class BrowserIconsHelper(context: Context, engine: Engine, store: BrowserStore)
         if (UrlUtils.isAboutPage(url)) {
             view.setImageResource(aboutPageFavicon)
         } else {
-            val request = IconRequest(url, size, emptyList(), null, false)
-            browserIcons.loadIntoView(view, request, null, null)
+            faviconStore.loadIntoView(view, url, size)
         }
     }
 
@@ -44,4 +50,29 @@ class BrowserIconsHelper(context: Context, engine: Engine, store: BrowserStore)
         val request = IconRequest(url, size, resources, null, false)
         browserIcons.loadIntoView(view, request, null, null)
     }
+
+    // Warms up the favicons of pages that are about to be shown, like the restored tabs.
+    fun prefetch(urls: List<String?>) {
+        faviconStore.prefetch(urls)
+    }
+
+    // Keeps the favicons of the top sites cached, every time the shared list is computed.
+    fun prefetchTopSites(context: Context) {
+        topSites?.removeListener(topSitesListener)
+        topSites = (context.applicationContext as VRBrowserApplication).topSites
+        topSites?.addListener(topSitesListener)
+    }
+
+    fun stopPrefetchingTopSites() {
+        topSites?.removeListener(topSitesListener)
+        topSites = null
+    }
+
+    fun reportStats() {
+        faviconStore.reportStats()
+    }
+
+    fun clear() {
+        faviconStore.clear()
+    }
 }
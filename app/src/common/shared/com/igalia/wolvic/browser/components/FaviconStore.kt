@@ -0,0 +1,308 @@
+package com.igalia.wolvic.browser.components
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.os.Process
+import android.util.AtomicFile
+import android.util.Log
+import android.util.LruCache
+import android.widget.ImageView
+import androidx.annotation.MainThread
+import androidx.annotation.VisibleForTesting
+import com.igalia.wolvic.R
+import com.igalia.wolvic.telemetry.TelemetryService
+import com.igalia.wolvic.utils.SystemUtils
+import com.igalia.wolvic.utils.UrlUtils
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import mozilla.components.browser.icons.BrowserIcons
+import mozilla.components.browser.icons.Icon
+import mozilla.components.browser.icons.IconRequest
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.Executors
+
+/**
+ * Favicons shared by every surface that shows them: tabs bar, tray, library panels, suggestions and
+ * top sites. Icons are keyed by host and kept in two tiers:
+ *
+ *  - An in-memory LRU, shared by all the surfaces, holding every size loaded for a host. A request
+ *    is served by the requested size or any larger one.
+ *  - One file per host on disk, with all the sizes of the host in a single compact record.
+ *
+ * Only misses in both tiers go through [BrowserIcons], and concurrent requests for the same icon
+ * share a single load, so rebinding list items while scrolling is served from memory. Generated
+ * icons are kept in memory but not written to disk, so that the real icon can be fetched later.
+ */
+class FaviconStore(context: Context, private val browserIcons: BrowserIcons) {
+
+    private val LOGTAG = SystemUtils.createLogtag(FaviconStore::class.java)
+
+    companion object {
+        private const val MEMORY_CACHE_BYTES = 4 * 1024 * 1024
+        private const val DIRECTORY = "favicons"
+        private const val MAGIC = 0x57464156 // "WFAV"
+        private const val VERSION = 1
+        private val SIZES = IconRequest.Size.values()
+    }
+
+    // The bitmaps of a host, indexed by the ordinal of their IconRequest.Size. Bit i of generated is
+    // set when bitmaps[i] was made by the icon generator.
+    @VisibleForTesting
+    internal class Record(val host: String, val bitmaps: Array<Bitmap?>, val generated: Int) {
+
+        val byteCount: Int = bitmaps.sumOf { it?.allocationByteCount ?: 0 }
+
+        // The requested size or the smallest larger one.
+        fun get(size: IconRequest.Size): Bitmap? {
+            for (i in size.ordinal until bitmaps.size) {
+                bitmaps[i]?.let { return it }
+            }
+            return null
+        }
+
+        fun isGenerated(size: IconRequest.Size): Boolean = (generated and (1 shl size.ordinal)) != 0
+
+        // A real icon replaces all the generated ones, which would otherwise be served for other sizes.
+        fun with(size: IconRequest.Size, bitmap: Bitmap, isGenerated: Boolean): Record {
+            val copy = (if (isGenerated) this else real()).bitmaps.copyOf()
+            copy[size.ordinal] = bitmap
+            val bit = 1 shl size.ordinal
+            return Record(host, copy, if (isGenerated) generated or bit else 0)
+        }
+
+        // The record without its generated bitmaps, which is what gets stored on disk.
+        fun real(): Record {
+            if (generated == 0) {
+                return this
+            }
+            val copy = arrayOfNulls<Bitmap>(bitmaps.size)
+            for (i in bitmaps.indices) {
+                if ((generated and (1 shl i)) == 0) {
+                    copy[i] = bitmaps[i]
+                }
+            }
+            return Record(host, copy, 0)
+        }
+    }
+
+    private val directory = File(context.cacheDir, DIRECTORY)
+    private val memory = object : LruCache<String, Record>(MEMORY_CACHE_BYTES) {
+        override fun sizeOf(key: String, value: Record): Int = value.byteCount
+    }
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Main)
+    // Prefetching never competes with the loads of the icons being shown.
+    private val prefetchDispatcher: CoroutineDispatcher = Executors.newSingleThreadExecutor { runnable ->
+        Thread({
+            Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST)
+            runnable.run()
+        }, "FaviconPrefetch")
+    }.asCoroutineDispatcher()
+    private val loads = HashMap<String, Deferred<Bitmap?>>()
+
+    private var memoryHits = 0L
+    private var diskHits = 0L
+    private var misses = 0L
+    private var reportedMemoryHits = 0L
+    private var reportedDiskHits = 0L
+    private var reportedMisses = 0L
+
+    /**
+     * Shows the favicon of the URL in the view, right away if it is in memory.
+     */
+    @MainThread
+    fun loadIntoView(view: ImageView, url: String, size: IconRequest.Size) {
+        val host = getHost(url)
+        view.setTag(R.id.faviconHost, host)
+
+        val bitmap = memory.get(host)?.get(size)
+        if (bitmap != null) {
+            memoryHits++
+            view.setImageBitmap(bitmap)
+            return
+        }
+
+        view.setImageDrawable(null)
+        scope.launch {
+            val loaded = load(host, url, size, Dispatchers.IO, true)
+            if (loaded != null && view.getTag(R.id.faviconHost) == host) {
+                view.setImageBitmap(loaded)
+            }
+        }
+    }
+
+    /**
+     * Loads the favicons of the URLs into memory, one at a time, in a low priority thread.
+     */
+    @MainThread
+    fun prefetch(urls: List<String?>) {
+        val hosts = LinkedHashMap<String, String>()
+        for (url in urls) {
+            if (!url.isNullOrEmpty() && !UrlUtils.isAboutPage(url)) {
+                hosts.putIfAbsent(getHost(url), url)
+            }
+        }
+        scope.launch {
+            for ((host, url) in hosts) {
+                if (memory.get(host) == null) {
+                    load(host, url, IconRequest.Size.DEFAULT, prefetchDispatcher, false)
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the hit counts of both tiers since the last report.
+     */
+    @MainThread
+    fun reportStats() {
+        if (memoryHits + diskHits + misses == reportedMemoryHits + reportedDiskHits + reportedMisses) {
+            return
+        }
+        TelemetryService.Performance.cacheEvent("favicons",
+            memoryHits - reportedMemoryHits, diskHits - reportedDiskHits, misses - reportedMisses)
+        reportedMemoryHits = memoryHits
+        reportedDiskHits = diskHits
+        reportedMisses = misses
+    }
+
+    @MainThread
+    fun clear() {
+        memory.evictAll()
+        scope.launch(Dispatchers.IO) {
+            directory.listFiles()?.forEach { it.delete() }
+        }
+    }
+
+    private fun getHost(url: String): String {
+        val host = UrlUtils.getHost(url)
+        return if (host.isNullOrEmpty()) url else host
+    }
+
+    // Prefetches are not counted in the stats, which are about the icons that are shown.
+    private suspend fun load(host: String, url: String, size: IconRequest.Size,
+                             diskDispatcher: CoroutineDispatcher, countStats: Boolean): Bitmap? {
+        val key = host + "@" + size.ordinal
+        loads[key]?.let { return it.await() }
+
+        val load = scope.async {
+            // It may have been loaded while this request was queued.
+            memory.get(host)?.get(size)?.let {
+                if (countStats) {
+                    memoryHits++
+                }
+                return@async it
+            }
+
+            val stored = withContext(diskDispatcher) { read(host) }
+            stored?.get(size)?.let {
+                if (countStats) {
+                    diskHits++
+                }
+                memory.put(host, stored)
+                return@async it
+            }
+
+            if (countStats) {
+                misses++
+            }
+            val icon = try {
+                browserIcons.loadIcon(IconRequest(url, size, emptyList(), null, false)).await()
+            } catch (e: Exception) {
+                Log.w(LOGTAG, "Unable to load the favicon of $host: ${e.message}")
+                return@async null
+            }
+            val isGenerated = icon.source == Icon.Source.GENERATOR
+            val current = memory.get(host) ?: stored
+            val record = current?.with(size, icon.bitmap, isGenerated)
+                ?: Record(host, arrayOfNulls(SIZES.size), 0).with(size, icon.bitmap, isGenerated)
+            memory.put(host, record)
+            if (!isGenerated) {
+                launch(diskDispatcher) { write(record.real()) }
+            }
+            icon.bitmap
+        }
+        loads[key] = load
+        try {
+            return load.await()
+        } finally {
+            loads.remove(key)
+        }
+    }
+
+    private fun fileFor(host: String): AtomicFile {
+        return AtomicFile(File(directory, Integer.toHexString(host.hashCode()) + ".fav"))
+    }
+
+    // Record format: magic, version, host, count, then the size ordinal, length and PNG data of
+    // every bitmap.
+    private fun read(host: String): Record? {
+        val file = fileFor(host)
+        if (!file.baseFile.exists()) {
+            return null
+        }
+        try {
+            DataInputStream(file.openRead().buffered()).use { input ->
+                if (input.readInt() != MAGIC || input.readByte().toInt() != VERSION || input.readUTF() != host) {
+                    return null
+                }
+                val bitmaps = arrayOfNulls<Bitmap>(SIZES.size)
+                repeat(input.readByte().toInt()) {
+                    val ordinal = input.readByte().toInt()
+                    val data = ByteArray(input.readInt())
+                    input.readFully(data)
+                    if (ordinal in bitmaps.indices) {
+                        bitmaps[ordinal] = BitmapFactory.decodeByteArray(data, 0, data.size)
+                    }
+                }
+                return Record(host, bitmaps, 0)
+            }
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to read the favicons of $host: ${e.message}")
+            return null
+        }
+    }
+
+    private fun write(record: Record) {
+        directory.mkdirs()
+        val file = fileFor(record.host)
+        val stream = try {
+            file.startWrite()
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to write the favicons of ${record.host}: ${e.message}")
+            return
+        }
+        try {
+            val output = DataOutputStream(stream.buffered())
+            val sizes = record.bitmaps.indices.filter { record.bitmaps[it] != null }
+            output.writeInt(MAGIC)
+            output.writeByte(VERSION)
+            output.writeUTF(record.host)
+            output.writeByte(sizes.size)
+            val png = ByteArrayOutputStream()
+            for (ordinal in sizes) {
+                png.reset()
+                record.bitmaps[ordinal]!!.compress(Bitmap.CompressFormat.PNG, 100, png)
+                output.writeByte(ordinal)
+                output.writeInt(png.size())
+                png.writeTo(output)
+            }
+            output.flush()
+            file.finishWrite(stream)
+        } catch (e: IOException) {
+            Log.w(LOGTAG, "Unable to write the favicons of ${record.host}: ${e.message}")
+            file.failWrite(stream)
+        }
+    }
+}
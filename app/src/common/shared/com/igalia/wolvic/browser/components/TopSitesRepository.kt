@@ -0,0 +1,175 @@
+package com.igalia.wolvic.browser.components
+
+import androidx.annotation.MainThread
+import com.igalia.wolvic.browser.Places
+import com.igalia.wolvic.utils.SystemUtils
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import mozilla.components.concept.storage.FrecencyThresholdOption
+import mozilla.components.concept.storage.VisitType
+import mozilla.components.feature.top.sites.DefaultTopSitesStorage
+import mozilla.components.feature.top.sites.TopSite
+import mozilla.components.feature.top.sites.TopSitesFrecencyConfig
+import mozilla.components.feature.top.sites.TopSitesProviderConfig
+import mozilla.components.feature.top.sites.TopSitesStorage
+import mozilla.components.support.base.log.logger.Logger
+
+/**
+ * The top sites (frequent, recent, pinned) shown by the new tab page of every window.
+ *
+ * The list is computed once in a background thread and published to every listener, instead of
+ * every window querying the history and the pinned sites on its own. It is only computed again when
+ * the pinned sites change, or when the history changes in a way that can change the list: pages
+ * visited only once are below the frecency threshold, so a visit only matters if the page had been
+ * visited before and is not in the list yet.
+ */
+class TopSitesRepository(
+    private val storageFactory: () -> TopSitesStorage,
+    private val scope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Main),
+    private val ioDispatcher: CoroutineDispatcher = Dispatchers.IO
+) {
+
+    private val LOGTAG = SystemUtils.createLogtag(TopSitesRepository::class.java)
+
+    constructor(places: Places) : this({
+        DefaultTopSitesStorage(
+            pinnedSitesStorage = places.pinned,
+            historyStorage = places.history
+        )
+    })
+
+    companion object {
+        const val TOTAL_SITES = 12
+
+        private val FRECENCY_CONFIG = TopSitesFrecencyConfig(
+            frecencyTresholdOption = FrecencyThresholdOption.SKIP_ONE_TIME_PAGES,
+            frecencyFilter = { topSite -> !isAboutPage(topSite.url) }
+        )
+        private val PROVIDER_CONFIG = TopSitesProviderConfig(
+            showProviderTopSites = true
+        )
+
+        // Visits that count towards the frecency of a page.
+        private val FRECENT_VISITS = setOf(VisitType.LINK, VisitType.TYPED, VisitType.BOOKMARK)
+
+        private fun isAboutPage(url: String) = url.lowercase().startsWith("about:")
+    }
+
+    fun interface Listener {
+        fun onTopSitesUpdated(topSites: List<TopSite>)
+    }
+
+    // Pinned sites are added and removed by the storage in its own thread.
+    private val storageObserver = object : TopSitesStorage.Observer {
+        override fun onStorageUpdated() {
+            invalidate()
+        }
+    }
+
+    private var storage = storageFactory().also { it.register(storageObserver) }
+    private val listeners = ArrayList<Listener>()
+    @Volatile
+    private var topSites: List<TopSite>? = null
+    private var stale = false
+    private var update: Job? = null
+
+    /**
+     * Adds a listener, which gets the current list right away if it has already been computed.
+     */
+    @MainThread
+    fun addListener(listener: Listener) {
+        if (listeners.contains(listener)) {
+            return
+        }
+        listeners.add(listener)
+        val current = topSites
+        if (current != null) {
+            listener.onTopSitesUpdated(current)
+        } else if (update?.isActive != true) {
+            update()
+        }
+    }
+
+    @MainThread
+    fun removeListener(listener: Listener) {
+        listeners.remove(listener)
+    }
+
+    /**
+     * @return whether a visit to a page that had already been visited could add it to the current
+     * list. A list that has not been computed yet will already include the visit.
+     */
+    fun canAdd(url: String, visitType: VisitType): Boolean {
+        if (visitType !in FRECENT_VISITS || isAboutPage(url)) {
+            return false
+        }
+        return topSites?.none { it.url == url } ?: false
+    }
+
+    /**
+     * Computes the list again for the current listeners, or for the next one if there are none.
+     */
+    fun invalidate() {
+        scope.launch {
+            topSites = null
+            stale = true
+            if (listeners.isNotEmpty() && update?.isActive != true) {
+                update()
+            }
+        }
+    }
+
+    /**
+     * Uses a new storage, after the places storages have been replaced.
+     */
+    fun reset() {
+        scope.launch {
+            storage.unregister(storageObserver)
+            storage = storageFactory().also { it.register(storageObserver) }
+            invalidate()
+        }
+    }
+
+    fun addPinnedSite(title: String, url: String) {
+        storage.addTopSite(title, url)
+    }
+
+    fun removeSite(site: TopSite) {
+        storage.removeTopSite(site)
+    }
+
+    fun updateSite(site: TopSite, newTitle: String, newUrl: String) {
+        storage.updateTopSite(site, newTitle, newUrl)
+    }
+
+    private fun update() {
+        update = scope.launch {
+            var sites: List<TopSite>
+            do {
+                stale = false
+                val storage = storage
+                sites = try {
+                    withContext(ioDispatcher) {
+                        storage.getTopSites(TOTAL_SITES, FRECENCY_CONFIG, PROVIDER_CONFIG)
+                    }
+                } catch (e: CancellationException) {
+                    throw e
+                } catch (e: Exception) {
+                    Logger(LOGTAG).error("Unable to get the top sites", e)
+                    return@launch
+                }
+            } while (stale)
+
+            topSites = sites
+            for (listener in ArrayList(listeners)) {
+                listener.onTopSitesUpdated(sites)
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import androidx.annotation.UiThread;
 
 import com.igalia.wolvic.BuildConfig;
 import com.igalia.wolvic.R;
+import com.igalia.wolvic.browser.DomainRules;
 import com.igalia.wolvic.browser.Media;
 import com.igalia.wolvic.browser.SessionChangeListener;
 import com.igalia.wolvic.browser.SettingsStore;
@@ -39,6 +40,7 @@ import com.igalia.wolvic.browser.api.WAutocomplete;
 import com.igalia.wolvic.browser.api.WContentBlocking;
 import com.igalia.wolvic.browser.api.WDisplay;
 import com.igalia.wolvic.browser.api.WFactory;
+import com.igalia.wolvic.browser.api.WMediaSession;
 import com.igalia.wolvic.browser.api.WResult;
 import com.igalia.wolvic.browser.api.WRuntime;
 import com.igalia.wolvic.browser.api.WSession;
@@ -59,8 +61,6 @@ import com.igalia.wolvic.utils.UrlUtils;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Collections;
-import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -107,7 +107,9 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
     private transient long mKeepAlive;
     private transient Media mMedia;
 
-    private static final List<String> FORCE_MOBILE_VIEWPORT = Collections.singletonList(".youtube.com");
+    private static final DomainRules<Boolean> FORCE_MOBILE_VIEWPORT = new DomainRules.Builder<Boolean>()
+            .addDomain("youtube.com", true)
+            .build();
 
     public interface BitmapChangedListener {
         void onBitmapChanged(Session aSession, Bitmap aBitmap);
@@ -196,6 +198,7 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
         mPopUpStateStateListeners = new CopyOnWriteArrayList<>();
         mDrmStateStateListeners = new CopyOnWriteArrayList<>();
         mMedia = new Media();
+        mMedia.addMediaListener(mSnapshotMediaListener);
 
         mPrefs = PreferenceManager.getDefaultSharedPreferences(mContext);
         mPrefs.registerOnSharedPreferenceChangeListener(this);
@@ -540,9 +543,10 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
 
         if (shouldLoadDefaultPage(mState)) {
             loadDefaultPage();
-        } else if (mState.mSessionState != null) {
+        } else if (mState.mSessionState != null && !mState.mSessionState.isEmpty()) {
             mState.mSession.restoreState(mState.mSessionState);
-            if (mState.mUri != null && mState.mUri.contains(".youtube.com")) {
+            // The pages with a forced mobile viewport are loaded again to get it.
+            if (FORCE_MOBILE_VIEWPORT.match(mState.mUri) != null) {
                 mState.mSession.loadUri(mState.mUri, WSession.LOAD_FLAGS_REPLACE_HISTORY);
             }
         } else if (mState.mUri != null) {
@@ -641,12 +645,25 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
     }
 
     public void captureBitmap() {
+        captureBitmap(SnapshotScheduler.PRIORITY_NORMAL);
+    }
+
+    public void captureBitmap(@SnapshotScheduler.Priority int aPriority) {
+        captureBitmap(aPriority, false);
+    }
+
+    // Replayed captures come from the SnapshotScheduler queue, and were already counted by it.
+    void captureBitmap(@SnapshotScheduler.Priority int aPriority, boolean aReplay) {
         if (mState.mDisplay == null || !mFirstContentfulPaint) {
             return;
         }
+        SnapshotScheduler scheduler = SessionStore.get().getSnapshotScheduler();
+        if (!scheduler.requestCapture(this, aPriority, aReplay)) {
+            return;
+        }
         try {
             mState.mDisplay.capturePixelsWithAspectPreservingSize(500).then(bitmap -> {
-                if (bitmap != null) {
+                if (bitmap != null && scheduler.onBitmapCaptured(getId(), bitmap, hasCapturedBitmap())) {
                     BitmapCache.getInstance(mContext).addBitmap(getId(), bitmap);
                     for (BitmapChangedListener listener: mBitmapChangedListeners) {
                         listener.onBitmapChanged(Session.this, bitmap);
@@ -665,6 +682,24 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
 
     }
 
+    // Snapshots are deferred while a video plays, and can be taken once it no longer does.
+    private final WMediaSession.Delegate mSnapshotMediaListener = new WMediaSession.Delegate() {
+        @Override
+        public void onPause(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
+            SessionStore.get().getSnapshotScheduler().onVideoStopped(Session.this);
+        }
+
+        @Override
+        public void onStop(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
+            SessionStore.get().getSnapshotScheduler().onVideoStopped(Session.this);
+        }
+
+        @Override
+        public void onDeactivated(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
+            SessionStore.get().getSnapshotScheduler().onVideoStopped(Session.this);
+        }
+    };
+
     public CompletableFuture<Void> captureBackgroundBitmap(int displayWidth, int displayHeight) {
         // FIXME: calling acquireDisplay() is not well supported in the Chromium backend because
         // that method incorrectly does some extra work handling widgets. Disable the bitmap
@@ -691,7 +726,7 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
 
         try {
             display.capturePixelsWithAspectPreservingSize(500).then(bitmap -> {
-                if (bitmap != null) {
+                if (bitmap != null && SessionStore.get().getSnapshotScheduler().onBitmapCaptured(getId(), bitmap, hasCapturedBitmap())) {
                     BitmapCache.getInstance(mContext).addBitmap(getId(), bitmap);
                     for (BitmapChangedListener listener : mBitmapChangedListeners) {
                         listener.onBitmapChanged(Session.this, bitmap);
@@ -864,6 +899,16 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
         }
     }
 
+    // Creates the engine session of a suspended session and starts loading it, without making it
+    // active. Used by the TabLoadScheduler to load tabs in the background.
+    void preload() {
+        if (mState.mSession != null) {
+            return;
+        }
+        restore();
+        setActive(false);
+    }
+
     public void reload() {
         reload(WSession.LOAD_FLAGS_NONE);
     }
@@ -1098,7 +1143,7 @@ public class Session implements WContentBlocking.Delegate, WSession.NavigationDe
         mState.mPreviousUri = mState.mUri;
         mState.mUri = aUri;
 
-        boolean forceMobileViewport = FORCE_MOBILE_VIEWPORT.stream().anyMatch(aUri::contains);
+        boolean forceMobileViewport = FORCE_MOBILE_VIEWPORT.match(aUri) != null;
         if (forceMobileViewport) {
             mState.mSession.getSettings().setViewportMode(WSessionSettings.VIEWPORT_MODE_MOBILE);
         } else {
@@ -3,6 +3,7 @@ package com.igalia.wolvic.browser.engine;
 import androidx.annotation.IntDef;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
@@ -91,8 +92,9 @@ public class SessionState {
         @Override
         public WSessionState read(JsonReader in) {
             try {
-                String session = JsonParser.parseReader(in).getAsString();
-                return WSessionState.fromJson(session);
+                // write() embeds the state as raw JSON, but also accept states stored as strings.
+                JsonElement session = JsonParser.parseReader(in);
+                return WSessionState.fromJson(session.isJsonPrimitive() ? session.getAsString() : session.toString());
 
             } catch (Exception e) {
                 return null;
@@ -33,6 +33,7 @@ import com.igalia.wolvic.utils.UrlUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -91,10 +92,26 @@ public class SessionStore implements
     private BrowserIconsHelper mBrowserIconsHelper;
     private RemoteImageHelper mRemoteImageHelper;
     private final LinkedHashSet<SessionChangeListener> mSessionChangeListeners;
+    private final SnapshotScheduler mSnapshotScheduler;
+    private final TabLoadScheduler mTabLoadScheduler;
+    // Ids of the sessions removed while a batch operation runs, notified when it ends.
+    private ArrayList<String> mBatchRemovedIds;
 
     private SessionStore() {
         mSessions = new ArrayList<>();
         mSessionChangeListeners = new LinkedHashSet<>();
+        mSnapshotScheduler = new SnapshotScheduler();
+        mTabLoadScheduler = new TabLoadScheduler(new TabLoadScheduler.Delegate() {
+            @Override
+            public boolean isForegroundLoading() {
+                return mSessions.stream().anyMatch(session -> session.isActive() && session.getSessionState().mIsLoading);
+            }
+
+            @Override
+            public boolean canLoadSession() {
+                return mSessions.stream().filter(session -> session.getWSession() != null).count() < MAX_SESSIONS;
+            }
+        });
     }
 
     public void initialize(Context context) {
@@ -255,6 +272,24 @@ public class SessionStore implements
         return addSession(session);
     }
 
+    /**
+     * Creates the suspended sessions of a restore. They are added to the BrowserStore as a single
+     * change instead of one per session.
+     */
+    @NonNull
+    public List<Session> createSuspendedSessions(@NonNull List<SessionState> aRestoreStates) {
+        List<Session> sessions = new ArrayList<>(aRestoreStates.size());
+        ComponentsAdapter.get().beginBatch();
+        try {
+            for (SessionState state : aRestoreStates) {
+                sessions.add(createSuspendedSession(state));
+            }
+        } finally {
+            ComponentsAdapter.get().endBatch();
+        }
+        return sessions;
+    }
+
     @NonNull
     public Session createSuspendedSession(final String aUri, final boolean aPrivateMode) {
         SessionState state = new SessionState();
@@ -265,6 +300,8 @@ public class SessionStore implements
     }
 
     private void shutdownSession(@NonNull Session aSession) {
+        mSnapshotScheduler.removeSession(aSession.getId());
+        mTabLoadScheduler.onSessionRemoved(aSession.getId());
         aSession.setPermissionDelegate(null);
         aSession.shutdown();
         if (BuildConfig.DEBUG) {
@@ -279,6 +316,34 @@ public class SessionStore implements
         }
     }
 
+    /**
+     * Destroys a group of sessions as a single change. The BrowserStore and the listeners are
+     * notified once, with {@link SessionChangeListener#onSessionsRemoved(List)}, instead of once
+     * per session and state change.
+     */
+    public void destroySessions(@NonNull Collection<Session> aSessions) {
+        if (aSessions.isEmpty()) {
+            return;
+        }
+        LinkedHashSet<Session> sessions = new LinkedHashSet<>(aSessions);
+        mSessions.removeIf(sessions::contains);
+
+        mBatchRemovedIds = new ArrayList<>(sessions.size());
+        ArrayList<String> removedIds = mBatchRemovedIds;
+        try {
+            for (Session session : sessions) {
+                shutdownSession(session);
+            }
+        } finally {
+            mBatchRemovedIds = null;
+        }
+
+        ComponentsAdapter.get().removeSessions(removedIds);
+        for (SessionChangeListener listener : mSessionChangeListeners) {
+            listener.onSessionsRemoved(removedIds);
+        }
+    }
+
     public void destroySession(@NonNull String sessionId) {
         mSessions.stream().filter(session -> session.getId().equals(sessionId)).findFirst().ifPresent(this::destroySession);
     }
@@ -432,6 +497,16 @@ public class SessionStore implements
         return mRemoteImageHelper;
     }
 
+    @NonNull
+    public SnapshotScheduler getSnapshotScheduler() {
+        return mSnapshotScheduler;
+    }
+
+    @NonNull
+    public TabLoadScheduler getTabLoadScheduler() {
+        return mTabLoadScheduler;
+    }
+
     public void purgeSessionHistory() {
         for (Session session : mSessions) {
             session.purgeHistory();
@@ -451,6 +526,10 @@ public class SessionStore implements
             mHistoryStore.removeAllListeners();
         }
 
+        if (mBrowserIconsHelper != null) {
+            mBrowserIconsHelper.stopPrefetchingTopSites();
+        }
+
         if (mWebChannelsFeature != null) {
             mWebChannelsFeature.stop();
         }
@@ -491,6 +570,9 @@ public class SessionStore implements
     }
 
     public void clearCache(long clearFlags) {
+        if ((clearFlags & WRuntime.ClearFlags.IMAGE_CACHE) != 0) {
+            mBrowserIconsHelper.clear();
+        }
         LinkedList<Session> activeSession = new LinkedList<>();
         for (Session session: mSessions) {
             if (session.getWSession() != null) {
@@ -563,6 +645,9 @@ public class SessionStore implements
     @Override
     public void onSessionClosed(Session aSession) {
         ComponentsAdapter.get().unlink(aSession);
+        if (mBatchRemovedIds != null) {
+            return;
+        }
         for (SessionChangeListener listener : mSessionChangeListeners) {
             listener.onSessionClosed(aSession);
         }
@@ -570,6 +655,11 @@ public class SessionStore implements
 
     @Override
     public void onSessionRemoved(String aId) {
+        mTabLoadScheduler.onSessionRemoved(aId);
+        if (mBatchRemovedIds != null) {
+            mBatchRemovedIds.add(aId);
+            return;
+        }
         ComponentsAdapter.get().removeSession(aId);
         for (SessionChangeListener listener : mSessionChangeListeners) {
             listener.onSessionRemoved(aId);
@@ -581,6 +671,10 @@ public class SessionStore implements
         if (aActive) {
             ComponentsAdapter.get().selectSession(aSession);
         }
+        mTabLoadScheduler.onSessionStateChanged(aSession, aActive);
+        if (mBatchRemovedIds != null) {
+            return;
+        }
         for (SessionChangeListener listener : mSessionChangeListeners) {
             listener.onSessionStateChanged(aSession, aActive);
         }
@@ -0,0 +1,298 @@
+package com.igalia.wolvic.browser.engine;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import com.igalia.wolvic.browser.Media;
+import com.igalia.wolvic.telemetry.TelemetryService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Decides when a {@link Session} snapshot is worth taking. Every capture costs a GPU readback and
+ * a PNG encode in the {@link com.igalia.wolvic.utils.BitmapCache}, so captures are rate limited
+ * per session, deferred while an immersive session or a video is playing, and the result is only
+ * stored when it visibly differs from the previous one.
+ */
+@UiThread
+public class SnapshotScheduler {
+
+    @IntDef(value = { PRIORITY_NORMAL, PRIORITY_VISIBLE })
+    public @interface Priority {}
+    // Page loads and tab switches.
+    public static final int PRIORITY_NORMAL = 0;
+    // Tabs shown right now in a tab UI (tabs dialog, tabs bar). These skip the rate limit.
+    public static final int PRIORITY_VISIBLE = 1;
+
+    private static final long MIN_CAPTURE_INTERVAL_MS = 3000;
+    // Maximum number of differing bits between two hashes to consider the snapshots identical.
+    private static final int MAX_UNCHANGED_HASH_DISTANCE = 2;
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    private static class SnapshotInfo {
+        long lastCaptureTime;
+        long lastHash;
+        boolean hasHash;
+    }
+
+    private static class PendingCapture {
+        final Session session;
+        @Priority int priority;
+
+        PendingCapture(@NonNull Session aSession, @Priority int aPriority) {
+            session = aSession;
+            priority = aPriority;
+        }
+    }
+
+    private final HashMap<String, SnapshotInfo> mSnapshots = new HashMap<>();
+    private final LinkedHashMap<String, PendingCapture> mPending = new LinkedHashMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private boolean mFlushScheduled;
+    private boolean mImmersive;
+
+    private long mRequestedCount;
+    private long mCapturedCount;
+    private long mStoredCount;
+    private long mSkippedUnchangedCount;
+    private long mSkippedRateLimitedCount;
+    private long mDeferredCount;
+
+    /**
+     * Called before a snapshot is taken.
+     * @param aReplay true when the capture is a queued request run again by this scheduler, which
+     *                was already counted in the statistics.
+     * @return true if the caller should capture now. If false the request may have been queued and
+     * the capture will be run again when it can.
+     */
+    public boolean requestCapture(@NonNull Session aSession, @Priority int aPriority, boolean aReplay) {
+        if (!aReplay) {
+            mRequestedCount++;
+        }
+        String id = aSession.getId();
+
+        if (mImmersive || isPlayingVideo(aSession)) {
+            if (!aReplay) {
+                mDeferredCount++;
+                TelemetryService.Tabs.snapshotEvent("deferred");
+            }
+            enqueue(aSession, aPriority);
+            return false;
+        }
+
+        SnapshotInfo info = mSnapshots.get(id);
+        long now = SystemClock.uptimeMillis();
+        if (aPriority == PRIORITY_NORMAL && info != null &&
+                now - info.lastCaptureTime < MIN_CAPTURE_INTERVAL_MS) {
+            // Keep a trailing capture so the last state of the page is not lost.
+            if (!aReplay) {
+                mSkippedRateLimitedCount++;
+                TelemetryService.Tabs.snapshotEvent("rate_limited");
+            }
+            enqueue(aSession, aPriority);
+            scheduleFlush(MIN_CAPTURE_INTERVAL_MS - (now - info.lastCaptureTime));
+            return false;
+        }
+
+        mPending.remove(id);
+        if (info == null) {
+            info = new SnapshotInfo();
+            mSnapshots.put(id, info);
+        }
+        info.lastCaptureTime = now;
+        return true;
+    }
+
+    /**
+     * Called with the captured bitmap.
+     * @return true if the snapshot visibly changed and should be stored and notified.
+     */
+    public boolean onBitmapCaptured(@NonNull String aSessionId, @NonNull Bitmap aBitmap, boolean aIsCached) {
+        mCapturedCount++;
+        SnapshotInfo info = mSnapshots.get(aSessionId);
+        if (info == null) {
+            info = new SnapshotInfo();
+            info.lastCaptureTime = SystemClock.uptimeMillis();
+            mSnapshots.put(aSessionId, info);
+        }
+
+        long hash = computeHash(aBitmap);
+        boolean unchanged = info.hasHash && hashDistance(hash, info.lastHash) <= MAX_UNCHANGED_HASH_DISTANCE;
+        info.lastHash = hash;
+        info.hasHash = true;
+
+        if (unchanged && aIsCached) {
+            mSkippedUnchangedCount++;
+            TelemetryService.Tabs.snapshotEvent("unchanged");
+            return false;
+        }
+
+        mStoredCount++;
+        TelemetryService.Tabs.snapshotEvent("stored");
+        return true;
+    }
+
+    /**
+     * Immersive sessions render outside the windows, so snapshots are deferred until they end.
+     */
+    public void setImmersive(boolean aImmersive) {
+        if (mImmersive == aImmersive) {
+            return;
+        }
+        mImmersive = aImmersive;
+        if (!mImmersive) {
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * Called when the video of a session is paused or stopped, so a capture deferred while it was
+     * playing can run.
+     */
+    public void onVideoStopped(@NonNull Session aSession) {
+        if (mPending.containsKey(aSession.getId())) {
+            scheduleFlush(0);
+        }
+    }
+
+    public void removeSession(@NonNull String aSessionId) {
+        mSnapshots.remove(aSessionId);
+        mPending.remove(aSessionId);
+    }
+
+    public long getRequestedCount() {
+        return mRequestedCount;
+    }
+
+    public long getCapturedCount() {
+        return mCapturedCount;
+    }
+
+    public long getStoredCount() {
+        return mStoredCount;
+    }
+
+    public long getDeferredCount() {
+        return mDeferredCount;
+    }
+
+    /**
+     * @return the ratio of capture requests that did not end up in a stored snapshot, because they
+     * were rate limited or the content had not changed.
+     */
+    public float getSkippedRatio() {
+        if (mRequestedCount == 0) {
+            return 0.0f;
+        }
+        return (float) (mSkippedRateLimitedCount + mSkippedUnchangedCount) / mRequestedCount;
+    }
+
+    public float getUnchangedRatio() {
+        if (mCapturedCount == 0) {
+            return 0.0f;
+        }
+        return (float) mSkippedUnchangedCount / mCapturedCount;
+    }
+
+    private void enqueue(@NonNull Session aSession, @Priority int aPriority) {
+        PendingCapture pending = mPending.get(aSession.getId());
+        if (pending == null) {
+            mPending.put(aSession.getId(), new PendingCapture(aSession, aPriority));
+        } else if (aPriority > pending.priority) {
+            pending.priority = aPriority;
+        }
+    }
+
+    private void scheduleFlush(long aDelayMillis) {
+        if (mFlushScheduled) {
+            return;
+        }
+        mFlushScheduled = true;
+        mHandler.postDelayed(this::flush, Math.max(aDelayMillis, 0));
+    }
+
+    private void flush() {
+        mFlushScheduled = false;
+        if (mImmersive || mPending.isEmpty()) {
+            return;
+        }
+
+        // Tabs that are visible in a tab UI go first.
+        List<PendingCapture> pending = new ArrayList<>(mPending.values());
+        pending.sort((a, b) -> Integer.compare(b.priority, a.priority));
+        mPending.clear();
+        for (PendingCapture capture : pending) {
+            if (isPlayingVideo(capture.session)) {
+                // Retried when the video stops, see onVideoStopped().
+                mPending.put(capture.session.getId(), capture);
+                continue;
+            }
+            capture.session.captureBitmap(capture.priority, true);
+        }
+    }
+
+    private static boolean isPlayingVideo(@NonNull Session aSession) {
+        Media media = aSession.getActiveVideo();
+        return media != null && media.isPlaying();
+    }
+
+    /**
+     * Difference hash of a downsampled grayscale version of the bitmap: each bit tells whether a
+     * pixel is brighter than its right neighbour. Small changes (e.g. a blinking cursor) only flip
+     * a couple of bits.
+     */
+    private static long computeHash(@NonNull Bitmap aBitmap) {
+        Bitmap scaled = Bitmap.createScaledBitmap(aBitmap, HASH_WIDTH, HASH_HEIGHT, true);
+        int[] pixels = new int[HASH_WIDTH * HASH_HEIGHT];
+        scaled.getPixels(pixels, 0, HASH_WIDTH, 0, 0, HASH_WIDTH, HASH_HEIGHT);
+        if (scaled != aBitmap) {
+            scaled.recycle();
+        }
+        return computeHash(pixels);
+    }
+
+    private static long computeHash(@NonNull int[] aPixels) {
+        long hash = 0;
+        int bit = 0;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            int row = y * HASH_WIDTH;
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                if (luminance(aPixels[row + x]) > luminance(aPixels[row + x + 1])) {
+                    hash |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+        return hash;
+    }
+
+    private static int hashDistance(long aHash1, long aHash2) {
+        return Long.bitCount(aHash1 ^ aHash2);
+    }
+
+    private static int luminance(int aColor) {
+        return (Color.red(aColor) * 299 + Color.green(aColor) * 587 + Color.blue(aColor) * 114) / 1000;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SnapshotScheduler{requested=" + mRequestedCount +
+                ", captured=" + mCapturedCount +
+                ", stored=" + mStoredCount +
+                ", unchanged=" + mSkippedUnchangedCount +
+                ", rateLimited=" + mSkippedRateLimitedCount +
+                ", deferred=" + mDeferredCount + "}";
+    }
+}
@@ -0,0 +1,222 @@
+package com.igalia.wolvic.browser.engine;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import com.igalia.wolvic.browser.api.WSession;
+import com.igalia.wolvic.telemetry.TelemetryService;
+import com.igalia.wolvic.utils.SystemUtils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Loads suspended tabs that are not shown in any window (received, restored or opened in the
+ * background) without competing with the windows for CPU, network and GPU memory.
+ *
+ * Queued tabs are loaded in order, a few at a time, and only while no foreground tab is loading or
+ * waiting for its first paint, and there is room for more live sessions. A queued tab that gets selected is removed from the queue,
+ * since becoming active loads it right away. The scheduler also measures the time it takes for a
+ * tab brought to the foreground before being painted to show its first contents.
+ */
+@UiThread
+public class TabLoadScheduler {
+
+    private static final String LOGTAG = SystemUtils.createLogtag(TabLoadScheduler.class);
+
+    private static final int MAX_CONCURRENT_LOADS = 2;
+    // Interval used to check whether the foreground loads are done while tabs are queued.
+    private static final long IDLE_CHECK_INTERVAL_MS = 1000;
+    // A background load that never reports its end does not hold a slot for longer than this.
+    private static final long LOAD_TIMEOUT_MS = 20_000;
+
+    public interface Delegate {
+        // Whether any active session is loading a page.
+        boolean isForegroundLoading();
+        // Whether one more session can be alive without others being suspended.
+        boolean canLoadSession();
+    }
+
+    private class BackgroundLoad implements WSession.ProgressDelegate {
+        final Session session;
+        final long startTime = SystemClock.uptimeMillis();
+        boolean started;
+
+        BackgroundLoad(@NonNull Session aSession) {
+            session = aSession;
+        }
+
+        @Override
+        public void onPageStart(@NonNull WSession aSession, @NonNull String aUri) {
+            started = true;
+        }
+
+        @Override
+        public void onPageStop(@NonNull WSession aSession, boolean aSuccess) {
+            // addProgressListener() reports the current state, which is "stopped" until the load starts.
+            if (started) {
+                finishLoad(this);
+            }
+        }
+    }
+
+    private class ForegroundLoad implements WSession.ContentDelegate {
+        final Session session;
+        final long startTime = SystemClock.uptimeMillis();
+
+        ForegroundLoad(@NonNull Session aSession) {
+            session = aSession;
+        }
+
+        @Override
+        public void onFirstContentfulPaint(@NonNull WSession aSession) {
+            TelemetryService.Tabs.foregroundInteractiveTime(SystemClock.uptimeMillis() - startTime);
+            removeForegroundLoad(session);
+        }
+    }
+
+    private final Delegate mDelegate;
+    private final LinkedHashMap<String, Session> mQueue = new LinkedHashMap<>();
+    private final HashMap<String, BackgroundLoad> mLoads = new HashMap<>();
+    private final HashMap<String, ForegroundLoad> mForegroundLoads = new HashMap<>();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mProcessRunnable = this::processQueue;
+    private boolean mProcessScheduled;
+
+    public TabLoadScheduler(@NonNull Delegate aDelegate) {
+        mDelegate = aDelegate;
+    }
+
+    /**
+     * Queues suspended sessions to be loaded in the background, in the given order. Sessions that
+     * are already alive or active are ignored.
+     */
+    public void enqueue(@NonNull List<Session> aSessions) {
+        for (Session session : aSessions) {
+            if (session.getWSession() == null && !session.isActive() && !mLoads.containsKey(session.getId())) {
+                mQueue.put(session.getId(), session);
+            }
+        }
+        TelemetryService.Tabs.loadQueueEvent(mQueue.size());
+        // Give the foreground tabs, which are usually set up at the same time, a head start.
+        scheduleProcess(IDLE_CHECK_INTERVAL_MS);
+    }
+
+    public int getQueueLength() {
+        return mQueue.size();
+    }
+
+    public int getRunningLoadCount() {
+        return mLoads.size();
+    }
+
+    void onSessionStateChanged(@NonNull Session aSession, boolean aActive) {
+        String id = aSession.getId();
+        if (!aActive) {
+            removeForegroundLoad(aSession);
+            return;
+        }
+
+        mQueue.remove(id);
+        BackgroundLoad load = mLoads.remove(id);
+        if (load != null) {
+            aSession.removeProgressListener(load);
+            scheduleProcess(0);
+        }
+        if (!aSession.isFirstContentfulPaint() && !mForegroundLoads.containsKey(id)) {
+            ForegroundLoad foregroundLoad = new ForegroundLoad(aSession);
+            mForegroundLoads.put(id, foregroundLoad);
+            aSession.addContentListener(foregroundLoad);
+        }
+    }
+
+    // A session was suspended or destroyed, which may leave room for a queued one.
+    void onSessionRemoved(@NonNull String aId) {
+        mQueue.remove(aId);
+        ForegroundLoad foregroundLoad = mForegroundLoads.remove(aId);
+        if (foregroundLoad != null) {
+            foregroundLoad.session.removeContentListener(foregroundLoad);
+        }
+        BackgroundLoad load = mLoads.remove(aId);
+        if (load != null) {
+            load.session.removeProgressListener(load);
+        }
+        scheduleProcess(0);
+    }
+
+    private void removeForegroundLoad(@NonNull Session aSession) {
+        ForegroundLoad foregroundLoad = mForegroundLoads.remove(aSession.getId());
+        if (foregroundLoad != null) {
+            aSession.removeContentListener(foregroundLoad);
+        }
+    }
+
+    private void finishLoad(@NonNull BackgroundLoad aLoad) {
+        if (mLoads.remove(aLoad.session.getId()) == null) {
+            return;
+        }
+        aLoad.session.removeProgressListener(aLoad);
+        Log.d(LOGTAG, "Background load finished in " + (SystemClock.uptimeMillis() - aLoad.startTime) + "ms, queued: " + mQueue.size());
+        scheduleProcess(0);
+    }
+
+    private void scheduleProcess(long aDelayMs) {
+        if (mProcessScheduled || (mQueue.isEmpty() && mLoads.isEmpty())) {
+            return;
+        }
+        mProcessScheduled = true;
+        mHandler.postDelayed(mProcessRunnable, aDelayMs);
+    }
+
+    // The foreground is busy while an active tab loads or has not painted yet since it was selected.
+    private boolean isForegroundBusy(long aNow) {
+        if (mDelegate.isForegroundLoading()) {
+            return true;
+        }
+        for (ForegroundLoad foregroundLoad : mForegroundLoads.values()) {
+            if (aNow - foregroundLoad.startTime < LOAD_TIMEOUT_MS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void processQueue() {
+        mProcessScheduled = false;
+
+        long now = SystemClock.uptimeMillis();
+        for (BackgroundLoad load : mLoads.values().toArray(new BackgroundLoad[0])) {
+            if (now - load.startTime > LOAD_TIMEOUT_MS) {
+                finishLoad(load);
+            }
+        }
+
+        if (!isForegroundBusy(now)) {
+            Iterator<Session> iterator = mQueue.values().iterator();
+            while (iterator.hasNext() && mLoads.size() < MAX_CONCURRENT_LOADS && mDelegate.canLoadSession()) {
+                Session session = iterator.next();
+                iterator.remove();
+                if (session.getWSession() != null || session.isActive()) {
+                    continue;
+                }
+                BackgroundLoad load = new BackgroundLoad(session);
+                mLoads.put(session.getId(), load);
+                session.preload();
+                session.addProgressListener(load);
+            }
+        }
+
+        // Keep checking while there is work left, unless it is blocked waiting for a session to be
+        // removed, which will schedule a new pass.
+        if (!mLoads.isEmpty() || (!mQueue.isEmpty() && mDelegate.canLoadSession())) {
+            scheduleProcess(IDLE_CHECK_INTERVAL_MS);
+        }
+    }
+}
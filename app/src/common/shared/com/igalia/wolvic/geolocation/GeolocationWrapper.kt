@@ -2,14 +2,14 @@ package com.igalia.wolvic.geolocation
 
 import android.content.Context
 import android.util.Log
+import com.igalia.wolvic.VRBrowserApplication
 import com.igalia.wolvic.browser.SettingsStore
 import com.igalia.wolvic.browser.engine.EngineProvider
+import com.igalia.wolvic.utils.NetworkJobScheduler
 import com.igalia.wolvic.utils.SystemUtils
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.GlobalScope
 import kotlinx.coroutines.future.future
-import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
 import mozilla.components.service.location.LocationService
 import mozilla.components.service.location.MozillaLocationService
 import java.net.SocketTimeoutException
@@ -17,21 +17,28 @@ import java.util.concurrent.CompletableFuture
 
 object GeolocationWrapper {
     private val LOGTAG = SystemUtils.createLogtag(GeolocationWrapper::class.java)
+    private const val UPDATE_JOB = "geolocation-update"
 
+    /**
+     * Updates the stored region once the startup is finished, retrying while the service can't be
+     * reached.
+     */
     fun update(context: Context) {
         val locationService = MozillaLocationService(
                 context,
                 EngineProvider.getDefaultClient(context),
                 com.igalia.wolvic.BuildConfig.MLS_TOKEN
         )
-        CoroutineScope(Dispatchers.IO).launch {
+        val scheduler = (context.applicationContext as VRBrowserApplication).networkJobScheduler
+        scheduler.schedule(UPDATE_JOB, NetworkJobScheduler.FLAG_DEFERRED) {
             try {
-                locationService.fetchRegion(true)?.run {
+                runBlocking { locationService.fetchRegion(true) }?.run {
                     val data: GeolocationData = GeolocationData.create(countryCode, countryName)
                     SettingsStore.getInstance(context).geolocationData = data.toString()
                 }
             } catch (e: SocketTimeoutException) {
                 Log.w(LOGTAG, "The Mozilla Location Service (MLS) is not available.")
+                throw e
             }
         }
     }
@@ -8,6 +8,8 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.igalia.wolvic.VRBrowserApplication;
+import com.igalia.wolvic.utils.NetworkJobScheduler;
 import com.igalia.wolvic.utils.SystemUtils;
 
 import java.io.File;
@@ -18,8 +20,6 @@ import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -55,15 +55,14 @@ public class VoskModelManager {
 
     private final Context mContext;
     private final Handler mMainHandler;
-    private final ExecutorService mExecutor;
     private volatile boolean mIsDownloading = false;
     private volatile boolean mCancelled = false;
     private volatile java.net.HttpURLConnection mActiveConnection = null;
+    private volatile String mDownloadJob = null;
 
     public VoskModelManager(@NonNull Context context) {
         mContext = context.getApplicationContext();
         mMainHandler = new Handler(Looper.getMainLooper());
-        mExecutor = Executors.newSingleThreadExecutor();
     }
 
     @NonNull
@@ -98,6 +97,13 @@ public class VoskModelManager {
     }
 
     public void cancelDownload() {
+        String job = mDownloadJob;
+        if (job != null && getScheduler().cancel(job)) {
+            // The download was waiting for the network.
+            mDownloadJob = null;
+            mIsDownloading = false;
+            return;
+        }
         mCancelled = true;
         java.net.HttpURLConnection conn = mActiveConnection;
         if (conn != null) {
@@ -112,11 +118,20 @@ public class VoskModelManager {
             }
             return;
         }
+        if (!getScheduler().isConnected()) {
+            // The job would wait for the network without any feedback, while the user waits for it.
+            if (callback != null) {
+                callback.onError("No network connection");
+            }
+            return;
+        }
 
         mCancelled = false;
         mIsDownloading = true;
 
-        mExecutor.execute(() -> {
+        // The download starts right away, since the user is waiting for it.
+        mDownloadJob = "vosk-model:" + getModelName(lang);
+        getScheduler().schedule(mDownloadJob, NetworkJobScheduler.FLAG_NO_RETRY, () -> {
             String modelName = getModelName(lang);
             String modelDirPath = getModelDir(lang);
             String zipUrl = MODEL_BASE_URL + modelName + VOSK_MODEL_ZIP_EXTENSION;
@@ -191,12 +206,17 @@ public class VoskModelManager {
                     zipFile.delete();
                 }
                 mActiveConnection = null;
+                mDownloadJob = null;
                 mIsDownloading = false;
                 mCancelled = false;
             }
         });
     }
 
+    private NetworkJobScheduler getScheduler() {
+        return ((VRBrowserApplication) mContext).getNetworkJobScheduler();
+    }
+
     private void unzipFile(File zipFile, File targetDir) throws IOException {
         try (ZipInputStream zis = new ZipInputStream(new java.io.FileInputStream(zipFile))) {
             ZipEntry entry;
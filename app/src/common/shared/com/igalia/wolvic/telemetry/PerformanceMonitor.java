@@ -0,0 +1,312 @@
+package com.igalia.wolvic.telemetry;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Low overhead runtime metrics for the costs that matter in VR: main thread stalls, latency of the
+ * runnables queued to the render thread, widget texture redraws and the poor performance signals
+ * sent by the native frame loop.
+ *
+ * Measurements are sampled (a heartbeat on the main thread, one out of every few queued runnables
+ * and redraws) and recorded in fixed-bucket histograms made of atomic counters, so recording never
+ * allocates or takes a lock. Aggregates are periodically sent through {@link TelemetryService} and
+ * can be read live by the performance overlay.
+ */
+@AnyThread
+public class PerformanceMonitor {
+
+    public enum Metric {
+        UI_STALL("ui_stall"),
+        NATIVE_QUEUE_LATENCY("native_queue_latency"),
+        WIDGET_DRAW("widget_draw");
+
+        private final String mName;
+
+        Metric(String aName) {
+            mName = aName;
+        }
+
+        @NonNull
+        public String getName() {
+            return mName;
+        }
+    }
+
+    // Upper bounds of the histogram buckets, in microseconds. The last bucket has no upper bound.
+    private static final long[] BUCKET_BOUNDS_US = {
+            1_000, 2_000, 4_000, 8_000, 11_000, 16_000, 22_000, 33_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    private static final long HEARTBEAT_INTERVAL_MS = 100;
+    private static final long REPORT_INTERVAL_MS = 60_000;
+    // A main thread heartbeat delayed by more than this is counted as a stall (several frames at
+    // 72Hz). It must be one of the bucket bounds.
+    private static final long STALL_THRESHOLD_US = 50_000;
+    // Must be powers of two.
+    private static final int QUEUE_SAMPLE_RATE = 16;
+    private static final int DRAW_SAMPLE_RATE = 8;
+
+    /**
+     * Fixed-bucket histogram of durations. Counts only grow; deltas are obtained by subtracting
+     * snapshots, so several readers can consume it at their own pace.
+     */
+    public static class Histogram {
+        private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_BOUNDS_US.length + 1);
+        private final AtomicLong mSumUs = new AtomicLong();
+
+        void record(long aDurationUs) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_US.length && aDurationUs > BUCKET_BOUNDS_US[bucket]) {
+                bucket++;
+            }
+            mCounts.incrementAndGet(bucket);
+            mSumUs.addAndGet(aDurationUs);
+        }
+
+        @NonNull
+        public Snapshot snapshot() {
+            long[] counts = new long[mCounts.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = mCounts.get(i);
+            }
+            return new Snapshot(counts, mSumUs.get());
+        }
+    }
+
+    public static class Snapshot {
+        private final long[] mCounts;
+        private final long mSumUs;
+        private final long mCount;
+
+        Snapshot(@NonNull long[] aCounts, long aSumUs) {
+            mCounts = aCounts;
+            mSumUs = aSumUs;
+            long count = 0;
+            for (long bucketCount : aCounts) {
+                count += bucketCount;
+            }
+            mCount = count;
+        }
+
+        public static Snapshot empty() {
+            return new Snapshot(new long[BUCKET_BOUNDS_US.length + 1], 0);
+        }
+
+        /**
+         * @return the measurements recorded after aPrevious was taken.
+         */
+        @NonNull
+        public Snapshot minus(@NonNull Snapshot aPrevious) {
+            long[] counts = new long[mCounts.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = mCounts[i] - aPrevious.mCounts[i];
+            }
+            return new Snapshot(counts, mSumUs - aPrevious.mSumUs);
+        }
+
+        public long getCount() {
+            return mCount;
+        }
+
+        public float getMeanMillis() {
+            return mCount == 0 ? 0.0f : mSumUs / (mCount * 1000.0f);
+        }
+
+        /**
+         * @return the upper bound of the bucket containing the given percentile, in milliseconds.
+         * Measurements in the last, unbounded, bucket are reported as twice its lower bound.
+         */
+        public float getPercentileMillis(float aPercentile) {
+            if (mCount == 0) {
+                return 0.0f;
+            }
+            long rank = (long) Math.ceil(mCount * aPercentile / 100.0f);
+            long seen = 0;
+            for (int i = 0; i < mCounts.length; i++) {
+                seen += mCounts[i];
+                if (seen >= rank) {
+                    return bucketUpperBoundUs(i) / 1000.0f;
+                }
+            }
+            return bucketUpperBoundUs(mCounts.length - 1) / 1000.0f;
+        }
+
+        /**
+         * @return the number of measurements above the given duration, rounded to bucket bounds.
+         */
+        public long getCountAbove(long aDurationUs) {
+            long count = 0;
+            for (int i = 1; i < mCounts.length; i++) {
+                if (BUCKET_BOUNDS_US[i - 1] >= aDurationUs) {
+                    count += mCounts[i];
+                }
+            }
+            return count;
+        }
+
+        private static long bucketUpperBoundUs(int aBucket) {
+            if (aBucket < BUCKET_BOUNDS_US.length) {
+                return BUCKET_BOUNDS_US[aBucket];
+            }
+            return BUCKET_BOUNDS_US[BUCKET_BOUNDS_US.length - 1] * 2;
+        }
+    }
+
+    private static PerformanceMonitor mInstance;
+
+    public static synchronized PerformanceMonitor get() {
+        if (mInstance == null) {
+            mInstance = new PerformanceMonitor();
+        }
+        return mInstance;
+    }
+
+    private final Histogram[] mHistograms = new Histogram[Metric.values().length];
+    private final AtomicLong mPoorPerformanceCount = new AtomicLong();
+    private final AtomicInteger mQueueSequence = new AtomicInteger();
+    private final AtomicInteger mDrawSequence = new AtomicInteger();
+    private final AtomicBoolean mHeartbeatPending = new AtomicBoolean();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean mRunning;
+    private ScheduledFuture<?> mHeartbeat;
+    private ScheduledFuture<?> mReport;
+    private final Snapshot[] mReported = new Snapshot[Metric.values().length];
+    private long mReportedPoorPerformanceCount;
+
+    private PerformanceMonitor() {
+        for (Metric metric : Metric.values()) {
+            mHistograms[metric.ordinal()] = new Histogram();
+            mReported[metric.ordinal()] = Snapshot.empty();
+        }
+    }
+
+    /**
+     * Starts the main thread heartbeat and the periodic reports. Recording from the other sources
+     * only happens while the monitor is running.
+     */
+    @UiThread
+    public void start(@NonNull ScheduledExecutorService aExecutor) {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mHeartbeat = aExecutor.scheduleWithFixedDelay(this::postHeartbeat,
+                HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        mReport = aExecutor.scheduleWithFixedDelay(this::report,
+                REPORT_INTERVAL_MS, REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @UiThread
+    public void stop() {
+        if (!mRunning) {
+            return;
+        }
+        mRunning = false;
+        mHeartbeat.cancel(false);
+        mReport.cancel(false);
+        mHeartbeat = null;
+        mReport = null;
+    }
+
+    @NonNull
+    public Histogram getHistogram(@NonNull Metric aMetric) {
+        return mHistograms[aMetric.ordinal()];
+    }
+
+    public long getPoorPerformanceCount() {
+        return mPoorPerformanceCount.get();
+    }
+
+    public long getStallThresholdMicros() {
+        return STALL_THRESHOLD_US;
+    }
+
+    /**
+     * Wraps a runnable about to be queued to the render thread so the time it waits in the queue
+     * is measured. Only one out of every few runnables is measured, the rest are returned as is.
+     */
+    @NonNull
+    public Runnable trackQueuedRunnable(@NonNull Runnable aRunnable) {
+        if (!mRunning || (mQueueSequence.incrementAndGet() & (QUEUE_SAMPLE_RATE - 1)) != 0) {
+            return aRunnable;
+        }
+        final long queuedAt = SystemClock.elapsedRealtimeNanos();
+        return () -> {
+            record(Metric.NATIVE_QUEUE_LATENCY, (SystemClock.elapsedRealtimeNanos() - queuedAt) / 1000);
+            aRunnable.run();
+        };
+    }
+
+    /**
+     * @return the start time of a widget redraw if it should be measured, 0 otherwise. The value
+     * must be passed to {@link #endWidgetDraw(long)} when the redraw is done.
+     */
+    public long beginWidgetDraw() {
+        if (!mRunning || (mDrawSequence.incrementAndGet() & (DRAW_SAMPLE_RATE - 1)) != 0) {
+            return 0;
+        }
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public void endWidgetDraw(long aStartNanos) {
+        if (aStartNanos != 0) {
+            record(Metric.WIDGET_DRAW, (SystemClock.elapsedRealtimeNanos() - aStartNanos) / 1000);
+        }
+    }
+
+    /**
+     * Called when the native frame loop reports that the frame rate dropped below the target.
+     */
+    public void onPoorPerformance() {
+        mPoorPerformanceCount.incrementAndGet();
+    }
+
+    private void record(@NonNull Metric aMetric, long aDurationUs) {
+        mHistograms[aMetric.ordinal()].record(Math.max(aDurationUs, 0));
+    }
+
+    private void postHeartbeat() {
+        // Only one heartbeat in flight, so a long stall is recorded once instead of once per interval.
+        if (!mHeartbeatPending.compareAndSet(false, true)) {
+            return;
+        }
+        final long postedAt = SystemClock.elapsedRealtimeNanos();
+        mMainHandler.post(() -> {
+            record(Metric.UI_STALL, (SystemClock.elapsedRealtimeNanos() - postedAt) / 1000);
+            mHeartbeatPending.set(false);
+        });
+    }
+
+    // Runs on the scheduled executor, the only reader of mReported.
+    private void report() {
+        for (Metric metric : Metric.values()) {
+            Snapshot current = mHistograms[metric.ordinal()].snapshot();
+            Snapshot delta = current.minus(mReported[metric.ordinal()]);
+            mReported[metric.ordinal()] = current;
+            if (delta.getCount() > 0) {
+                TelemetryService.Performance.histogramEvent(metric.getName(), delta,
+                        metric == Metric.UI_STALL ? delta.getCountAbove(STALL_THRESHOLD_US) : -1);
+            }
+        }
+
+        long poorPerformanceCount = mPoorPerformanceCount.get();
+        if (poorPerformanceCount > mReportedPoorPerformanceCount) {
+            TelemetryService.Performance.poorPerformanceEvent(poorPerformanceCount - mReportedPoorPerformanceCount);
+            mReportedPoorPerformanceCount = poorPerformanceCount;
+        }
+    }
+}
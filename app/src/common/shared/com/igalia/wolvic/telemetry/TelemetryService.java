@@ -268,5 +268,128 @@ public class TelemetryService {
             }
             service.count("tab_activated", null);
         }
+
+        // result is one of "stored", "unchanged", "rate_limited" or "deferred".
+        public static void snapshotEvent(@NonNull String result) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putString("result", result);
+            service.count("tab_snapshot", bundle);
+        }
+
+        // A snapshot of the number of tabs waiting to be loaded in the background -> event.
+        public static void loadQueueEvent(int length) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putInt("length", length);
+            service.event("tab_load_queue", bundle);
+        }
+
+        // Time from a tab being brought to the foreground before it was loaded to its first contentful paint.
+        public static void foregroundInteractiveTime(long durationMillis) {
+            if (service == null) {
+                return;
+            }
+            service.timedEvent("tab_foreground_interactive", durationMillis, null);
+        }
+    }
+
+    // Aggregates sampled by PerformanceMonitor over a reporting period. A distribution can't be
+    // carried by a counter, so it is sent as an event with the summary as attributes.
+    public static class Performance {
+
+        // stalls is the number of measurements above the stall threshold, or -1 if not applicable.
+        public static void histogramEvent(@NonNull String metric, @NonNull PerformanceMonitor.Snapshot snapshot, long stalls) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putString("metric", metric);
+            bundle.putLong("count", snapshot.getCount());
+            bundle.putFloat("mean_ms", snapshot.getMeanMillis());
+            bundle.putFloat("p50_ms", snapshot.getPercentileMillis(50));
+            bundle.putFloat("p95_ms", snapshot.getPercentileMillis(95));
+            bundle.putFloat("p99_ms", snapshot.getPercentileMillis(99));
+            if (stalls >= 0) {
+                bundle.putLong("stalls", stalls);
+            }
+            service.event("perf_histogram", bundle);
+        }
+
+        public static void cacheEvent(@NonNull String cache, long memoryHits, long diskHits, long misses) {
+            if (service == null) {
+                return;
+            }
+            long total = memoryHits + diskHits + misses;
+            Bundle bundle = new Bundle();
+            bundle.putString("cache", cache);
+            bundle.putLong("memory_hits", memoryHits);
+            bundle.putLong("disk_hits", diskHits);
+            bundle.putLong("misses", misses);
+            bundle.putFloat("hit_ratio", total > 0 ? (float) (memoryHits + diskHits) / total : 0);
+            service.event("perf_cache", bundle);
+        }
+
+        // Time taken by the first candidates lookup after switching the keyboard language.
+        public static void keyboardCandidatesEvent(@NonNull String language, long durationMillis, boolean warmedUp) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putString("language", language);
+            bundle.putBoolean("warmed_up", warmedUp);
+            service.timedEvent("perf_keyboard_first_candidates", durationMillis, bundle);
+        }
+
+        // Time taken to create a window, with the Java heap in use once it is created.
+        public static void windowCreationEvent(long durationMillis, int windows) {
+            if (service == null) {
+                return;
+            }
+            Runtime runtime = Runtime.getRuntime();
+            Bundle bundle = new Bundle();
+            bundle.putInt("windows", windows);
+            bundle.putLong("heap_kb", (runtime.totalMemory() - runtime.freeMemory()) / 1024);
+            service.timedEvent("perf_window_creation", durationMillis, bundle);
+        }
+
+        // Time taken to open a settings panel, whether its view was recycled, and the number of
+        // panels inflated by the settings widget so far.
+        public static void settingsPanelEvent(@NonNull String panel, long durationMillis, boolean recycled, int inflations) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putString("panel", panel);
+            bundle.putBoolean("recycled", recycled);
+            bundle.putInt("inflations", inflations);
+            service.timedEvent("perf_settings_panel", durationMillis, bundle);
+        }
+
+        // Time taken to decode the faces of a downloaded environment, which every load paid before
+        // they were transcoded, and their texture memory as RGBA and as ETC2.
+        public static void environmentTranscodeEvent(long decodeMillis, long encodeMillis, long uncompressedBytes, long compressedBytes) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putLong("encode_ms", encodeMillis);
+            bundle.putLong("uncompressed_kb", uncompressedBytes / 1024);
+            bundle.putLong("compressed_kb", compressedBytes / 1024);
+            service.timedEvent("perf_environment_transcode", decodeMillis, bundle);
+        }
+
+        public static void poorPerformanceEvent(long count) {
+            if (service == null) {
+                return;
+            }
+            Bundle bundle = new Bundle();
+            bundle.putLong("count", count);
+            service.event("perf_poor_frame_rate", bundle);
+        }
     }
 }
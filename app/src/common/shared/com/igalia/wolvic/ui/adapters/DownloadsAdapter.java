@@ -141,6 +141,14 @@ public class DownloadsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
         item.binding.setItem(downloadItem);
         item.binding.setIsNarrow(mIsNarrowLayout);
 
+        ThumbnailLoader thumbnails = ThumbnailLoader.getInstance(binding.layout.getContext());
+        Uri fileUri = downloadItem.getStatus() == Download.SUCCESSFUL ? downloadItem.getOutputFileUri() : null;
+        if (fileUri == null) {
+            // Any thumbnail still loading for a previous item must not replace the new icon. Rows
+            // that load a thumbnail are left to load(), which keeps a load for the same file going
+            // across the rebinds of the list.
+            thumbnails.cancel(binding.thumbnail);
+        }
         switch (downloadItem.getStatus()) {
             case Download.PENDING:
                 binding.thumbnail.setImageResource(R.drawable.ic_pending_circle);
@@ -156,23 +164,20 @@ public class DownloadsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
                 binding.thumbnail.setImageResource(R.drawable.ic_error_circle);
                 break;
             case Download.SUCCESSFUL: {
-                Uri fileUri = downloadItem.getOutputFileUri();
                 if (fileUri == null) {
                     // If this ever happens, we mark the item as unavailable.
                     binding.thumbnail.setImageResource(R.drawable.ic_error_circle);
                 } else {
-                    TaskRunner taskRunner = new TaskRunner();
-                    ThumbnailTask thumbnailTask = new ThumbnailTask(binding.layout.getContext(), fileUri,
+                    thumbnails.load(binding.thumbnail, fileUri,
                             bitmap -> {
-                                if (bitmap == null || binding.getItem() == null || !Objects.equals(fileUri, binding.getItem().getOutputFileUri()))
+                                if (binding.getItem() == null || !Objects.equals(fileUri, binding.getItem().getOutputFileUri()))
+                                    return;
+                                if (bitmap == null)
                                     binding.thumbnail.setImageResource(R.drawable.ic_generic_file);
                                 else
                                     binding.thumbnail.setImageBitmap(bitmap);
                             }
                     );
-                    taskRunner.executeAsync(thumbnailTask, (data) -> {
-                        thumbnailTask.onPostExecute(data);
-                    });
                 }
                 break;
             }
@@ -262,6 +267,12 @@ public class DownloadsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHold
         });
     }
 
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        DownloadItemBinding binding = ((DownloadItemViewHolder) holder).binding;
+        ThumbnailLoader.getInstance(binding.layout.getContext()).cancel(binding.thumbnail);
+    }
+
     @Override
     public int getItemCount() {
         return mDownloadsList == null ? 0 : mDownloadsList.size();
@@ -123,23 +123,27 @@ public class FileUploadAdapter extends RecyclerView.Adapter<RecyclerView.ViewHol
 
         binding.setItem(item);
         final Uri itemUri = item.getUri();
-        TaskRunner taskRunner = new TaskRunner();
-        ThumbnailTask thumbnailTask = new ThumbnailTask(binding.layout.getContext(), item.getUri(),
+        ThumbnailLoader.getInstance(binding.layout.getContext()).load(binding.thumbnail, itemUri,
                 bitmap -> {
-                    if (bitmap == null || binding.getItem() == null || !Objects.equals(itemUri, binding.getItem().getUri()))
+                    if (binding.getItem() == null || !Objects.equals(itemUri, binding.getItem().getUri()))
+                        return;
+                    if (bitmap == null)
                         binding.thumbnail.setImageResource(R.drawable.ic_generic_file);
                     else
                         binding.thumbnail.setImageBitmap(bitmap);
                 }
         );
-        taskRunner.executeAsync(thumbnailTask, (data) -> {
-            thumbnailTask.onPostExecute(data);
-        });
 
         boolean isSelected = mSelectedItems.contains(item);
         binding.layout.setSelected(isSelected);
     }
 
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        FileUploadItemBinding binding = ((FileUploadViewHolder) holder).binding;
+        ThumbnailLoader.getInstance(binding.layout.getContext()).cancel(binding.thumbnail);
+    }
+
     @Override
     public int getItemCount() {
         return mFilesList == null ? 0 : mFilesList.size();
@@ -3,17 +3,16 @@ package com.igalia.wolvic.ui.adapters;
 import com.igalia.wolvic.utils.StringUtils;
 
 import java.util.Locale;
+import java.util.function.Supplier;
 
 public class Language {
 
     public Language(Locale locale) {
-        this.locale = locale;
-        this.isPreferred = false;
-
-        String languageId = locale.toLanguageTag();
-        String displayNameFromLocale = locale.getDisplayName();
-        String displayName = displayNameFromLocale != null ? StringUtils.capitalize(displayNameFromLocale) : "";
-        this.displayName = displayName + " [" + languageId + "]";
+        this(locale, () -> {
+            String displayNameFromLocale = locale.getDisplayName();
+            String displayName = displayNameFromLocale != null ? StringUtils.capitalize(displayNameFromLocale) : "";
+            return displayName + " [" + locale.toLanguageTag() + "]";
+        });
     }
 
     public Language(Locale locale, String displayName) {
@@ -22,18 +21,41 @@ public class Language {
         this.displayName = displayName != null ? StringUtils.capitalize(displayName) : "";
     }
 
+    /**
+     * Creates a language whose display name is only built when it is first shown.
+     */
+    public Language(Locale locale, Supplier<String> displayNameSupplier) {
+        this.locale = locale;
+        this.isPreferred = false;
+        this.displayNameSupplier = displayNameSupplier;
+    }
+
     private Locale locale;
     private boolean isPreferred;
     private String displayName;
+    private Supplier<String> displayNameSupplier;
 
     public Locale getLocale() {
         return this.locale;
     }
 
     public String getDisplayName() {
+        if (this.displayName == null) {
+            String displayName = this.displayNameSupplier.get();
+            this.displayName = displayName != null ? StringUtils.capitalize(displayName) : "";
+        }
         return this.displayName;
     }
 
+    /**
+     * Builds the display name again the next time it is shown, after the display language changed.
+     */
+    public void invalidateDisplayName() {
+        if (this.displayNameSupplier != null) {
+            this.displayName = null;
+        }
+    }
+
     public String getLanguageTag() {
         return this.locale.toLanguageTag();
     }
@@ -0,0 +1,221 @@
+package com.igalia.wolvic.ui.adapters;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+
+import com.igalia.wolvic.VRBrowserApplication;
+import com.igalia.wolvic.utils.BitmapCache;
+import com.igalia.wolvic.utils.SystemUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the thumbnails of local files shown in the downloads and file upload lists.
+ *
+ * Thumbnails are generated by {@link ThumbnailTask} on a small shared pool of workers and stored
+ * in the {@link BitmapCache}, keyed by URI and modification time, so they survive restarts and are
+ * regenerated when the file changes. Requests for the same URI share the work, and a request is
+ * cancelled when its target (usually the ImageView of a recycled view holder) is bound again.
+ */
+@UiThread
+public class ThumbnailLoader {
+
+    static final String LOGTAG = SystemUtils.createLogtag(ThumbnailLoader.class);
+
+    private static final int MAX_WORKERS = 2;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+    // How long the modification time of a file is trusted before it is checked again. Lists are
+    // rebound often (the downloads list is refreshed every 100ms), and this lets rebinds be served
+    // from memory without touching the disk.
+    private static final long KEY_VALIDITY_MS = 5000;
+    private static final int MAX_KEYS = 256;
+    private static final String KEY_PREFIX = "thumbnail:";
+
+    public interface Callback {
+        void onThumbnail(@Nullable Bitmap bitmap);
+    }
+
+    private static class Request {
+        Callback callback;
+        final Load load;
+
+        Request(@NonNull Callback aCallback, @NonNull Load aLoad) {
+            callback = aCallback;
+            load = aLoad;
+        }
+    }
+
+    // The work for a URI, shared by all the requests for it.
+    private static class Load {
+        final Uri uri;
+        final CancellationSignal signal = new CancellationSignal();
+        final List<Request> requests = new ArrayList<>();
+        Future<?> future;
+
+        Load(@NonNull Uri aUri) {
+            uri = aUri;
+        }
+    }
+
+    private static class ResolvedKey {
+        final String key;
+        final long time;
+
+        ResolvedKey(@NonNull String aKey, long aTime) {
+            key = aKey;
+            time = aTime;
+        }
+    }
+
+    public static ThumbnailLoader getInstance(@NonNull Context aContext) {
+        return ((VRBrowserApplication) aContext.getApplicationContext()).getThumbnailLoader();
+    }
+
+    private final Context mContext;
+    private final BitmapCache mBitmapCache;
+    private final Executor mMainExecutor;
+    private final ThreadPoolExecutor mWorkers;
+    private final HashMap<String, Load> mLoads = new HashMap<>();
+    private final WeakHashMap<Object, Request> mRequests = new WeakHashMap<>();
+    private final LruCache<String, ResolvedKey> mKeys = new LruCache<>(MAX_KEYS);
+    // Cache keys of the files that have no thumbnail, so they are not decoded again on every bind.
+    private final LruCache<String, Boolean> mMissing = new LruCache<>(MAX_KEYS);
+
+    public ThumbnailLoader(@NonNull Context aContext, @NonNull BitmapCache aBitmapCache, @NonNull Executor aMainExecutor) {
+        mContext = aContext.getApplicationContext();
+        mBitmapCache = aBitmapCache;
+        mMainExecutor = aMainExecutor;
+        mWorkers = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        mWorkers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Loads the thumbnail of a file and passes it to the callback, or null if there is none. The
+     * callback may be called synchronously when the thumbnail is in memory. A previous request
+     * for the same target is cancelled when it was for another URI, so its callback will not be
+     * called. Otherwise its load keeps running and calls the new callback instead.
+     */
+    public void load(@NonNull Object aTarget, @NonNull Uri aUri, @NonNull Callback aCallback) {
+        Request previous = mRequests.get(aTarget);
+        if (previous != null && previous.load.uri.equals(aUri)) {
+            // The target is rebound to the same file, as the downloads list does on every refresh.
+            // Restarting the load would keep a slow thumbnail from ever finishing.
+            previous.callback = aCallback;
+            return;
+        }
+        cancel(aTarget);
+
+        String uriKey = aUri.toString();
+        ResolvedKey resolved = mKeys.get(uriKey);
+        if (resolved != null && SystemClock.uptimeMillis() - resolved.time < KEY_VALIDITY_MS) {
+            if (mMissing.get(resolved.key) != null) {
+                aCallback.onThumbnail(null);
+                return;
+            }
+            if (mBitmapCache.hasBitmap(resolved.key)) {
+                // Completed synchronously from the memory cache.
+                mBitmapCache.getBitmap(resolved.key).thenAccept(aCallback::onThumbnail);
+                return;
+            }
+        }
+
+        Load load = mLoads.get(uriKey);
+        if (load == null) {
+            final Load newLoad = new Load(aUri);
+            newLoad.future = mWorkers.submit(() -> runLoad(newLoad));
+            mLoads.put(uriKey, newLoad);
+            load = newLoad;
+        }
+        Request request = new Request(aCallback, load);
+        load.requests.add(request);
+        mRequests.put(aTarget, request);
+    }
+
+    /**
+     * Cancels the pending request for a target, if any. The work is stopped when no other target
+     * is waiting for the same URI.
+     */
+    public void cancel(@NonNull Object aTarget) {
+        Request request = mRequests.remove(aTarget);
+        if (request == null) {
+            return;
+        }
+        Load load = request.load;
+        load.requests.remove(request);
+        if (load.requests.isEmpty()) {
+            load.signal.cancel();
+            load.future.cancel(false);
+            mLoads.remove(load.uri.toString());
+        }
+    }
+
+    public void end() {
+        for (Load load : mLoads.values()) {
+            load.signal.cancel();
+        }
+        mLoads.clear();
+        mRequests.clear();
+        mWorkers.shutdownNow();
+    }
+
+    @WorkerThread
+    private void runLoad(@NonNull Load aLoad) {
+        if (aLoad.signal.isCanceled()) {
+            return;
+        }
+
+        String key = KEY_PREFIX + aLoad.uri + "@" + ThumbnailTask.getLastModified(mContext, aLoad.uri);
+        // Looked up on this worker, so a busy UI thread or a disk cache that failed to open can't
+        // keep the load waiting.
+        Bitmap bitmap = mBitmapCache.getBitmapNow(key);
+
+        if (bitmap == null && !aLoad.signal.isCanceled()) {
+            bitmap = new ThumbnailTask(mContext, aLoad.uri, aLoad.signal).call();
+            if (bitmap != null) {
+                mBitmapCache.addBitmap(key, bitmap);
+            }
+        }
+
+        final Bitmap result = bitmap;
+        final boolean missing = bitmap == null && !aLoad.signal.isCanceled();
+        mMainExecutor.execute(() -> onLoadFinished(aLoad, key, result, missing));
+    }
+
+    private void onLoadFinished(@NonNull Load aLoad, @NonNull String aKey, @Nullable Bitmap aBitmap, boolean aMissing) {
+        String uriKey = aLoad.uri.toString();
+        mKeys.put(uriKey, new ResolvedKey(aKey, SystemClock.uptimeMillis()));
+        if (aMissing) {
+            mMissing.put(aKey, true);
+        }
+        if (mLoads.get(uriKey) == aLoad) {
+            mLoads.remove(uriKey);
+        }
+        if (aLoad.requests.isEmpty()) {
+            return;
+        }
+
+        mRequests.values().removeAll(aLoad.requests);
+        for (Request request : aLoad.requests) {
+            request.callback.onThumbnail(aBitmap);
+        }
+        aLoad.requests.clear();
+    }
+}
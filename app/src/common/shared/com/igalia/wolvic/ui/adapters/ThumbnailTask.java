@@ -2,55 +2,64 @@ package com.igalia.wolvic.ui.adapters;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.database.Cursor;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
 import android.media.ThumbnailUtils;
 import android.net.Uri;
 import android.os.Build;
 import android.os.CancellationSignal;
-import android.os.Handler;
-import android.os.Looper;
+import android.provider.MediaStore;
 import android.util.Log;
 import android.util.Size;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.WorkerThread;
 
 import com.igalia.wolvic.utils.SystemUtils;
 import com.igalia.wolvic.utils.UrlUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.Callable;
 
+/**
+ * Creates the thumbnail of a local file or content URI. Run by {@link ThumbnailLoader}, which
+ * caches the results.
+ */
+@WorkerThread
 public class ThumbnailTask implements Callable<Bitmap> {
 
     static final String LOGTAG = SystemUtils.createLogtag(ThumbnailTask.class);
 
-    @Override
-    public Bitmap call() throws Exception {
-        return doInBackground();
-    }
+    static final Size DEFAULT_SIZE = new Size(96, 96);
 
-    public interface OnSuccessDelegate {
-        void onSuccess(Bitmap bitmap);
+    private interface StreamOpener {
+        InputStream open() throws IOException;
     }
 
-    private static final Size DEFAULT_SIZE = new Size(96, 96);
-
+    private final Context mContext;
     private final ContentResolver mContentResolver;
     private final Uri mFileUri;
-    private final OnSuccessDelegate mOnSuccessDelegate;
-    private CancellationSignal mCancellationSignal;
+    private final CancellationSignal mCancellationSignal;
 
-    public ThumbnailTask(@NonNull Context context, Uri fileUri, OnSuccessDelegate onSuccessDelegate) {
+    public ThumbnailTask(@NonNull Context context, @NonNull Uri fileUri, @NonNull CancellationSignal cancellationSignal) {
+        mContext = context.getApplicationContext();
         mContentResolver = context.getContentResolver();
         mFileUri = fileUri;
-        mOnSuccessDelegate = onSuccessDelegate;
+        mCancellationSignal = cancellationSignal;
     }
 
-    protected Bitmap doInBackground(Void... voids) {
-        if (mFileUri == null)
+    @Override
+    public Bitmap call() {
+        if (mCancellationSignal.isCanceled()) {
             return null;
+        }
 
         if (UrlUtils.isFileUri(mFileUri.toString())) {
             File file = new File(mFileUri.getPath());
@@ -68,17 +77,27 @@ public class ThumbnailTask implements Callable<Bitmap> {
         }
     }
 
-    protected void onCancelled() {
-        if (mCancellationSignal != null) {
-            mCancellationSignal.cancel();
-            mCancellationSignal = null;
+    /**
+     * @return the last modification time of the file, or 0 if it is not known.
+     */
+    static long getLastModified(@NonNull Context context, @NonNull Uri fileUri) {
+        if (UrlUtils.isFileUri(fileUri.toString())) {
+            return new File(fileUri.getPath()).lastModified();
         }
+        String[] projection = { MediaStore.MediaColumns.DATE_MODIFIED };
+        try (Cursor cursor = context.getContentResolver().query(fileUri, projection, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (IllegalArgumentException | SecurityException e) {
+            // The provider does not support the column.
+        }
+        return 0;
     }
 
     @RequiresApi(api = Build.VERSION_CODES.Q)
     private Bitmap createFileThumbnail(@NonNull File file) {
         String mimeType = UrlUtils.getMimeTypeFromUrl(file.getPath());
-        mCancellationSignal = new CancellationSignal();
 
         try {
             if (mimeType.startsWith("audio")) {
@@ -95,29 +114,126 @@ public class ThumbnailTask implements Callable<Bitmap> {
     }
 
     private Bitmap createFileThumbnailLegacy(@NonNull File file) {
-        // TODO implement
+        String mimeType = UrlUtils.getMimeTypeFromUrl(file.getPath());
+
+        if (mimeType.startsWith("image")) {
+            return createImageThumbnailLegacy(() -> new FileInputStream(file));
+        } else if (mimeType.startsWith("audio") || mimeType.startsWith("video")) {
+            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+            try {
+                retriever.setDataSource(file.getPath());
+            } catch (IllegalArgumentException e) {
+                Log.w(LOGTAG, "createFileThumbnailLegacy error, file=" + file + " : " + e.getMessage());
+                releaseRetriever(retriever);
+                return null;
+            }
+            return createMediaThumbnailLegacy(retriever, mimeType.startsWith("video"));
+        }
         return null;
     }
 
     @RequiresApi(api = Build.VERSION_CODES.Q)
     private Bitmap createContentThumbnail(@NonNull Uri uri) {
         try {
-            return mContentResolver.loadThumbnail(uri, DEFAULT_SIZE, null);
+            return mContentResolver.loadThumbnail(uri, DEFAULT_SIZE, mCancellationSignal);
         } catch (IOException e) {
             Log.w(LOGTAG, "createContentThumbnail error, uri=" + uri + " : " + e.getMessage());
-            e.printStackTrace();
         }
         return null;
     }
 
     private Bitmap createContentThumbnailLegacy(@NonNull Uri uri) {
-        // TODO implement
+        String mimeType = mContentResolver.getType(uri);
+        if (mimeType == null) {
+            mimeType = UrlUtils.getMimeTypeFromUrl(uri.toString());
+        }
+
+        if (mimeType.startsWith("image")) {
+            return createImageThumbnailLegacy(() -> mContentResolver.openInputStream(uri));
+        } else if (mimeType.startsWith("audio") || mimeType.startsWith("video")) {
+            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+            try {
+                retriever.setDataSource(mContext, uri);
+            } catch (IllegalArgumentException | SecurityException e) {
+                Log.w(LOGTAG, "createContentThumbnailLegacy error, uri=" + uri + " : " + e.getMessage());
+                releaseRetriever(retriever);
+                return null;
+            }
+            return createMediaThumbnailLegacy(retriever, mimeType.startsWith("video"));
+        }
+        return null;
+    }
+
+    @Nullable
+    private Bitmap createImageThumbnailLegacy(@NonNull StreamOpener opener) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try {
+            try (InputStream input = opener.open()) {
+                BitmapFactory.decodeStream(input, null, options);
+            }
+            if (options.outWidth <= 0 || options.outHeight <= 0 || mCancellationSignal.isCanceled()) {
+                return null;
+            }
+            options.inSampleSize = getSampleSize(options.outWidth, options.outHeight);
+            options.inJustDecodeBounds = false;
+            try (InputStream input = opener.open()) {
+                return scaleToThumbnail(BitmapFactory.decodeStream(input, null, options));
+            }
+        } catch (IOException | SecurityException e) {
+            Log.w(LOGTAG, "createImageThumbnailLegacy error, uri=" + mFileUri + " : " + e.getMessage());
+        }
         return null;
     }
 
-    protected void onPostExecute(Bitmap bitmap) {
-        if (bitmap != null && mOnSuccessDelegate != null) {
-            (new Handler(Looper.getMainLooper())).post(() -> mOnSuccessDelegate.onSuccess(bitmap));
+    // Uses the embedded artwork if there is one, or a frame of the video.
+    @Nullable
+    private Bitmap createMediaThumbnailLegacy(@NonNull MediaMetadataRetriever retriever, boolean isVideo) {
+        try {
+            byte[] picture = retriever.getEmbeddedPicture();
+            if (picture != null) {
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inJustDecodeBounds = true;
+                BitmapFactory.decodeByteArray(picture, 0, picture.length, options);
+                options.inSampleSize = getSampleSize(options.outWidth, options.outHeight);
+                options.inJustDecodeBounds = false;
+                return scaleToThumbnail(BitmapFactory.decodeByteArray(picture, 0, picture.length, options));
+            }
+            if (isVideo && !mCancellationSignal.isCanceled()) {
+                return scaleToThumbnail(retriever.getFrameAtTime());
+            }
+        } catch (RuntimeException e) {
+            Log.w(LOGTAG, "createMediaThumbnailLegacy error, uri=" + mFileUri + " : " + e.getMessage());
+        } finally {
+            releaseRetriever(retriever);
+        }
+        return null;
+    }
+
+    private static void releaseRetriever(@NonNull MediaMetadataRetriever retriever) {
+        try {
+            retriever.release();
+        } catch (Exception e) {
+            Log.w(LOGTAG, "Unable to release MediaMetadataRetriever: " + e.getMessage());
+        }
+    }
+
+    // Largest power of two that keeps the decoded image at least as big as the thumbnail.
+    private static int getSampleSize(int width, int height) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= DEFAULT_SIZE.getWidth() &&
+                height / (sampleSize * 2) >= DEFAULT_SIZE.getHeight()) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @Nullable
+    private static Bitmap scaleToThumbnail(@Nullable Bitmap bitmap) {
+        if (bitmap == null) {
+            return null;
         }
+        return ThumbnailUtils.extractThumbnail(bitmap, DEFAULT_SIZE.getWidth(), DEFAULT_SIZE.getHeight(),
+                ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.annotation.Nullable;
 
@@ -15,20 +16,26 @@ import com.igalia.wolvic.utils.SystemUtils;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 public abstract class BaseLatinKeyboard extends BaseKeyboard {
     private static final String LOGTAG = SystemUtils.createLogtag(EnglishKeyboard.class);
-    private final HashMap<String, ArrayList<Words>> mKeymaps = new HashMap<>();
+    private LruCache<String, ArrayList<Words>> mKeymaps;
     private File mDB;
 
     public BaseLatinKeyboard(Context aContext) {
         super(aContext);
     }
 
+    @Override
+    public void warmUp() {
+        if (supportsAutoCompletion()) {
+            KeyboardDictionaries.get().getDatabase(getDatabaseFile());
+        }
+    }
+
     @Nullable
     @Override
     public CandidatesResult getCandidates(String aComposingText) {
@@ -122,18 +129,26 @@ public abstract class BaseLatinKeyboard extends BaseKeyboard {
     }
 
     protected void loadDatabase() {
-        mDB = mContext.getDatabasePath(DictionaryUtils.getExternalDicFullName(getLocale().toString()));
+        mDB = getDatabaseFile();
+        mKeymaps = KeyboardDictionaries.get().getCache(getLocale().toString());
+    }
+
+    private File getDatabaseFile() {
+        return mContext.getDatabasePath(DictionaryUtils.getExternalDicFullName(getLocale().toString()));
     }
 
     private void loadKeymapIfNotLoaded(String aKey) {
-        if (mKeymaps.containsKey(aKey)) {
+        if (mKeymaps.get(aKey) != null) {
             return;
         }
         loadAutoCorrectTable(aKey);
     }
 
     private void loadAutoCorrectTable(String aKey) {
-        SQLiteDatabase reader = SQLiteDatabase.openDatabase(mDB.getPath(), null, SQLiteDatabase.OPEN_READONLY);;
+        SQLiteDatabase reader = KeyboardDictionaries.get().getDatabase(mDB);
+        if (reader == null) {
+            return;
+        }
         String[] sqliteArgs = new String[1];
         sqliteArgs[0] = aKey.toLowerCase() + "%";
         try (Cursor cursor = reader.rawQuery("SELECT word FROM autocorrect where LOWER(word) LIKE ? ORDER BY originalFreq DESC LIMIT 20", sqliteArgs)) {
@@ -157,7 +172,11 @@ public abstract class BaseLatinKeyboard extends BaseKeyboard {
             Log.e(LOGTAG, "key is null");
             return;
         }
-        ArrayList<Words> keyMap = mKeymaps.computeIfAbsent(aKey, k -> new ArrayList<>());
+        ArrayList<Words> keyMap = mKeymaps.get(aKey);
+        if (keyMap == null) {
+            keyMap = new ArrayList<>();
+            mKeymaps.put(aKey, keyMap);
+        }
 
         if (aCode != null && !aCode.isEmpty()) {
             keyMap.add(new Words(1, aKey, aCode + " "));
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -32,7 +33,7 @@ public class ChinesePinyinKeyboard extends BaseKeyboard {
     private SymbolList mSymbolsConverter;  // For Emoji characters.
     private List<Words> mEmojiList = null;
     private File mDB;
-    private HashMap<String, KeyMap> mKeymaps = new HashMap<>();
+    private final LruCache<String, KeyMap> mKeymaps = KeyboardDictionaries.get().getCache(getLocale().toString());
     private HashMap<String, KeyMap> mExtraKeymaps = new HashMap<>();
 
     public ChinesePinyinKeyboard(Context aContext) {
@@ -303,6 +304,11 @@ public class ChinesePinyinKeyboard extends BaseKeyboard {
     }
 
 
+    @Override
+    public void warmUp() {
+        KeyboardDictionaries.get().getDatabase(mContext.getDatabasePath("google_pinyin.db"));
+    }
+
     private void loadDatabase() {
         try {
             mDB = mContext.getDatabasePath("google_pinyin.db");
@@ -343,7 +349,7 @@ public class ChinesePinyinKeyboard extends BaseKeyboard {
     }
 
     private void loadKeymapIfNotLoaded(String aKey) {
-        if (mKeymaps.containsKey(aKey)) {
+        if (mKeymaps.get(aKey) != null) {
             return;
         }
         loadKeymapTable(aKey);
@@ -361,7 +367,10 @@ public class ChinesePinyinKeyboard extends BaseKeyboard {
     private final String[] sqliteArgs = new String[1];
 
     private void loadKeymapTable(String aKey) {
-        SQLiteDatabase reader = SQLiteDatabase.openDatabase(mDB.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        SQLiteDatabase reader = KeyboardDictionaries.get().getDatabase(mDB);
+        if (reader == null) {
+            return;
+        }
         sqliteArgs[0] = aKey;
         try (Cursor cursor = reader.rawQuery("SELECT keymap, display, candidates FROM keymaps where keymap = ? ORDER BY _id ASC", sqliteArgs)) {
             if (!cursor.moveToFirst()) {
@@ -377,7 +386,10 @@ public class ChinesePinyinKeyboard extends BaseKeyboard {
     }
 
     private void loadAutoCorrectTable(String aKey) {
-        SQLiteDatabase reader = SQLiteDatabase.openDatabase(mDB.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        SQLiteDatabase reader = KeyboardDictionaries.get().getDatabase(mDB);
+        if (reader == null) {
+            return;
+        }
         sqliteArgs[0] = aKey;
         try  (Cursor cursor = reader.rawQuery("SELECT inputcode, displaycode, display FROM autocorrect where inputcode = ? ORDER BY _id ASC", sqliteArgs)) {
             if (!cursor.moveToFirst()) {
@@ -5,6 +5,7 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import com.igalia.wolvic.input.Keyboard.Key;
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -36,7 +37,7 @@ public class ChineseZhuyinKeyboard extends BaseKeyboard {
     private List<Words> mEmojiList = null;
     private File mWordDB;
     private File mPhraseDB;
-    private HashMap<String, KeyMap> mKeymaps = new HashMap<>();
+    private final LruCache<String, KeyMap> mKeymaps = KeyboardDictionaries.get().getCache(getLocale().toString());
     private HashMap<String, Words> mKeyCodes = new HashMap<>();
     private final String[] sqliteArgs = new String[2];
     private final String[] roughSqliteArgs = new String[3];
@@ -261,6 +262,12 @@ public class ChineseZhuyinKeyboard extends BaseKeyboard {
     }
 
 
+    @Override
+    public void warmUp() {
+        KeyboardDictionaries.get().getDatabase(mContext.getDatabasePath("zhuyin_words.db"));
+        KeyboardDictionaries.get().getDatabase(mContext.getDatabasePath("zhuyin_phrases.db"));
+    }
+
     private void loadDatabase() {
         try {
             mWordDB = mContext.getDatabasePath("zhuyin_words.db");
@@ -334,14 +341,17 @@ public class ChineseZhuyinKeyboard extends BaseKeyboard {
     }
 
     private void loadKeymapIfNotLoaded(String aKey) {
-        if (mKeymaps.containsKey(aKey)) {
+        if (mKeymaps.get(aKey) != null) {
             return;
         }
         loadKeymapTable(aKey);
     }
 
     private void loadKeymapTable(String aKey) {
-        SQLiteDatabase reader = SQLiteDatabase.openDatabase(mWordDB.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        SQLiteDatabase reader = KeyboardDictionaries.get().getDatabase(mWordDB);
+        if (reader == null) {
+            return;
+        }
         String transCode = aKey;
         int limit = 50;
         boolean exactQuery = false;
@@ -397,7 +407,10 @@ public class ChineseZhuyinKeyboard extends BaseKeyboard {
         }
 
         // Query phrase
-        reader = SQLiteDatabase.openDatabase(mPhraseDB.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+        reader = KeyboardDictionaries.get().getDatabase(mPhraseDB);
+        if (reader == null) {
+            return;
+        }
         sqliteArgs[0] = transCode + '%';
         sqliteArgs[1] = "" + limit;
         try (Cursor cursor = reader.rawQuery("SELECT code, word FROM phrases_" + transCode.substring(0, 2)
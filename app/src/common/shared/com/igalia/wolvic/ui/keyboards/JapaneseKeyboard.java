@@ -27,6 +27,7 @@ import jp.co.omronsoft.openwnn.WnnWord;
 public class JapaneseKeyboard extends BaseKeyboard {
 
     private static final String LOGTAG = SystemUtils.createLogtag(JapaneseKeyboard.class);
+    private static final String CONVERTER_ENGINE = "openwnn-jajp";
 
     private CustomKeyboard mKeyboard;
     private CustomKeyboard mSymbolsKeyboard;
@@ -36,7 +37,7 @@ public class JapaneseKeyboard extends BaseKeyboard {
 
     private SymbolList mSymbolsConverter;
 
-    /** OpenWnn dictionary */
+    /** OpenWnn dictionary, created the first time it is used */
     private WnnEngine mConverter;
 
     /** Pre-converter (for Romaji-to-Kana input, Hangul input, etc.) */
@@ -49,15 +50,32 @@ public class JapaneseKeyboard extends BaseKeyboard {
     public JapaneseKeyboard(Context aContext) {
         super(aContext);
 
-        mConverter = new OpenWnnEngineJAJP();
-        ((OpenWnnEngineJAJP) mConverter).setKeyboardType(OpenWnnEngineJAJP.KEYBOARD_QWERTY);
-        ((OpenWnnEngineJAJP) mConverter).setDictionary(OpenWnnEngineJAJP.DIC_LANG_JP);
-        mConverter.init();
-
         mPreConverter = new Romkan();
         mComposingText = new ComposingText();
     }
 
+    @NonNull
+    private WnnEngine getConverter() {
+        if (mConverter == null) {
+            mConverter = KeyboardDictionaries.get().getEngine(CONVERTER_ENGINE, JapaneseKeyboard::createConverter);
+        }
+        return mConverter;
+    }
+
+    @NonNull
+    private static WnnEngine createConverter() {
+        OpenWnnEngineJAJP converter = new OpenWnnEngineJAJP();
+        converter.setKeyboardType(OpenWnnEngineJAJP.KEYBOARD_QWERTY);
+        converter.setDictionary(OpenWnnEngineJAJP.DIC_LANG_JP);
+        converter.init();
+        return converter;
+    }
+
+    @Override
+    public void warmUp() {
+        KeyboardDictionaries.get().getEngine(CONVERTER_ENGINE, JapaneseKeyboard::createConverter);
+    }
+
     @NonNull
     @Override
     public CustomKeyboard getAlphabeticKeyboard() {
@@ -99,10 +117,11 @@ public class JapaneseKeyboard extends BaseKeyboard {
         initializeComposingText(aComposingText);
 
         List<Words> words = new ArrayList<>();
-        int candidates = mConverter.predict(mComposingText, 0, -1);
+        WnnEngine converter = getConverter();
+        int candidates = converter.predict(mComposingText, 0, -1);
         if (candidates > 0) {
             WnnWord word;
-            while ((word = mConverter.getNextCandidate()) != null) {
+            while ((word = converter.getNextCandidate()) != null) {
                 words.add(new Words(1, word.stroke, word.candidate));
             }
         }
@@ -205,7 +224,9 @@ public class JapaneseKeyboard extends BaseKeyboard {
 
     @Override
     public void clear() {
-        mConverter.init();
+        if (mConverter != null) {
+            mConverter.init();
+        }
     }
 
     @Override
@@ -0,0 +1,222 @@
+package com.igalia.wolvic.ui.keyboards;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.igalia.wolvic.telemetry.TelemetryService;
+import com.igalia.wolvic.utils.SystemUtils;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Dictionaries and candidate caches of the keyboards, kept across language switches.
+ *
+ * Dictionary databases are opened once and shared, instead of being opened for every lookup, and
+ * conversion engines are created once. A database is opened again when its file changes, e.g.
+ * when a newer dictionary is downloaded, and the candidates looked up in the old one are dropped. Every language has its own cache of looked up candidates,
+ * bounded so that switching between many languages does not keep growing the memory used.
+ * Keyboards can be warmed up in a background thread before they are selected, and the time taken
+ * by the first candidates lookup after a switch is reported.
+ */
+public class KeyboardDictionaries {
+
+    private static final String LOGTAG = SystemUtils.createLogtag(KeyboardDictionaries.class);
+
+    private static final int CACHE_ENTRIES_PER_LANGUAGE = 256;
+
+    private static KeyboardDictionaries sInstance;
+
+    public static synchronized KeyboardDictionaries get() {
+        if (sInstance == null) {
+            sInstance = new KeyboardDictionaries();
+        }
+        return sInstance;
+    }
+
+    private static class OpenDatabase {
+        final SQLiteDatabase database;
+        final long lastModified;
+
+        OpenDatabase(@NonNull SQLiteDatabase aDatabase, long aLastModified) {
+            database = aDatabase;
+            lastModified = aLastModified;
+        }
+    }
+
+    private final HashMap<String, OpenDatabase> mDatabases = new HashMap<>();
+    private final HashMap<String, FutureTask<?>> mEngines = new HashMap<>();
+    private final HashMap<String, LruCache<String, ?>> mCaches = new HashMap<>();
+    private final HashSet<KeyboardInterface> mWarmedUp = new HashSet<>();
+    private final ExecutorService mWarmUpExecutor = Executors.newSingleThreadExecutor(runnable ->
+            new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "KeyboardWarmUp"));
+    // The keyboard whose first candidates lookup is measured.
+    private KeyboardInterface mMeasuredKeyboard;
+
+    private KeyboardDictionaries() {}
+
+    /**
+     * @return a read only handle of the database, shared by every lookup, or null if the database
+     * does not exist (yet, since some dictionaries are downloaded) or can't be opened.
+     */
+    @Nullable
+    public synchronized SQLiteDatabase getDatabase(@NonNull File aFile) {
+        String path = aFile.getPath();
+        // Zero if the file does not exist.
+        long lastModified = aFile.lastModified();
+        OpenDatabase open = mDatabases.get(path);
+        if (open != null) {
+            if (open.database.isOpen() && open.lastModified == lastModified) {
+                return open.database;
+            }
+            // We don't know which languages use the file, so all the candidates are dropped.
+            closeDatabase(path);
+            mCaches.values().forEach(LruCache::evictAll);
+        }
+        if (lastModified == 0) {
+            return null;
+        }
+        SQLiteDatabase database;
+        try {
+            database = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READONLY);
+        } catch (SQLiteException e) {
+            Log.e(LOGTAG, "Unable to open the dictionary " + path + ": " + e.getMessage());
+            return null;
+        }
+        mDatabases.put(path, new OpenDatabase(database, lastModified));
+        return database;
+    }
+
+    /**
+     * Closes the database of a dictionary that has been replaced, and drops the candidates looked
+     * up in it for the language.
+     */
+    public synchronized void onDictionaryChanged(@NonNull File aFile, @NonNull String aLanguage) {
+        closeDatabase(aFile.getPath());
+        LruCache<String, ?> cache = mCaches.get(aLanguage);
+        if (cache != null) {
+            cache.evictAll();
+        }
+    }
+
+    // Lookups already running keep their reference to the database, which is closed after them.
+    private void closeDatabase(@NonNull String aPath) {
+        OpenDatabase open = mDatabases.remove(aPath);
+        if (open != null) {
+            open.database.close();
+        }
+    }
+
+    /**
+     * @return the engine with the given key, created by the factory the first time. Callers block
+     * while the engine is being created in another thread.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public <T> T getEngine(@NonNull String aKey, @NonNull Supplier<T> aFactory) {
+        FutureTask<?> task;
+        boolean create = false;
+        synchronized (this) {
+            task = mEngines.get(aKey);
+            if (task == null) {
+                task = new FutureTask<>(aFactory::get);
+                mEngines.put(aKey, task);
+                create = true;
+            }
+        }
+        if (create) {
+            task.run();
+        }
+        try {
+            return (T) task.get();
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                mEngines.remove(aKey, task);
+            }
+            throw new IllegalStateException("Unable to create the engine " + aKey, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating the engine " + aKey, e);
+        }
+    }
+
+    /**
+     * @return the candidates cache of the language, which keeps the most recently used entries.
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public synchronized <V> LruCache<String, V> getCache(@NonNull String aLanguage) {
+        LruCache<String, ?> cache = mCaches.get(aLanguage);
+        if (cache == null) {
+            cache = new LruCache<String, V>(CACHE_ENTRIES_PER_LANGUAGE);
+            mCaches.put(aLanguage, cache);
+        }
+        return (LruCache<String, V>) cache;
+    }
+
+    /**
+     * Prepares the dictionaries of the keyboard in a background thread, once.
+     */
+    public void warmUp(@NonNull KeyboardInterface aKeyboard) {
+        synchronized (this) {
+            if (!mWarmedUp.add(aKeyboard)) {
+                return;
+            }
+        }
+        mWarmUpExecutor.execute(() -> {
+            try {
+                aKeyboard.warmUp();
+            } catch (RuntimeException e) {
+                Log.e(LOGTAG, "Unable to warm up the " + aKeyboard.getLocale() + " keyboard: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Measures the next candidates lookup of the keyboard selected by the user.
+     */
+    public synchronized void onKeyboardSelected(@NonNull KeyboardInterface aKeyboard) {
+        mMeasuredKeyboard = aKeyboard;
+    }
+
+    /**
+     * Looks up the candidates of the keyboard, reporting the time taken by the first lookup after
+     * the keyboard was selected.
+     */
+    @Nullable
+    public KeyboardInterface.CandidatesResult getCandidates(@NonNull KeyboardInterface aKeyboard, @Nullable String aText) {
+        boolean measure;
+        boolean warmedUp;
+        synchronized (this) {
+            measure = aKeyboard == mMeasuredKeyboard && aText != null && !aText.isEmpty();
+            if (measure) {
+                mMeasuredKeyboard = null;
+            }
+            warmedUp = mWarmedUp.contains(aKeyboard);
+        }
+        if (!measure) {
+            return aKeyboard.getCandidates(aText);
+        }
+        long start = SystemClock.uptimeMillis();
+        KeyboardInterface.CandidatesResult result = aKeyboard.getCandidates(aText);
+        TelemetryService.Performance.keyboardCandidatesEvent(aKeyboard.getLocale().toLanguageTag(),
+                SystemClock.uptimeMillis() - start, warmedUp);
+        return result;
+    }
+}
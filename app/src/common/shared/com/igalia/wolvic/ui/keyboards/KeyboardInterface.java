@@ -53,4 +53,6 @@ public interface KeyboardInterface {
     String getEnterKeyText(int aIMEOptions, String aComposingText);
     String getModeChangeKeyText();
     default @Nullable void clear() {}
+    // Prepares the dictionaries used by getCandidates(). Called in a background thread.
+    default void warmUp() {}
 }
\ No newline at end of file
@@ -8,26 +8,26 @@ import androidx.databinding.ObservableBoolean;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.igalia.wolvic.BuildConfig;
+import com.igalia.wolvic.VRBrowserApplication;
 import com.igalia.wolvic.browser.SettingsStore;
 import com.igalia.wolvic.browser.api.WContentBlocking;
 import com.igalia.wolvic.utils.Announcement;
 import com.igalia.wolvic.utils.Experience;
 import com.igalia.wolvic.utils.RemoteAnnouncements;
 import com.igalia.wolvic.utils.RemoteExperiences;
+import com.igalia.wolvic.utils.RemoteJson;
 import com.igalia.wolvic.utils.RemoteProperties;
 import com.igalia.wolvic.utils.SystemUtils;
 
-import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class SettingsViewModel extends AndroidViewModel {
 
@@ -43,10 +43,17 @@ public class SettingsViewModel extends AndroidViewModel {
     private MutableLiveData<RemoteAnnouncements> visibleAnnouncements;
     private MutableLiveData<RemoteExperiences> experiences;
     private MutableLiveData<ObservableBoolean> isWhatsNewVisible;
+    // Remote payloads are parsed in order in this executor, and only when they changed.
+    private final Executor parseExecutor;
+    private final Map<String, Integer> payloadHashes = new ConcurrentHashMap<>();
+    private RemoteExperiences regularExperiences;
+    private List<Experience> heyVRExperiences;
 
     public SettingsViewModel(@NonNull Application application) {
         super(application);
 
+        parseExecutor = ((VRBrowserApplication) application).getExecutors().diskIO();
+
         isTrackingProtectionEnabled = new MutableLiveData<>(new ObservableBoolean(false));
         isDRMEnabled = new MutableLiveData<>(new ObservableBoolean(false));
         isPopupBlockingEnabled = new MutableLiveData<>(new ObservableBoolean(false));
@@ -127,15 +134,31 @@ public class SettingsViewModel extends AndroidViewModel {
         return propsVersionName;
     }
 
-    public void setProps(String json) {
-        try {
-            Gson gson = new GsonBuilder().create();
-            Type type = new TypeToken<Map<String, RemoteProperties>>() {}.getType();
-            this.props.postValue(gson.fromJson(json, type));
-
-        } catch (Exception e) {
-            Log.e(LOGTAG, String.valueOf(e.getLocalizedMessage()));
+    /**
+     * Runs the parser of a remote payload in the parse executor, unless the payload is the same
+     * that was parsed last for that key.
+     */
+    private void parse(@NonNull String key, String json, @NonNull Runnable parser) {
+        if (json == null || json.isEmpty()) {
+            return;
         }
+        parseExecutor.execute(() -> {
+            Integer hash = json.hashCode();
+            if (hash.equals(payloadHashes.put(key, hash))) {
+                return;
+            }
+            try {
+                parser.run();
+            } catch (Exception e) {
+                // Parse it again if it is received again.
+                payloadHashes.remove(key);
+                Log.w(LOGTAG, "Error processing " + key + " data: " + e.getLocalizedMessage());
+            }
+        });
+    }
+
+    public void setProps(String json) {
+        parse("props", json, () -> this.props.postValue(RemoteJson.parseProperties(json)));
     }
 
     public MutableLiveData<Map<String, RemoteProperties>> getProps() {
@@ -143,19 +166,14 @@ public class SettingsViewModel extends AndroidViewModel {
     }
 
     public void setAnnouncements(String json) {
-        RemoteAnnouncements updatedAnnouncements = null;
-        try {
-            Gson gson = new GsonBuilder().create();
-            updatedAnnouncements = gson.fromJson(json, RemoteAnnouncements.class);
-        } catch (Exception e) {
-            Log.w(LOGTAG, String.valueOf(e.getLocalizedMessage()));
-        } finally {
+        parse("announcements", json, () -> {
+            RemoteAnnouncements updatedAnnouncements = RemoteJson.parseAnnouncements(json);
             if (updatedAnnouncements != null) {
                 this.announcements.postValue(updatedAnnouncements);
                 // Filter the upstream list to remove dismissed announcements.
                 updateVisibleAnnouncementsInternal(updatedAnnouncements);
             }
-        }
+        });
     }
 
     public void updateVisibleAnnouncements() {
@@ -182,47 +200,30 @@ public class SettingsViewModel extends AndroidViewModel {
     }
 
     public void setExperiences(String json) {
-        if (json == null || json.isEmpty()) {
-            return;
-        }
-
-        try {
-            Gson gson = new GsonBuilder().create();
-            RemoteExperiences newExperiences = gson.fromJson(json, RemoteExperiences.class);
-
-            RemoteExperiences currentExperiences = this.experiences.getValue();
-            if (currentExperiences == null) {
-                // Initialize a new experiences object if one doesn't exist yet.
-                this.experiences.postValue(newExperiences);
-            } else {
-                currentExperiences.setRemoteExperiences(newExperiences);
-                this.experiences.postValue(currentExperiences);
-            }
-        } catch (Exception e) {
-            Log.w(LOGTAG, "Error processing experiences data: " + e.getLocalizedMessage());
-        }
+        parse("experiences", json, () -> {
+            regularExperiences = RemoteJson.parseExperiences(json);
+            postExperiences();
+        });
     }
 
     public void setHeyVRExperiences(String json) {
-        if (json == null || json.isEmpty()) {
-            return;
+        parse("heyVR", json, () -> {
+            Experience[] experiencesArray = RemoteJson.parseExperienceList(json);
+            heyVRExperiences = experiencesArray != null ? Arrays.asList(experiencesArray) : null;
+            postExperiences();
+        });
+    }
+
+    // Merges the regular and the HeyVR experiences, in the parse executor.
+    private void postExperiences() {
+        RemoteExperiences merged = new RemoteExperiences();
+        if (regularExperiences != null) {
+            merged.setRemoteExperiences(regularExperiences);
         }
-
-        try {
-            Gson gson = new GsonBuilder().create();
-            Experience[] experiencesArray = gson.fromJson(json, Experience[].class);
-            List<Experience> heyVRExperiences = Arrays.asList(experiencesArray);
-
-            RemoteExperiences currentExperiences = this.experiences.getValue();
-            if (currentExperiences == null) {
-                // Initialize a new experiences object if one doesn't exist yet.
-                currentExperiences = new RemoteExperiences();
-            }
-            currentExperiences.setHeyVRExperiences(heyVRExperiences);
-            this.experiences.postValue(currentExperiences);
-        } catch (Exception e) {
-            Log.w(LOGTAG, "Error processing HeyVR data: " + e.getLocalizedMessage());
+        if (heyVRExperiences != null) {
+            merged.setHeyVRExperiences(heyVRExperiences);
         }
+        this.experiences.postValue(merged);
     }
 
     public MutableLiveData<RemoteAnnouncements> getAnnouncements() {
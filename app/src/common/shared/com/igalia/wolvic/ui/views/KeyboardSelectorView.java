@@ -3,6 +3,7 @@ package com.igalia.wolvic.ui.views;
 import android.content.Context;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.MotionEvent;
 import android.widget.FrameLayout;
 import android.widget.GridLayout;
 
@@ -29,6 +30,7 @@ public class KeyboardSelectorView extends FrameLayout {
 
     public interface Delegate {
         void onItemClick(Item aItem);
+        default void onItemHovered(Item aItem) {}
     }
 
     private GridLayout mLangRowContainer;
@@ -125,11 +127,19 @@ public class KeyboardSelectorView extends FrameLayout {
         }
     };
 
+    private OnHoverListener hoverHandler = (v, event) -> {
+        if (event.getActionMasked() == MotionEvent.ACTION_HOVER_ENTER && mDelegate != null) {
+            mDelegate.onItemHovered((Item) v.getTag());
+        }
+        return false;
+    };
+
     private UITextButton createItemButton(Item aItem) {
         UITextButton button = new UITextButton(getContext());
         button.setTintColorList(R.drawable.lang_selector_button_color);
         button.setBackground(getContext().getDrawable(R.drawable.lang_selector_button_background));
         button.setOnClickListener(clickHandler);
+        button.setOnHoverListener(hoverHandler);
         button.setPadding(13, 13, 13, 13);
         button.setIncludeFontPadding(false);
         button.setTextSize(TypedValue.COMPLEX_UNIT_SP, 13);
@@ -7,14 +7,16 @@ import android.widget.FrameLayout;
 
 import androidx.annotation.NonNull;
 import androidx.databinding.DataBindingUtil;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.GridLayoutManager;
 
 import com.igalia.wolvic.R;
 import com.igalia.wolvic.VRBrowserActivity;
+import com.igalia.wolvic.VRBrowserApplication;
 import com.igalia.wolvic.browser.SettingsStore;
 import com.igalia.wolvic.browser.components.TopSitesAdapter;
-import com.igalia.wolvic.browser.components.TopSitesHelper;
+import com.igalia.wolvic.browser.components.TopSitesRepository;
 import com.igalia.wolvic.browser.engine.Session;
 import com.igalia.wolvic.browser.engine.SessionStore;
 import com.igalia.wolvic.databinding.NewTabBinding;
@@ -23,10 +25,11 @@ import com.igalia.wolvic.ui.adapters.ExperiencesAdapter;
 import com.igalia.wolvic.ui.adapters.TopSitesAdapterImpl;
 import com.igalia.wolvic.ui.viewmodel.SettingsViewModel;
 import com.igalia.wolvic.utils.Announcement;
+import com.igalia.wolvic.utils.RemoteAnnouncements;
+import com.igalia.wolvic.utils.RemoteExperiences;
 import com.igalia.wolvic.utils.SystemUtils;
 
 import mozilla.components.feature.top.sites.TopSite;
-import mozilla.components.feature.top.sites.TopSitesFeature;
 
 public class NewTabView extends FrameLayout {
 
@@ -36,9 +39,14 @@ public class NewTabView extends FrameLayout {
     private SettingsViewModel mSettingsViewModel;
     private AnnouncementsAdapter mAnnouncementsAdapter;
     private TopSitesAdapterImpl mTopSitesAdapter;
-    private TopSitesHelper mTopSitesHelper;
-    private TopSitesFeature mTopSitesFeature;
+    private TopSitesRepository mTopSites;
+    private final TopSitesRepository.Listener mTopSitesListener = topSites ->
+            mTopSitesAdapter.updateTopSites(topSites);
     private ExperiencesAdapter mExperiencesAdapter;
+    private final Observer<RemoteAnnouncements> mAnnouncementsObserver = remoteAnnouncements ->
+            mAnnouncementsAdapter.updateAnnouncements(remoteAnnouncements);
+    private final Observer<RemoteExperiences> mExperiencesObserver = experiences ->
+            mExperiencesAdapter.updateExperiences(experiences);
 
     public NewTabView(Context context) {
         super(context);
@@ -52,6 +60,9 @@ public class NewTabView extends FrameLayout {
     @SuppressLint("ClickableViewAccessibility")
     public void updateUI() {
         removeAllViews();
+        if (mSettingsViewModel != null) {
+            removeObservers();
+        }
 
         LayoutInflater inflater = LayoutInflater.from(getContext());
 
@@ -69,9 +80,7 @@ public class NewTabView extends FrameLayout {
         mBinding.announcementsList.setAdapter(mAnnouncementsAdapter);
         mBinding.announcementsList.setHasFixedSize(false);
 
-        mSettingsViewModel.getVisibleAnnouncements().observe((VRBrowserActivity) getContext(), remoteAnnouncements -> {
-            mAnnouncementsAdapter.updateAnnouncements(remoteAnnouncements);
-        });
+        mSettingsViewModel.getVisibleAnnouncements().observe((VRBrowserActivity) getContext(), mAnnouncementsObserver);
 
         // Top sites
         mTopSitesAdapter = new TopSitesAdapterImpl();
@@ -79,9 +88,10 @@ public class NewTabView extends FrameLayout {
         mBinding.topSitesList.setAdapter(mTopSitesAdapter);
         mBinding.topSitesList.setHasFixedSize(true);
 
-        mTopSitesHelper = new TopSitesHelper(getContext(), ((VRBrowserActivity) getContext()).getCoroutineScope());
-        mTopSitesFeature = mTopSitesHelper.createFeature(mTopSitesAdapter);
-        mTopSitesFeature.start();
+        // The top sites are shared by every window, so the new adapter gets the current list.
+        mTopSites = ((VRBrowserApplication) getContext().getApplicationContext()).getTopSites();
+        mTopSites.removeListener(mTopSitesListener);
+        mTopSites.addListener(mTopSitesListener);
 
         // Experiences
         mExperiencesAdapter = new ExperiencesAdapter(getContext());
@@ -92,9 +102,20 @@ public class NewTabView extends FrameLayout {
         GridLayoutManager layoutManager = (GridLayoutManager) mBinding.experiencesList.getLayoutManager();
         layoutManager.setSpanSizeLookup(mExperiencesAdapter.getSpanSizeLookup(layoutManager.getSpanCount()));
 
-        mSettingsViewModel.getExperiences().observe((VRBrowserActivity) getContext(), experiences -> {
-            mExperiencesAdapter.updateExperiences(experiences);
-        });
+        mSettingsViewModel.getExperiences().observe((VRBrowserActivity) getContext(), mExperiencesObserver);
+    }
+
+    /**
+     * Stops observing the top sites and the remote content, so that the view can be released.
+     */
+    public void onDestroy() {
+        mTopSites.removeListener(mTopSitesListener);
+        removeObservers();
+    }
+
+    private void removeObservers() {
+        mSettingsViewModel.getVisibleAnnouncements().removeObserver(mAnnouncementsObserver);
+        mSettingsViewModel.getExperiences().removeObserver(mExperiencesObserver);
     }
 
     private final AnnouncementsAdapter.ClickListener mAnnouncementsClickListener = new AnnouncementsAdapter.ClickListener() {
@@ -121,7 +142,7 @@ public class NewTabView extends FrameLayout {
 
                 @Override
                 public void onRemoved(@NonNull TopSite site) {
-                    mTopSitesHelper.removeSite(site);
+                    mTopSites.removeSite(site);
                 }
 
                 @Override
@@ -138,12 +159,12 @@ public class NewTabView extends FrameLayout {
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        mTopSitesFeature.start();
+        mTopSites.addListener(mTopSitesListener);
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        mTopSitesFeature.stop();
+        mTopSites.removeListener(mTopSitesListener);
     }
 }
\ No newline at end of file
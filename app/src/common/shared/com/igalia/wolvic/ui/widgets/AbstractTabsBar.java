@@ -24,6 +24,8 @@ import mozilla.components.concept.sync.AuthType;
 import mozilla.components.concept.sync.OAuthAccount;
 import mozilla.components.concept.sync.Profile;
 
+import java.util.List;
+
 public abstract class AbstractTabsBar extends UIWidget implements SessionChangeListener, WidgetManagerDelegate.UpdateListener, AccountObserver {
 
     protected final String LOGTAG = SystemUtils.createLogtag(this.getClass());
@@ -141,6 +143,11 @@ public abstract class AbstractTabsBar extends UIWidget implements SessionChangeL
         refreshTabs();
     }
 
+    @Override
+    public void onSessionsRemoved(List<String> aIds) {
+        refreshTabs();
+    }
+
     @Override
     public void onSessionStateChanged(Session aSession, boolean aActive) {
         refreshTabs();
@@ -11,10 +11,12 @@ import com.igalia.wolvic.db.AppDatabase;
 import com.igalia.wolvic.db.DataRepository;
 import com.igalia.wolvic.downloads.DownloadsManager;
 import com.igalia.wolvic.speech.SpeechRecognizer;
+import com.igalia.wolvic.ui.adapters.ThumbnailLoader;
 import com.igalia.wolvic.utils.BitmapCache;
 import com.igalia.wolvic.utils.ConnectivityReceiver;
 import com.igalia.wolvic.utils.EnvironmentsManager;
 import com.igalia.wolvic.utils.DictionariesManager;
+import com.igalia.wolvic.utils.NetworkJobScheduler;
 
 public interface AppServicesProvider {
 
@@ -25,6 +27,7 @@ public interface AppServicesProvider {
     AppExecutors getExecutors();
     DataRepository getRepository();
     BitmapCache getBitmapCache();
+    ThumbnailLoader getThumbnailLoader();
     Accounts getAccounts();
     DownloadsManager getDownloadsManager();
     SpeechRecognizer getSpeechRecognizer();
@@ -33,4 +36,5 @@ public interface AppServicesProvider {
     LoginStorage getLoginStorage();
     Addons getAddons();
     ConnectivityReceiver getConnectivityReceiver();
+    NetworkJobScheduler getNetworkJobScheduler();
 }
@@ -54,6 +54,7 @@ import com.igalia.wolvic.ui.keyboards.FrenchKeyboard;
 import com.igalia.wolvic.ui.keyboards.GermanKeyboard;
 import com.igalia.wolvic.ui.keyboards.ItalianKeyboard;
 import com.igalia.wolvic.ui.keyboards.JapaneseKeyboard;
+import com.igalia.wolvic.ui.keyboards.KeyboardDictionaries;
 import com.igalia.wolvic.ui.keyboards.KeyboardInterface;
 import com.igalia.wolvic.ui.keyboards.KoreanKeyboard;
 import com.igalia.wolvic.ui.keyboards.NorwegianKeyboard;
@@ -84,6 +85,7 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
     private CustomKeyboardView mPopupKeyboardView;
     private ArrayList<KeyboardInterface> mKeyboards;
     private KeyboardInterface mCurrentKeyboard;
+    private KeyboardInterface mPreviousKeyboard;
     private CustomKeyboard mDefaultKeyboardSymbols;
     private CustomKeyboard mKeyboardNumeric;
     private Drawable mShiftOnIcon;
@@ -287,7 +289,18 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
         mLanguageSelectorView = findViewById(R.id.langSelectorView);
         mKeyboardLayout = findViewById(R.id.keyboardLayout);
         mKeyboardContainer = findViewById(R.id.keyboardContainer);
-        mLanguageSelectorView.setDelegate(aItem -> handleLanguageChange((KeyboardInterface) aItem.tag, Remember.YES));
+        mLanguageSelectorView.setDelegate(new KeyboardSelectorView.Delegate() {
+            @Override
+            public void onItemClick(KeyboardSelectorView.Item aItem) {
+                handleLanguageChange((KeyboardInterface) aItem.tag, Remember.YES);
+            }
+
+            @Override
+            public void onItemHovered(KeyboardSelectorView.Item aItem) {
+                // The hovered language is likely the next one, so have its dictionaries ready.
+                KeyboardDictionaries.get().warmUp((KeyboardInterface) aItem.tag);
+            }
+        });
         mAutoCompletionView = findViewById(R.id.autoCompletionView);
         mAutoCompletionView.setExtendedHeight((int)(mWidgetPlacement.height * mWidgetPlacement.density));
         mAutoCompletionView.setDelegate(this);
@@ -875,6 +888,10 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
         }
         mLanguageSelectorView.setSelectedItem(mCurrentKeyboard);
         mLanguageSelectorView.setVisibility(View.VISIBLE);
+        if (mPreviousKeyboard != null) {
+            // Switching back to the previous language is the most common choice.
+            KeyboardDictionaries.get().warmUp(mPreviousKeyboard);
+        }
         mPopupKeyboardLayer.setVisibility(View.VISIBLE);
         mKeyboardNumericLayer.setVisibility(View.VISIBLE);
         mAutocompletionLayer.setVisibility(mAutoCompletionView.getVisibility());
@@ -968,11 +985,15 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
     private void handleLanguageChange(KeyboardInterface aKeyboard, Remember remember) {
         cleanComposingText();
 
+        if (mCurrentKeyboard != null && mCurrentKeyboard != aKeyboard) {
+            mPreviousKeyboard = mCurrentKeyboard;
+        }
         mCurrentKeyboard = aKeyboard;
         updateDictionary();
 
         if (remember == Remember.YES) {
             SettingsStore.getInstance(getContext()).setSelectedKeyboard(aKeyboard.getLocale());
+            KeyboardDictionaries.get().onKeyboardSelected(aKeyboard);
         }
 
         mKeyboardView.setKeyboard(mCurrentKeyboard.getAlphabeticKeyboard());
@@ -1227,7 +1248,7 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
 
         if (mCurrentKeyboard.usesComposingText()) {
             postInputCommand(() -> {
-                final KeyboardInterface.CandidatesResult candidates = mCurrentKeyboard.getCandidates(mComposingText);
+                final KeyboardInterface.CandidatesResult candidates = KeyboardDictionaries.get().getCandidates(mCurrentKeyboard, mComposingText);
                 postUICommand(() -> {
                     setAutoCompletionVisible(candidates != null && candidates.words.size() > 0);
                     mAutoCompletionView.setItems(candidates != null ? candidates.words : null);
@@ -1248,7 +1269,7 @@ public class KeyboardWidget extends UIWidget implements CustomKeyboardView.OnKey
                 final String fullText = connection.getExtractedText(new ExtractedTextRequest(),0).text.toString();
                 final String beforeText = connection.getTextBeforeCursor(fullText.length(),0).toString();
                 postUICommand(() -> {
-                    final KeyboardInterface.CandidatesResult candidates = mCurrentKeyboard.getCandidates(beforeText);
+                    final KeyboardInterface.CandidatesResult candidates = KeyboardDictionaries.get().getCandidates(mCurrentKeyboard, beforeText);
                     setAutoCompletionVisible(candidates != null && candidates.words.size() > 0);
                     mAutoCompletionView.setItems(candidates != null ? candidates.words : null);
                 });
@@ -37,9 +37,19 @@ public class MediaControlsWidget extends UIWidget implements WMediaSession.Deleg
     private Rect mOffsetViewBounds;
     private VideoProjectionMenuWidget mProjectionMenu;
     static long VOLUME_SLIDER_CHECK_DELAY = 1000;
+    static long POSITION_UPDATE_DELAY = 500;
     private Handler mVolumeCtrlHandler = new Handler(Looper.getMainLooper());
     private boolean mHideVolumeSlider = false;
     private Runnable mVolumeCtrlRunnable;
+    // Updates the shown position, only while the controls are visible and the media is playing.
+    private final Handler mPositionHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mPositionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            updatePosition();
+            mPositionHandler.postDelayed(this, POSITION_UPDATE_DELAY);
+        }
+    };
 
     public MediaControlsWidget(Context aContext) {
         super(aContext);
@@ -335,9 +345,43 @@ public class MediaControlsWidget extends UIWidget implements WMediaSession.Deleg
 
     @Override
     public void releaseWidget() {
+        mPositionHandler.removeCallbacks(mPositionRunnable);
         super.releaseWidget();
     }
 
+    @Override
+    public void show(@ShowFlags int aShowFlags) {
+        super.show(aShowFlags);
+        updatePositionTicker();
+    }
+
+    @Override
+    public void hide(@HideFlags int aHideFlags) {
+        super.hide(aHideFlags);
+        updatePositionTicker();
+    }
+
+    @Override
+    public void setVisible(boolean aVisible) {
+        super.setVisible(aVisible);
+        updatePositionTicker();
+    }
+
+    private void updatePosition() {
+        mBinding.mediaControlSeekBar.setDuration(mMedia.getDuration());
+        mBinding.mediaControlSeekBar.setCurrentTime(mMedia.getCurrentTime());
+    }
+
+    private void updatePositionTicker() {
+        mPositionHandler.removeCallbacks(mPositionRunnable);
+        if (mMedia != null && mWidgetPlacement.visible) {
+            updatePosition();
+            if (mMedia.isPlaying()) {
+                mPositionHandler.postDelayed(mPositionRunnable, POSITION_UPDATE_DELAY);
+            }
+        }
+    }
+
     public void setMedia(Media aMedia) {
         if (mMedia != null && mMedia == aMedia) {
             return;
@@ -352,12 +396,12 @@ public class MediaControlsWidget extends UIWidget implements WMediaSession.Deleg
         mBinding.mediaSeekForwardButton.setEnabled(enabled);
         mBinding.mediaSeekBackwardButton.setEnabled(enabled);
         mBinding.mediaControlSeekBar.setEnabled(enabled);
+        updatePositionTicker();
 
         if (mMedia == null) {
             return;
         }
 
-        mBinding.mediaControlSeekBar.setCurrentTime(mMedia.getCurrentTime());
         mBinding.setPlaying(mMedia.isPlaying());
         mBinding.mediaControlSeekBar.setSeekable(mMedia.canSeek());
 
@@ -399,22 +443,23 @@ public class MediaControlsWidget extends UIWidget implements WMediaSession.Deleg
     @Override
     public void onPlay(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
         mBinding.setPlaying(true);
+        updatePositionTicker();
     }
 
     @Override
     public void onPause(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
         mBinding.setPlaying(false);
+        updatePositionTicker();
     }
 
     @Override
     public void onStop(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
-
+        updatePositionTicker();
     }
 
     @Override
     public void onPositionState(@NonNull WSession session, @NonNull WMediaSession mediaSession, @NonNull WMediaSession.PositionState state) {
-        mBinding.mediaControlSeekBar.setDuration(mMedia.getDuration());
-        mBinding.mediaControlSeekBar.setCurrentTime(state.position);
+        updatePositionTicker();
     }
 
     @Override
@@ -0,0 +1,124 @@
+package com.igalia.wolvic.ui.widgets;
+
+import android.content.Context;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import com.igalia.wolvic.R;
+import com.igalia.wolvic.browser.engine.SessionStore;
+import com.igalia.wolvic.browser.engine.TabLoadScheduler;
+import com.igalia.wolvic.telemetry.PerformanceMonitor;
+
+import java.util.Locale;
+
+/**
+ * Developer overlay showing the live values of the {@link PerformanceMonitor} metrics, computed
+ * over the last refresh interval. It is attached above the top right corner of the focused window.
+ */
+public class PerformanceOverlayWidget extends UIWidget {
+
+    private static final long REFRESH_INTERVAL_MS = 1000;
+
+    private TextView mText;
+    private final PerformanceMonitor.Snapshot[] mPrevious = new PerformanceMonitor.Snapshot[PerformanceMonitor.Metric.values().length];
+    private long mPreviousPoorPerformanceCount;
+    private final Runnable mRefreshRunnable = this::refresh;
+
+    public PerformanceOverlayWidget(Context aContext) {
+        super(aContext);
+        initialize();
+    }
+
+    private void initialize() {
+        inflate(getContext(), R.layout.performance_overlay, this);
+        mText = findViewById(R.id.performanceText);
+
+        PerformanceMonitor monitor = PerformanceMonitor.get();
+        for (PerformanceMonitor.Metric metric : PerformanceMonitor.Metric.values()) {
+            mPrevious[metric.ordinal()] = monitor.getHistogram(metric).snapshot();
+        }
+        mPreviousPoorPerformanceCount = monitor.getPoorPerformanceCount();
+    }
+
+    @Override
+    protected void initializeWidgetPlacement(WidgetPlacement aPlacement) {
+        Context context = getContext();
+        aPlacement.visible = false;
+        aPlacement.width = WidgetPlacement.dpDimension(context, R.dimen.performance_overlay_width);
+        aPlacement.height = WidgetPlacement.dpDimension(context, R.dimen.performance_overlay_height);
+        aPlacement.worldWidth = aPlacement.width * WidgetPlacement.worldToDpRatio(context);
+        aPlacement.anchorX = 1.0f;
+        aPlacement.anchorY = 0.0f;
+        aPlacement.parentAnchorX = 1.0f;
+        aPlacement.parentAnchorY = 1.0f;
+        aPlacement.showPointer = false;
+    }
+
+    public void attachToWindow(@NonNull WindowWidget aWindow) {
+        mWidgetPlacement.parentHandle = aWindow.getHandle();
+    }
+
+    @Override
+    public void show(@ShowFlags int aShowFlags) {
+        // The overlay must not take the focus nor a back handler, so UIWidget.show() is not used.
+        if (!mWidgetPlacement.visible) {
+            mWidgetPlacement.visible = true;
+            mWidgetManager.addWidget(this);
+        }
+        removeCallbacks(mRefreshRunnable);
+        refresh();
+    }
+
+    @Override
+    public void hide(@HideFlags int aHideFlags) {
+        removeCallbacks(mRefreshRunnable);
+        super.hide(aHideFlags);
+    }
+
+    @Override
+    public void releaseWidget() {
+        removeCallbacks(mRefreshRunnable);
+        super.releaseWidget();
+    }
+
+    private void refresh() {
+        PerformanceMonitor monitor = PerformanceMonitor.get();
+        StringBuilder text = new StringBuilder();
+        for (PerformanceMonitor.Metric metric : PerformanceMonitor.Metric.values()) {
+            PerformanceMonitor.Snapshot current = monitor.getHistogram(metric).snapshot();
+            PerformanceMonitor.Snapshot delta = current.minus(mPrevious[metric.ordinal()]);
+            mPrevious[metric.ordinal()] = current;
+
+            text.append(String.format(Locale.US, "%-13s p50 %5.1f  p95 %5.1f ms",
+                    getLabel(metric), delta.getPercentileMillis(50), delta.getPercentileMillis(95)));
+            if (metric == PerformanceMonitor.Metric.UI_STALL) {
+                text.append("  stalls ").append(delta.getCountAbove(monitor.getStallThresholdMicros()));
+            }
+            text.append('\n');
+        }
+
+        long poorPerformanceCount = monitor.getPoorPerformanceCount();
+        text.append(String.format(Locale.US, "%-13s %d", "Poor FPS", poorPerformanceCount - mPreviousPoorPerformanceCount));
+        mPreviousPoorPerformanceCount = poorPerformanceCount;
+
+        TabLoadScheduler tabLoadScheduler = SessionStore.get().getTabLoadScheduler();
+        text.append(String.format(Locale.US, "\n%-13s %d queued, %d loading", "Tab loads",
+                tabLoadScheduler.getQueueLength(), tabLoadScheduler.getRunningLoadCount()));
+
+        mText.setText(text);
+        postDelayed(mRefreshRunnable, REFRESH_INTERVAL_MS);
+    }
+
+    private static String getLabel(@NonNull PerformanceMonitor.Metric aMetric) {
+        switch (aMetric) {
+            case UI_STALL:
+                return "Main thread";
+            case NATIVE_QUEUE_LATENCY:
+                return "Render queue";
+            case WIDGET_DRAW:
+                return "Widget draw";
+        }
+        return aMetric.getName();
+    }
+}
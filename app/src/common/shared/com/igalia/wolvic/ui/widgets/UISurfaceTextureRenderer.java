@@ -14,12 +14,15 @@ import android.view.Surface;
 
 import androidx.annotation.Nullable;
 
+import com.igalia.wolvic.telemetry.PerformanceMonitor;
+
 public class UISurfaceTextureRenderer {
     private int mTextureWidth;
     private int mTextureHeight;
     private SurfaceTexture mSurfaceTexture;
     private Surface mSurface;
     private Canvas mSurfaceCanvas;
+    private long mDrawStartNanos;
     private boolean mIsHardwareAccelerationEnabled;
     private static boolean sUseHardwareAcceleration;
     private static boolean sRenderActive = true;
@@ -80,6 +83,7 @@ public class UISurfaceTextureRenderer {
             return null;
         }
         if (mSurface != null) {
+            mDrawStartNanos = PerformanceMonitor.get().beginWidgetDraw();
             try {
                 if (sUseHardwareAcceleration && mIsHardwareAccelerationEnabled) {
                     mSurfaceCanvas = mSurface.lockHardwareCanvas();
@@ -98,8 +102,10 @@ public class UISurfaceTextureRenderer {
     void drawEnd() {
         if(mSurfaceCanvas != null) {
             mSurface.unlockCanvasAndPost(mSurfaceCanvas);
+            PerformanceMonitor.get().endWidgetDraw(mDrawStartNanos);
         }
         mSurfaceCanvas = null;
+        mDrawStartNanos = 0;
     }
 
     void clearSurface() {
@@ -58,6 +58,7 @@ import com.igalia.wolvic.browser.engine.EngineProvider;
 import com.igalia.wolvic.browser.engine.Session;
 import com.igalia.wolvic.browser.engine.SessionState;
 import com.igalia.wolvic.browser.engine.SessionStore;
+import com.igalia.wolvic.browser.engine.SnapshotScheduler;
 import com.igalia.wolvic.downloads.DownloadJob;
 import com.igalia.wolvic.downloads.DownloadsManager;
 import com.igalia.wolvic.telemetry.TelemetryService;
@@ -148,7 +149,10 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
     private View mView;
     private Session mSession;
     private int mWindowId;
+    // The library and new tab panels are created when they are first shown. The library panel is
+    // given back to Windows when it is hidden, so that one panel is reused by all the windows.
     private LibraryPanel mLibrary;
+    private Windows.ContentType mLibraryPanelType = Windows.ContentType.BOOKMARKS;
     private NewTabView mNewTab;
     private Windows.WindowPlacement mWindowPlacement = Windows.WindowPlacement.FRONT;
     private Windows.WindowPlacement mWindowPlacementBeforeFullscreen = Windows.WindowPlacement.FRONT;
@@ -242,10 +246,6 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
 
         mViewModel.getIsFullscreen().observe((VRBrowserActivity) getContext(), observableBoolean -> onIsFullscreenChanged(observableBoolean.get()));
 
-        mLibrary = new LibraryPanel(aContext);
-        mLibrary.setController(this::showLibrary);
-        mNewTab = new NewTabView(aContext);
-
         SessionStore.get().getBookmarkStore().addListener(mBookmarksListener);
 
         mHandle = ((WidgetManagerDelegate)aContext).newWidgetHandle();
@@ -359,7 +359,7 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
     @Override
     protected void onDismiss() {
         if (mViewModel.getIsNativeContentVisible().getValue().get()) {
-            if (!mLibrary.onBack()) {
+            if (mLibrary == null || !mLibrary.onBack()) {
                 this.closeLibrary();
             }
 
@@ -397,7 +397,9 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
 
-        mLibrary.onConfigurationChanged(newConfig);
+        if (mLibrary != null) {
+            mLibrary.onConfigurationChanged(newConfig);
+        }
 
         mViewModel.refresh();
     }
@@ -406,7 +408,14 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
         TelemetryService.closeWindowEvent(mWindowId);
         hideContextMenus();
         releaseWidget();
-        mLibrary.onDestroy();
+        if (mLibrary != null) {
+            mLibrary.onDestroy();
+            mLibrary = null;
+        }
+        if (mNewTab != null) {
+            mNewTab.onDestroy();
+            mNewTab = null;
+        }
         mViewModel.setIsTopBarVisible(false);
         mViewModel.setIsTitleBarVisible(false);
         SessionStore.get().destroySession(mSession);
@@ -553,7 +562,7 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
 
     @NonNull
     public Windows.ContentType getSelectedPanel() {
-        return mLibrary.getSelectedPanelType();
+        return mLibrary != null ? mLibrary.getSelectedPanelType() : mLibraryPanelType;
     }
 
     Runnable mRestoreFirstPaint;
@@ -568,7 +577,8 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
 
     private void showLibraryPanel(Windows.ContentType contentType, boolean switchSurface) {
         if (mLibrary == null) {
-            return;
+            mLibrary = mWidgetManager.getWindows().acquireLibraryPanel();
+            mLibrary.setController(this::showLibrary);
         }
 
         hideNewTabPanel(true);
@@ -615,6 +625,7 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
         if (mView != null && mLibrary != null && mView == mLibrary) {
             unsetView(mLibrary, switchSurface, VIEW_BRIGHTNESS_DIMMED);
             mLibrary.onHide();
+            releaseLibraryPanel();
 
             if (switchSurface && mRestoreFirstPaint != null) {
                 mRestoreFirstPaint.run();
@@ -625,7 +636,7 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
 
     private void showNewTabPanel(boolean switchSurface) {
         if (mNewTab == null) {
-            return;
+            mNewTab = new NewTabView(getContext());
         }
         hideLibraryPanel(true);
         mViewModel.setIsFindInPage(false);
@@ -655,6 +666,30 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
         }
     }
 
+    private void releaseLibraryPanel() {
+        mLibraryPanelType = mLibrary.getSelectedPanelType();
+        mLibrary.setController(null);
+        mWidgetManager.getWindows().releaseLibraryPanel(mLibrary);
+        mLibrary = null;
+    }
+
+    /**
+     * Releases the library and new tab panels if they are not being shown.
+     */
+    public void releaseHiddenPanels() {
+        if (!mSetViewQueuedCalls.isEmpty()) {
+            // A panel is about to be shown.
+            return;
+        }
+        if (mLibrary != null && mView != mLibrary) {
+            releaseLibraryPanel();
+        }
+        if (mNewTab != null && mView != mNewTab) {
+            mNewTab.onDestroy();
+            mNewTab = null;
+        }
+    }
+
     public void pauseCompositor() {
         if (mSession == null) {
             return;
@@ -2096,10 +2131,17 @@ public class WindowWidget extends UIWidget implements SessionChangeListener,
         }
 
         mViewModel.setIsLoading(false);
+
+        // Background network jobs wait for the first page load to finish.
+        mWidgetManager.getServicesProvider().getNetworkJobScheduler().onStartupFinished();
     }
 
     public void captureImage() {
-        mSession.captureBitmap();
+        captureImage(SnapshotScheduler.PRIORITY_NORMAL);
+    }
+
+    public void captureImage(@SnapshotScheduler.Priority int aPriority) {
+        mSession.captureBitmap(aPriority);
     }
 
     @Override
@@ -4,7 +4,9 @@ import static com.igalia.wolvic.ui.widgets.settings.SettingsView.SettingViewType
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.net.Uri;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.IntDef;
@@ -27,13 +29,14 @@ import com.igalia.wolvic.browser.SettingsStore;
 import com.igalia.wolvic.browser.adapter.ComponentsAdapter;
 import com.igalia.wolvic.browser.api.WMediaSession;
 import com.igalia.wolvic.browser.api.WSession;
-import com.igalia.wolvic.browser.components.WolvicEngineSession;
 import com.igalia.wolvic.browser.engine.Session;
 import com.igalia.wolvic.browser.engine.SessionState;
 import com.igalia.wolvic.browser.engine.SessionStore;
+import com.igalia.wolvic.browser.engine.SnapshotScheduler;
 import com.igalia.wolvic.downloads.DownloadsManager;
 import com.igalia.wolvic.telemetry.TelemetryService;
 import com.igalia.wolvic.ui.widgets.dialogs.PromptDialogWidget;
+import com.igalia.wolvic.ui.views.library.LibraryPanel;
 import com.igalia.wolvic.ui.widgets.dialogs.UIDialog;
 import com.igalia.wolvic.utils.BitmapCache;
 import com.igalia.wolvic.utils.ConnectivityReceiver;
@@ -53,6 +56,8 @@ import java.io.Writer;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Executor;
@@ -166,6 +171,9 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
     private @NewTabLocation int mAddedTabLocation = OPEN_IN_FOREGROUND;
     private DownloadsManager mDownloadsManager;
     private ConnectivityReceiver mConnectivityReceived;
+    // A library panel that no window is showing, given to the next window that shows the library.
+    private LibraryPanel mSpareLibraryPanel;
+    private Configuration mSpareLibraryPanelConfiguration;
 
     public enum ContentType {
         WEB_CONTENT("", android.R.string.untitled),
@@ -270,9 +278,7 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
             }
             state.tabs = sessions.stream()
                     .map(Session::getSessionState)
-                    .filter(sessionState -> HistoryStore.getBLOCK_LIST().stream().noneMatch(uri ->
-                        sessionState.mUri != null && sessionState.mUri.startsWith(uri)
-                    ))
+                    .filter(sessionState -> !HistoryStore.isBlocked(sessionState.mUri))
                     .collect(Collectors.toCollection(ArrayList::new));
             for (WindowWidget window : mRegularWindows) {
                 if (window.getSession() != null) {
@@ -606,12 +612,64 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
         for (WindowWidget window: mPrivateWindows) {
             window.close();
         }
+        destroySpareLibraryPanel();
         mAccounts.removeAccountListener(mAccountObserver);
         mServices.setTabReceivedDelegate(null);
         mConnectivityReceived.removeListener(mConnectivityDelegate);
         mPrefs.unregisterOnSharedPreferenceChangeListener(mPreferencesListener);
     }
 
+    /**
+     * @return the spare library panel, or a new one if there is none.
+     */
+    @NonNull
+    LibraryPanel acquireLibraryPanel() {
+        LibraryPanel panel = mSpareLibraryPanel;
+        if (panel == null) {
+            return new LibraryPanel(mContext);
+        }
+        mSpareLibraryPanel = null;
+        Configuration configuration = mContext.getResources().getConfiguration();
+        if (mSpareLibraryPanelConfiguration.diff(configuration) != 0) {
+            // The panel was not attached to any window when the configuration changed.
+            panel.onConfigurationChanged(configuration);
+        }
+        return panel;
+    }
+
+    /**
+     * Keeps a library panel that is no longer shown as the spare one, or destroys it if there is
+     * a spare panel already.
+     */
+    void releaseLibraryPanel(@NonNull LibraryPanel aPanel) {
+        if (mSpareLibraryPanel != null) {
+            aPanel.onDestroy();
+            return;
+        }
+        mSpareLibraryPanel = aPanel;
+        mSpareLibraryPanelConfiguration = new Configuration(mContext.getResources().getConfiguration());
+    }
+
+    private void destroySpareLibraryPanel() {
+        if (mSpareLibraryPanel != null) {
+            mSpareLibraryPanel.onDestroy();
+            mSpareLibraryPanel = null;
+        }
+    }
+
+    /**
+     * Releases the panels that windows are not showing.
+     */
+    public void onTrimMemory() {
+        for (WindowWidget window : mRegularWindows) {
+            window.releaseHiddenPanels();
+        }
+        for (WindowWidget window : mPrivateWindows) {
+            window.releaseHiddenPanels();
+        }
+        destroySpareLibraryPanel();
+    }
+
     public boolean isInPrivateMode() {
         return mPrivateMode;
     }
@@ -627,6 +685,7 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
     }
 
     public void enterImmersiveMode() {
+        SessionStore.get().getSnapshotScheduler().setImmersive(true);
         if (!isInPrivateMode()) {
             for (WindowWidget window: mRegularWindows) {
                 if (window != mFocusedWindow) {
@@ -644,6 +703,7 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
     }
 
     public void exitImmersiveMode() {
+        SessionStore.get().getSnapshotScheduler().setImmersive(false);
         if (mIsPaused) {
             return;
         }
@@ -867,10 +927,9 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
         if (mIsRestoreEnabled && mWindowsState != null) {
             ArrayList<Session> restoredSessions = new ArrayList<>();
             if (mWindowsState.tabs != null) {
-                mWindowsState.tabs.forEach(state -> {
-                    restoredSessions.add(SessionStore.get().createSuspendedSession(state));
-                    TelemetryService.Tabs.openedCounter(TelemetryService.Tabs.TabSource.PRE_EXISTING);
-                });
+                restoredSessions.addAll(SessionStore.get().createSuspendedSessions(mWindowsState.tabs));
+                mWindowsState.tabs.forEach(state ->
+                        TelemetryService.Tabs.openedCounter(TelemetryService.Tabs.TabSource.PRE_EXISTING));
             }
 
             for (WindowState windowState : mWindowsState.regularWindowsState) {
@@ -890,6 +949,13 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
                 }
             }
 
+            // The restored tabs not shown in a window are loaded in the background, most recently
+            // used first.
+            restoredSessions.sort((a, b) -> Long.compare(b.getLastUse(), a.getLastUse()));
+            SessionStore.get().getTabLoadScheduler().enqueue(restoredSessions);
+            SessionStore.get().getBrowserIcons().prefetch(restoredSessions.stream()
+                    .map(Session::getCurrentUri).collect(Collectors.toList()));
+
             if (mWindowsState.privateMode) {
                 enterPrivateMode();
             } else {
@@ -1111,12 +1177,15 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
     @NonNull
     private WindowWidget createWindow(@Nullable Session aSession) {
         int newWindowId = sIndex++;
+        long start = SystemClock.uptimeMillis();
         WindowWidget window;
         if (aSession != null) {
             window = new WindowWidget(mContext, newWindowId, aSession);
         } else {
             window = new WindowWidget(mContext, newWindowId, mPrivateMode);
         }
+        TelemetryService.Performance.windowCreationEvent(SystemClock.uptimeMillis() - start,
+                getCurrentWindows().size() + 1);
 
         window.addWindowListener(this);
         getCurrentWindows().add(window);
@@ -1290,12 +1359,11 @@ public class Windows implements TrayListener, TopBarWidget.Delegate, TitleBarWid
 
         // If we're signed-in, poll for any new device events (e.g. received tabs)
         // There's no push support right now, so this helps with the perception of speedy tab delivery.
-        ((VRBrowserApplication)mContext.getApplicationContext()).getAccounts().refreshDevicesAsync();
-        ((VRBrowserApplication)mContext.getApplicationContext()).getAccounts().pollForEventsAsync();
+        ((VRBrowserApplication)mContext.getApplicationContext()).getAccounts().pollForEventsInBackground();
 
         // Capture active session snapshots when showing the tabs menu
         for (WindowWidget window: getCurrentWindows()) {
-            window.captureImage();
+            window.captureImage(SnapshotScheduler.PRIORITY_VISIBLE);
         }
     }
 
@@ -1511,10 +1579,7 @@ public void selectTab(@NonNull Session aTab) {
             // The Web Extensions require an active target session so we need to make sure we always keep the
             // Web Extension target session active when switching tabs.
             Session currentWindowSession = targetWindow.getSession();
-            Session popUpSession = ComponentsAdapter.get().getStore().getState().getExtensions().values().stream()
-                    .filter(extensionState -> extensionState.getPopupSession() != null)
-                    .map(extensionState -> ((WolvicEngineSession) extensionState.getPopupSession()).getSession())
-                    .findFirst().orElse(null);
+            Session popUpSession = ComponentsAdapter.get().getPopupSession();
             Session parentPopupSession = null;
             if (popUpSession != null) {
                 parentPopupSession = SessionStore.get().getSession(popUpSession.getSessionState().mParentId);
@@ -1622,6 +1687,7 @@ public void selectTab(@NonNull Session aTab) {
         Session session = SessionStore.get().createSuspendedSession(aUri, targetWindow.getSession().isPrivateMode());
         session.updateLastUse();
         mFocusedWindow.getSession().updateLastUse();
+        SessionStore.get().getTabLoadScheduler().enqueue(Collections.singletonList(session));
         showTabAddedNotification();
     }
 
@@ -1637,32 +1703,28 @@ public void selectTab(@NonNull Session aTab) {
     }
 
     public void onTabsBookmark(List<Session> aTabs) {
+        LinkedHashMap<String, String> bookmarks = new LinkedHashMap<>();
         for (Session tab: aTabs) {
             String url = tab.getCurrentUri();
-
-            if (StringUtils.isEmpty(url)) {
-                continue;
+            if (!StringUtils.isEmpty(url)) {
+                bookmarks.putIfAbsent(url, tab.getCurrentTitle());
             }
-
-            BookmarksStore bookmarkStore = SessionStore.get().getBookmarkStore();
-            Executor executor = ((VRBrowserApplication)mContext.getApplicationContext()).getExecutors().mainThread();
-            bookmarkStore.isBookmarked(url).thenAcceptAsync(bookmarked -> {
-                if (!bookmarked) {
-                    bookmarkStore.addBookmark(url, tab.getCurrentTitle());
-                }
-            }, executor).exceptionally(throwable -> {
-                Log.d(LOGTAG, "Error checking bookmark: " + throwable.getLocalizedMessage());
-                return null;
-            });
         }
+        if (bookmarks.isEmpty()) {
+            return;
+        }
+
+        SessionStore.get().getBookmarkStore().addBookmarks(bookmarks).exceptionally(throwable -> {
+            Log.d(LOGTAG, "Error adding bookmarks: " + throwable.getLocalizedMessage());
+            return null;
+        });
     }
 
     @Override
     public void onTabSync() {
         // If we're signed-in, poll for any new device events (e.g. received tabs)
         // There's no push support right now, so this helps with the perception of speedy tab delivery.
-        mAccounts.refreshDevicesAsync();
-        mAccounts.pollForEventsAsync();
+        mAccounts.pollForEventsInBackground();
     }
 
     public void closeTab(@NonNull Session aTab) {
@@ -1676,8 +1738,9 @@ public void selectTab(@NonNull Session aTab) {
     private void closeTabs(List<Session> aTabs, boolean privateMode, boolean hidePanel) {
         WindowWidget targetWindow = mFocusedWindow;
         // Prepare available tabs to choose from
+        HashSet<Session> closedTabs = new HashSet<>(aTabs);
         ArrayList<Session> available = SessionStore.get().getSortedSessions(privateMode);
-        available.removeAll(aTabs);
+        available.removeIf(closedTabs::contains);
         available.removeIf(session -> getWindowWithSession(session, privateMode) != null);
 
         // Sort windows by priority to take an available tab
@@ -1703,7 +1766,7 @@ public void selectTab(@NonNull Session aTab) {
 
         // Take tabs for each window
         for (WindowWidget window: windows) {
-            if (!aTabs.contains(window.getSession())) {
+            if (!closedTabs.contains(window.getSession())) {
                 // Window already contains a no closed tab
                 continue;
             }
@@ -1722,11 +1785,8 @@ public void selectTab(@NonNull Session aTab) {
             }
         }
 
-        BitmapCache cache = BitmapCache.getInstance(mContext);
-        for (Session session: aTabs) {
-            cache.removeBitmap(session.getId());
-            SessionStore.get().destroySession(session);
-        }
+        BitmapCache.getInstance(mContext).removeBitmaps(aTabs.stream().map(Session::getId).collect(Collectors.toList()));
+        SessionStore.get().destroySessions(aTabs);
     }
 
     @Override
@@ -1734,13 +1794,13 @@ public void selectTab(@NonNull Session aTab) {
         WindowWidget targetWindow = mFocusedWindow;
 
         boolean fullscreen = targetWindow.getSession().isInFullScreen();
+        boolean privateMode = targetWindow.getSession().isPrivateMode();
+        ArrayList<Session> backgroundSessions = new ArrayList<>();
         for (int i = aTabs.size() - 1; i >= 0; --i) {
-            Session session = SessionStore.get().createSession(targetWindow.getSession().isPrivateMode());
-            // Cache the provided data to avoid delays if the tabs are loaded at the same time the
-            // tabs panel is shown.
+            // The tabs are created suspended. The first one is loaded when it is shown in the window
+            // and the rest are loaded in the background by the TabLoadScheduler.
+            Session session = SessionStore.get().createSuspendedSession(aTabs.get(i).getUrl(), privateMode);
             session.getSessionState().mTitle = aTabs.get(i).getTitle();
-            session.getSessionState().mUri = aTabs.get(i).getUrl();
-            session.loadUri(aTabs.get(i).getUrl());
             session.updateLastUse();
 
             TelemetryService.Tabs.openedCounter(TelemetryService.Tabs.TabSource.RECEIVED);
@@ -1748,8 +1808,11 @@ public void selectTab(@NonNull Session aTab) {
             if (i == 0 && !fullscreen) {
                 // Set the first received tab of the list the current one.
                 targetWindow.setSession(session, WindowWidget.DEACTIVATE_CURRENT_SESSION);
+            } else {
+                backgroundSessions.add(0, session);
             }
         }
+        SessionStore.get().getTabLoadScheduler().enqueue(backgroundSessions);
 
         if (!fullscreen) {
             showTabAddedNotification();
@@ -0,0 +1,222 @@
+package com.igalia.wolvic.ui.widgets.prompts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.igalia.wolvic.browser.api.WSession.PromptDelegate.ChoicePrompt.Choice;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Flattened view of a tree of choices, where every group is followed by its items, as shown by
+ * the choice prompt. The flat position of a choice never changes, so it is used as its stable id.
+ *
+ * Only the size of every group is computed upfront. Choices are resolved, one top level group at a
+ * time, when they are first shown. The lower cased labels used for filtering are indexed the first
+ * time a filter is set, and a filter that extends the previous one only looks at its matches.
+ */
+class ChoiceList {
+
+    private final Choice[] mRoots;
+    // Flat position of each top level choice, plus the total size at the end.
+    private final int[] mRootPositions;
+    private final Choice[] mChoices;
+    private final int[] mParents;
+    private final BitSet mInitialSelection = new BitSet();
+    private int mMaxLevel;
+
+    private String[] mLabels;
+    private String mFilter = "";
+    // Flat positions of the items matching the filter, and of the visible ones, which also include
+    // the groups that contain them. Null when there is no filter.
+    private int[] mMatches;
+    private int mMatchCount;
+    private int[] mVisible;
+    private int mVisibleCount;
+
+    ChoiceList(@NonNull Choice[] aChoices) {
+        mRoots = aChoices;
+        mRootPositions = new int[aChoices.length + 1];
+        for (int i = 0; i < aChoices.length; i++) {
+            mRootPositions[i + 1] = mRootPositions[i] + count(aChoices[i], mRootPositions[i], 0);
+        }
+        int size = mRootPositions[aChoices.length];
+        mChoices = new Choice[size];
+        mParents = new int[size];
+    }
+
+    /**
+     * @return the flat positions of the choices that are selected by default.
+     */
+    @NonNull
+    BitSet getInitialSelection() {
+        return mInitialSelection;
+    }
+
+    /**
+     * @return the number of choices, ignoring the filter.
+     */
+    int getTotalCount() {
+        return mChoices.length;
+    }
+
+    /**
+     * @return the number of choices that match the filter, including the groups that contain them.
+     */
+    int getCount() {
+        return mVisible != null ? mVisibleCount : mChoices.length;
+    }
+
+    /**
+     * @return the flat position of the visible choice at the given index.
+     */
+    int getPosition(int aIndex) {
+        return mVisible != null ? mVisible[aIndex] : aIndex;
+    }
+
+    /**
+     * @return the index of the choice at the given flat position, or -1 if it is filtered out.
+     */
+    int indexOf(int aPosition) {
+        if (mVisible == null) {
+            return aPosition;
+        }
+        int index = Arrays.binarySearch(mVisible, 0, mVisibleCount, aPosition);
+        return index >= 0 ? index : -1;
+    }
+
+    @NonNull
+    Choice get(int aPosition) {
+        resolve(aPosition);
+        return mChoices[aPosition];
+    }
+
+    boolean isGroup(int aPosition) {
+        return isGroup(get(aPosition));
+    }
+
+    /**
+     * Shows only the items whose label contains the text, ignoring case, and their groups.
+     *
+     * @return whether the visible choices changed.
+     */
+    boolean setFilter(@Nullable String aText) {
+        String filter = aText != null ? aText.trim().toLowerCase(Locale.getDefault()) : "";
+        if (filter.equals(mFilter)) {
+            return false;
+        }
+
+        if (filter.isEmpty()) {
+            mFilter = filter;
+            mMatches = null;
+            mVisible = null;
+            return true;
+        }
+
+        if (mLabels == null) {
+            buildIndex();
+        }
+
+        if (mMatches != null && filter.contains(mFilter)) {
+            // The new matches are a subset of the current ones.
+            int count = 0;
+            for (int i = 0; i < mMatchCount; i++) {
+                if (mLabels[mMatches[i]].contains(filter)) {
+                    mMatches[count++] = mMatches[i];
+                }
+            }
+            mMatchCount = count;
+        } else {
+            if (mMatches == null) {
+                mMatches = new int[mChoices.length];
+                mVisible = new int[mChoices.length];
+            }
+            mMatchCount = 0;
+            for (int position = 0; position < mChoices.length; position++) {
+                if (!isGroup(mChoices[position]) && mLabels[position].contains(filter)) {
+                    mMatches[mMatchCount++] = position;
+                }
+            }
+        }
+        mFilter = filter;
+        updateVisible();
+        return true;
+    }
+
+    // Adds the groups of every match, which come before it, to the visible choices.
+    private void updateVisible() {
+        if (mVisible == null) {
+            mVisible = new int[mChoices.length];
+        }
+        int[] groups = new int[mMaxLevel + 1];
+        int lastGroup = -1;
+        mVisibleCount = 0;
+        for (int i = 0; i < mMatchCount; i++) {
+            int position = mMatches[i];
+            int depth = 0;
+            for (int parent = mParents[position]; parent > lastGroup; parent = mParents[parent]) {
+                groups[depth++] = parent;
+            }
+            while (depth > 0) {
+                lastGroup = groups[--depth];
+                mVisible[mVisibleCount++] = lastGroup;
+            }
+            mVisible[mVisibleCount++] = position;
+        }
+    }
+
+    private void buildIndex() {
+        mLabels = new String[mChoices.length];
+        Locale locale = Locale.getDefault();
+        for (int position = 0; position < mChoices.length; position++) {
+            mLabels[position] = get(position).label().toLowerCase(locale);
+        }
+    }
+
+    // Counts the choice and its items, which start at aPosition, and records the selected ones.
+    private int count(@NonNull Choice aChoice, int aPosition, int aLevel) {
+        mMaxLevel = Math.max(mMaxLevel, aLevel);
+        if (aChoice.selected() && !isGroup(aChoice)) {
+            mInitialSelection.set(aPosition);
+        }
+        int size = 1;
+        Choice[] items = aChoice.items();
+        if (items != null) {
+            for (Choice item : items) {
+                size += count(item, aPosition + size, aLevel + 1);
+            }
+        }
+        return size;
+    }
+
+    private void resolve(int aPosition) {
+        if (mChoices[aPosition] != null) {
+            return;
+        }
+        int root = Arrays.binarySearch(mRootPositions, aPosition);
+        if (root < 0) {
+            // The position is inside the group that starts before it.
+            root = -root - 2;
+        }
+        fill(mRoots[root], mRootPositions[root], -1);
+    }
+
+    private int fill(@NonNull Choice aChoice, int aPosition, int aParent) {
+        mChoices[aPosition] = aChoice;
+        mParents[aPosition] = aParent;
+        int next = aPosition + 1;
+        Choice[] items = aChoice.items();
+        if (items != null) {
+            for (Choice item : items) {
+                next = fill(item, next, aPosition);
+            }
+        }
+        return next;
+    }
+
+    private static boolean isGroup(@NonNull Choice aChoice) {
+        return aChoice.items() != null && aChoice.items().length > 0;
+    }
+}
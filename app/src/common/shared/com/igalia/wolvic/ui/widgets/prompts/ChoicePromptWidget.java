@@ -2,20 +2,20 @@ package com.igalia.wolvic.ui.widgets.prompts;
 
 import android.content.Context;
 import android.graphics.Typeface;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.AttributeSet;
-import android.util.SparseBooleanArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
-import android.widget.LinearLayout;
-import android.widget.ListView;
+import android.widget.EditText;
 import android.widget.RadioButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.igalia.wolvic.R;
 import com.igalia.wolvic.audio.AudioEngine;
@@ -24,7 +24,8 @@ import com.igalia.wolvic.browser.api.WSession.PromptDelegate.ChoicePrompt.Choice
 import com.igalia.wolvic.ui.widgets.WidgetPlacement;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 public class ChoicePromptWidget extends PromptWidget {
 
@@ -34,13 +35,19 @@ public class ChoicePromptWidget extends PromptWidget {
 
     private static final int DIALOG_CLOSE_DELAY = 250;
     private static final int LISTVIEW_ITEM_HEIGHT = 20;
+    // Lists at least this long get a text field to filter them.
+    private static final int FILTER_MIN_CHOICES = 20;
 
     private AudioEngine mAudio;
-    private ListView mList;
+    private RecyclerView mList;
+    private EditText mFilter;
     private Button mCloseButton;
     private Button mOkButton;
-    private ChoiceWrapper[] mListItems;
+    private ChoiceList mChoices;
     private ChoiceAdapter mAdapter;
+    // Flat positions of the checked choices.
+    private final BitSet mChecked = new BitSet();
+    private boolean mMultipleChoice;
 
     public ChoicePromptWidget(Context aContext) {
         super(aContext);
@@ -64,23 +71,26 @@ public class ChoicePromptWidget extends PromptWidget {
 
         mLayout = findViewById(R.id.layout);
 
+        mChoices = new ChoiceList(new Choice[0]);
+        mAdapter = new ChoiceAdapter();
         mList = findViewById(R.id.choiceslist);
-        mList.setOnItemClickListener((parent, view, position, id) -> {
-            if (mAudio != null) {
-                mAudio.playSound(AudioEngine.Sound.CLICK);
-            }
+        mList.setAdapter(mAdapter);
+
+        mFilter = findViewById(R.id.choicesFilter);
+        mFilter.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
-            mAdapter.notifyDataSetChanged();
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
 
-            postDelayed(() -> {
-                ChoiceWrapper selectedItem = mListItems[position];
-                if (mList.getChoiceMode() == ListView.CHOICE_MODE_SINGLE) {
-                    if (mPromptDelegate != null && mPromptDelegate instanceof ChoicePromptDelegate) {
-                        ((ChoicePromptDelegate)mPromptDelegate).confirm(new String[]{selectedItem.getChoice().id()});
-                        hide(REMOVE_WIDGET);
-                    }
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (mChoices.setFilter(s.toString())) {
+                    mAdapter.notifyDataSetChanged();
+                    mList.scrollToPosition(0);
                 }
-            }, DIALOG_CLOSE_DELAY);
+            }
         });
 
         mTitle = findViewById(R.id.promptTitle);
@@ -92,14 +102,8 @@ public class ChoicePromptWidget extends PromptWidget {
                 mAudio.playSound(AudioEngine.Sound.CLICK);
             }
 
-            switch (mList.getChoiceMode()) {
-                case ListView.CHOICE_MODE_SINGLE:
-                case ListView.CHOICE_MODE_MULTIPLE: {
-                    if (mPromptDelegate != null) {
-                       onDismiss();
-                    }
-                }
-                break;
+            if (mPromptDelegate != null) {
+                onDismiss();
             }
         });
 
@@ -109,37 +113,12 @@ public class ChoicePromptWidget extends PromptWidget {
                 mAudio.playSound(AudioEngine.Sound.CLICK);
             }
 
-            switch (mList.getChoiceMode()) {
-                case ListView.CHOICE_MODE_SINGLE:
-                case ListView.CHOICE_MODE_MULTIPLE: {
-                    if (mPromptDelegate != null && mPromptDelegate instanceof ChoicePromptDelegate) {
-                        int len = mList.getCount();
-                        SparseBooleanArray selected = mList.getCheckedItemPositions();
-                        ArrayList<String> selectedChoices = new ArrayList<>();
-                        for (int i = 0; i < len; i++) {
-                            if (selected.get(i)) {
-                                selectedChoices.add(mListItems[i].getChoice().id());
-                            }
-                        }
-                        ((ChoicePromptDelegate)mPromptDelegate).confirm(selectedChoices.toArray(new String[selectedChoices.size()]));
-                    }
-                }
-                break;
+            if (mPromptDelegate != null && mPromptDelegate instanceof ChoicePromptDelegate) {
+                ((ChoicePromptDelegate)mPromptDelegate).confirm(getCheckedChoices());
             }
 
             hide(REMOVE_WIDGET);
         });
-
-        mListItems = new ChoiceWrapper[]{};
-    }
-
-    @Override
-    public void show(@ShowFlags int aShowFlags, boolean addLast) {
-        super.show(aShowFlags, addLast);
-        for (int i = 0; i < mListItems.length; i++) {
-            mList.setItemChecked(i, mListItems[i].mChoice.selected());
-        }
-        mAdapter.notifyDataSetChanged();
     }
 
     @Override
@@ -148,11 +127,16 @@ public class ChoicePromptWidget extends PromptWidget {
     }
 
     public void setChoices(WSession.PromptDelegate.ChoicePrompt.Choice[] choices) {
-        mListItems = getWrappedChoices(choices);
-        mAdapter = new ChoiceAdapter(getContext(), R.layout.prompt_choice_item, mListItems);
-        mList.setAdapter(mAdapter);
+        mChoices = new ChoiceList(choices);
+        mChecked.clear();
+        mChecked.or(mChoices.getInitialSelection());
+        mAdapter.notifyDataSetChanged();
+
+        mFilter.setVisibility(mChoices.getTotalCount() >= FILTER_MIN_CHOICES ? View.VISIBLE : View.GONE);
+        mFilter.setText("");
+
         int height = WidgetPlacement.dpDimension(getContext(), R.dimen.prompt_choice_min_height);
-        height += choices.length * LISTVIEW_ITEM_HEIGHT;
+        height += mChoices.getTotalCount() * LISTVIEW_ITEM_HEIGHT;
         height = Math.min(height, WidgetPlacement.dpDimension(getContext(), R.dimen.prompt_choice_max_height));
         mWidgetPlacement.height = height;
     }
@@ -161,13 +145,13 @@ public class ChoicePromptWidget extends PromptWidget {
         switch (type) {
             case WSession.PromptDelegate.ChoicePrompt.Type.SINGLE:
             case WSession.PromptDelegate.ChoicePrompt.Type.MENU: {
-                mList.setChoiceMode(ListView.CHOICE_MODE_SINGLE);
+                mMultipleChoice = false;
                 mCloseButton.setVisibility(View.VISIBLE);
                 mOkButton.setVisibility(View.GONE);
             }
             break;
             case WSession.PromptDelegate.ChoicePrompt.Type.MULTIPLE: {
-                mList.setChoiceMode(ListView.CHOICE_MODE_MULTIPLE);
+                mMultipleChoice = true;
                 mCloseButton.setVisibility(View.VISIBLE);
                 mOkButton.setVisibility(View.VISIBLE);
             }
@@ -176,132 +160,75 @@ public class ChoicePromptWidget extends PromptWidget {
     }
 
     @NonNull
-    private static ChoiceWrapper[] getWrappedChoices(Choice[] aChoices) {
-        return getWrappedChoices(aChoices, 0);
-    }
-
-    @NonNull
-    private static ChoiceWrapper[] getWrappedChoices(Choice[] aChoices, int aLevel) {
-        ArrayList<ChoiceWrapper> flattenedChoicesList = new ArrayList<>();
-        for (int i = 0; i < aChoices.length; i++) {
-            flattenedChoicesList.add(new ChoiceWrapper(aChoices[i], aLevel));
-            if (aChoices[i].items() != null && aChoices[i].items().length > 0) {
-                ChoiceWrapper[] childChoices = getWrappedChoices(aChoices[i].items(), aLevel+1);
-                flattenedChoicesList.addAll(Arrays.asList(childChoices));
-            }
+    private String[] getCheckedChoices() {
+        List<String> checkedChoices = new ArrayList<>();
+        for (int position = mChecked.nextSetBit(0); position >= 0; position = mChecked.nextSetBit(position + 1)) {
+            checkedChoices.add(mChoices.get(position).id());
         }
-
-        return flattenedChoicesList.toArray(new ChoiceWrapper[flattenedChoicesList.size()]);
+        return checkedChoices.toArray(new String[0]);
     }
 
-    static class ChoiceWrapper {
-
-        private int mLevel;
-        private Choice mChoice;
-        private boolean isParent;
-
-        public ChoiceWrapper(Choice choice, int level) {
-            mChoice = choice;
-            mLevel = level;
-            isParent = mChoice.items() != null && mChoice.items().length > 0;
+    private void onChoiceClicked(int aPosition) {
+        if (mAudio != null) {
+            mAudio.playSound(AudioEngine.Sound.CLICK);
         }
 
-        public boolean isParent() {
-            return isParent;
+        if (mMultipleChoice) {
+            mChecked.flip(aPosition);
+            notifyChoiceChanged(aPosition);
+            return;
         }
 
-        public int getLevel() {
-            return mLevel;
-        }
-
-        public Choice getChoice() {
-            return mChoice;
+        // Only the rows whose state changes are rebound.
+        for (int position = mChecked.nextSetBit(0); position >= 0; position = mChecked.nextSetBit(position + 1)) {
+            notifyChoiceChanged(position);
         }
+        mChecked.clear();
+        mChecked.set(aPosition);
+        notifyChoiceChanged(aPosition);
+
+        final String id = mChoices.get(aPosition).id();
+        postDelayed(() -> {
+            if (mPromptDelegate != null && mPromptDelegate instanceof ChoicePromptDelegate) {
+                ((ChoicePromptDelegate)mPromptDelegate).confirm(new String[]{id});
+                hide(REMOVE_WIDGET);
+            }
+        }, DIALOG_CLOSE_DELAY);
     }
 
-    public class ChoiceAdapter extends ArrayAdapter<ChoiceWrapper> {
-
-        private class ChoiceViewHolder {
-            LinearLayout layout;
-            RadioButton check;
-            TextView label;
-        }
-
-        private LayoutInflater mInflater;
-
-        public ChoiceAdapter(Context context, int resource, ChoiceWrapper[] choices) {
-            super(context, resource, choices);
-
-            mInflater = LayoutInflater.from(getContext());
+    private void notifyChoiceChanged(int aPosition) {
+        int index = mChoices.indexOf(aPosition);
+        if (index >= 0) {
+            mAdapter.notifyItemChanged(index, ChoiceAdapter.PAYLOAD_CHECKED);
         }
+    }
 
-        @Override
-        public boolean areAllItemsEnabled() {
-            return false;
-        }
-
-        @Override
-        public boolean isEnabled(int position) {
-            return !getItem(position).getChoice().disabled() && !getItem(position).isParent();
-        }
-
-        public View getView(int position, View convertView, ViewGroup parent) {
-            View listItem = convertView;
-
-            ChoiceViewHolder choiceViewHolder;
-            if(listItem == null) {
-                listItem = mInflater.inflate(R.layout.prompt_choice_item, parent, false);
-
-                choiceViewHolder = new ChoiceViewHolder();
-
-                choiceViewHolder.layout = listItem.findViewById(R.id.choiceItemLayoutId);
-                choiceViewHolder.check = listItem.findViewById(R.id.radioOption);
-                choiceViewHolder.label = listItem.findViewById(R.id.optionLabel);
-
-                listItem.setTag(R.string.list_item_view_tag, choiceViewHolder);
-
-                listItem.setOnHoverListener(mHoverListener);
-
-            } else {
-                choiceViewHolder = (ChoiceViewHolder) listItem.getTag(R.string.list_item_view_tag);
-            }
-
-            ChoiceWrapper currentChoice = getItem(position);
-
-            // Reset state
-            choiceViewHolder.check.setVisibility(View.VISIBLE);
-            choiceViewHolder.label.setEnabled(true);
-            choiceViewHolder.check.setEnabled(true);
-            choiceViewHolder.layout.setTag(R.string.position_tag, position);
-
-            choiceViewHolder.label.setTypeface(choiceViewHolder.check.getTypeface(), Typeface.NORMAL);
-            if (currentChoice.isParent()) {
-                choiceViewHolder.label.setTypeface(choiceViewHolder.check.getTypeface(), Typeface.BOLD);
-                choiceViewHolder.check.setVisibility(View.GONE);
-                choiceViewHolder.label.setEnabled(false);
-            }
-            choiceViewHolder.label.setText(currentChoice.getChoice().label());
-
-            listItem.setEnabled(!currentChoice.getChoice().disabled());
-
-            choiceViewHolder.check.setChecked(mList.isItemChecked(position));
-
-            if (currentChoice.getChoice().disabled()) {
-                choiceViewHolder.check.setEnabled(false);
-                choiceViewHolder.label.setEnabled(false);
-            }
+    private boolean isSelectable(int aPosition) {
+        return !mChoices.get(aPosition).disabled() && !mChoices.isGroup(aPosition);
+    }
 
-            return listItem;
+    class ChoiceViewHolder extends RecyclerView.ViewHolder {
+        final RadioButton check;
+        final TextView label;
+        int position;
+
+        ChoiceViewHolder(@NonNull View aView) {
+            super(aView);
+            check = aView.findViewById(R.id.radioOption);
+            label = aView.findViewById(R.id.optionLabel);
+            aView.setOnClickListener(view -> {
+                if (isSelectable(position)) {
+                    onChoiceClicked(position);
+                }
+            });
+            aView.setOnHoverListener(mHoverListener);
         }
 
-        private OnHoverListener mHoverListener = (view, motionEvent) -> {
-            int position = (int)view.getTag(R.string.position_tag);
-            if (!isEnabled(position)) {
+        private final OnHoverListener mHoverListener = (view, motionEvent) -> {
+            if (!isSelectable(position)) {
                 return false;
             }
 
-            TextView label = view.findViewById(R.id.optionLabel);
-            RadioButton check = view.findViewById(R.id.radioOption);
             int ev = motionEvent.getActionMasked();
             switch (ev) {
                 case MotionEvent.ACTION_HOVER_ENTER:
@@ -321,7 +248,73 @@ public class ChoicePromptWidget extends PromptWidget {
 
             return false;
         };
+    }
+
+    class ChoiceAdapter extends RecyclerView.Adapter<ChoiceViewHolder> {
 
+        static final String PAYLOAD_CHECKED = "checked";
+
+        ChoiceAdapter() {
+            setHasStableIds(true);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mChoices.getCount();
+        }
+
+        @Override
+        public long getItemId(int index) {
+            return mChoices.getPosition(index);
+        }
+
+        @NonNull
+        @Override
+        public ChoiceViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.prompt_choice_item, parent, false);
+            return new ChoiceViewHolder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ChoiceViewHolder holder, int index, @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_CHECKED) && holder.position == mChoices.getPosition(index)) {
+                holder.check.setChecked(mChecked.get(holder.position));
+            } else {
+                onBindViewHolder(holder, index);
+            }
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ChoiceViewHolder holder, int index) {
+            int position = mChoices.getPosition(index);
+            Choice choice = mChoices.get(position);
+            boolean isGroup = mChoices.isGroup(position);
+            holder.position = position;
+
+            // Reset state
+            holder.itemView.setHovered(false);
+            holder.itemView.setBackgroundColor(getContext().getColor(R.color.void_color));
+            holder.check.setVisibility(View.VISIBLE);
+            holder.label.setEnabled(true);
+            holder.check.setEnabled(true);
+
+            holder.label.setTypeface(holder.check.getTypeface(), Typeface.NORMAL);
+            if (isGroup) {
+                holder.label.setTypeface(holder.check.getTypeface(), Typeface.BOLD);
+                holder.check.setVisibility(View.GONE);
+                holder.label.setEnabled(false);
+            }
+            holder.label.setText(choice.label());
+
+            holder.itemView.setEnabled(!choice.disabled());
+
+            holder.check.setChecked(mChecked.get(position));
+
+            if (choice.disabled()) {
+                holder.check.setEnabled(false);
+                holder.label.setEnabled(false);
+            }
+        }
     }
 
 }
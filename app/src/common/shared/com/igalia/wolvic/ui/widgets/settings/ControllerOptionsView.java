@@ -54,32 +54,47 @@ class ControllerOptionsView extends SettingsView {
         // Footer
         mBinding.footerLayout.setFooterButtonClickListener(v -> resetOptions());
 
-        int selectionMethod = SettingsStore.getInstance(getContext()).getWindowSelectionMethod();
         mBinding.windowSelectionRadio.setOnCheckedChangeListener(mWindowSelectionMethodListener);
-        setWindowSelectionMethod(mBinding.windowSelectionRadio.getIdForValue(selectionMethod), false);
-
-        int color = SettingsStore.getInstance(getContext()).getPointerColor();
         mBinding.pointerColorRadio.setOnCheckedChangeListener(mPointerColorListener);
-        setPointerColor(mBinding.pointerColorRadio.getIdForValue(color), false);
-
-        int scrollDirection = SettingsStore.getInstance(getContext()).getScrollDirection();
         mBinding.scrollDirectionRadio.setOnCheckedChangeListener(mScrollDirectionListener);
-        setScrollDirection(mBinding.scrollDirectionRadio.getIdForValue(scrollDirection), false);
-
         mBinding.soundEffectSwitch.setOnCheckedChangeListener(mSoundEffectListener);
-        setSoundEffect(SettingsStore.getInstance(getContext()).isAudioEnabled(), false);
-
         mBinding.hapticFeedbackSwitch.setOnCheckedChangeListener(mHapticFeedbackListener);
-        setHapticFeedbackEnabled(SettingsStore.getInstance(getContext()).isHapticFeedbackEnabled(), false);
 
         if (mWidgetManager.isEyeTrackingSupported()) {
             mBinding.pointerModeRadio.setOnCheckedChangeListener(mPointerModeListener);
-            setPointerMode(SettingsStore.getInstance(getContext()).getPointerMode(), false);
         } else {
             mBinding.pointerModeRadio.setVisibility(GONE);
         }
 
+        bindSettings();
+    }
+
+    @Override
+    public boolean isRecyclable() {
+        return true;
+    }
+
+    @Override
+    protected void onRebind() {
+        bindSettings();
+    }
+
+    private void bindSettings() {
+        SettingsStore settingsStore = SettingsStore.getInstance(getContext());
+
+        setWindowSelectionMethod(mBinding.windowSelectionRadio.getIdForValue(settingsStore.getWindowSelectionMethod()), false);
+        setPointerColor(mBinding.pointerColorRadio.getIdForValue(settingsStore.getPointerColor()), false);
+        setScrollDirection(mBinding.scrollDirectionRadio.getIdForValue(settingsStore.getScrollDirection()), false);
+        setSoundEffect(settingsStore.isAudioEnabled(), false);
+        setHapticFeedbackEnabled(settingsStore.isHapticFeedbackEnabled(), false);
+
+        if (mWidgetManager.isEyeTrackingSupported()) {
+            setPointerMode(settingsStore.getPointerMode(), false);
+        }
+
+        // Controllers may have been connected or disconnected since this view was last shown.
         if (mWidgetManager.isHandTrackingSupported() && mWidgetManager.areControllersAvailable()) {
+            mBinding.handtrackingSwitch.setVisibility(VISIBLE);
             setHandTrackingEnabled(mWidgetManager.isHandTrackingEnabled(), false);
         } else {
             mBinding.handtrackingSwitch.setVisibility(GONE);
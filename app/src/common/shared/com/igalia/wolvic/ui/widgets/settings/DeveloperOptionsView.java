@@ -52,31 +52,48 @@ class DeveloperOptionsView extends SettingsView {
 
         // Switches
         mBinding.remoteDebuggingSwitch.setOnCheckedChangeListener(mRemoteDebuggingListener);
-        setRemoteDebugging(SettingsStore.getInstance(getContext()).isRemoteDebuggingEnabled(), false);
-
         mBinding.debugLoggingSwitch.setOnCheckedChangeListener(mDebugLogginListener);
-        setDebugLogging(SettingsStore.getInstance(getContext()).isDebugLoggingEnabled(), false);
-
         mBinding.performanceMonitorSwitch.setOnCheckedChangeListener(mPerformanceListener);
-        setPerformance(SettingsStore.getInstance(getContext()).isPerformanceMonitorEnabled(), false);
         // Hide Performance Monitor switch until it can handle multiple windows.
         mBinding.performanceMonitorSwitch.setVisibility(View.GONE);
-
+        mBinding.performanceOverlaySwitch.setOnCheckedChangeListener(mPerformanceOverlayListener);
         mBinding.hardwareAccelerationSwitch.setOnCheckedChangeListener(mUIHardwareAccelerationListener);
-        setUIHardwareAcceleration(SettingsStore.getInstance(getContext()).isUIHardwareAccelerationEnabled(), false);
-
         mBinding.bypassCacheOnReloadSwitch.setOnCheckedChangeListener(mBypassCacheOnReloadListener);
-        setBypassCacheOnReload(SettingsStore.getInstance(getContext()).isBypassCacheOnReloadEnabled(), false);
 
         if (BuildConfig.DEBUG) {
             mBinding.webglOutOfProcessSwitch.setOnCheckedChangeListener(mWebGLOutOfProcessListener);
-            setWebGLOutOfProcess(SettingsStore.getInstance(getContext()).isWebGLOutOfProcess(), false);
         } else {
             mBinding.webglOutOfProcessSwitch.setVisibility(View.GONE);
         }
 
         mBinding.localAddonSwitch.setOnCheckedChangeListener(mLocalAddonListener);
-        setLocalAddon(SettingsStore.getInstance(getContext()).isLocalAddonAllowed(), false);
+
+        bindSettings();
+    }
+
+    @Override
+    public boolean isRecyclable() {
+        return true;
+    }
+
+    @Override
+    protected void onRebind() {
+        bindSettings();
+    }
+
+    private void bindSettings() {
+        SettingsStore settingsStore = SettingsStore.getInstance(getContext());
+
+        setRemoteDebugging(settingsStore.isRemoteDebuggingEnabled(), false);
+        setDebugLogging(settingsStore.isDebugLoggingEnabled(), false);
+        setPerformance(settingsStore.isPerformanceMonitorEnabled(), false);
+        setPerformanceOverlay(settingsStore.isPerformanceOverlayEnabled(), false);
+        setUIHardwareAcceleration(settingsStore.isUIHardwareAccelerationEnabled(), false);
+        setBypassCacheOnReload(settingsStore.isBypassCacheOnReloadEnabled(), false);
+        if (BuildConfig.DEBUG) {
+            setWebGLOutOfProcess(settingsStore.isWebGLOutOfProcess(), false);
+        }
+        setLocalAddon(settingsStore.isLocalAddonAllowed(), false);
     }
 
     private SwitchSetting.OnCheckedChangeListener mRemoteDebuggingListener = (compoundButton, value, doApply) -> {
@@ -87,6 +104,10 @@ class DeveloperOptionsView extends SettingsView {
         setPerformance(value, doApply);
     };
 
+    private SwitchSetting.OnCheckedChangeListener mPerformanceOverlayListener = (compoundButton, value, doApply) -> {
+        setPerformanceOverlay(value, doApply);
+    };
+
     private SwitchSetting.OnCheckedChangeListener mDebugLogginListener = (compoundButton, value, doApply) -> {
         setDebugLogging(value, doApply);
     };
@@ -118,6 +139,10 @@ class DeveloperOptionsView extends SettingsView {
             setPerformance(SettingsStore.PERFORMANCE_MONITOR_DEFAULT, true);
         }
 
+        if (mBinding.performanceOverlaySwitch.isChecked() != SettingsStore.PERFORMANCE_OVERLAY_DEFAULT) {
+            setPerformanceOverlay(SettingsStore.PERFORMANCE_OVERLAY_DEFAULT, true);
+        }
+
         boolean prevDebugLoggingSelection = mBinding.debugLoggingSwitch.isChecked();
         if (prevDebugLoggingSelection != SettingsStore.DEBUG_LOGGING_DEFAULT) {
             setDebugLogging(SettingsStore.DEBUG_LOGGING_DEFAULT, true);
@@ -189,6 +214,16 @@ class DeveloperOptionsView extends SettingsView {
         }
     }
 
+    private void setPerformanceOverlay(boolean value, boolean doApply) {
+        mBinding.performanceOverlaySwitch.setOnCheckedChangeListener(null);
+        mBinding.performanceOverlaySwitch.setValue(value, false);
+        mBinding.performanceOverlaySwitch.setOnCheckedChangeListener(mPerformanceOverlayListener);
+
+        if (doApply) {
+            SettingsStore.getInstance(getContext()).setPerformanceOverlayEnabled(value);
+        }
+    }
+
     private void setDebugLogging(boolean value, boolean doApply) {
         boolean prevValue = SettingsStore.getInstance(getContext()).isDebugLoggingEnabled();
 
@@ -59,18 +59,9 @@ class DisplayOptionsView extends SettingsView {
 
         // Options
         mBinding.curvedDisplaySwitch.setOnCheckedChangeListener(mCurvedDisplayListener);
-        setCurvedDisplay(SettingsStore.getInstance(getContext()).getCylinderDensity() > 0.0f, false);
-
         mBinding.centerWindowsSwitch.setOnCheckedChangeListener(mCenterWindowsListener);
-        setCenterWindows(SettingsStore.getInstance(getContext()).isCenterWindows(), false);
-
-        int uaMode = SettingsStore.getInstance(getContext()).getUaMode();
         mBinding.uaRadio.setOnCheckedChangeListener(mUaModeListener);
-        setUaMode(mBinding.uaRadio.getIdForValue(uaMode), false);
-
-        int msaaLevel = SettingsStore.getInstance(getContext()).getMSAALevel();
         mBinding.msaaRadio.setOnCheckedChangeListener(mMSSAChangeListener);
-        setMSAAMode(mBinding.msaaRadio.getIdForValue(msaaLevel), false);
 
         List<String> windowSizePresets = new ArrayList<>();
         for (SettingsStore.WindowSizePreset preset : SettingsStore.WindowSizePreset.values()) {
@@ -78,20 +69,10 @@ class DisplayOptionsView extends SettingsView {
         }
         mBinding.windowsSize.setOptions(windowSizePresets.toArray(new String[0]));
         mBinding.windowsSize.setOnCheckedChangeListener(mWindowsSizeChangeListener);
-        int windowWidth = SettingsStore.getInstance(getContext()).getWindowWidth();
-        int windowHeight = SettingsStore.getInstance(getContext()).getWindowHeight();
-        SettingsStore.WindowSizePreset windowSizePreset = SettingsStore.WindowSizePreset.fromValues(windowWidth, windowHeight);
-        setWindowsSizePreset(windowSizePreset.ordinal(), false);
 
-        int homepageId = getHomepageId(SettingsStore.getInstance(getContext()).getHomepage());
         mBinding.homepage.setOnCheckedChangeListener(mHomepageChangeListener);
-        setHomepage(homepageId, false);
-
         mBinding.autoplaySwitch.setOnCheckedChangeListener(mAutoplayListener);
-        setAutoplay(SettingsStore.getInstance(getContext()).isAutoplayEnabled(), false);
-
         mBinding.startWithPassthroughSwitch.setOnCheckedChangeListener(mStartWithPassthroughListener);
-        setStartWithPassthrough(SettingsStore.getInstance(getContext()).isStartWithPassthroughEnabled());
 
         if (mWidgetManager != null && mWidgetManager.isPassthroughSupported()) {
             mBinding.startWithPassthroughSwitch.setVisibility(View.VISIBLE);
@@ -100,37 +81,69 @@ class DisplayOptionsView extends SettingsView {
         }
 
         mBinding.latinAutoCompleteSwitch.setOnCheckedChangeListener(mLatinAutoCompleteListener);
-        setLatinAutoComplete(SettingsStore.getInstance(getContext()).isLatinAutoCompleteEnabled(), false);
-
         mBinding.headLockSwitch.setOnCheckedChangeListener(mHeadLockListener);
-        setHeadLock(SettingsStore.getInstance(getContext()).isHeadLockEnabled(), false);
-
         mBinding.openTabsInBackgroundSwitch.setOnCheckedChangeListener(mOpenTabsInBackgroundListener);
-        setOpenTabsInBackground(SettingsStore.getInstance(getContext()).isOpenTabsInBackgroundEnabled(), false);
-
-        @SettingsStore.TabsLocation int tabsLocation = SettingsStore.getInstance(getContext()).getTabsLocation();
         mBinding.tabsLocationRadio.setOnCheckedChangeListener(mTabsLocationChangeListener);
-        setTabsLocation(mBinding.tabsLocationRadio.getIdForValue(tabsLocation), false);
 
         mDefaultHomepageUrl = getContext().getString(R.string.HOMEPAGE_URL);
 
         mBinding.homepageEdit.setHint1(getContext().getString(R.string.homepage_hint, getContext().getString(R.string.app_name)));
         mBinding.homepageEdit.setDefaultFirstValue(mDefaultHomepageUrl);
-        mBinding.homepageEdit.setFirstText(SettingsStore.getInstance(getContext()).getHomepage());
         mBinding.homepageEdit.setOnSaveClickedListener(mHomepageListener);
-        setHomepage(SettingsStore.getInstance(getContext()).getHomepage());
 
         mBinding.densityEdit.setHint1(String.valueOf(SettingsStore.DISPLAY_DENSITY_DEFAULT));
         mBinding.densityEdit.setDefaultFirstValue(String.valueOf(SettingsStore.DISPLAY_DENSITY_DEFAULT));
-        mBinding.densityEdit.setFirstText(Float.toString(SettingsStore.getInstance(getContext()).getDisplayDensity()));
         mBinding.densityEdit.setOnSaveClickedListener(mDensityListener);
-        setDisplayDensity(SettingsStore.getInstance(getContext()).getDisplayDensity());
 
         mBinding.dpiEdit.setHint1(String.valueOf(SettingsStore.DISPLAY_DPI_DEFAULT));
         mBinding.dpiEdit.setDefaultFirstValue(String.valueOf(SettingsStore.DISPLAY_DPI_DEFAULT));
-        mBinding.dpiEdit.setFirstText(Integer.toString(SettingsStore.getInstance(getContext()).getDisplayDpi()));
         mBinding.dpiEdit.setOnSaveClickedListener(mDpiListener);
-        setDisplayDpi(SettingsStore.getInstance(getContext()).getDisplayDpi());
+
+        bindSettings();
+    }
+
+    @Override
+    public boolean isRecyclable() {
+        return true;
+    }
+
+    @Override
+    protected void onRebind() {
+        bindSettings();
+    }
+
+    // Sets the current values of the settings, which may have been changed elsewhere since this
+    // view was last shown.
+    private void bindSettings() {
+        SettingsStore settingsStore = SettingsStore.getInstance(getContext());
+
+        setCurvedDisplay(settingsStore.getCylinderDensity() > 0.0f, false);
+        setCenterWindows(settingsStore.isCenterWindows(), false);
+        setUaMode(mBinding.uaRadio.getIdForValue(settingsStore.getUaMode()), false);
+        setMSAAMode(mBinding.msaaRadio.getIdForValue(settingsStore.getMSAALevel()), false);
+
+        SettingsStore.WindowSizePreset windowSizePreset = SettingsStore.WindowSizePreset.fromValues(
+                settingsStore.getWindowWidth(), settingsStore.getWindowHeight());
+        setWindowsSizePreset(windowSizePreset.ordinal(), false);
+
+        setHomepage(getHomepageId(settingsStore.getHomepage()), false);
+        setAutoplay(settingsStore.isAutoplayEnabled(), false);
+        setStartWithPassthrough(settingsStore.isStartWithPassthroughEnabled());
+        setLatinAutoComplete(settingsStore.isLatinAutoCompleteEnabled(), false);
+        setHeadLock(settingsStore.isHeadLockEnabled(), false);
+        setOpenTabsInBackground(settingsStore.isOpenTabsInBackgroundEnabled(), false);
+
+        @SettingsStore.TabsLocation int tabsLocation = settingsStore.getTabsLocation();
+        setTabsLocation(mBinding.tabsLocationRadio.getIdForValue(tabsLocation), false);
+
+        mBinding.homepageEdit.setFirstText(settingsStore.getHomepage());
+        setHomepage(settingsStore.getHomepage());
+
+        mBinding.densityEdit.setFirstText(Float.toString(settingsStore.getDisplayDensity()));
+        setDisplayDensity(settingsStore.getDisplayDensity());
+
+        mBinding.dpiEdit.setFirstText(Integer.toString(settingsStore.getDisplayDpi()));
+        setDisplayDpi(settingsStore.getDisplayDpi());
     }
 
     @Override
@@ -46,10 +46,6 @@ class LanguageOptionsView extends SettingsView {
     private void initialize(Context aContext) {
         updateUI();
 
-        mContentLanguage = new ContentLanguageOptionsView(getContext(), mWidgetManager);
-        mVoiceLanguage = new VoiceSearchLanguageOptionsView(getContext(), mWidgetManager);
-        mDisplayLanguage = new DisplayLanguageOptionsView(getContext(), mWidgetManager);
-
         mPrefs = PreferenceManager.getDefaultSharedPreferences(aContext);
     }
 
@@ -75,6 +71,20 @@ class LanguageOptionsView extends SettingsView {
         mBinding.setVoiceSearchClickListener(mVoiceSearchListener);
 
         // Set descriptions
+        setDescriptions();
+    }
+
+    @Override
+    public boolean isRecyclable() {
+        return true;
+    }
+
+    @Override
+    protected void onRebind() {
+        setDescriptions();
+    }
+
+    private void setDescriptions() {
         setVoiceService();
         setVoiceLanguage();
         setContentLanguage();
@@ -96,6 +106,13 @@ class LanguageOptionsView extends SettingsView {
     }
 
     private OnClickListener mResetListener = (view) -> {
+        // The language views are only needed to reset their settings, so they are not inflated
+        // until then.
+        if (mContentLanguage == null) {
+            mContentLanguage = new ContentLanguageOptionsView(getContext(), mWidgetManager);
+            mVoiceLanguage = new VoiceSearchLanguageOptionsView(getContext(), mWidgetManager);
+            mDisplayLanguage = new DisplayLanguageOptionsView(getContext(), mWidgetManager);
+        }
         mContentLanguage.reset();
         mDisplayLanguage.reset();
         mVoiceLanguage.reset();
@@ -110,48 +110,28 @@ class PrivacyOptionsView extends SettingsView {
                     togglePermission(button.first, button.second));
         }
 
-        refreshPermissions();
-
         mBinding.drmContentPlaybackSwitch.setOnCheckedChangeListener(mDrmContentListener);
         mBinding.drmContentPlaybackSwitch.setDescription(getResources().getString(R.string.security_options_drm_content_v1, getResources().getString(R.string.sumo_drm_url)));
         mBinding.drmContentPlaybackSwitch.setLinkClickListener((widget, url) -> {
             mWidgetManager.openNewTabForeground(url);
             exitWholeSettings();
         });
-        setDrmContent(SettingsStore.getInstance(getContext()).isDrmContentPlaybackEnabled(), false);
 
         mBinding.notificationsPermissionSwitch.setOnCheckedChangeListener(mNotificationsListener);
-        setNotifications(SettingsStore.getInstance(getContext()).isNotificationsEnabled(), false);
-
         mBinding.speechDataSwitch.setOnCheckedChangeListener(mSpeechDataListener);
-        setSpeechData(SettingsStore.getInstance(getContext()).isSpeechDataCollectionEnabled(), false);
-
         mBinding.telemetryDataSwitch.setOnCheckedChangeListener(mTelemetryListener);
-        setTelemetry(SettingsStore.getInstance(getContext()).isTelemetryEnabled(), false);
-
         mBinding.crashReportsDataSwitch.setOnCheckedChangeListener(mCrashReportsListener);
-        setCrashReports(SettingsStore.getInstance(getContext()).isCrashReportingEnabled(), false);
-
         mBinding.useSystemRootCASwitch.setOnCheckedChangeListener(mUseSystemRootCAListener);
-        setUseSystemRootCA(SettingsStore.getInstance(getContext()).isSystemRootCAEnabled(), false);
-
         mBinding.popUpsBlockingSwitch.setOnCheckedChangeListener(mPopUpsBlockingListener);
-        setPopUpsBlocking(SettingsStore.getInstance(getContext()).isPopUpsBlockingEnabled(), false);
 
         mBinding.popUpsBlockingExceptionsButton.setOnClickListener(v -> mDelegate.showView(SettingViewType.POPUP_EXCEPTIONS));
 
         mBinding.restoreTabsSwitch.setOnCheckedChangeListener(mRestoreTabsListener);
-        setRestoreTabs(SettingsStore.getInstance(getContext()).isRestoreTabsEnabled(), false);
-
         mBinding.autocompleteSwitch.setOnCheckedChangeListener(mAutocompleteListener);
-        setAutocomplete(SettingsStore.getInstance(getContext()).isAutocompleteEnabled(), false);
 
         mBinding.searchEngineButton.setOnClickListener(v -> mDelegate.showView(SettingViewType.SEARCH_ENGINE));
-        String searchEngineName = SearchEngineWrapper.get(getContext()).resolveCurrentSearchEngine().getName();
-        mBinding.searchEngineDescription.setText(searchEngineName);
 
         mBinding.webxrSwitch.setOnCheckedChangeListener(mWebXRListener);
-        setWebXR(SettingsStore.getInstance(getContext()).isWebXREnabled(), false);
         mBinding.webxrExceptionsButton.setOnClickListener(v -> mDelegate.showView(SettingViewType.WEBXR_EXCEPTIONS));
 
         mBinding.trackingProtectionButton.setOnClickListener(v -> mDelegate.showView(SettingViewType.TRACKING_EXCEPTION));
@@ -160,11 +140,44 @@ class PrivacyOptionsView extends SettingsView {
             mWidgetManager.openNewTabForeground(url);
             exitWholeSettings();
         });
-        int etpLevel = SettingsStore.getInstance(getContext()).getTrackingProtectionLevel();
         mBinding.trackingProtectionRadio.setOnCheckedChangeListener(mTrackingProtectionListener);
-        setTrackingProtection(mBinding.trackingProtectionRadio.getIdForValue(etpLevel), false);
 
         mBinding.loginsAndPasswords.setOnClickListener(view -> mDelegate.showView(SettingViewType.LOGINS_AND_PASSWORDS));
+
+        bindSettings();
+    }
+
+    @Override
+    public boolean isRecyclable() {
+        return true;
+    }
+
+    @Override
+    protected void onRebind() {
+        bindSettings();
+    }
+
+    private void bindSettings() {
+        SettingsStore settingsStore = SettingsStore.getInstance(getContext());
+
+        refreshPermissions();
+
+        setDrmContent(settingsStore.isDrmContentPlaybackEnabled(), false);
+        setNotifications(settingsStore.isNotificationsEnabled(), false);
+        setSpeechData(settingsStore.isSpeechDataCollectionEnabled(), false);
+        setTelemetry(settingsStore.isTelemetryEnabled(), false);
+        setCrashReports(settingsStore.isCrashReportingEnabled(), false);
+        setUseSystemRootCA(settingsStore.isSystemRootCAEnabled(), false);
+        setPopUpsBlocking(settingsStore.isPopUpsBlockingEnabled(), false);
+        setRestoreTabs(settingsStore.isRestoreTabsEnabled(), false);
+        setAutocomplete(settingsStore.isAutocompleteEnabled(), false);
+        setWebXR(settingsStore.isWebXREnabled(), false);
+
+        String searchEngineName = SearchEngineWrapper.get(getContext()).resolveCurrentSearchEngine().getName();
+        mBinding.searchEngineDescription.setText(searchEngineName);
+
+        int etpLevel = settingsStore.getTrackingProtectionLevel();
+        setTrackingProtection(mBinding.trackingProtectionRadio.getIdForValue(etpLevel), false);
     }
 
     private void togglePermission(SwitchSetting aButton, String aPermission) {
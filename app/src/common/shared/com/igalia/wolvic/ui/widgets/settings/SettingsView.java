@@ -142,6 +142,19 @@ public abstract class SettingsView extends FrameLayout {
         removeAllViews();
     }
 
+    /**
+     * @return whether this view can be kept once hidden and shown again later, after
+     * {@link #onRebind()}, instead of being inflated again.
+     */
+    public boolean isRecyclable() {
+        return false;
+    }
+
+    /**
+     * Called before a recycled view is shown again, to update it with the current settings.
+     */
+    protected void onRebind() {}
+
     protected abstract SettingViewType getType();
 
 }
@@ -12,6 +12,9 @@ import android.content.pm.PackageManager;
 import android.content.res.Configuration;
 import android.graphics.Point;
 import android.graphics.drawable.BitmapDrawable;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.text.Html;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -52,6 +55,11 @@ import com.igalia.wolvic.utils.RemoteProperties;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
@@ -82,6 +90,43 @@ public class SettingsWidget extends UIDialog implements SettingsView.Delegate {
             BuildConfig.GIT_HASH + " (AC " + Build.VERSION + ")");
     private boolean mIsFirstVersionDetail;
 
+    // Panels that are detached once hidden and shown again without being inflated, most recently
+    // used last.
+    private static final int MAX_CACHED_VIEWS = 5;
+    private final LinkedHashMap<SettingsView.SettingViewType, SettingsView> mCachedViews =
+            new LinkedHashMap<SettingsView.SettingViewType, SettingsView>(MAX_CACHED_VIEWS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SettingsView.SettingViewType, SettingsView> aEldest) {
+            return size() > MAX_CACHED_VIEWS;
+        }
+    };
+    private int mInflations;
+
+    // The most used panels, which are inflated while the main thread is idle once the settings are
+    // first opened.
+    private static final SettingsView.SettingViewType[] PREWARMED_VIEWS = {
+            SettingsView.SettingViewType.DISPLAY,
+            SettingsView.SettingViewType.PRIVACY,
+            SettingsView.SettingViewType.LANGUAGE,
+            SettingsView.SettingViewType.CONTROLLER
+    };
+    private final ArrayDeque<SettingsView.SettingViewType> mPrewarmQueue = new ArrayDeque<>();
+    private boolean mPrewarmed;
+
+    // Inflates one panel each time the main thread becomes idle, so that user input is never held
+    // for more than one panel.
+    private final MessageQueue.IdleHandler mPrewarmHandler = () -> {
+        SettingsView.SettingViewType type = mPrewarmQueue.poll();
+        if (type != null && !mCachedViews.containsKey(type) &&
+                (mCurrentView == null || mCurrentView.getType() != type)) {
+            SettingsView view = createView(type, null);
+            if (view != null) {
+                mCachedViews.put(type, view);
+            }
+        }
+        return !mPrewarmQueue.isEmpty();
+    };
+
 
     public SettingsWidget(Context aContext) {
         super(aContext);
@@ -282,6 +327,13 @@ public class SettingsWidget extends UIDialog implements SettingsView.Delegate {
     public void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
 
+        // The views have to be inflated again with the new resources.
+        mCachedViews.clear();
+        if (mCurrentView != null) {
+            mCurrentView.onHidden();
+            removeView(mCurrentView);
+            mCurrentView = null;
+        }
         showView(mOpenDialog);
     }
 
@@ -290,6 +342,10 @@ public class SettingsWidget extends UIDialog implements SettingsView.Delegate {
         if (!mAreMozillaAccountsDisabled)
             mAccounts.removeAccountListener(mAccountObserver);
 
+        Looper.myQueue().removeIdleHandler(mPrewarmHandler);
+        mPrewarmQueue.clear();
+        mCachedViews.clear();
+
         super.releaseWidget();
     }
 
@@ -445,88 +501,118 @@ public class SettingsWidget extends UIDialog implements SettingsView.Delegate {
 
     @Override
     public void showView(SettingsView.SettingViewType aType, @Nullable Object extras) {
+        if (aType == SettingsView.SettingViewType.MAIN) {
+            showView((SettingsView) null);
+            return;
+        }
+
+        long start = SystemClock.uptimeMillis();
+        SettingsView view = mCachedViews.remove(aType);
+        boolean recycled = view != null;
+        if (recycled) {
+            view.onRebind();
+        } else {
+            view = createView(aType, extras);
+            if (view == null) {
+                return;
+            }
+        }
+        showView(view);
+
+        TelemetryService.Performance.settingsPanelEvent(aType.name().toLowerCase(Locale.ROOT),
+                SystemClock.uptimeMillis() - start, recycled, mInflations);
+    }
+
+    @Nullable
+    private SettingsView createView(SettingsView.SettingViewType aType, @Nullable Object extras) {
+        SettingsView view = null;
         switch (aType) {
-            case MAIN:
-                showView((SettingsView) null);
-                break;
             case LANGUAGE:
-                showView(new LanguageOptionsView(getContext(), mWidgetManager));
+                view = new LanguageOptionsView(getContext(), mWidgetManager);
                 break;
             case LANGUAGE_DISPLAY:
-                showView(new DisplayLanguageOptionsView(getContext(), mWidgetManager));
+                view = new DisplayLanguageOptionsView(getContext(), mWidgetManager);
                 break;
             case LANGUAGE_CONTENT:
-                showView(new ContentLanguageOptionsView(getContext(), mWidgetManager));
+                view = new ContentLanguageOptionsView(getContext(), mWidgetManager);
                 break;
             case LANGUAGE_VOICE_SERVICE:
-                showView(new VoiceSearchServiceOptionsView(getContext(), mWidgetManager));
+                view = new VoiceSearchServiceOptionsView(getContext(), mWidgetManager);
                 break;
             case LANGUAGE_VOICE:
-                showView(new VoiceSearchLanguageOptionsView(getContext(), mWidgetManager));
+                view = new VoiceSearchLanguageOptionsView(getContext(), mWidgetManager);
                 break;
             case DISPLAY:
-                showView(new DisplayOptionsView(getContext(), mWidgetManager));
+                view = new DisplayOptionsView(getContext(), mWidgetManager);
                 break;
             case PRIVACY:
-                showView(new PrivacyOptionsView(getContext(), mWidgetManager));
+                view = new PrivacyOptionsView(getContext(), mWidgetManager);
                 break;
             case POPUP_EXCEPTIONS:
-                showView(new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_POPUP));
+                view = new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_POPUP);
                 break;
             case WEBXR_EXCEPTIONS:
-                showView(new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_WEBXR));
+                view = new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_WEBXR);
                 break;
             case DEVELOPER:
-                showView(new DeveloperOptionsView(getContext(), mWidgetManager));
+                view = new DeveloperOptionsView(getContext(), mWidgetManager);
                 break;
             case FXA:
-                showView(new FxAAccountOptionsView(getContext(), mWidgetManager));
+                view = new FxAAccountOptionsView(getContext(), mWidgetManager);
                 break;
             case ENVIRONMENT:
-                showView(new EnvironmentOptionsView(getContext(), mWidgetManager));
+                view = new EnvironmentOptionsView(getContext(), mWidgetManager);
                 break;
             case CONTROLLER:
-                showView(new ControllerOptionsView(getContext(), mWidgetManager));
+                view = new ControllerOptionsView(getContext(), mWidgetManager);
                 break;
             case TRACKING_EXCEPTION:
-                showView(new TrackingPermissionsOptionsView(getContext(), mWidgetManager));
+                view = new TrackingPermissionsOptionsView(getContext(), mWidgetManager);
                 break;
             case LOGINS_AND_PASSWORDS:
-                showView(new LoginAndPasswordsOptionsView(getContext(), mWidgetManager));
+                view = new LoginAndPasswordsOptionsView(getContext(), mWidgetManager);
                 break;
             case LOGIN_EXCEPTIONS:
-                showView(new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_AUTOFILL));
+                view = new SitePermissionsOptionsView(getContext(), mWidgetManager, SitePermission.SITE_PERMISSION_AUTOFILL);
                 break;
             case SAVED_LOGINS:
-                showView(new SavedLoginsOptionsView(getContext(), mWidgetManager));
+                view = new SavedLoginsOptionsView(getContext(), mWidgetManager);
                 break;
             case LOGIN_EDIT:
                 if (extras != null) {
-                    showView(new LoginEditOptionsView(getContext(), mWidgetManager, (Login)extras));
+                    view = new LoginEditOptionsView(getContext(), mWidgetManager, (Login)extras);
                 }
                 break;
             case SEARCH_ENGINE:
-                showView(new SearchEngineView(getContext(), mWidgetManager));
+                view = new SearchEngineView(getContext(), mWidgetManager);
                 break;
             case SEARCH_ENGINE_EDIT:
-                showView(new EditSearchEngineOptionsView(getContext(), mWidgetManager, (CustomSearchEngine) extras));
+                view = new EditSearchEngineOptionsView(getContext(), mWidgetManager, (CustomSearchEngine) extras);
                 break;
             case CUSTOM_SEARCH_ENGINES:
-                showView(new CustomSearchEnginesOptionsView(getContext(), mWidgetManager));
+                view = new CustomSearchEnginesOptionsView(getContext(), mWidgetManager);
                 break;
             case TERMS_OF_SERVICE:
-                showView(new LegalDocumentView(getContext(), mWidgetManager, LegalDocumentView.LegalDocument.TERMS_OF_SERVICE));
+                view = new LegalDocumentView(getContext(), mWidgetManager, LegalDocumentView.LegalDocument.TERMS_OF_SERVICE);
                 break;
             case PRIVACY_POLICY:
-                showView(new LegalDocumentView(getContext(), mWidgetManager, LegalDocumentView.LegalDocument.PRIVACY_POLICY));
+                view = new LegalDocumentView(getContext(), mWidgetManager, LegalDocumentView.LegalDocument.PRIVACY_POLICY);
                 break;
         }
+
+        if (view != null) {
+            mInflations++;
+        }
+        return view;
     }
 
     private void showView(SettingsView aView) {
         if (mCurrentView != null) {
             mCurrentView.onHidden();
             this.removeView(mCurrentView);
+            if (mCurrentView.isRecyclable()) {
+                mCachedViews.put(mCurrentView.getType(), mCurrentView);
+            }
         }
         mCurrentView = aView;
         if (mCurrentView != null) {
@@ -565,6 +651,12 @@ public class SettingsWidget extends UIDialog implements SettingsView.Delegate {
     public void show(@ShowFlags int aShowFlags) {
         super.show(aShowFlags);
 
+        if (!mPrewarmed) {
+            mPrewarmed = true;
+            Collections.addAll(mPrewarmQueue, PREWARMED_VIEWS);
+            Looper.myQueue().addIdleHandler(mPrewarmHandler);
+        }
+
         if (!mAreMozillaAccountsDisabled)
             updateCurrentAccountState();
     }
@@ -10,6 +10,7 @@ import android.view.Surface;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import com.igalia.wolvic.VRBrowserApplication;
 import com.jakewharton.disklrucache.DiskLruCache;
@@ -19,6 +20,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -26,7 +29,7 @@ import java.util.concurrent.Executor;
 public class BitmapCache {
     private Context mContext;
     private LruCache<String, Bitmap> mMemoryCache;
-    private DiskLruCache mDiskCache;
+    private volatile DiskLruCache mDiskCache;
     private Executor mIOExecutor;
     private Executor mMainThreadExecutor;
     private final Object mLock = new Object();
@@ -162,6 +165,37 @@ public class BitmapCache {
         }
     }
 
+    /**
+     * Looks a bitmap up in the memory and disk caches on the calling thread, without going through
+     * the IO and main thread executors. A disk cache that is not open yet, or failed to open, is
+     * treated as a miss.
+     */
+    @WorkerThread
+    public @Nullable Bitmap getBitmapNow(@NonNull String aKey) {
+        String finalKey = hashKey(aKey);
+        Bitmap cached = mMemoryCache.get(finalKey);
+        if (cached != null || mDiskCache == null) {
+            return cached;
+        }
+        synchronized (mLock) {
+            if (mDiskCache == null) {
+                return null;
+            }
+            try (DiskLruCache.Snapshot snapshot = mDiskCache.get(finalKey)) {
+                if (snapshot != null) {
+                    Bitmap bitmap = BitmapFactory.decodeStream(snapshot.getInputStream(0));
+                    if (bitmap != null) {
+                        mMemoryCache.put(finalKey, bitmap);
+                    }
+                    return bitmap;
+                }
+            } catch (Exception ex) {
+                Log.e(LOGTAG, "Failed to get Bitmap from DiskLruCache:" + ex.getMessage());
+            }
+        }
+        return null;
+    }
+
     public void removeBitmap(@NonNull String aKey) {
         String finalKey = hashKey(aKey);
         mMemoryCache.remove(finalKey);
@@ -174,6 +208,25 @@ public class BitmapCache {
         });
     }
 
+    // Removes several bitmaps with a single disk task.
+    public void removeBitmaps(@NonNull Collection<String> aKeys) {
+        ArrayList<String> finalKeys = new ArrayList<>(aKeys.size());
+        for (String key : aKeys) {
+            String finalKey = hashKey(key);
+            mMemoryCache.remove(finalKey);
+            finalKeys.add(finalKey);
+        }
+        runIO(() -> {
+            for (String finalKey : finalKeys) {
+                try {
+                    mDiskCache.remove(finalKey);
+                } catch (Exception ex) {
+                    Log.e(LOGTAG, "Failed to remove Bitmap from DiskLruCache:" + ex.getMessage());
+                }
+            }
+        });
+    }
+
     public boolean hasBitmap(@NonNull String aKey) {
         return mMemoryCache.get(hashKey(aKey)) != null;
     }
@@ -22,6 +22,9 @@ public class ConnectivityReceiver extends LiveData<Boolean> {
     private final List<Delegate> mListeners;
     private final ConnectivityManager mConnectivityManager;
     private final ConnectivityManager.NetworkCallback mNetworkCallback;
+    // Updated from the callback thread, so they are current before the listeners are notified.
+    private volatile boolean mConnected;
+    private volatile boolean mMetered;
 
     public ConnectivityReceiver(@NonNull Context context) {
         mContext = context;
@@ -30,19 +33,22 @@ public class ConnectivityReceiver extends LiveData<Boolean> {
         mNetworkCallback = new ConnectivityManager.NetworkCallback(){
             @Override
             public void onLost(@NonNull Network network) {
+                mConnected = false;
                 ConnectivityReceiver.super.postValue(false);
             }
 
             @Override
             public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities networkCapabilities) {
-                ConnectivityReceiver.super.postValue(
-                        networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
-                );
+                mConnected = networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+                mMetered = !networkCapabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+                ConnectivityReceiver.super.postValue(mConnected);
             }
         };
     }
 
     public void init() {
+        mConnected = isNetworkAvailable(mContext);
+        mMetered = mConnectivityManager.isActiveNetworkMetered();
         mConnectivityManager.registerDefaultNetworkCallback(mNetworkCallback);
         ConnectivityReceiver.super.observe((LifecycleOwner) mContext,
                 Observer -> onReceive(Boolean.TRUE.equals(ConnectivityReceiver.super.getValue())));
@@ -65,6 +71,14 @@ public class ConnectivityReceiver extends LiveData<Boolean> {
         mListeners.remove(aDelegate);
     }
 
+    public boolean isConnected() {
+        return mConnected;
+    }
+
+    public boolean isMetered() {
+        return mMetered;
+    }
+
     public static boolean isNetworkAvailable(Context aContext) {
         ConnectivityManager connectivityManager = (ConnectivityManager) aContext.getSystemService(Context.CONNECTIVITY_SERVICE);
         Network network = connectivityManager.getActiveNetwork();
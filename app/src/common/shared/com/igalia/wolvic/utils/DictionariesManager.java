@@ -12,6 +12,7 @@ import com.igalia.wolvic.R;
 import com.igalia.wolvic.downloads.Download;
 import com.igalia.wolvic.downloads.DownloadJob;
 import com.igalia.wolvic.downloads.DownloadsManager;
+import com.igalia.wolvic.ui.keyboards.KeyboardDictionaries;
 import com.igalia.wolvic.ui.widgets.WidgetManagerDelegate;
 
 import java.io.FileInputStream;
@@ -159,7 +160,9 @@ public class DictionariesManager implements DownloadsManager.DownloadsListener,
             } else {
                 in = new FileInputStream(download.getOutputFile());
             }
-            storeDatabase(in, DictionaryUtils.getExternalDicFullName(dic.getLang()));
+            String databaseName = DictionaryUtils.getExternalDicFullName(dic.getLang());
+            storeDatabase(in, databaseName);
+            KeyboardDictionaries.get().onDictionaryChanged(mContext.getDatabasePath(databaseName), dic.getLang());
         } catch (Exception e) {
             Log.e(LOGTAG, Objects.requireNonNull(e.getMessage()));
         }
@@ -0,0 +1,464 @@
+package com.igalia.wolvic.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transcodes the JPG or PNG faces of a downloaded environment into the ETC2 KTX faces the builtin
+ * environments use, so they are uploaded as they are instead of being decoded and uploaded as RGBA
+ * every time the environment is loaded. The blocks are encoded with the ETC1 subset of ETC2, which
+ * every ETC2 decoder reads, and the faces are written as KTX 1.1 files with a single level, like
+ * the builtin ones, since the skybox layer is created with a single level.
+ *
+ * The transcoded faces are only used while the manifest written next to them matches the faces
+ * they were transcoded from.
+ */
+public class EnvironmentTranscoder {
+
+    static final String LOGTAG = SystemUtils.createLogtag(EnvironmentTranscoder.class);
+
+    /**
+     * Decodes a face into ARGB pixels.
+     */
+    public interface FaceDecoder {
+        @Nullable
+        Face decode(@NonNull File file) throws IOException;
+    }
+
+    public static class Face {
+        public final int width;
+        public final int height;
+        public final int[] pixels;
+
+        public Face(int width, int height, @NonNull int[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+    }
+
+    public static class Result {
+        public int faces;
+        public long decodeMillis;
+        public long encodeMillis;
+        // Texture memory of the faces, uploaded as RGBA and as ETC2.
+        public long uncompressedBytes;
+        public long compressedBytes;
+    }
+
+    public static final FaceDecoder BITMAP_DECODER = file -> {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (bitmap == null) {
+            return null;
+        }
+        int[] pixels = new int[bitmap.getWidth() * bitmap.getHeight()];
+        bitmap.getPixels(pixels, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
+        Face face = new Face(bitmap.getWidth(), bitmap.getHeight(), pixels);
+        bitmap.recycle();
+        return face;
+    };
+
+    // Bump when the output changes, so faces transcoded by a previous version are transcoded again.
+    static final int FORMAT_VERSION = 1;
+    static final String MANIFEST = "transcoded.txt";
+    static final String KTX_EXTENSION = ".ktx";
+    private static final String SRGB_SUFFIX = "_srgb";
+    private static final String[] FACE_NAMES = {"posx", "negx", "posy", "negy", "posz", "negz"};
+    private static final String[] SOURCE_EXTENSIONS = {".jpg", ".png"};
+
+    private static final int GL_COMPRESSED_RGB8_ETC2 = 0x9274;
+    private static final int GL_COMPRESSED_SRGB8_ETC2 = 0x9275;
+    private static final int GL_RGB = 0x1907;
+    private static final byte[] KTX_IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+
+    private static final int[][] MODIFIER_TABLES = {
+            {2, 8, -2, -8},
+            {5, 17, -5, -17},
+            {9, 29, -9, -29},
+            {13, 42, -13, -42},
+            {18, 60, -18, -60},
+            {24, 80, -24, -80},
+            {33, 106, -33, -106},
+            {47, 183, -47, -183}
+    };
+
+    /**
+     * Returns the faces of a directory which have to be transcoded: the six faces of every color
+     * space with a complete set of JPG or PNG faces, unless the directory already has KTX faces.
+     */
+    @NonNull
+    static List<File> getSourceFaces(@NonNull File sourceDir) {
+        List<File> result = new ArrayList<>();
+        for (String colorSpace : new String[]{"", SRGB_SUFFIX}) {
+            if (findFaces(sourceDir, colorSpace, new String[]{KTX_EXTENSION}) != null) {
+                continue;
+            }
+            List<File> faces = findFaces(sourceDir, colorSpace, SOURCE_EXTENSIONS);
+            if (faces != null) {
+                result.addAll(faces);
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private static List<File> findFaces(@NonNull File directory, @NonNull String colorSpace, @NonNull String[] extensions) {
+        for (String extension : extensions) {
+            List<File> faces = new ArrayList<>();
+            for (String name : FACE_NAMES) {
+                File face = new File(directory, name + colorSpace + extension);
+                if (!face.isFile()) {
+                    break;
+                }
+                faces.add(face);
+            }
+            if (faces.size() == FACE_NAMES.length) {
+                return faces;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    static String getManifest(@NonNull List<File> sourceFaces) {
+        StringBuilder manifest = new StringBuilder("version=").append(FORMAT_VERSION).append('\n');
+        for (File face : sourceFaces) {
+            manifest.append(face.getName()).append(' ')
+                    .append(face.length()).append(' ')
+                    .append(face.lastModified()).append('\n');
+        }
+        return manifest.toString();
+    }
+
+    @NonNull
+    private static File getTranscodedFace(@NonNull File targetDir, @NonNull File sourceFace) {
+        String name = sourceFace.getName();
+        return new File(targetDir, name.substring(0, name.lastIndexOf('.')) + KTX_EXTENSION);
+    }
+
+    /**
+     * Checks whether the faces of the source directory were transcoded into the target directory,
+     * and have not changed since.
+     */
+    public static boolean isTranscoded(@NonNull File sourceDir, @NonNull File targetDir) {
+        List<File> sourceFaces = getSourceFaces(sourceDir);
+        if (sourceFaces.isEmpty()) {
+            return false;
+        }
+        try {
+            String manifest = new String(Files.readAllBytes(new File(targetDir, MANIFEST).toPath()), StandardCharsets.UTF_8);
+            if (!manifest.equals(getManifest(sourceFaces))) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        for (File face : sourceFaces) {
+            if (!getTranscodedFace(targetDir, face).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Transcodes the faces of the source directory into the target directory, replacing its
+     * contents. The faces are written to a temporary directory first, so the target directory
+     * never has a partial set of faces.
+     * @return The time taken and texture memory of the faces, or null if there was nothing to
+     * transcode, they were already transcoded, or they can't be encoded.
+     */
+    @Nullable
+    public static Result transcode(@NonNull File sourceDir, @NonNull File targetDir, @NonNull FaceDecoder decoder) {
+        List<File> sourceFaces = getSourceFaces(sourceDir);
+        if (sourceFaces.isEmpty() || isTranscoded(sourceDir, targetDir)) {
+            return null;
+        }
+
+        File tempDir = new File(targetDir.getPath() + ".tmp");
+        deleteRecursively(tempDir);
+        if (!tempDir.mkdirs()) {
+            Log.e(LOGTAG, "Can't create " + tempDir);
+            return null;
+        }
+
+        Result result = new Result();
+        try {
+            for (File sourceFace : sourceFaces) {
+                long start = SystemClock.uptimeMillis();
+                Face face = decoder.decode(sourceFace);
+                result.decodeMillis += SystemClock.uptimeMillis() - start;
+                if (face == null || face.width % 4 != 0 || face.height % 4 != 0) {
+                    Log.w(LOGTAG, "Can't transcode " + sourceFace);
+                    deleteRecursively(tempDir);
+                    return null;
+                }
+
+                start = SystemClock.uptimeMillis();
+                byte[] data = encodeEtc2(face.pixels, face.width, face.height);
+                boolean srgb = sourceFace.getName().contains(SRGB_SUFFIX + ".");
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(getTranscodedFace(tempDir, sourceFace)))) {
+                    writeKtx(out, data, face.width, face.height, srgb);
+                }
+                result.encodeMillis += SystemClock.uptimeMillis() - start;
+                result.faces++;
+                result.uncompressedBytes += (long) face.width * face.height * 4;
+                result.compressedBytes += data.length;
+            }
+            // The manifest goes last, as it is what marks the faces as complete.
+            try (OutputStream out = new FileOutputStream(new File(tempDir, MANIFEST))) {
+                out.write(getManifest(sourceFaces).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.e(LOGTAG, "Failed to transcode " + sourceDir + ": " + e.getMessage());
+            deleteRecursively(tempDir);
+            return null;
+        }
+
+        deleteRecursively(targetDir);
+        if (!tempDir.renameTo(targetDir)) {
+            Log.e(LOGTAG, "Can't move the transcoded faces to " + targetDir);
+            deleteRecursively(tempDir);
+            return null;
+        }
+        return result;
+    }
+
+    static void deleteRecursively(@NonNull File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Writes a KTX 1.1 file with a single compressed level.
+     */
+    static void writeKtx(@NonNull OutputStream out, @NonNull byte[] data, int width, int height, boolean srgb) throws IOException {
+        out.write(KTX_IDENTIFIER);
+        int[] header = {
+                0x04030201, // endianness
+                0, // glType
+                1, // glTypeSize
+                0, // glFormat
+                srgb ? GL_COMPRESSED_SRGB8_ETC2 : GL_COMPRESSED_RGB8_ETC2,
+                GL_RGB,
+                width,
+                height,
+                0, // pixelDepth
+                0, // numberOfArrayElements
+                1, // numberOfFaces
+                1, // numberOfMipmapLevels
+                0, // bytesOfKeyValueData
+                data.length // imageSize of the first level
+        };
+        for (int value : header) {
+            out.write(value);
+            out.write(value >>> 8);
+            out.write(value >>> 16);
+            out.write(value >>> 24);
+        }
+        out.write(data);
+    }
+
+    /**
+     * Encodes ARGB pixels into ETC2 RGB blocks, using the individual and differential modes shared
+     * with ETC1. The width and height must be multiples of 4.
+     */
+    @NonNull
+    static byte[] encodeEtc2(@NonNull int[] pixels, int width, int height) {
+        byte[] result = new byte[width / 4 * (height / 4) * 8];
+        BlockEncoder encoder = new BlockEncoder();
+        int offset = 0;
+        for (int y = 0; y < height; y += 4) {
+            for (int x = 0; x < width; x += 4) {
+                long block = encoder.encode(pixels, width, x, y);
+                for (int i = 7; i >= 0; i--) {
+                    result[offset++] = (byte) (block >>> (i * 8));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static class BlockEncoder {
+        // Channels of the 16 pixels of a block, in the order of the pixel indices: column by column.
+        private final int[] mRed = new int[16];
+        private final int[] mGreen = new int[16];
+        private final int[] mBlue = new int[16];
+        private final int[] mSubBlock = new int[8];
+        private final int[] mSelectors = new int[16];
+        private final int[] mBestSelectors = new int[16];
+        private final int[][] mAverages = new int[2][3];
+        private final int[][] mQuantized = new int[2][3];
+        private final int[] mColor = new int[3];
+        private int mTable;
+        private long mBlock;
+
+        long encode(int[] pixels, int width, int x0, int y0) {
+            for (int x = 0; x < 4; x++) {
+                for (int y = 0; y < 4; y++) {
+                    int pixel = pixels[(y0 + y) * width + x0 + x];
+                    mRed[x * 4 + y] = (pixel >> 16) & 0xFF;
+                    mGreen[x * 4 + y] = (pixel >> 8) & 0xFF;
+                    mBlue[x * 4 + y] = pixel & 0xFF;
+                }
+            }
+
+            long best = 0;
+            long bestError = Long.MAX_VALUE;
+            for (int flip = 0; flip < 2; flip++) {
+                long error = encodeFlip(flip);
+                if (error < bestError) {
+                    bestError = error;
+                    best = mBlock;
+                }
+            }
+            return best;
+        }
+
+        private void subBlockPixels(int flip, int subBlock) {
+            int count = 0;
+            for (int i = 0; i < 16; i++) {
+                int x = i / 4;
+                int y = i % 4;
+                int half = flip == 0 ? x / 2 : y / 2;
+                if (half == subBlock) {
+                    mSubBlock[count++] = i;
+                }
+            }
+        }
+
+        // Encodes the block split in two sub blocks side by side, or one on top of the other if
+        // flipped, into mBlock and returns its error.
+        private long encodeFlip(int flip) {
+            int[][] averages = mAverages;
+            for (int subBlock = 0; subBlock < 2; subBlock++) {
+                subBlockPixels(flip, subBlock);
+                int red = 0, green = 0, blue = 0;
+                for (int i : mSubBlock) {
+                    red += mRed[i];
+                    green += mGreen[i];
+                    blue += mBlue[i];
+                }
+                averages[subBlock][0] = red;
+                averages[subBlock][1] = green;
+                averages[subBlock][2] = blue;
+            }
+
+            // The differential mode has more precision, so it is used whenever the two colors are
+            // close enough for it.
+            int[][] quantized = mQuantized;
+            boolean differential = true;
+            for (int c = 0; c < 3; c++) {
+                quantized[0][c] = quantize(averages[0][c], 31);
+                quantized[1][c] = quantize(averages[1][c], 31);
+                int delta = quantized[1][c] - quantized[0][c];
+                differential &= delta >= -4 && delta <= 3;
+            }
+            if (!differential) {
+                for (int c = 0; c < 3; c++) {
+                    quantized[0][c] = quantize(averages[0][c], 15);
+                    quantized[1][c] = quantize(averages[1][c], 15);
+                }
+            }
+
+            long block = ((long) (differential ? 1 : 0) << 33) | ((long) flip << 32);
+            long error = 0;
+            for (int subBlock = 0; subBlock < 2; subBlock++) {
+                int[] color = mColor;
+                for (int c = 0; c < 3; c++) {
+                    int value = quantized[subBlock][c];
+                    color[c] = differential ? (value << 3) | (value >> 2) : (value << 4) | value;
+                }
+                subBlockPixels(flip, subBlock);
+                error += chooseModifiers(color);
+                block |= (long) mTable << (subBlock == 0 ? 37 : 34);
+                for (int i : mSubBlock) {
+                    int selector = mBestSelectors[i];
+                    block |= (long) (selector >> 1) << (16 + i);
+                    block |= (long) (selector & 1) << i;
+                }
+            }
+
+            for (int c = 0; c < 3; c++) {
+                int shift = 56 - c * 8;
+                if (differential) {
+                    int delta = quantized[1][c] - quantized[0][c];
+                    block |= (long) quantized[0][c] << (shift + 3);
+                    block |= (long) (delta & 0x7) << shift;
+                } else {
+                    block |= (long) quantized[0][c] << (shift + 4);
+                    block |= (long) quantized[1][c] << shift;
+                }
+            }
+            mBlock = block;
+            return error;
+        }
+
+        // Quantizes the sum of the 8 values of a sub block to a channel of aMax + 1 levels.
+        private static int quantize(int sum, int aMax) {
+            return Math.min(aMax, Math.max(0, Math.round(sum * aMax / (8 * 255.0f))));
+        }
+
+        // Picks the table and the modifier of each pixel of the sub block with the least error.
+        private long chooseModifiers(int[] aColor) {
+            long bestError = Long.MAX_VALUE;
+            for (int table = 0; table < MODIFIER_TABLES.length; table++) {
+                long error = 0;
+                for (int i : mSubBlock) {
+                    int bestPixel = Integer.MAX_VALUE;
+                    for (int selector = 0; selector < 4; selector++) {
+                        int modifier = MODIFIER_TABLES[table][selector];
+                        int dr = clamp(aColor[0] + modifier) - mRed[i];
+                        int dg = clamp(aColor[1] + modifier) - mGreen[i];
+                        int db = clamp(aColor[2] + modifier) - mBlue[i];
+                        int pixelError = dr * dr + dg * dg + db * db;
+                        if (pixelError < bestPixel) {
+                            bestPixel = pixelError;
+                            mSelectors[i] = selector;
+                        }
+                    }
+                    error += bestPixel;
+                    if (error >= bestError) {
+                        break;
+                    }
+                }
+                if (error < bestError) {
+                    bestError = error;
+                    mTable = table;
+                    for (int i : mSubBlock) {
+                        mBestSelectors[i] = mSelectors[i];
+                    }
+                }
+            }
+            return bestError;
+        }
+
+        private static int clamp(int value) {
+            return Math.min(255, Math.max(0, value));
+        }
+    }
+}
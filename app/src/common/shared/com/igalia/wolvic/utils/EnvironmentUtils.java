@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 public class EnvironmentUtils {
 
     public static final String ENVS_FOLDER = "envs";
+    public static final String TRANSCODED_ENVS_FOLDER = "envs_etc2";
     public static final String BUILTIN_ENVS_PREFIX = "cubemap/";
     public static String[] SUPPORTED_ENV_EXTENSIONS = (DeviceType.isOculusBuild() || DeviceType.isPfdmXR()) ?
             new String[]{".jpg", ".png"} : new String[]{".ktx", ".jpg", ".png"};
@@ -75,6 +76,50 @@ public class EnvironmentUtils {
         return outputFolder.mkdirs() ? outputFolder.getAbsolutePath() : null;
     }
 
+    /**
+     * Returns the directory in the cache for the faces of a remote environment transcoded to ETC2.
+     * It depends on the payload of the environment, so a new version of the environment is
+     * transcoded again.
+     * @param context An activity context.
+     * @param envId The environment id. This maps to the Remote properties JSON "value" environment property.
+     * @return The directory of the transcoded faces, or null if the environment is not a remote one.
+     */
+    @Nullable
+    public static File getTranscodedEnvDir(@NonNull Context context, @NonNull String envId) {
+        Environment env = getExternalEnvironmentById(context, envId);
+        if (env == null) {
+            return null;
+        }
+        String version = Integer.toHexString(getEnvironmentPayload(env).hashCode());
+        return new File(context.getCacheDir().getAbsolutePath(), TRANSCODED_ENVS_FOLDER + "/" + envId + "/" + version);
+    }
+
+    /**
+     * Returns the path to the faces of a remote environment transcoded to ETC2, if they are up to
+     * date with the faces unzipped in the cache.
+     * @param context An activity context.
+     * @param envId The environment id. This maps to the Remote properties JSON "value" environment property.
+     * @return The path to the transcoded faces, or null if there are none.
+     */
+    @Nullable
+    public static String getTranscodedEnvPath(@NonNull Context context, @NonNull String envId) {
+        String envOutputPath = getExternalEnvPath(context, envId);
+        File transcodedDir = getTranscodedEnvDir(context, envId);
+        if (envOutputPath != null && transcodedDir != null &&
+                EnvironmentTranscoder.isTranscoded(new File(envOutputPath), transcodedDir)) {
+            return transcodedDir.getAbsolutePath();
+        }
+        return null;
+    }
+
+    /**
+     * Check whether the device can use compressed KTX faces for the environments.
+     * @return true if the faces of the environments can be transcoded to KTX, false otherwise.
+     */
+    public static boolean supportsCompressedEnvironments() {
+        return Arrays.asList(SUPPORTED_ENV_EXTENSIONS).contains(EnvironmentTranscoder.KTX_EXTENSION);
+    }
+
     /**
      * Returns a path for a builtin environment.
      * @param envId The environment id. This maps to the environment value list in option_value.xml.
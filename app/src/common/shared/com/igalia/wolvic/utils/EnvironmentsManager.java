@@ -8,18 +8,25 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 
+import com.igalia.wolvic.AppExecutors;
 import com.igalia.wolvic.R;
+import com.igalia.wolvic.VRBrowserApplication;
 import com.igalia.wolvic.browser.SettingsStore;
 import com.igalia.wolvic.downloads.Download;
 import com.igalia.wolvic.downloads.DownloadJob;
 import com.igalia.wolvic.downloads.DownloadsManager;
+import com.igalia.wolvic.telemetry.TelemetryService;
 import com.igalia.wolvic.ui.widgets.WidgetManagerDelegate;
 import com.igalia.wolvic.utils.zip.UnzipCallback;
 import com.igalia.wolvic.utils.zip.UnzipTask;
 
+import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EnvironmentsManager implements DownloadsManager.DownloadsListener, SharedPreferences.OnSharedPreferenceChangeListener {
 
@@ -36,6 +43,12 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
     private SharedPreferences mPrefs;
     private ArrayList<EnvironmentListener> mListeners;
     private long mEnvDownloadId = -1;
+    private AppExecutors mExecutors;
+    // Environments being transcoded. It is also used from the render thread.
+    private Set<String> mTranscoding = ConcurrentHashMap.newKeySet();
+    // Whether the faces of an environment are transcoded, so the render thread doesn't read the
+    // transcoded files every time the environment is loaded.
+    private Map<String, Boolean> mTranscoded = new ConcurrentHashMap<>();
 
     public EnvironmentsManager(@NonNull Context context) {
         mContext = context;
@@ -43,6 +56,7 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
         mDownloadManager = mApplicationDelegate.getServicesProvider().getDownloadsManager();
         mPrefs = PreferenceManager.getDefaultSharedPreferences(mContext);
         mListeners = new ArrayList<>();
+        mExecutors = ((VRBrowserApplication) context.getApplicationContext()).getExecutors();
     }
 
     public void addListener(@NonNull EnvironmentListener listener) {
@@ -102,8 +116,14 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
 
         } else {
             if (EnvironmentUtils.isExternalEnvReady(mContext, envId)) {
-                // If the environment is ready, return the path
-                environmentPath = EnvironmentUtils.getExternalEnvPath(mContext, envId);
+                // If the environment is ready, return the path, preferring the transcoded faces.
+                // The environments that are not transcoded yet are transcoded now, for the next
+                // time they are loaded.
+                environmentPath = getTranscodedEnvPath(envId);
+                if (environmentPath == null) {
+                    environmentPath = EnvironmentUtils.getExternalEnvPath(mContext, envId);
+                    transcodeEnvironment(envId);
+                }
 
             } else {
                 downloadEnvironment(envId);
@@ -113,6 +133,17 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
         return environmentPath;
     }
 
+    @Nullable
+    private String getTranscodedEnvPath(@NonNull String envId) {
+        Boolean transcoded = mTranscoded.get(envId);
+        if (transcoded == null) {
+            transcoded = EnvironmentUtils.getTranscodedEnvPath(mContext, envId) != null;
+            mTranscoded.put(envId, transcoded);
+        }
+        File transcodedDir = transcoded ? EnvironmentUtils.getTranscodedEnvDir(mContext, envId) : null;
+        return transcodedDir != null ? transcodedDir.getAbsolutePath() : null;
+    }
+
     private void downloadEnvironment(@NonNull String envId) {
         final Environment environment = EnvironmentUtils.getExternalEnvironmentById(mContext, envId);
         if (environment == null) {
@@ -153,6 +184,43 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
         }
     }
 
+    /**
+     * Transcodes the JPG or PNG faces of a remote environment to ETC2 in the background, so they
+     * don't have to be decoded the next time the environment is loaded.
+     * @param envId The environment id.
+     */
+    private void transcodeEnvironment(@NonNull String envId) {
+        String envOutputPath = EnvironmentUtils.getExternalEnvPath(mContext, envId);
+        File transcodedDir = EnvironmentUtils.getTranscodedEnvDir(mContext, envId);
+        if (envOutputPath == null || transcodedDir == null || !EnvironmentUtils.supportsCompressedEnvironments() ||
+                !mTranscoding.add(envId)) {
+            return;
+        }
+
+        mExecutors.diskIO().execute(() -> {
+            EnvironmentTranscoder.Result result = EnvironmentTranscoder.transcode(
+                    new File(envOutputPath), transcodedDir, EnvironmentTranscoder.BITMAP_DECODER);
+            if (result != null) {
+                // Remove the faces transcoded from previous versions of the environment.
+                File[] versions = transcodedDir.getParentFile().listFiles();
+                if (versions != null) {
+                    for (File version : versions) {
+                        if (!version.equals(transcodedDir)) {
+                            EnvironmentTranscoder.deleteRecursively(version);
+                        }
+                    }
+                }
+                Log.d(LOGTAG, "Transcoded " + result.faces + " faces of " + envId + ": decoded in " +
+                        result.decodeMillis + " ms, encoded in " + result.encodeMillis + " ms, " +
+                        (result.uncompressedBytes - result.compressedBytes) / 1024 + " KB of texture memory saved");
+                TelemetryService.Performance.environmentTranscodeEvent(result.decodeMillis, result.encodeMillis,
+                        result.uncompressedBytes, result.compressedBytes);
+            }
+            mTranscoded.put(envId, EnvironmentTranscoder.isTranscoded(new File(envOutputPath), transcodedDir));
+            mTranscoding.remove(envId);
+        });
+    }
+
     // DownloadsManager
 
 
@@ -192,11 +260,13 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
                     // We don't want the download to be left in the downloads list, but we wait until the unzip task is completed to remove it.
                     mDownloadManager.removeDownload(download.getId(), true);
 
-                    // the environment is ready, call native to update the current env.
+                    // the environment is ready, call native to update the current env. Its faces are
+                    // transcoded in the background and used the next time it is loaded.
+                    mTranscoded.remove(env.getValue());
+                    transcodeEnvironment(env.getValue());
                     SettingsStore.getInstance(mContext).setEnvironment(env.getValue());
                     mListeners.forEach(environmentListener -> environmentListener.onEnvironmentSetSuccess(env.getValue()));
                     mApplicationDelegate.updateEnvironment();
-
                 }
 
                 @Override
@@ -223,6 +293,8 @@ public class EnvironmentsManager implements DownloadsManager.DownloadsListener,
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String s) {
         if (s.equals(mContext.getString(R.string.settings_key_remote_props))) {
+            // The payloads may have changed, and with them the transcoded faces to use.
+            mTranscoded.clear();
             mApplicationDelegate.updateEnvironment();
         }
     }
@@ -9,12 +9,14 @@ import android.os.Build;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
 
 import com.igalia.wolvic.R;
 import com.igalia.wolvic.browser.SettingsStore;
 import com.igalia.wolvic.browser.engine.SessionStore;
 import com.igalia.wolvic.ui.adapters.Language;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,19 +26,25 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class LocaleUtils {
 
     public static final String DEFAULT_LANGUAGE_ID = "default";
     public static final String FALLBACK_LANGUAGE_TAG = "en-US";
 
-    private static HashMap<String, Language> mLanguagesCache;
+    // The languages of every available locale by language tag, built once. The display names
+    // of the languages are only built when shown, and again after the display language changed.
+    private static LinkedHashMap<String, Language> mLanguagesCache;
+    // The available languages sorted by their display names, built when the settings show them.
+    private static List<Language> mSortedLanguagesCache;
+    // The locale in which the display names of the languages are built.
+    private static Locale mLabelsLocale;
+    // The languages the UI is translated to, built once.
+    private static Map<String, Language> mSupportedLanguages;
     private static Map<String, Language> mSupportedLanguagesCache;
 
     public static Context init(@NonNull Context aContext) {
-        getLanguages(aContext);
-        getSupportedLocalizedLanguages(aContext);
+        updateLabels(aContext);
 
         String languageTag;
         String displayId = getDisplayLanguageId(aContext);
@@ -57,26 +65,66 @@ public class LocaleUtils {
 
     public static Context update(@NonNull Context aContext, @NonNull Language language) {
         Context newContext = setLocale(aContext, language);
-        getLanguages(newContext);
-        getSupportedLocalizedLanguages(newContext);
+        updateLabels(newContext);
         setPreferredLanguages(newContext, getPreferredLanguages(newContext));
 
         return newContext;
     }
 
+    /**
+     * Builds the entries that follow the device language, which are labeled in the display
+     * language, and forgets the display names of the other languages if the display language
+     * changed. The languages themselves are kept.
+     */
+    private static void updateLabels(@NonNull Context context) {
+        if (mLanguagesCache == null) {
+            Locale[] locales = Locale.getAvailableLocales();
+            mLanguagesCache = new LinkedHashMap<>(locales.length + 1);
+            mLanguagesCache.put(DEFAULT_LANGUAGE_ID, null);
+            for (Locale locale : locales) {
+                mLanguagesCache.put(locale.toLanguageTag(), new Language(locale));
+            }
+        }
+
+        invalidateDisplayNames();
+
+        String followDevice = context.getString(R.string.settings_language_follow_device);
+        Language deviceLanguage = new Language(getDeviceLocale(), followDevice);
+        Language previous = mLanguagesCache.put(DEFAULT_LANGUAGE_ID, deviceLanguage);
+        if (previous != null) {
+            deviceLanguage.setPreferred(previous.isPreferred());
+        }
+        if (mSortedLanguagesCache != null) {
+            mSortedLanguagesCache.set(0, deviceLanguage);
+        }
+
+        Map<String, Language> supportedLanguages = getSupportedLanguages(context);
+        Locale locale = Locale.forLanguageTag(getClosestSupportedLanguageTag(getDeviceLocale().toLanguageTag()));
+        LinkedHashMap<String, Language> map = new LinkedHashMap<>();
+        map.put(DEFAULT_LANGUAGE_ID, new Language(locale, followDevice));
+        map.putAll(supportedLanguages);
+        mSupportedLanguagesCache = map;
+    }
+
+    // The display names of the languages are built in the default locale, which is the display
+    // language once the resources have been updated.
+    private static void invalidateDisplayNames() {
+        Locale labelsLocale = Locale.getDefault();
+        if (!labelsLocale.equals(mLabelsLocale)) {
+            mLabelsLocale = labelsLocale;
+            mSortedLanguagesCache = null;
+            mLanguagesCache.values().forEach(language -> {
+                if (language != null) {
+                    language.invalidateDisplayName();
+                }
+            });
+        }
+    }
+
     private static HashMap<String, Language> getLanguages(@NonNull Context context) {
-        Locale[] locales = Locale.getAvailableLocales();
-        mLanguagesCache = new LinkedHashMap<>();
-        mLanguagesCache.put(DEFAULT_LANGUAGE_ID, new Language(
-                getDeviceLocale(),
-                context.getString(R.string.settings_language_follow_device)));
-
-        Stream.of(locales)
-                .sorted((o1, o2) -> o1.getDisplayName().compareTo(o2.getDisplayName()))
-                .forEachOrdered(item -> {
-                    Language locale = new Language(item);
-                    mLanguagesCache.put(item.toLanguageTag(), locale);
-                });
+        if (mLanguagesCache == null) {
+            updateLabels(context);
+        }
 
         return mLanguagesCache;
     }
@@ -159,7 +207,7 @@ public class LocaleUtils {
         // We can't us stream here because an Android 24/25 bug the makes the stream implementation not top respect the order when iterating
         // https://android.googlesource.com/platform/libcore/+/7ae7ae73754c8b82a2e396098e35553d404c69ef%5E%21/#F0
         List<String> savedLanguageIds = SettingsStore.getInstance(aContext).getContentLocales();
-        getLanguages(aContext);
+        getLanguages(aContext).values().forEach(language -> language.setPreferred(false));
         List<Language> preferredLanguages = getLanguagesForIds(savedLanguageIds);
         preferredLanguages.forEach(language -> language.setPreferred(true));
 
@@ -188,7 +236,24 @@ public class LocaleUtils {
     }
 
     public static List<Language> getAvailableLanguages(@NonNull Context aContext) {
-        return new ArrayList<>(mLanguagesCache.values());
+        getLanguages(aContext);
+        invalidateDisplayNames();
+        if (mSortedLanguagesCache == null) {
+            // Sort by the display names, extracted once instead of on every comparison.
+            List<Map.Entry<String, Language>> entries = new ArrayList<>(mLanguagesCache.size());
+            mLanguagesCache.forEach((id, language) -> {
+                if (!id.equals(DEFAULT_LANGUAGE_ID)) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(language.getLocale().getDisplayName(), language));
+                }
+            });
+            entries.sort(Map.Entry.comparingByKey());
+
+            mSortedLanguagesCache = new ArrayList<>(entries.size() + 1);
+            mSortedLanguagesCache.add(mLanguagesCache.get(DEFAULT_LANGUAGE_ID));
+            entries.forEach(entry -> mSortedLanguagesCache.add(entry.getValue()));
+        }
+
+        return new ArrayList<>(mSortedLanguagesCache);
     }
 
     // Voice Language Methods
@@ -282,54 +347,45 @@ public class LocaleUtils {
     }
 
     private static Map<String, Language> getSupportedLocalizedLanguages(@NonNull Context context) {
-        mSupportedLanguagesCache = new LinkedHashMap<String, Language>() {{
-            Locale locale = new Locale("en","US");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_english_us, locale)));
-            locale = new Locale("en","GB");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_english_uk, locale)));
-            locale = new Locale.Builder().setLanguage("zh").setScript("Hans").setRegion("CN").build();
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_simplified_chinese, locale)));
-            locale = new Locale("ja","JP");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_japanese, locale)));
-            locale = new Locale("fr","FR");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_french, locale)));
-            locale = new Locale("de","DE");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_german, locale)));
-            locale = new Locale("es","ES");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_spanish_spain, locale)));
-            locale = new Locale("es");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_spanish, locale)));
-            locale = new Locale("ru","RU");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_russian, locale)));
-            locale = new Locale("ko","KR");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_korean, locale)));
-            locale = new Locale("da","DK");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_danish, locale)));
-            locale = new Locale("fi","FI");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_finnish, locale)));
-            locale = new Locale("uk","UA");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_ukrainian, locale)));
-            locale = new Locale("gl", "ES");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_galician, locale)));
-            locale = new Locale("pt","PT");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_portuguese, locale)));
-            locale = new Locale("pt","BR");
-            put(locale.toLanguageTag(), new Language(locale, StringUtils.getStringByLocale(context, R.string.settings_language_portuguese_br, locale)));
-        }};
-
-        Locale locale = getDeviceLocale();
-        String languageTag = getClosestSupportedLanguageTag(locale.toLanguageTag());
-        locale = Locale.forLanguageTag(languageTag);
-        Language defaultLanguage = new Language(locale, context.getString(R.string.settings_language_follow_device));
-
-        LinkedHashMap<String, Language> map = new LinkedHashMap<>();
-        map.put(DEFAULT_LANGUAGE_ID, defaultLanguage);
-        map.putAll(mSupportedLanguagesCache);
-        mSupportedLanguagesCache = map;
+        if (mSupportedLanguagesCache == null) {
+            updateLabels(context);
+        }
 
         return mSupportedLanguagesCache;
     }
 
+    // Every supported language is labeled in its own language, which doesn't depend on the display
+    // language, so the labels are loaded once and only when shown.
+    private static Map<String, Language> getSupportedLanguages(@NonNull Context context) {
+        if (mSupportedLanguages == null) {
+            Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            LinkedHashMap<String, Language> languages = new LinkedHashMap<>();
+            putSupportedLanguage(languages, appContext, new Locale("en","US"), R.string.settings_language_english_us);
+            putSupportedLanguage(languages, appContext, new Locale("en","GB"), R.string.settings_language_english_uk);
+            putSupportedLanguage(languages, appContext, new Locale.Builder().setLanguage("zh").setScript("Hans").setRegion("CN").build(), R.string.settings_language_simplified_chinese);
+            putSupportedLanguage(languages, appContext, new Locale("ja","JP"), R.string.settings_language_japanese);
+            putSupportedLanguage(languages, appContext, new Locale("fr","FR"), R.string.settings_language_french);
+            putSupportedLanguage(languages, appContext, new Locale("de","DE"), R.string.settings_language_german);
+            putSupportedLanguage(languages, appContext, new Locale("es","ES"), R.string.settings_language_spanish_spain);
+            putSupportedLanguage(languages, appContext, new Locale("es"), R.string.settings_language_spanish);
+            putSupportedLanguage(languages, appContext, new Locale("ru","RU"), R.string.settings_language_russian);
+            putSupportedLanguage(languages, appContext, new Locale("ko","KR"), R.string.settings_language_korean);
+            putSupportedLanguage(languages, appContext, new Locale("da","DK"), R.string.settings_language_danish);
+            putSupportedLanguage(languages, appContext, new Locale("fi","FI"), R.string.settings_language_finnish);
+            putSupportedLanguage(languages, appContext, new Locale("uk","UA"), R.string.settings_language_ukrainian);
+            putSupportedLanguage(languages, appContext, new Locale("gl", "ES"), R.string.settings_language_galician);
+            putSupportedLanguage(languages, appContext, new Locale("pt","PT"), R.string.settings_language_portuguese);
+            putSupportedLanguage(languages, appContext, new Locale("pt","BR"), R.string.settings_language_portuguese_br);
+            mSupportedLanguages = languages;
+        }
+
+        return mSupportedLanguages;
+    }
+
+    private static void putSupportedLanguage(@NonNull Map<String, Language> languages, @NonNull Context context, @NonNull Locale locale, @StringRes int displayName) {
+        languages.put(locale.toLanguageTag(), new Language(locale, () -> StringUtils.getStringByLocale(context, displayName, locale)));
+    }
+
     @NonNull
     public static String[] getSupportedLocalizedLanguagesStringArray(@NonNull Context context) {
         List<String> result = new ArrayList<>();
@@ -364,7 +420,7 @@ public class LocaleUtils {
     private static String getClosestSupportedLanguageTag(@Nullable String languageTag) {
         try {
             Locale locale = Locale.forLanguageTag(languageTag);
-            ArrayList<String> keys = new ArrayList<>(mSupportedLanguagesCache.keySet());
+            ArrayList<String> keys = new ArrayList<>(mSupportedLanguages.keySet());
 
             Optional<String> language = keys.stream().filter(item -> item.equals(locale.toLanguageTag())).findFirst();
 
@@ -0,0 +1,249 @@
+package com.igalia.wolvic.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the network tasks that the app does on its own, like fetching the remote settings, the
+ * region or the add-ons collection, only while there is a network connection.
+ *
+ * Jobs are identified by a key, and scheduling a job while another one with the same key is
+ * pending or running does nothing. Failed jobs are retried with an exponential backoff. Jobs can
+ * wait for an unmetered network, and deferred jobs are held until the first page has loaded, so
+ * that they run as a batch once the app has started instead of competing with that load.
+ */
+public class NetworkJobScheduler implements ConnectivityReceiver.Delegate {
+
+    private static final String LOGTAG = SystemUtils.createLogtag(NetworkJobScheduler.class);
+
+    /** The job only runs on unmetered networks. */
+    public static final int FLAG_UNMETERED = 1;
+    /** The job is held until the startup is finished. */
+    public static final int FLAG_DEFERRED = 1 << 1;
+    /** The job is not retried if it fails. */
+    public static final int FLAG_NO_RETRY = 1 << 2;
+
+    // Deferred jobs are released after this time even if no page has finished loading.
+    private static final long STARTUP_TIMEOUT_MS = 15_000;
+    private static final long INITIAL_BACKOFF_MS = 30_000;
+    private static final long MAX_BACKOFF_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int MAX_ATTEMPTS = 6;
+
+    public interface Job {
+        /**
+         * Runs the job in a background thread. Throwing makes the job be retried later.
+         */
+        void run() throws Exception;
+
+        /**
+         * Called in a background thread when the job fails and is not retried anymore.
+         */
+        default void onFailed(@NonNull Exception aError) {}
+    }
+
+    private static class Entry {
+        final String key;
+        final int flags;
+        final Job job;
+        int attempts;
+        long notBefore;
+        boolean running;
+
+        Entry(@NonNull String aKey, int aFlags, @NonNull Job aJob) {
+            key = aKey;
+            flags = aFlags;
+            job = aJob;
+        }
+
+        boolean hasFlag(int aFlag) {
+            return (flags & aFlag) != 0;
+        }
+    }
+
+    private final ConnectivityReceiver mConnectivity;
+    private final Executor mExecutor;
+    private final ScheduledExecutorService mScheduled;
+    private final LinkedHashMap<String, Entry> mJobs = new LinkedHashMap<>();
+    private boolean mStarted;
+    private ScheduledFuture<?> mStartupTimeout;
+    private ScheduledFuture<?> mRetry;
+    private long mRetryTime = Long.MAX_VALUE;
+
+    public NetworkJobScheduler(@NonNull ConnectivityReceiver aConnectivity, @NonNull Executor aExecutor,
+                               @NonNull ScheduledExecutorService aScheduled) {
+        mConnectivity = aConnectivity;
+        mExecutor = aExecutor;
+        mScheduled = aScheduled;
+    }
+
+    public void init() {
+        mConnectivity.addListener(this);
+        synchronized (this) {
+            mStartupTimeout = mScheduled.schedule(this::onStartupFinished, STARTUP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void end() {
+        mConnectivity.removeListener(this);
+        if (mStartupTimeout != null) {
+            mStartupTimeout.cancel(false);
+        }
+        cancelRetry();
+        mJobs.clear();
+    }
+
+    /**
+     * Schedules a job, unless a job with the same key is already pending or running.
+     *
+     * @return whether the job was scheduled.
+     */
+    public boolean schedule(@NonNull String aKey, int aFlags, @NonNull Job aJob) {
+        synchronized (this) {
+            if (mJobs.containsKey(aKey)) {
+                return false;
+            }
+            mJobs.put(aKey, new Entry(aKey, aFlags, aJob));
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Removes a job that has not started running yet.
+     *
+     * @return whether the job was removed.
+     */
+    public synchronized boolean cancel(@NonNull String aKey) {
+        Entry entry = mJobs.get(aKey);
+        if (entry == null || entry.running) {
+            return false;
+        }
+        mJobs.remove(aKey);
+        return true;
+    }
+
+    /**
+     * @return whether there is a network connection, so jobs that are not deferred can run now.
+     */
+    public boolean isConnected() {
+        return mConnectivity.isConnected();
+    }
+
+    /**
+     * Releases the deferred jobs. Only the first call has any effect.
+     */
+    public void onStartupFinished() {
+        synchronized (this) {
+            if (mStarted) {
+                return;
+            }
+            mStarted = true;
+            if (mStartupTimeout != null) {
+                mStartupTimeout.cancel(false);
+                mStartupTimeout = null;
+            }
+        }
+        dispatch();
+    }
+
+    @Override
+    public void OnConnectivityChanged(boolean connected) {
+        if (connected) {
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        List<Entry> ready = new ArrayList<>();
+        synchronized (this) {
+            if (!mConnectivity.isConnected()) {
+                // Connectivity changes dispatch the jobs again.
+                return;
+            }
+            boolean metered = mConnectivity.isMetered();
+            long now = SystemClock.elapsedRealtime();
+            long nextRetry = Long.MAX_VALUE;
+            for (Entry entry : mJobs.values()) {
+                if (entry.running || (metered && entry.hasFlag(FLAG_UNMETERED)) ||
+                        (!mStarted && entry.hasFlag(FLAG_DEFERRED))) {
+                    continue;
+                }
+                if (entry.notBefore > now) {
+                    nextRetry = Math.min(nextRetry, entry.notBefore);
+                    continue;
+                }
+                entry.running = true;
+                ready.add(entry);
+            }
+            scheduleRetry(nextRetry, now);
+        }
+        for (Entry entry : ready) {
+            mExecutor.execute(() -> run(entry));
+        }
+    }
+
+    private void run(@NonNull Entry aEntry) {
+        try {
+            aEntry.job.run();
+            synchronized (this) {
+                mJobs.remove(aEntry.key, aEntry);
+            }
+        } catch (Exception e) {
+            boolean retry;
+            synchronized (this) {
+                aEntry.attempts++;
+                aEntry.running = false;
+                retry = !aEntry.hasFlag(FLAG_NO_RETRY) && aEntry.attempts < MAX_ATTEMPTS && mJobs.get(aEntry.key) == aEntry;
+                if (retry) {
+                    long backoff = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << (aEntry.attempts - 1));
+                    aEntry.notBefore = SystemClock.elapsedRealtime() + backoff;
+                    Log.w(LOGTAG, "Job " + aEntry.key + " failed, retrying in " + backoff + "ms: " + e.getMessage());
+                } else {
+                    mJobs.remove(aEntry.key, aEntry);
+                    Log.w(LOGTAG, "Job " + aEntry.key + " failed: " + e.getMessage());
+                }
+            }
+            if (retry) {
+                dispatch();
+            } else {
+                aEntry.job.onFailed(e);
+            }
+        }
+    }
+
+    // Keeps a single timer for the earliest retry.
+    private void scheduleRetry(long aTime, long aNow) {
+        if (aTime == mRetryTime) {
+            return;
+        }
+        cancelRetry();
+        if (aTime != Long.MAX_VALUE) {
+            mRetryTime = aTime;
+            mRetry = mScheduled.schedule(() -> {
+                synchronized (this) {
+                    mRetry = null;
+                    mRetryTime = Long.MAX_VALUE;
+                }
+                dispatch();
+            }, aTime - aNow, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void cancelRetry() {
+        if (mRetry != null) {
+            mRetry.cancel(false);
+            mRetry = null;
+        }
+        mRetryTime = Long.MAX_VALUE;
+    }
+}
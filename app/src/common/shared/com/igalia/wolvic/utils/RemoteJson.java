@@ -0,0 +1,411 @@
+package com.igalia.wolvic.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the payloads of the remote settings: properties, announcements and experiences.
+ *
+ * A single Gson instance is shared by the whole app, with hand-written adapters for the payload
+ * classes so that documents are read as a stream without reflection. Unknown names are skipped,
+ * and missing strings are read as empty ones.
+ */
+public class RemoteJson {
+
+    private static final Type PROPERTIES_TYPE = new TypeToken<Map<String, RemoteProperties>>() {}.getType();
+
+    private static final Gson sGson = new GsonBuilder()
+            .registerTypeAdapter(Environment.class, new EnvironmentAdapter().nullSafe())
+            .registerTypeAdapter(Dictionary.class, new DictionaryAdapter().nullSafe())
+            .registerTypeAdapter(RemoteProperties.class, new RemotePropertiesAdapter().nullSafe())
+            .registerTypeAdapter(Announcement.class, new AnnouncementAdapter().nullSafe())
+            .registerTypeAdapter(RemoteAnnouncements.class, new RemoteAnnouncementsAdapter().nullSafe())
+            .registerTypeAdapter(Experience.class, new ExperienceAdapter().nullSafe())
+            .registerTypeAdapter(Category.class, new CategoryAdapter().nullSafe())
+            .registerTypeAdapter(RemoteExperiences.class, new RemoteExperiencesAdapter().nullSafe())
+            .create();
+
+    @NonNull
+    public static Gson getGson() {
+        return sGson;
+    }
+
+    /**
+     * @return the remote properties, indexed by app version, or null if the JSON is null.
+     */
+    @Nullable
+    public static Map<String, RemoteProperties> parseProperties(@Nullable String json) {
+        return sGson.fromJson(json, PROPERTIES_TYPE);
+    }
+
+    @Nullable
+    public static RemoteAnnouncements parseAnnouncements(@Nullable String json) {
+        return sGson.fromJson(json, RemoteAnnouncements.class);
+    }
+
+    @Nullable
+    public static RemoteExperiences parseExperiences(@Nullable String json) {
+        return sGson.fromJson(json, RemoteExperiences.class);
+    }
+
+    @Nullable
+    public static Experience[] parseExperienceList(@Nullable String json) {
+        Experience[] experiences = sGson.fromJson(json, Experience[].class);
+        if (experiences == null) {
+            return null;
+        }
+        // Null items are skipped, as in the lists nested in the other payloads.
+        List<Experience> list = new ArrayList<>(experiences.length);
+        for (Experience experience : experiences) {
+            if (experience != null) {
+                list.add(experience);
+            }
+        }
+        return list.size() == experiences.length ? experiences : list.toArray(new Experience[0]);
+    }
+
+    @NonNull
+    private static String nextString(@NonNull JsonReader in) throws IOException {
+        String value = nextStringOrNull(in);
+        return value != null ? value : "";
+    }
+
+    @Nullable
+    private static String nextStringOrNull(@NonNull JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    @NonNull
+    private static Map<String, String> readStringMap(@NonNull JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return Collections.emptyMap();
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            String value = nextStringOrNull(in);
+            if (value != null) {
+                map.put(name, value);
+            }
+        }
+        in.endObject();
+        return map;
+    }
+
+    private static void writeStringMap(@NonNull JsonWriter out, @NonNull Map<String, String> map) throws IOException {
+        out.beginObject();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            out.name(entry.getKey()).value(entry.getValue());
+        }
+        out.endObject();
+    }
+
+    // Reads an array with the adapter of its items, skipping null items.
+    @Nullable
+    private static <T> List<T> readList(@NonNull JsonReader in, @NonNull TypeAdapter<T> adapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                list.add(adapter.read(in));
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static <T> void writeList(@NonNull JsonWriter out, @Nullable Iterable<T> items, @NonNull TypeAdapter<T> adapter) throws IOException {
+        if (items == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T item : items) {
+            adapter.write(out, item);
+        }
+        out.endArray();
+    }
+
+    private static class EnvironmentAdapter extends TypeAdapter<Environment> {
+        @Override
+        public void write(JsonWriter out, Environment value) throws IOException {
+            out.beginObject();
+            out.name("value").value(value.getValue());
+            out.name("title").value(value.getTitle());
+            out.name("thumbnail").value(value.getThumbnail());
+            out.name("payload").value(value.getPayload());
+            out.endObject();
+        }
+
+        @Override
+        public Environment read(JsonReader in) throws IOException {
+            String value = "", title = "", thumbnail = "", payload = "";
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "value": value = nextString(in); break;
+                    case "title": title = nextString(in); break;
+                    case "thumbnail": thumbnail = nextString(in); break;
+                    case "payload": payload = nextString(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Environment(value, title, thumbnail, payload);
+        }
+    }
+
+    private static class DictionaryAdapter extends TypeAdapter<Dictionary> {
+        @Override
+        public void write(JsonWriter out, Dictionary value) throws IOException {
+            out.beginObject();
+            out.name("lang").value(value.getLang());
+            out.name("payload").value(value.getPayload());
+            out.endObject();
+        }
+
+        @Override
+        public Dictionary read(JsonReader in) throws IOException {
+            String lang = "", payload = "";
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "lang": lang = nextString(in); break;
+                    case "payload": payload = nextString(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Dictionary(lang, payload);
+        }
+    }
+
+    private static class RemotePropertiesAdapter extends TypeAdapter<RemoteProperties> {
+        private final EnvironmentAdapter mEnvironments = new EnvironmentAdapter();
+        private final DictionaryAdapter mDictionaries = new DictionaryAdapter();
+
+        @Override
+        public void write(JsonWriter out, RemoteProperties value) throws IOException {
+            out.beginObject();
+            out.name("whatsNewUrl").value(value.getWhatsNewUrl());
+            out.name("environments");
+            writeList(out, value.getEnvironments() != null ? Arrays.asList(value.getEnvironments()) : null, mEnvironments);
+            out.name("dictionaries");
+            writeList(out, value.getDictionaries() != null ? Arrays.asList(value.getDictionaries()) : null, mDictionaries);
+            out.endObject();
+        }
+
+        @Override
+        public RemoteProperties read(JsonReader in) throws IOException {
+            String whatsNewUrl = "";
+            List<Environment> environments = null;
+            List<Dictionary> dictionaries = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "whatsNewUrl": whatsNewUrl = nextString(in); break;
+                    case "environments": environments = readList(in, mEnvironments); break;
+                    case "dictionaries": dictionaries = readList(in, mDictionaries); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new RemoteProperties(whatsNewUrl,
+                    environments != null ? environments.toArray(new Environment[0]) : null,
+                    dictionaries != null ? dictionaries.toArray(new Dictionary[0]) : null);
+        }
+    }
+
+    private static class AnnouncementAdapter extends TypeAdapter<Announcement> {
+        @Override
+        public void write(JsonWriter out, Announcement value) throws IOException {
+            out.beginObject();
+            out.name("id").value(value.getId());
+            out.name("date").value(value.getDate());
+            out.name("title");
+            writeStringMap(out, value.getTitle());
+            out.name("body");
+            writeStringMap(out, value.getBody());
+            out.name("image").value(value.getImage());
+            out.name("link").value(value.getLink());
+            out.endObject();
+        }
+
+        @Override
+        public Announcement read(JsonReader in) throws IOException {
+            String id = "", date = "";
+            Map<String, String> title = Collections.emptyMap(), body = Collections.emptyMap();
+            String image = null, link = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": id = nextString(in); break;
+                    case "date": date = nextString(in); break;
+                    case "title": title = readStringMap(in); break;
+                    case "body": body = readStringMap(in); break;
+                    case "image": image = nextStringOrNull(in); break;
+                    case "link": link = nextStringOrNull(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Announcement(id, date, title, body, image, link);
+        }
+    }
+
+    private static class RemoteAnnouncementsAdapter extends TypeAdapter<RemoteAnnouncements> {
+        private final AnnouncementAdapter mAnnouncements = new AnnouncementAdapter();
+
+        @Override
+        public void write(JsonWriter out, RemoteAnnouncements value) throws IOException {
+            out.beginObject();
+            out.name("announcements");
+            writeList(out, value.getAnnouncements(), mAnnouncements);
+            out.endObject();
+        }
+
+        @Override
+        public RemoteAnnouncements read(JsonReader in) throws IOException {
+            List<Announcement> announcements = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("announcements")) {
+                    announcements = readList(in, mAnnouncements);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new RemoteAnnouncements(announcements != null ? announcements : Collections.emptyList());
+        }
+    }
+
+    private static class ExperienceAdapter extends TypeAdapter<Experience> {
+        @Override
+        public void write(JsonWriter out, Experience value) throws IOException {
+            out.beginObject();
+            out.name("title").value(value.getTitle());
+            out.name("thumbnail").value(value.getThumbnail());
+            out.name("url").value(value.getUrl());
+            out.name("device").value(value.getDevice());
+            out.endObject();
+        }
+
+        @Override
+        public Experience read(JsonReader in) throws IOException {
+            String title = "", thumbnail = "", url = "", device = "";
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "title": title = nextString(in); break;
+                    case "thumbnail": thumbnail = nextString(in); break;
+                    case "url": url = nextString(in); break;
+                    case "device": device = nextString(in); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Experience(title, thumbnail, url, device);
+        }
+    }
+
+    private static class CategoryAdapter extends TypeAdapter<Category> {
+        private final ExperienceAdapter mExperiences = new ExperienceAdapter();
+
+        @Override
+        public void write(JsonWriter out, Category value) throws IOException {
+            out.beginObject();
+            out.name("translations");
+            writeStringMap(out, value.getTranslations());
+            out.name("items");
+            writeList(out, value.getItems(), mExperiences);
+            out.endObject();
+        }
+
+        @Override
+        public Category read(JsonReader in) throws IOException {
+            Map<String, String> translations = Collections.emptyMap();
+            List<Experience> items = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "translations": translations = readStringMap(in); break;
+                    case "items": items = readList(in, mExperiences); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Category(translations, items != null ? items : Collections.emptyList());
+        }
+    }
+
+    private static class RemoteExperiencesAdapter extends TypeAdapter<RemoteExperiences> {
+        private final CategoryAdapter mCategories = new CategoryAdapter();
+
+        @Override
+        public void write(JsonWriter out, RemoteExperiences value) throws IOException {
+            out.beginObject();
+            out.name("categories");
+            out.beginObject();
+            for (Map.Entry<String, Category> entry : value.getCategories().entrySet()) {
+                out.name(entry.getKey());
+                mCategories.write(out, entry.getValue());
+            }
+            out.endObject();
+            out.endObject();
+        }
+
+        @Override
+        public RemoteExperiences read(JsonReader in) throws IOException {
+            Map<String, Category> categories = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("categories") && in.peek() != JsonToken.NULL) {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String name = in.nextName();
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            categories.put(name, mCategories.read(in));
+                        }
+                    }
+                    in.endObject();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new RemoteExperiences(categories);
+        }
+    }
+}
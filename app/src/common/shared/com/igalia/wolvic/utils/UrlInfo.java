@@ -0,0 +1,446 @@
+/* -*- Mode: Java; c-basic-offset: 4; tab-width: 4; indent-tabs-mode: nil; -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package com.igalia.wolvic.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.igalia.wolvic.ui.widgets.Windows;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Classification of a URL string: scheme, host, port, whether it is a domain, an IP address or a
+ * local address, its content type and the special schemes the browser cares about.
+ *
+ * The classification is computed by hand-written scanners in a single pass over the string, which
+ * give the same results as the regular expressions previously used by {@link UrlUtils} without
+ * allocating. The boolean checks can be used on their own for text that changes on every keystroke,
+ * while {@link #of(String)} keeps the full record of the URLs seen lately, which are asked about
+ * over and over while a page is shown.
+ */
+public final class UrlInfo {
+
+    public static final int NO_PORT = -1;
+
+    private static final int CACHE_SIZE = 64;
+
+    private static final String HTTP = "http://";
+    private static final String HTTPS = "https://";
+    private static final String LOCALHOST = "localhost";
+
+    private static final Map<String, UrlInfo> sCache = new LinkedHashMap<String, UrlInfo>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UrlInfo> aEldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String mUrl;
+    private final String mScheme;
+    private final String mHost;
+    private final int mPort;
+    private final boolean mDomain;
+    private final boolean mIPUri;
+    private final boolean mLocalIP;
+    private final Windows.ContentType mContentType;
+
+    private UrlInfo(@NonNull String aUrl) {
+        mUrl = aUrl;
+        mScheme = scanScheme(aUrl);
+        mDomain = isDomain(aUrl);
+        mIPUri = isIPUri(aUrl);
+        mLocalIP = mIPUri && isLocalIP(aUrl);
+        mContentType = scanContentType(aUrl);
+
+        int authority = findAuthorityStart(aUrl, mScheme);
+        if (isFastHostScheme(mScheme) && isPlainAuthority(aUrl, authority)) {
+            if (authority < 0) {
+                mHost = "";
+                mPort = NO_PORT;
+            } else {
+                int end = findAuthorityEnd(aUrl, authority);
+                int colon = aUrl.indexOf(':', authority);
+                if (colon < 0 || colon > end) {
+                    colon = end;
+                }
+                mHost = aUrl.substring(authority, colon);
+                mPort = colon + 1 < end ? Integer.parseInt(aUrl.substring(colon + 1, end)) : NO_PORT;
+            }
+        } else {
+            mHost = parseHost(aUrl);
+            mPort = NO_PORT;
+        }
+    }
+
+    /**
+     * @return the classification of the URL, from the cache when it was asked for lately.
+     */
+    @NonNull
+    public static UrlInfo of(@NonNull String aUrl) {
+        synchronized (sCache) {
+            UrlInfo info = sCache.get(aUrl);
+            if (info == null) {
+                info = new UrlInfo(aUrl);
+                sCache.put(aUrl, info);
+            }
+            return info;
+        }
+    }
+
+    @NonNull
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * @return the scheme in lower case, or null if the URL does not start with a valid one.
+     */
+    @Nullable
+    public String getScheme() {
+        return mScheme;
+    }
+
+    /**
+     * @return the host as returned by {@link URL#getHost()}, or the whole URL if it can not be
+     * parsed by {@link URL}.
+     */
+    @NonNull
+    public String getHost() {
+        return mHost;
+    }
+
+    /**
+     * @return the explicit port of the URL, or {@link #NO_PORT}.
+     */
+    public int getPort() {
+        return mPort;
+    }
+
+    public boolean isDomain() {
+        return mDomain;
+    }
+
+    public boolean isIPUri() {
+        return mIPUri;
+    }
+
+    public boolean isLocalIP() {
+        return mLocalIP;
+    }
+
+    public boolean isDataUri() {
+        return mUrl.startsWith("data");
+    }
+
+    public boolean isFileUri() {
+        return mUrl.startsWith("file");
+    }
+
+    public boolean isBlobUri() {
+        return mUrl.startsWith("blob:");
+    }
+
+    public boolean isWebExtensionUrl() {
+        return mUrl.startsWith(UrlUtils.WEB_EXTENSION_URL);
+    }
+
+    public boolean isAboutPage() {
+        return mContentType != Windows.ContentType.WEB_CONTENT || UrlUtils.isPrivateUrl(mUrl);
+    }
+
+    @NonNull
+    public Windows.ContentType getContentType() {
+        return mContentType;
+    }
+
+    /**
+     * Same as matching "^(http://www.|https://www.|http://|https://)?[a-zA-Z0-9]+([-.][a-zA-Z0-9]+)*
+     * \.[a-zA-Z]{2,24}(:[0-9]{1,5})?(/[^ ]*)?$", without the regular expression.
+     */
+    public static boolean isDomain(@NonNull String aText) {
+        // "$" also matches before a line terminator at the end of the input.
+        int end = aText.length();
+        if (aText.endsWith("\r\n")) {
+            end -= 2;
+        } else if (end > 0 && isLineTerminator(aText.charAt(end - 1))) {
+            end--;
+        }
+
+        // An optional "www." after the scheme does not change the result, since it would be a valid
+        // first label anyway.
+        int i = 0;
+        if (aText.startsWith(HTTP)) {
+            i = HTTP.length();
+        } else if (aText.startsWith(HTTPS)) {
+            i = HTTPS.length();
+        }
+
+        // Labels separated by single dots or dashes. The last separator has to be a dot and the
+        // last label, the top level domain, 2 to 24 letters.
+        int labels = 0;
+        boolean lastSeparatorIsDot = false;
+        int labelStart;
+        boolean lettersOnly;
+        while (true) {
+            labelStart = i;
+            lettersOnly = true;
+            while (i < end && isAsciiLetterOrDigit(aText.charAt(i))) {
+                lettersOnly &= !isAsciiDigit(aText.charAt(i));
+                i++;
+            }
+            if (i == labelStart) {
+                return false;
+            }
+            labels++;
+            if (i < end && (aText.charAt(i) == '.' || aText.charAt(i) == '-')) {
+                lastSeparatorIsDot = aText.charAt(i) == '.';
+                i++;
+            } else {
+                break;
+            }
+        }
+        int tldLength = i - labelStart;
+        if (labels < 2 || !lastSeparatorIsDot || !lettersOnly || tldLength < 2 || tldLength > 24) {
+            return false;
+        }
+
+        if (i < end && aText.charAt(i) == ':') {
+            int portStart = ++i;
+            while (i < end && isAsciiDigit(aText.charAt(i))) {
+                i++;
+            }
+            if (i == portStart || i - portStart > 5) {
+                return false;
+            }
+        }
+
+        if (i < end && aText.charAt(i) == '/') {
+            for (; i < end; i++) {
+                if (aText.charAt(i) == ' ') {
+                    return false;
+                }
+            }
+        }
+
+        return i == end;
+    }
+
+    /**
+     * Whether the URL, without its scheme and surrounding white space, starts with "localhost" or
+     * with a dotted IPv4 address.
+     */
+    public static boolean isIPUri(@Nullable String aUri) {
+        if (aUri == null) {
+            return false;
+        }
+        int start = findAddressStart(aUri);
+        if (start < 0) {
+            return false;
+        }
+        int end = findAddressEnd(aUri, start);
+        return startsWithLocalhost(aUri, start, end) || startsWithIPv4(aUri, start, end);
+    }
+
+    /**
+     * Whether the URL is an IP URI in one of the private ranges recognized by the browser, or
+     * localhost.
+     */
+    public static boolean isLocalIP(@Nullable String aUri) {
+        if (!isIPUri(aUri)) {
+            return false;
+        }
+        int start = findAddressStart(aUri);
+        int end = findAddressEnd(aUri, start);
+        return startsWith(aUri, start, end, "10.") ||
+                startsWith(aUri, start, end, "172.") ||
+                startsWith(aUri, start, end, "192.168.") ||
+                startsWithLocalhost(aUri, start, end);
+    }
+
+    // Mirrors UrlUtils.stripProtocol() followed by String.trim(), returning the start of the result
+    // or -1 if it is empty.
+    private static int findAddressStart(@NonNull String aUri) {
+        if (aUri.startsWith("data:")) {
+            return -1;
+        }
+        int index = aUri.indexOf("://");
+        int start = index >= 0 ? index + 3 : 0;
+        int end = findAddressEnd(aUri, start);
+        while (start < end && aUri.charAt(start) <= ' ') {
+            start++;
+        }
+        return start < end ? start : -1;
+    }
+
+    private static int findAddressEnd(@NonNull String aUri, int aStart) {
+        int end = aUri.length();
+        if (end > aStart && aUri.charAt(end - 1) == '/') {
+            end--;
+        }
+        while (end > aStart && aUri.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // The pattern was case insensitive for ASCII letters only.
+    private static boolean startsWithLocalhost(@NonNull String aUri, int aStart, int aEnd) {
+        if (aEnd - aStart < LOCALHOST.length()) {
+            return false;
+        }
+        for (int i = 0; i < LOCALHOST.length(); i++) {
+            char c = aUri.charAt(aStart + i);
+            char expected = LOCALHOST.charAt(i);
+            if (c != expected && c != Character.toUpperCase(expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(@NonNull String aUri, int aStart, int aEnd, @NonNull String aPrefix) {
+        return aEnd - aStart >= aPrefix.length() && aUri.startsWith(aPrefix, aStart);
+    }
+
+    // Three octets from 0 to 255, without leading zeros, each followed by a dot. Anything after the
+    // first digit of the fourth octet is accepted, as the regular expression was not anchored.
+    private static boolean startsWithIPv4(@NonNull String aUri, int aStart, int aEnd) {
+        int i = aStart;
+        for (int octet = 0; octet < 3; octet++) {
+            int octetStart = i;
+            int value = 0;
+            while (i < aEnd && isAsciiDigit(aUri.charAt(i)) && i - octetStart < 3) {
+                value = value * 10 + (aUri.charAt(i) - '0');
+                i++;
+            }
+            int length = i - octetStart;
+            if (length == 0 || value > 255 || (length > 1 && aUri.charAt(octetStart) == '0')) {
+                return false;
+            }
+            if (i >= aEnd || aUri.charAt(i) != '.') {
+                return false;
+            }
+            i++;
+        }
+        return i < aEnd && isAsciiDigit(aUri.charAt(i));
+    }
+
+    @NonNull
+    private static Windows.ContentType scanContentType(@NonNull String aUrl) {
+        if (aUrl.isEmpty()) {
+            return Windows.ContentType.WEB_CONTENT;
+        } else if (UrlUtils.isBookmarksUrl(aUrl)) {
+            return Windows.ContentType.BOOKMARKS;
+        } else if (UrlUtils.isWebAppsUrl(aUrl)) {
+            return Windows.ContentType.WEB_APPS;
+        } else if (UrlUtils.isHistoryUrl(aUrl)) {
+            return Windows.ContentType.HISTORY;
+        } else if (UrlUtils.isDownloadsUrl(aUrl)) {
+            return Windows.ContentType.DOWNLOADS;
+        } else if (UrlUtils.isAddonsUrl(aUrl)) {
+            return Windows.ContentType.ADDONS;
+        } else if (UrlUtils.isNotificationsUrl(aUrl)) {
+            return Windows.ContentType.NOTIFICATIONS;
+        } else if (UrlUtils.isNewTabUrl(aUrl)) {
+            return Windows.ContentType.NEW_TAB;
+        }
+        return Windows.ContentType.WEB_CONTENT;
+    }
+
+    // The scheme as parsed by java.net.URL: a letter followed by letters, digits, '+', '-' or '.'.
+    @Nullable
+    private static String scanScheme(@NonNull String aUrl) {
+        int colon = aUrl.indexOf(':');
+        if (colon <= 0 || !isAsciiLetter(aUrl.charAt(0))) {
+            return null;
+        }
+        for (int i = 1; i < colon; i++) {
+            char c = aUrl.charAt(i);
+            if (!isAsciiLetterOrDigit(c) && c != '+' && c != '-' && c != '.') {
+                return null;
+            }
+        }
+        return aUrl.substring(0, colon).toLowerCase(Locale.ROOT);
+    }
+
+    // Schemes whose host can be read without java.net.URL, as long as the authority is simple.
+    private static boolean isFastHostScheme(@Nullable String aScheme) {
+        return "http".equals(aScheme) || "https".equals(aScheme) || "ftp".equals(aScheme) || "file".equals(aScheme);
+    }
+
+    // Authorities with user info, IPv6 literals, escapes, white space or invalid ports, as well as
+    // URLs with surrounding white space, are left to java.net.URL.
+    private static boolean isPlainAuthority(@NonNull String aUrl, int aStart) {
+        if (aUrl.charAt(0) <= ' ' || aUrl.charAt(aUrl.length() - 1) <= ' ') {
+            return false;
+        }
+        if (aStart < 0) {
+            return true;
+        }
+        int end = findAuthorityEnd(aUrl, aStart);
+        int colon = -1;
+        for (int i = aStart; i < end; i++) {
+            char c = aUrl.charAt(i);
+            if (c == '@' || c == '[' || c == '%' || c <= ' ') {
+                return false;
+            } else if (c == ':' && colon < 0) {
+                colon = i;
+            } else if (colon >= 0 && !isAsciiDigit(c)) {
+                return false;
+            }
+        }
+        return colon < 0 || end - colon - 1 <= 5;
+    }
+
+    // Start of the authority after "scheme://", or -1 if the URL has none.
+    private static int findAuthorityStart(@NonNull String aUrl, @Nullable String aScheme) {
+        if (aScheme == null) {
+            return -1;
+        }
+        int start = aScheme.length() + 1;
+        return aUrl.startsWith("//", start) ? start + 2 : -1;
+    }
+
+    private static int findAuthorityEnd(@NonNull String aUrl, int aStart) {
+        for (int i = aStart; i < aUrl.length(); i++) {
+            char c = aUrl.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return aUrl.length();
+    }
+
+    @NonNull
+    private static String parseHost(@NonNull String aUrl) {
+        try {
+            return new URL(aUrl).getHost();
+        } catch (MalformedURLException e) {
+            return aUrl;
+        }
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c);
+    }
+}
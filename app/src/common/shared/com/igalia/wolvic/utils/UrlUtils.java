@@ -26,7 +26,6 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.regex.Pattern;
 
 // This class refers from mozilla-mobile/focus-android
 public class UrlUtils {
@@ -80,32 +79,18 @@ public class UrlUtils {
         return result;
     }
 
-    private static Pattern domainPattern = Pattern.compile("^(http:\\/\\/www\\.|https:\\/\\/www\\.|http:\\/\\/|https:\\/\\/)?[a-zA-Z0-9]+([\\-\\.]{1}[a-zA-Z0-9]+)*\\.[a-zA-Z]{2,24}(:[0-9]{1,5})?(\\/[^ ]*)?$");
     public static boolean isDomain(String text) {
-        return domainPattern.matcher(text).find();
+        return UrlInfo.isDomain(text);
     }
 
-    private static Pattern ipPattern = Pattern.compile("^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])(:[0-9]+)?(/[^ ]*)?");
-    private static Pattern localhostPattern = Pattern.compile("^(localhost)(:[0-9]+)?(/[^ ]*)?", Pattern.CASE_INSENSITIVE);
     public static boolean isIPUri(@Nullable String aUri) {
-        if (aUri == null) {
-            return false;
-        }
-        String uri = stripProtocol(aUri).trim();
-        return localhostPattern.matcher(uri).find() || ipPattern.matcher(uri).find();
+        return UrlInfo.isIPUri(aUri);
     }
 
     private static String privateAboutPageBytes;
 
     public static boolean isLocalIP(@Nullable String aUri) {
-        if (!isIPUri(aUri)) {
-            return false;
-        }
-        String uri = stripProtocol(aUri).trim();
-        return uri.startsWith("10.") ||
-               uri.startsWith("172.") ||
-               uri.startsWith("192.168.") || //
-               localhostPattern.matcher(uri).find();
+        return UrlInfo.isLocalIP(aUri);
     }
 
     public static boolean isPrivateAboutPage(@Nullable Context context,  @Nullable String uri) {
@@ -268,31 +253,15 @@ public class UrlUtils {
     public static Windows.ContentType getContentType(String url) {
         if (StringUtils.isEmpty(url)) {
             return Windows.ContentType.WEB_CONTENT;
-        } else if (isBookmarksUrl(url)) {
-            return Windows.ContentType.BOOKMARKS;
-        } else if (isWebAppsUrl(url)) {
-            return Windows.ContentType.WEB_APPS;
-        } else if (isHistoryUrl(url)) {
-            return Windows.ContentType.HISTORY;
-        } else if (isDownloadsUrl(url)) {
-            return Windows.ContentType.DOWNLOADS;
-        } else if (isAddonsUrl(url)) {
-            return Windows.ContentType.ADDONS;
-        } else if (isNotificationsUrl(url)) {
-            return Windows.ContentType.NOTIFICATIONS;
-        } else if (isNewTabUrl(url)) {
-            return Windows.ContentType.NEW_TAB;
         }
-        return Windows.ContentType.WEB_CONTENT;
+        return UrlInfo.of(url).getContentType();
     }
 
     public static String getHost(String uri) {
-        try {
-            URL url = new URL(uri);
-            return url.getHost();
-        } catch (MalformedURLException e) {
-            return uri;
+        if (uri == null) {
+            return null;
         }
+        return UrlInfo.of(uri).getHost();
     }
 
     public static URI parseUri(String aUri) throws URISyntaxException {
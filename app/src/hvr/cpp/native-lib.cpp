@@ -183,7 +183,7 @@ JNI_METHOD(void, nativeOnSurfaceDestroyed)
 }
 
 
-JNI_METHOD(void, queueRunnable)
+JNI_METHOD(void, queueRenderRunnable)
 (JNIEnv *aEnv, jobject, jobject aRunnable) {
   if (sAppContext) {
     sAppContext->mQueue->AddRunnable(aEnv, aRunnable);
@@ -339,19 +339,19 @@ public abstract class PlatformActivity extends FragmentActivity implements Surfa
     protected void onStop() {
         super.onStop();
         Log.d(TAG, "PlatformActivity onStop");
-        queueRunnable(this::nativeOnStop);
+        queueRenderRunnable(this::nativeOnStop);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         Log.d(TAG, "PlatformActivity onPause");
-        queueRunnable(this::nativeOnPause);
+        queueRenderRunnable(this::nativeOnPause);
     }
 
     @Override
     public void onBackPressed() {
-        queueRunnable(() -> {
+        queueRenderRunnable(() -> {
             finish();
             System.exit(0);
         });
@@ -361,7 +361,7 @@ public abstract class PlatformActivity extends FragmentActivity implements Surfa
     protected void onResume() {
         super.onResume();
         Log.d(TAG, "PlatformActivity onResume");
-        queueRunnable(this::nativeOnResume);
+        queueRenderRunnable(this::nativeOnResume);
     }
 
     @Override
@@ -372,14 +372,14 @@ public abstract class PlatformActivity extends FragmentActivity implements Surfa
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
         Log.d(TAG, "PlatformActivity surfaceChanged");
-        queueRunnable(() -> nativeOnSurfaceChanged(holder.getSurface()));
+        queueRenderRunnable(() -> nativeOnSurfaceChanged(holder.getSurface()));
     }
 
     @Override
     public void surfaceDestroyed(SurfaceHolder holder)
     {
         Log.d(TAG, "PlatformActivity surfaceDestroyed");
-        queueRunnable(this::nativeOnSurfaceDestroyed);
+        queueRenderRunnable(this::nativeOnSurfaceDestroyed);
     }
 
     public final PlatformActivityPlugin createPlatformPlugin(WidgetManagerDelegate delegate) { return null; }
@@ -387,7 +387,7 @@ public abstract class PlatformActivity extends FragmentActivity implements Surfa
     protected boolean platformExit() {
         return false;
     }
-    protected native void queueRunnable(Runnable aRunnable);
+    protected native void queueRenderRunnable(Runnable aRunnable);
     protected native void nativeOnCreate();
     protected native void nativeOnDestroy();
     protected native void nativeOnPause();
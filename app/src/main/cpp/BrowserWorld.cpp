@@ -17,12 +17,15 @@
 #include "TrackedKeyboardRenderer.h"
 #include "Pointer.h"
 #include "Widget.h"
+#include "WidgetHierarchy.h"
 #include "WidgetMover.h"
 #include "WidgetResizer.h"
 #include "WidgetPlacement.h"
 #include "Assertions.h"
 #include "Cylinder.h"
+#include "DepthSortCache.h"
 #include "Quad.h"
+#include "RayPicker.h"
 #include "VRBrowser.h"
 #include "VRVideo.h"
 #include "VRLayer.h"
@@ -60,6 +63,7 @@
 
 #include <android/asset_manager_jni.h>
 #include <array>
+#include <cstring>
 #include <functional>
 #include <fstream>
 #include <unordered_map>
@@ -91,6 +95,11 @@ const vrb::Color kPointerColorSelected = vrb::Color(0.32f, 0.56f, 0.88f);
 // How big is the pointer target while in hand-tracking mode
 const float kPointerSize = 3.0;
 
+// The world transform and world size of a widget, and with the head transform and the view
+// projection, everything its normalized z depends on.
+const size_t kWidgetPoseSize = 18;
+const size_t kDepthPoseSize = 32 + kWidgetPoseSize;
+
 // When moving windows, the minimum amount of movement required to start moving the window
 float kWindowMoveZThreshold = 0.01;
 
@@ -162,6 +171,9 @@ namespace crow {
 struct BrowserWorld::State {
   BrowserWorldWeakPtr self;
   std::vector<WidgetPtr> widgets;
+  std::unordered_map<int32_t, WidgetPtr> widgetsByHandle;
+  WidgetHierarchy hierarchy;
+  RayPicker picker;
   SurfaceObserverPtr surfaceObserver;
   DeviceDelegatePtr device;
   bool paused;
@@ -202,7 +214,19 @@ struct BrowserWorld::State {
   PerformanceMonitorPtr monitor;
   WidgetMoverPtr movingWidget;
   WidgetResizerPtr widgetResizer;
-  std::unordered_map<vrb::Node*, std::pair<Widget*, float>> depthSorting;
+  // The widget each node of rootTransparent is drawn over, if any, and how far in front of it.
+  // Pointers are drawn over the widget their controller hits, so only the controller is kept.
+  struct TransparentNode {
+    Widget* widget = nullptr;
+    int controllerIndex = -1;
+    float zDelta = 0.0f;
+  };
+  std::unordered_map<vrb::Node*, TransparentNode> transparentNodes;
+  std::unordered_map<vrb::Node*, DepthSortKey> depthSorting;
+  std::vector<TransparentNode> depthTargets;
+  std::vector<float> depthPoses;
+  std::vector<DepthSortKey> depthKeys;
+  DepthSortCache depthSort;
   std::function<void(device::Eye)> drawHandler;
   std::function<void()> frameEndHandler;
   bool wasInGazeMode = false;
@@ -266,8 +290,8 @@ struct BrowserWorld::State {
   WidgetPtr GetWidget(int32_t aHandle) const;
   WidgetPtr FindWidget(const std::function<bool(const WidgetPtr&)>& aCondition) const;
   bool IsParent(const Widget& aChild, const Widget& aParent) const;
-  int ParentCount(const WidgetPtr& aWidget) const;
-  float ComputeNormalizedZ(const Widget& aWidget) const;
+  float ComputeNormalizedZ(const Widget& aWidget, const vrb::Matrix& aHeadTransform, const vrb::Matrix& aViewProjection) const;
+  bool ResolveTransparentNode(vrb::Node* aNode, TransparentNode& aEntry);
   void SortWidgets();
   void UpdateWidgetCylinder(const WidgetPtr& aWidget, const float aDensity);
 };
@@ -422,6 +446,18 @@ BrowserWorld::State::UpdateGazeModeState() {
 void
 BrowserWorld::State::UpdateControllers(bool& aRelayoutWidgets) {
   EnsureControllerFocused();
+
+  // The bounds of the widgets are gathered once and shared by every controller.
+  picker.Clear();
+  for (const WidgetPtr& widget: widgets) {
+    PickingBounds bounds;
+    if (widget->GetPickingBounds(bounds)) {
+      picker.Add(bounds);
+    } else {
+      picker.AddUnbounded();
+    }
+  }
+
   int leftBatteryLevel = -1;
   int rightBatteryLevel = -1;
   for (Controller& controller: controllers->GetControllers()) {
@@ -494,31 +530,37 @@ BrowserWorld::State::UpdateControllers(bool& aRelayoutWidgets) {
         hitNormal = normal;
       }
     } else if (controllers->IsVisible()){
-      for (const WidgetPtr& widget: widgets) {
+      // Only the widgets whose bounds are crossed by the ray are tested, nearest first.
+      const float origin[3] = {start.x(), start.y(), start.z()};
+      const float ray[3] = {direction.x(), direction.y(), direction.z()};
+      vrb::Vector result;
+      vrb::Vector normal;
+      float distance = 0.0f;
+      picker.Pick(origin, ray, hitDistance, [&](size_t aIndex, float& aDistance) -> bool {
+        const WidgetPtr& widget = widgets[aIndex];
         if (controller.focused) {
           if (isResizing && resizingWidget != widget) {
             // Don't interact with other widgets when resizing gesture is active.
-            continue;
+            return false;
           }
           if (movingWidget && movingWidget->GetWidget() != widget) {
             // Don't interact with other widgets when moving gesture is active.
-            continue;
+            return false;
           }
         }
-        vrb::Vector result;
-        vrb::Vector normal;
-        float distance = 0.0f;
         bool isInWidget = false;
         const bool clamp = !widget->IsResizing() && !movingWidget;
-        if (widget->TestControllerIntersection(start, direction, result, normal, clamp, isInWidget, distance)) {
-          if (isInWidget && (distance < hitDistance)) {
-            hitWidget = widget;
-            hitDistance = distance;
-            hitPoint = result;
-            hitNormal = normal;
-          }
+        if (!widget->TestControllerIntersection(start, direction, result, normal, clamp, isInWidget, distance) || !isInWidget) {
+          return false;
         }
-      }
+        aDistance = distance;
+        return true;
+      }, [&](size_t aIndex) {
+        hitWidget = widgets[aIndex];
+        hitDistance = distance;
+        hitPoint = result;
+        hitNormal = normal;
+      });
     }
 
     // Used by some runtimes to perform visual optimizations
@@ -751,9 +793,8 @@ BrowserWorld::State::ClearWebXRControllerData() {
 
 WidgetPtr
 BrowserWorld::State::GetWidget(int32_t aHandle) const {
-  return FindWidget([=](const WidgetPtr& aWidget){
-    return aWidget->GetHandle() == aHandle;
-  });
+  auto it = widgetsByHandle.find(aHandle);
+  return it != widgetsByHandle.end() ? it->second : nullptr;
 }
 
 WidgetPtr
@@ -768,37 +809,13 @@ BrowserWorld::State::FindWidget(const std::function<bool(const WidgetPtr&)>& aCo
 
 bool
 BrowserWorld::State::IsParent(const Widget& aChild, const Widget& aParent) const {
-  if (aChild.GetPlacement()->parentHandle == aParent.GetHandle()) {
-    return true;
-  }
-
-  if (aChild.GetPlacement()->parentHandle > 0) {
-    WidgetPtr next = GetWidget(aChild.GetPlacement()->parentHandle);
-    if (next) {
-      return IsParent(*next, aParent);
-    }
-  }
-
-  return false;
-}
-
-int
-BrowserWorld::State::ParentCount(const WidgetPtr& aWidget) const {
-  int result = 0;
-  WidgetPtr current = aWidget;
-  while (current && current->GetPlacement()->parentHandle > 0) {
-    current = GetWidget(current->GetPlacement()->parentHandle);
-    if (current) {
-      result++;
-    }
-  }
-  return result;
+  return hierarchy.IsParent(aChild.GetHandle(), aParent.GetHandle());
 }
 
 float
-BrowserWorld::State::ComputeNormalizedZ(const Widget& aWidget) const {
-  const vrb::Vector headPosition = device->GetHeadTransform().GetTranslation();
-  const vrb::Vector headDirection = device->GetHeadTransform().MultiplyDirection(vrb::Vector(0.0f, 0.0f, -1.0f));
+BrowserWorld::State::ComputeNormalizedZ(const Widget& aWidget, const vrb::Matrix& aHeadTransform, const vrb::Matrix& aViewProjection) const {
+  const vrb::Vector headPosition = aHeadTransform.GetTranslation();
+  const vrb::Vector headDirection = aHeadTransform.MultiplyDirection(vrb::Vector(0.0f, 0.0f, -1.0f));
 
   vrb::Vector hitPoint;
   vrb::Vector normal;
@@ -810,75 +827,129 @@ BrowserWorld::State::ComputeNormalizedZ(const Widget& aWidget) const {
     aWidget.GetCylinder()->TestIntersection(headPosition, headDirection, hitPoint, normal, true, inside, distance);
   }
 
-  const vrb::Matrix& projection = device->GetCamera(device::Eye::Left)->GetPerspective();
-  const vrb::Matrix& view = device->GetCamera(device::Eye::Left)->GetView();
-  vrb::Matrix viewProjection = projection.PostMultiply(view);
-
-  vrb::Vector ndc = viewProjection.MultiplyPosition(hitPoint);
+  vrb::Vector ndc = aViewProjection.MultiplyPosition(hitPoint);
 
   return ndc.z();
 }
 
+bool
+BrowserWorld::State::ResolveTransparentNode(vrb::Node* aNode, TransparentNode& aEntry) {
+  auto it = transparentNodes.find(aNode);
+  if (it != transparentNodes.end()) {
+    const int index = it->second.controllerIndex;
+    if (index < 0) {
+      aEntry = it->second;
+      return true;
+    }
+    // Controllers can recreate their pointers, so check the node is still the one of the pointer.
+    std::vector<Controller>& list = controllers->GetControllers();
+    if (index < (int) list.size() && list[index].pointer && list[index].pointer->GetRoot().get() == aNode) {
+      aEntry = it->second;
+      aEntry.widget = list[index].pointer->GetHitWidget().get();
+      return true;
+    }
+    transparentNodes.erase(it);
+  }
+
+  // Widgets and the resizer are added to the table when they are attached, so this is a pointer
+  // seen for the first time.
+  std::vector<Controller>& list = controllers->GetControllers();
+  for (int i = 0; i < (int) list.size(); ++i) {
+    if (list[i].pointer && list[i].pointer->GetRoot().get() == aNode) {
+      TransparentNode& entry = transparentNodes[aNode];
+      entry.controllerIndex = i;
+      entry.zDelta = 0.02f;
+      aEntry = entry;
+      aEntry.widget = list[i].pointer->GetHitWidget().get();
+      return true;
+    }
+  }
+  return false;
+}
+
 void
 BrowserWorld::State::SortWidgets() {
-  depthSorting.clear();
-
-  // Compute normalized z for each widget
-  for (int i = 0; i < rootTransparent->GetNodeCount(); ++i) {
-    vrb::NodePtr node = rootTransparent->GetNode(i);
-    Widget * target = nullptr;
-    float zDelta = 0.0f;
-    for (const auto & widget: widgets) {
-      if (widget->GetRoot() == node) {
-        target = widget.get();
-        break;
-      }
+  const vrb::Matrix headTransform = device->GetHeadTransform();
+  const vrb::Matrix& projection = device->GetCamera(device::Eye::Left)->GetPerspective();
+  const vrb::Matrix& view = device->GetCamera(device::Eye::Left)->GetView();
+  const vrb::Matrix viewProjection = projection.PostMultiply(view);
+
+  // The depth of a widget depends on the head pose, the view, and the pose and size of the widget.
+  float pose[kDepthPoseSize];
+  memcpy(pose, headTransform.Data(), sizeof(float) * 16);
+  memcpy(pose + 16, viewProjection.Data(), sizeof(float) * 16);
+
+  const int count = rootTransparent->GetNodeCount();
+  depthTargets.resize(count);
+  depthPoses.resize(count * kWidgetPoseSize);
+  depthSort.BeginFrame();
+  depthSort.Track(pose, 32);
+  for (int i = 0; i < count; ++i) {
+    vrb::Node* node = rootTransparent->GetNode(i).get();
+    TransparentNode& entry = depthTargets[i];
+    if (!ResolveTransparentNode(node, entry)) {
+      entry = TransparentNode();
     }
-    if (!target) {
-      for (Controller& controller: controllers->GetControllers()) {
-        if (controller.pointer && controller.pointer->GetRoot() == node) {
-          target = controller.pointer->GetHitWidget().get();
-          zDelta = 0.02f;
-          break;
-        }
-      }
+    depthSort.TrackId((uint64_t) (uintptr_t) node);
+    depthSort.TrackId((uint64_t) (uintptr_t) entry.widget);
+    if (!entry.widget || !entry.widget->IsVisible()) {
+      continue;
     }
-
-    if (!target && widgetResizer && widgetResizer->GetRoot() == node) {
-      target = widgetResizer->GetWidget();
-      zDelta = 0.01f;
+    vrb::TransformPtr geometry;
+    if (entry.widget->GetQuad()) {
+      geometry = entry.widget->GetQuad()->GetTransformNode();
+    } else if (entry.widget->GetCylinder()) {
+      geometry = entry.widget->GetCylinder()->GetTransformNode();
     }
+    float* widgetPose = &depthPoses[i * kWidgetPoseSize];
+    if (geometry) {
+      memcpy(widgetPose, geometry->GetWorldTransform().Data(), sizeof(float) * 16);
+      entry.widget->GetWorldSize(widgetPose[16], widgetPose[17]);
+      depthSort.Track(widgetPose, kWidgetPoseSize);
+    }
+    depthSort.TrackId((uint64_t) (uintptr_t) geometry.get());
+    depthSort.TrackId((uint64_t) entry.widget->GetPlacement()->layerPriority);
+  }
 
+  // Nothing the order depends on moved since the last sort.
+  if (!depthSort.NeedsSort()) {
+    return;
+  }
+
+  // Compute normalized z for each widget that moved, or for all of them if the head did.
+  depthKeys.resize(count);
+  for (int i = 0; i < count; ++i) {
+    const TransparentNode& entry = depthTargets[i];
+    Widget* target = entry.widget;
+    DepthSortKey& key = depthKeys[i];
+    key = DepthSortKey();
     if (!target || !target->IsVisible()) {
-      depthSorting.emplace(node.get(), std::make_pair(target, 1.0f));
       continue;
     }
+    key.handle = (int32_t) target->GetHandle();
+    key.layerPriority = target->GetPlacement()->layerPriority;
+    if (target->GetQuad() || target->GetCylinder()) {
+      memcpy(pose + 32, &depthPoses[i * kWidgetPoseSize], sizeof(float) * kWidgetPoseSize);
+      if (!depthSort.GetDepth(key.handle, pose, kDepthPoseSize, key.z)) {
+        key.z = ComputeNormalizedZ(*target, headTransform, viewProjection);
+        depthSort.SetDepth(key.handle, pose, kDepthPoseSize, key.z);
+      }
+    }
+    key.z -= entry.zDelta;
+  }
 
-    const float z = ComputeNormalizedZ(*target) - zDelta;
+  if (IsDepthSorted(depthKeys, hierarchy)) {
+    return;
+  }
 
-    depthSorting.emplace(node.get(), std::make_pair(target, z));
+  depthSorting.clear();
+  for (int i = 0; i < count; ++i) {
+    depthSorting.emplace(rootTransparent->GetNode(i).get(), depthKeys[i]);
   }
 
   // Sort nodes based on cached depth values
-  rootTransparent->SortNodes([=](const NodePtr& a, const NodePtr& b) {
-    auto da = depthSorting.find(a.get());
-    auto db = depthSorting.find(b.get());
-    Widget* wa = da->second.first;
-    Widget* wb = db->second.first;
-
-    // Parenting or layer priority sort
-    if (wa && wb && wa->IsVisible() && wb->IsVisible()) {
-      if (IsParent(*wa, *wb)) {
-        return true;
-      } else if (IsParent(*wb, *wa)) {
-        return false;
-      } else if (wa->GetPlacement()->layerPriority != wb->GetPlacement()->layerPriority) {
-        return wa->GetPlacement()->layerPriority > wb->GetPlacement()->layerPriority;
-      }
-    }
-
-    // Depth sort
-    return da->second.second < db->second.second;
+  rootTransparent->SortNodes([this](const NodePtr& a, const NodePtr& b) {
+    return DrawsBefore(depthSorting.find(a.get())->second, depthSorting.find(b.get())->second, hierarchy);
   });
 }
 
@@ -1446,6 +1517,7 @@ BrowserWorld::AddWidget(int32_t aHandle, const WidgetPlacementPtr& aPlacement) {
   switch (aPlacement->GetScene()) {
       case WidgetPlacement::Scene::ROOT_TRANSPARENT:
         m.rootTransparent->AddNode(widget->GetRoot());
+        m.transparentNodes[widget->GetRoot().get()].widget = widget.get();
         break;
       case WidgetPlacement::Scene::ROOT_OPAQUE:
         m.rootOpaque->AddNode(widget->GetRoot());
@@ -1456,6 +1528,9 @@ BrowserWorld::AddWidget(int32_t aHandle, const WidgetPlacementPtr& aPlacement) {
   }
 
   m.widgets.push_back(widget);
+  m.widgetsByHandle.emplace(aHandle, widget);
+  m.hierarchy.Add(aHandle, aPlacement->parentHandle);
+  m.depthSort.Invalidate();
   UpdateWidget(widget->GetHandle(), aPlacement);
 }
 
@@ -1476,6 +1551,9 @@ BrowserWorld::UpdateWidget(int32_t aHandle, const WidgetPlacementPtr& aPlacement
   }
 
   widget->SetPlacement(aPlacement);
+  if (m.hierarchy.SetParent(aHandle, aPlacement->parentHandle)) {
+    m.depthSort.Invalidate();
+  }
   m.UpdateWidgetCylinder(widget, m.cylinderDensity);
   widget->ToggleWidget(aPlacement->visible);
   widget->SetSurfaceTextureSize(aPlacement->GetTextureWidth(), aPlacement->GetTextureHeight());
@@ -1515,6 +1593,13 @@ BrowserWorld::RemoveWidget(int32_t aHandle) {
     if (it != m.widgets.end()) {
       m.widgets.erase(it);
     }
+    m.widgetsByHandle.erase(aHandle);
+    m.hierarchy.Remove(aHandle);
+    for (auto it = m.transparentNodes.begin(); it != m.transparentNodes.end();) {
+      it = it->second.widget == widget.get() ? m.transparentNodes.erase(it) : std::next(it);
+    }
+    m.depthSort.RemoveDepth(aHandle);
+    m.depthSort.Invalidate();
     if (widget->GetLayer()) {
       m.device->DeleteLayer(widget->GetLayer());
     }
@@ -1537,6 +1622,7 @@ BrowserWorld::StartWidgetResize(int32_t aHandle, const vrb::Vector& aMaxSize, co
   if (widget) {
     m.widgetResizer = widget->StartResize(aMaxSize, aMinSize);
     m.rootTransparent->AddNode(m.widgetResizer->GetRoot());
+    m.transparentNodes[m.widgetResizer->GetRoot().get()] = {widget.get(), -1, 0.01f};
   }
 }
 
@@ -1550,6 +1636,7 @@ BrowserWorld::FinishWidgetResize(int32_t aHandle) {
   widget->FinishResize();
   if (m.widgetResizer) {
     m.widgetResizer->GetRoot()->RemoveFromParents();
+    m.transparentNodes.erase(m.widgetResizer->GetRoot().get());
     m.widgetResizer = nullptr;
   }
 }
@@ -1614,20 +1701,13 @@ void
 BrowserWorld::UpdateVisibleWidgets() {
   ASSERT_ON_RENDER_THREAD();
 
-  std::vector<WidgetPtr> widgets = m.widgets;
-  // Sort by parent before updating.
-  std::sort(widgets.begin(), widgets.end(), [=](const WidgetPtr& a, const WidgetPtr& b) {
-    int parentsA = m.ParentCount(a);
-    int parentsB = m.ParentCount(b);
-    if (parentsA != parentsB) {
-      return parentsA < parentsB;
-    }
-    return m.IsParent(*b, *a);
-  });
-
-  for (const WidgetPtr& widget: widgets) {
-    if (widget->IsVisible() && !widget->IsResizing()) {
-      UpdateWidget(widget->GetHandle(), widget->GetPlacement());
+  // Parents are updated before their children. The order is copied because updating a widget can
+  // change its parent.
+  const std::vector<int32_t> order = m.hierarchy.GetOrder();
+  for (int32_t handle: order) {
+    WidgetPtr widget = m.GetWidget(handle);
+    if (widget && widget->IsVisible() && !widget->IsResizing()) {
+      UpdateWidget(handle, widget->GetPlacement());
     }
   }
 }
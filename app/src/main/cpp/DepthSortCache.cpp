@@ -0,0 +1,110 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "DepthSortCache.h"
+#include "WidgetHierarchy.h"
+
+#include <cmath>
+
+namespace crow {
+
+bool
+DrawsBefore(const DepthSortKey& aFirst, const DepthSortKey& aSecond, const WidgetHierarchy& aHierarchy) {
+  // Parenting or layer priority sort
+  if (aFirst.handle > 0 && aSecond.handle > 0) {
+    if (aHierarchy.IsParent(aFirst.handle, aSecond.handle)) {
+      return true;
+    } else if (aHierarchy.IsParent(aSecond.handle, aFirst.handle)) {
+      return false;
+    } else if (aFirst.layerPriority != aSecond.layerPriority) {
+      return aFirst.layerPriority > aSecond.layerPriority;
+    }
+  }
+
+  // Depth sort
+  return aFirst.z < aSecond.z;
+}
+
+bool
+IsDepthSorted(const std::vector<DepthSortKey>& aKeys, const WidgetHierarchy& aHierarchy) {
+  for (size_t i = 1; i < aKeys.size(); ++i) {
+    if (DrawsBefore(aKeys[i], aKeys[i - 1], aHierarchy)) {
+      return false;
+    }
+  }
+  return true;
+}
+
+void
+DepthSortCache::BeginFrame() {
+  mValues.clear();
+  mIds.clear();
+}
+
+void
+DepthSortCache::Track(const float* aValues, size_t aCount) {
+  mValues.insert(mValues.end(), aValues, aValues + aCount);
+}
+
+void
+DepthSortCache::Track(float aValue) {
+  mValues.push_back(aValue);
+}
+
+void
+DepthSortCache::TrackId(uint64_t aId) {
+  mIds.push_back(aId);
+}
+
+bool
+DepthSortCache::NeedsSort() {
+  if (mSorted && mIds == mSortedIds && mValues.size() == mSortedValues.size() &&
+      Equals(mValues.data(), mSortedValues.data(), mValues.size())) {
+    return false;
+  }
+  mSortedValues.swap(mValues);
+  mSortedIds.swap(mIds);
+  mSorted = true;
+  return true;
+}
+
+void
+DepthSortCache::Invalidate() {
+  mSorted = false;
+}
+
+bool
+DepthSortCache::GetDepth(int32_t aHandle, const float* aValues, size_t aCount, float& aDepth) const {
+  auto it = mDepths.find(aHandle);
+  if (it == mDepths.end() || it->second.values.size() != aCount || !Equals(aValues, it->second.values.data(), aCount)) {
+    return false;
+  }
+  aDepth = it->second.depth;
+  return true;
+}
+
+void
+DepthSortCache::SetDepth(int32_t aHandle, const float* aValues, size_t aCount, float aDepth) {
+  Depth& entry = mDepths[aHandle];
+  entry.values.assign(aValues, aValues + aCount);
+  entry.depth = aDepth;
+}
+
+void
+DepthSortCache::RemoveDepth(int32_t aHandle) {
+  mDepths.erase(aHandle);
+}
+
+bool
+DepthSortCache::Equals(const float* aFirst, const float* aSecond, size_t aCount) {
+  for (size_t i = 0; i < aCount; ++i) {
+    if (std::fabs(aFirst[i] - aSecond[i]) > kEpsilon) {
+      return false;
+    }
+  }
+  return true;
+}
+
+} // namespace crow
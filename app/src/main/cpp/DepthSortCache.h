@@ -0,0 +1,75 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#ifndef VRBROWSER_DEPTH_SORT_CACHE_DOT_H
+#define VRBROWSER_DEPTH_SORT_CACHE_DOT_H
+
+#include <cstddef>
+#include <cstdint>
+#include <unordered_map>
+#include <vector>
+
+namespace crow {
+
+class WidgetHierarchy;
+
+// What the draw order of a transparent node depends on. The handle is the one of the widget drawn
+// by the node, or the widget a pointer or resizer is drawn over, and 0 if there is no such widget
+// or it is hidden.
+struct DepthSortKey {
+  int32_t handle = 0;
+  int32_t layerPriority = 0;
+  float z = 1.0f;
+};
+
+// Returns true if aFirst has to be drawn before aSecond: children before their parents, then higher
+// layer priorities first, then nearer first.
+bool DrawsBefore(const DepthSortKey& aFirst, const DepthSortKey& aSecond, const WidgetHierarchy& aHierarchy);
+// Returns true if no node of aKeys has to be drawn before the one preceding it.
+bool IsDepthSorted(const std::vector<DepthSortKey>& aKeys, const WidgetHierarchy& aHierarchy);
+
+// Remembers the values the order of the transparent nodes was last computed from, so the nodes are
+// only sorted again when one of them changed beyond kEpsilon, and the depth of each widget, which is
+// only computed again when its pose or the view changed. Values are compared with the ones of the
+// last sort, not of the last frame, so a slow drift still ends up sorting the nodes again.
+// This header does not depend on GL or vrb, so it can be built on the host.
+class DepthSortCache {
+public:
+  static constexpr float kEpsilon = 1e-4f;
+
+  // Starts collecting the values the order of this frame depends on.
+  void BeginFrame();
+  void Track(const float* aValues, size_t aCount);
+  void Track(float aValue);
+  // Identities, such as node or widget addresses, which are compared exactly.
+  void TrackId(uint64_t aId);
+  // Returns true if the values collected since BeginFrame differ from the ones of the last sort,
+  // in which case they become the ones of the last sort.
+  bool NeedsSort();
+  // Forgets the values of the last sort, so the next frame is sorted.
+  void Invalidate();
+
+  // Returns true and sets aDepth if the depth of the widget was computed from the same aValues.
+  bool GetDepth(int32_t aHandle, const float* aValues, size_t aCount, float& aDepth) const;
+  void SetDepth(int32_t aHandle, const float* aValues, size_t aCount, float aDepth);
+  void RemoveDepth(int32_t aHandle);
+private:
+  struct Depth {
+    std::vector<float> values;
+    float depth;
+  };
+  static bool Equals(const float* aFirst, const float* aSecond, size_t aCount);
+
+  std::vector<float> mValues;
+  std::vector<uint64_t> mIds;
+  std::vector<float> mSortedValues;
+  std::vector<uint64_t> mSortedIds;
+  bool mSorted = false;
+  std::unordered_map<int32_t, Depth> mDepths;
+};
+
+} // namespace crow
+
+#endif // VRBROWSER_DEPTH_SORT_CACHE_DOT_H
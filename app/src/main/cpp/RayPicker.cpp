@@ -0,0 +1,116 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "RayPicker.h"
+
+#include <cmath>
+
+namespace crow {
+
+void
+PickingBounds::Extend(float aX, float aY, float aZ) {
+  const float point[3] = {aX, aY, aZ};
+  for (int i = 0; i < 3; ++i) {
+    min[i] = std::min(min[i], point[i]);
+    max[i] = std::max(max[i], point[i]);
+  }
+}
+
+bool
+PickingBounds::IsEmpty() const {
+  return min[0] > max[0] || min[1] > max[1] || min[2] > max[2];
+}
+
+bool
+PickingBounds::LineDistance(const float aOrigin[3], const float aDirection[3], float& aDistance) const {
+  if (IsEmpty()) {
+    return false;
+  }
+
+  // Slab test on the whole line, with the box padded on every side.
+  float tMin = std::numeric_limits<float>::lowest();
+  float tMax = std::numeric_limits<float>::max();
+  for (int i = 0; i < 3; ++i) {
+    const float low = min[i] - RayPicker::kBoundsPadding;
+    const float high = max[i] + RayPicker::kBoundsPadding;
+    if (std::fabs(aDirection[i]) < 1e-8f) {
+      if (aOrigin[i] < low || aOrigin[i] > high) {
+        return false;
+      }
+      continue;
+    }
+    float t1 = (low - aOrigin[i]) / aDirection[i];
+    float t2 = (high - aOrigin[i]) / aDirection[i];
+    if (t1 > t2) {
+      std::swap(t1, t2);
+    }
+    tMin = std::max(tMin, t1);
+    tMax = std::min(tMax, t2);
+    if (tMin > tMax) {
+      return false;
+    }
+  }
+
+  if (tMin <= 0.0f && tMax >= 0.0f) {
+    aDistance = 0.0f;
+  } else {
+    aDistance = std::min(std::fabs(tMin), std::fabs(tMax));
+  }
+  return true;
+}
+
+void
+RayPicker::Clear() {
+  mBounds.clear();
+  mUnbounded.clear();
+}
+
+void
+RayPicker::Add(const PickingBounds& aBounds) {
+  mBounds.push_back(aBounds);
+  mUnbounded.push_back(false);
+}
+
+void
+RayPicker::AddUnbounded() {
+  mBounds.emplace_back();
+  mUnbounded.push_back(true);
+}
+
+size_t
+RayPicker::Size() const {
+  return mBounds.size();
+}
+
+size_t
+RayPicker::GetExactTestCount() const {
+  return mExactTests;
+}
+
+void
+RayPicker::CollectCandidates(const float aOrigin[3], const float aDirection[3], float aMaxDistance) {
+  mCandidates.clear();
+
+  float direction[3] = {aDirection[0], aDirection[1], aDirection[2]};
+  const float length = std::sqrt(direction[0] * direction[0] + direction[1] * direction[1] + direction[2] * direction[2]);
+  if (length > 0.0f) {
+    for (float& value: direction) {
+      value /= length;
+    }
+  }
+
+  for (size_t i = 0; i < mBounds.size(); ++i) {
+    if (mUnbounded[i]) {
+      mCandidates.push_back({0.0f, i});
+      continue;
+    }
+    float distance = 0.0f;
+    if (mBounds[i].LineDistance(aOrigin, direction, distance) && distance < aMaxDistance) {
+      mCandidates.push_back({distance, i});
+    }
+  }
+}
+
+} // namespace crow
@@ -0,0 +1,100 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#ifndef VRBROWSER_RAY_PICKER_DOT_H
+#define VRBROWSER_RAY_PICKER_DOT_H
+
+#include <algorithm>
+#include <cstddef>
+#include <limits>
+#include <vector>
+
+namespace crow {
+
+// World-space axis aligned bounding box of everything a ray can hit in a widget.
+struct PickingBounds {
+  float min[3] = {std::numeric_limits<float>::max(), std::numeric_limits<float>::max(), std::numeric_limits<float>::max()};
+  float max[3] = {std::numeric_limits<float>::lowest(), std::numeric_limits<float>::lowest(), std::numeric_limits<float>::lowest()};
+
+  void Extend(float aX, float aY, float aZ);
+  bool IsEmpty() const;
+  // Computes the shortest distance from aOrigin to the points of the box on the line through
+  // aOrigin along the normalized aDirection, in both directions, as the exact tests can hit points
+  // behind the origin. Returns false if the line misses the box.
+  bool LineDistance(const float aOrigin[3], const float aDirection[3], float& aDistance) const;
+};
+
+// Finds the nearest of a list of items hit by a ray. The exact intersection test only runs on the
+// items whose bounds the ray crosses, nearest bounds first, and stops once the bounds left are
+// farther than the nearest hit. This header does not depend on GL or vrb, so it can be built on
+// the host.
+class RayPicker {
+public:
+  // Bounds are padded so the rounding errors of the exact tests never skip an item.
+  static constexpr float kBoundsPadding = 0.001f;
+
+  void Clear();
+  // Adds the next item, which is only tested if the ray crosses its bounds.
+  void Add(const PickingBounds& aBounds);
+  // Adds the next item, which is always tested.
+  void AddUnbounded();
+  size_t Size() const;
+
+  // aTest(index, distance) runs the exact test on an item and returns whether it was hit, and at
+  // which distance. aAccept(index) is called when a hit is the nearest so far, right after its
+  // test, so the caller can keep the details of the hit. As when all the items are tested in
+  // order, only hits nearer than aMaxDistance count and the first item wins ties.
+  // Returns the index of the nearest item hit, or -1.
+  template<typename Test, typename Accept>
+  int Pick(const float aOrigin[3], const float aDirection[3], float aMaxDistance, Test&& aTest, Accept&& aAccept);
+
+  // The number of exact tests run by the last Pick.
+  size_t GetExactTestCount() const;
+private:
+  struct Candidate {
+    float distance;
+    size_t index;
+    bool operator<(const Candidate& aOther) const {
+      return distance < aOther.distance || (distance == aOther.distance && index < aOther.index);
+    }
+  };
+  void CollectCandidates(const float aOrigin[3], const float aDirection[3], float aMaxDistance);
+
+  std::vector<PickingBounds> mBounds;
+  std::vector<bool> mUnbounded;
+  std::vector<Candidate> mCandidates;
+  size_t mExactTests = 0;
+};
+
+template<typename Test, typename Accept>
+int
+RayPicker::Pick(const float aOrigin[3], const float aDirection[3], float aMaxDistance, Test&& aTest, Accept&& aAccept) {
+  CollectCandidates(aOrigin, aDirection, aMaxDistance);
+  std::sort(mCandidates.begin(), mCandidates.end());
+
+  int best = -1;
+  float bestDistance = aMaxDistance;
+  mExactTests = 0;
+  for (const Candidate& candidate: mCandidates) {
+    if (best >= 0 && candidate.distance > bestDistance) {
+      break;
+    }
+    mExactTests++;
+    float distance = 0.0f;
+    if (!aTest(candidate.index, distance)) {
+      continue;
+    }
+    if (distance < bestDistance || (best >= 0 && distance == bestDistance && (int) candidate.index < best)) {
+      best = (int) candidate.index;
+      bestDistance = distance;
+      aAccept(candidate.index);
+    }
+  }
+  return best;
+}
+
+} // namespace crow
+
+#endif // VRBROWSER_RAY_PICKER_DOT_H
@@ -6,6 +6,7 @@
 #include "Widget.h"
 #include "Cylinder.h"
 #include "Quad.h"
+#include "RayPicker.h"
 #include "VRLayer.h"
 #include "VRBrowser.h"
 #include "WidgetPlacement.h"
@@ -29,6 +30,9 @@
 #include "vrb/Vector.h"
 #include "vrb/VertexArray.h"
 
+#include <algorithm>
+#include <cstring>
+
 namespace crow {
 
 static const float kFrameSize = 0.02f;
@@ -60,6 +64,11 @@ struct Widget::State {
   vrb::TogglePtr bordersContainer;
   std::vector<WidgetBorderPtr> borders;
   vrb::TogglePtr layerProxy;
+  // World transform and local extents of the geometry the picking bounds were computed for.
+  bool pickingBoundsValid = false;
+  vrb::Matrix pickingTransform;
+  float pickingExtents[6];
+  PickingBounds pickingBounds;
 
   State()
       : handle(0)
@@ -387,6 +396,53 @@ Widget::TestControllerIntersection(const vrb::Vector& aStartPoint, const vrb::Ve
   return result;
 }
 
+bool
+Widget::GetPickingBounds(PickingBounds& aBounds) const {
+  if (m.resizing && m.resizer) {
+    return false;
+  }
+  if (!m.root->IsEnabled(*m.transformContainer)) {
+    aBounds = PickingBounds();
+    return true;
+  }
+
+  // The local box of every point the intersection tests can report as inside the widget.
+  vrb::Matrix transform;
+  float extents[6];
+  if (m.quad) {
+    transform = m.quad->GetTransformNode()->GetWorldTransform();
+    const vrb::Vector& min = m.quad->GetWorldMin();
+    const vrb::Vector& max = m.quad->GetWorldMax();
+    // Quad::TestIntersection() accepts points 0.1 in front of and behind the quad.
+    const float box[6] = {min.x(), min.y(), min.z() - 0.1f, max.x(), max.y(), max.z() + 0.1f};
+    std::copy(box, box + 6, extents);
+  } else {
+    transform = m.cylinder->GetTransformNode()->GetWorldTransform();
+    const float radius = m.cylinder->GetCylinderRadius();
+    const float halfHeight = m.cylinder->GetCylinderHeight() * 0.5f;
+    const float box[6] = {-radius, -halfHeight, -radius, radius, halfHeight, radius};
+    std::copy(box, box + 6, extents);
+  }
+
+  if (m.pickingBoundsValid && memcmp(transform.Data(), m.pickingTransform.Data(), sizeof(float) * 16) == 0 &&
+      memcmp(extents, m.pickingExtents, sizeof(extents)) == 0) {
+    aBounds = m.pickingBounds;
+    return true;
+  }
+
+  m.pickingBounds = PickingBounds();
+  for (int corner = 0; corner < 8; ++corner) {
+    const vrb::Vector point = transform.MultiplyPosition(vrb::Vector(
+        extents[(corner & 1) ? 3 : 0], extents[(corner & 2) ? 4 : 1], extents[(corner & 4) ? 5 : 2]));
+    m.pickingBounds.Extend(point.x(), point.y(), point.z());
+  }
+  m.pickingTransform = transform;
+  std::copy(extents, extents + 6, m.pickingExtents);
+  m.pickingBoundsValid = true;
+  aBounds = m.pickingBounds;
+  return true;
+}
+
 void
 Widget::ConvertToWidgetCoordinates(const vrb::Vector& point, float& aX, float& aY, bool aClamp) const {
   bool clamp = !m.resizing;
@@ -503,6 +559,7 @@ void
 Widget::SetPlacement(const WidgetPlacementPtr& aPlacement) {
   bool wasComposited = m.placement->composited;
   m.placement = aPlacement;
+  m.pickingBoundsValid = false;
   if (wasComposited != aPlacement->composited && m.root) {
     m.root->ToggleAll(m.toggleState);
     int32_t textureWidth, textureHeight;
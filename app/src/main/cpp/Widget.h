@@ -36,6 +36,8 @@ typedef std::shared_ptr<WidgetResizer> WidgetResizerPtr;
 class WidgetPlacement;
 typedef std::shared_ptr<WidgetPlacement> WidgetPlacementPtr;
 
+struct PickingBounds;
+
 class Widget {
 public:
   enum class TextureAspectMode {
@@ -61,6 +63,8 @@ public:
   void GetWorldSize(float& aWidth, float& aHeight) const;
   bool TestControllerIntersection(const vrb::Vector& aStartPoint, const vrb::Vector& aDirection, vrb::Vector& aResult, vrb::Vector& aNormal,
                                   const bool aClamp, bool& aIsInWidget, float& aDistance) const;
+  // Returns false if the widget can be hit outside of any bounds, while it is being resized.
+  bool GetPickingBounds(PickingBounds& aBounds) const;
   void ConvertToWidgetCoordinates(const vrb::Vector& aPoint, float& aX, float& aY, bool aClamp = true) const;
   vrb::Vector ConvertToWorldCoordinates(const vrb::Vector& aLocalPoint) const;
   vrb::Vector ConvertToWorldCoordinates(const float aWidgetX, const float aWidgetY) const;
@@ -0,0 +1,150 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "WidgetHierarchy.h"
+
+#include <algorithm>
+#include <tuple>
+
+namespace crow {
+
+void
+WidgetHierarchy::Add(int32_t aHandle, int32_t aParentHandle) {
+  mEntries[aHandle] = Entry{aParentHandle, mSequence++};
+  mOrderDirty = true;
+}
+
+void
+WidgetHierarchy::Remove(int32_t aHandle) {
+  if (mEntries.erase(aHandle) > 0) {
+    mOrderDirty = true;
+  }
+}
+
+bool
+WidgetHierarchy::SetParent(int32_t aHandle, int32_t aParentHandle) {
+  auto it = mEntries.find(aHandle);
+  if (it == mEntries.end() || it->second.parent == aParentHandle) {
+    return false;
+  }
+  it->second.parent = aParentHandle;
+  mOrderDirty = true;
+  return true;
+}
+
+bool
+WidgetHierarchy::Contains(int32_t aHandle) const {
+  return Find(aHandle) != nullptr;
+}
+
+int32_t
+WidgetHierarchy::GetParent(int32_t aHandle) const {
+  const Entry* entry = Find(aHandle);
+  return entry ? entry->parent : 0;
+}
+
+bool
+WidgetHierarchy::IsParent(int32_t aChild, int32_t aParent) const {
+  const Entry* entry = Find(aChild);
+  // The chain can't be longer than the number of widgets, unless there is a cycle.
+  for (size_t steps = 0; entry && steps <= mEntries.size(); ++steps) {
+    if (entry->parent == aParent) {
+      return true;
+    }
+    if (entry->parent <= 0) {
+      return false;
+    }
+    entry = Find(entry->parent);
+  }
+  return false;
+}
+
+int
+WidgetHierarchy::ParentCount(int32_t aHandle) const {
+  int result = 0;
+  const Entry* entry = Find(aHandle);
+  while (entry && entry->parent > 0 && result < (int) mEntries.size()) {
+    entry = Find(entry->parent);
+    if (entry) {
+      result++;
+    }
+  }
+  return result;
+}
+
+const std::vector<int32_t>&
+WidgetHierarchy::GetOrder() const {
+  if (mOrderDirty) {
+    UpdateOrder();
+    mOrderDirty = false;
+  }
+  return mOrder;
+}
+
+size_t
+WidgetHierarchy::Size() const {
+  return mEntries.size();
+}
+
+const WidgetHierarchy::Entry*
+WidgetHierarchy::Find(int32_t aHandle) const {
+  auto it = mEntries.find(aHandle);
+  return it != mEntries.end() ? &it->second : nullptr;
+}
+
+void
+WidgetHierarchy::UpdateOrder() const {
+  // Every depth is computed once, following each chain until a widget whose depth is known.
+  std::unordered_map<int32_t, int> depths;
+  depths.reserve(mEntries.size());
+  std::vector<int32_t> chain;
+  for (const auto& item: mEntries) {
+    chain.clear();
+    int32_t handle = item.first;
+    int depth = -1;
+    while (true) {
+      auto known = depths.find(handle);
+      if (known != depths.end()) {
+        depth = known->second;
+        break;
+      }
+      const Entry* entry = Find(handle);
+      if (!entry) {
+        break;
+      }
+      if (chain.size() > mEntries.size()) {
+        // A cycle: treat the widget where it was detected as a root.
+        chain.clear();
+        chain.push_back(item.first);
+        break;
+      }
+      chain.push_back(handle);
+      if (entry->parent <= 0) {
+        break;
+      }
+      handle = entry->parent;
+    }
+    for (auto it = chain.rbegin(); it != chain.rend(); ++it) {
+      depths[*it] = ++depth;
+    }
+  }
+
+  // Depth first, then the order in which widgets were added, so the order is strict and weak, and
+  // every parent comes before its children.
+  std::vector<std::tuple<int, uint64_t, int32_t>> keys;
+  keys.reserve(mEntries.size());
+  for (const auto& item: mEntries) {
+    keys.emplace_back(depths[item.first], item.second.sequence, item.first);
+  }
+  std::sort(keys.begin(), keys.end());
+
+  mOrder.clear();
+  mOrder.reserve(keys.size());
+  for (const auto& key: keys) {
+    mOrder.push_back(std::get<2>(key));
+  }
+}
+
+} // namespace crow
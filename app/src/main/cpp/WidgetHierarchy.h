@@ -0,0 +1,52 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#ifndef VRBROWSER_WIDGET_HIERARCHY_DOT_H
+#define VRBROWSER_WIDGET_HIERARCHY_DOT_H
+
+#include <cstddef>
+#include <cstdint>
+#include <unordered_map>
+#include <vector>
+
+namespace crow {
+
+// Parent relationships of the widgets, by handle. A handle of 0 or less means no parent, and a
+// parent handle that has not been added (or has been removed) ends the chain, as a missing widget
+// did when it was looked up.
+//
+// The parent-first order of the widgets is only computed again after a widget is added or removed,
+// or its parent changes. This header does not depend on GL or vrb, so it can be built on the host.
+class WidgetHierarchy {
+public:
+  void Add(int32_t aHandle, int32_t aParentHandle);
+  void Remove(int32_t aHandle);
+  // Returns true if the parent of the widget changed.
+  bool SetParent(int32_t aHandle, int32_t aParentHandle);
+  bool Contains(int32_t aHandle) const;
+  int32_t GetParent(int32_t aHandle) const;
+  // Returns true if aParent is the parent of aChild, or one of its ancestors.
+  bool IsParent(int32_t aChild, int32_t aParent) const;
+  int ParentCount(int32_t aHandle) const;
+  // Handles with every parent before its children, and otherwise in the order they were added.
+  const std::vector<int32_t>& GetOrder() const;
+  size_t Size() const;
+private:
+  struct Entry {
+    int32_t parent;
+    uint64_t sequence;
+  };
+  const Entry* Find(int32_t aHandle) const;
+  void UpdateOrder() const;
+
+  std::unordered_map<int32_t, Entry> mEntries;
+  uint64_t mSequence = 0;
+  mutable std::vector<int32_t> mOrder;
+  mutable bool mOrderDirty = false;
+};
+
+} // namespace crow
+
+#endif // VRBROWSER_WIDGET_HIERARCHY_DOT_H
@@ -252,7 +252,7 @@ android_main(android_app *aAppState) {
   VRB_LOG("Exiting native thread");
 }
 
-JNI_METHOD(void, queueRunnable)
+JNI_METHOD(void, queueRenderRunnable)
 (JNIEnv *aEnv, jobject, jobject aRunnable) {
   if (sAppContext) {
     sAppContext->mQueue->AddRunnable(aEnv, aRunnable);
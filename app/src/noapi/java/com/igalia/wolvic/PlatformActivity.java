@@ -145,7 +145,7 @@ public class PlatformActivity extends ComponentActivity {
 
         final float xx = aEvent.getX(0);
         final float yy = aEvent.getY(0);
-        queueRunnable(() -> touchEvent(isDown, xx, yy));
+        queueRenderRunnable(() -> touchEvent(isDown, xx, yy));
         return true;
     }
 
@@ -162,7 +162,7 @@ public class PlatformActivity extends ComponentActivity {
 
         final float xx = aEvent.getX(0);
         final float yy = aEvent.getY(0);
-        queueRunnable(() -> touchEvent(false, xx, yy));
+        queueRenderRunnable(() -> touchEvent(false, xx, yy));
         return true;
     }
 
@@ -172,7 +172,7 @@ public class PlatformActivity extends ComponentActivity {
     protected void onPause() {
         Log.d(LOGTAG, "PlatformActivity onPause");
         synchronized (mRenderLock) {
-            queueRunnable(activityPausedRunnable);
+            queueRenderRunnable(activityPausedRunnable);
             try {
                 mRenderLock.wait();
             } catch(InterruptedException e) {
@@ -188,7 +188,7 @@ public class PlatformActivity extends ComponentActivity {
         Log.d(LOGTAG, "PlatformActivity onResume");
         super.onResume();
         mView.onResume();
-        queueRunnable(activityResumedRunnable);
+        queueRenderRunnable(activityResumedRunnable);
         setImmersiveSticky();
     }
 
@@ -197,7 +197,7 @@ public class PlatformActivity extends ComponentActivity {
         Log.d(LOGTAG, "PlatformActivity onDestroy");
         super.onDestroy();
         synchronized (mRenderLock) {
-            queueRunnable(activityDestroyedRunnable);
+            queueRenderRunnable(activityDestroyedRunnable);
             try {
                 mRenderLock.wait();
             } catch(InterruptedException e) {
@@ -227,7 +227,7 @@ public class PlatformActivity extends ComponentActivity {
         }
     }
 
-    void queueRunnable(Runnable aRunnable) {
+    void queueRenderRunnable(Runnable aRunnable) {
         if (mSurfaceCreated) {
             mView.queueEvent(aRunnable);
         } else {
@@ -297,19 +297,19 @@ public class PlatformActivity extends ComponentActivity {
     }
 
     private void dispatchMoveAxis(final float aX, final float aY, final float aZ) {
-        queueRunnable(() -> moveAxis(aX, aY, aZ));
+        queueRenderRunnable(() -> moveAxis(aX, aY, aZ));
     }
 
     private void dispatchRotateHeading(final float aHeading) {
-        queueRunnable(() -> rotateHeading(aHeading));
+        queueRenderRunnable(() -> rotateHeading(aHeading));
     }
 
     private void dispatchRotatePitch(final float aPitch) {
-        queueRunnable(() -> rotatePitch(aPitch));
+        queueRenderRunnable(() -> rotatePitch(aPitch));
     }
 
     private void buttonClicked(final boolean aPressed) {
-        queueRunnable(() -> controllerButtonPressed(aPressed));
+        queueRenderRunnable(() -> controllerButtonPressed(aPressed));
     }
 
     @Keep
@@ -64,7 +64,7 @@ public class PlatformActivity extends NativeActivity {
     @Override
     @Deprecated
     public void onBackPressed() {
-        queueRunnable(new Runnable() {
+        queueRenderRunnable(new Runnable() {
             @Override
             public void run() {
                 platformExit();
@@ -124,6 +124,6 @@ public class PlatformActivity extends NativeActivity {
 
     public final PlatformActivityPlugin createPlatformPlugin(WidgetManagerDelegate delegate) { return null; }
 
-    protected native void queueRunnable(Runnable aRunnable);
+    protected native void queueRenderRunnable(Runnable aRunnable);
     protected native boolean platformExit();
 }
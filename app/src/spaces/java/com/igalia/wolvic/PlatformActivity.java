@@ -42,13 +42,13 @@ public class PlatformActivity extends NativeActivity {
 
     @Override
     public void onBackPressed() {
-        queueRunnable(new Runnable() {
+        queueRenderRunnable(new Runnable() {
             @Override
             public void run() {
                 platformExit();
             }
         });
     }
-    protected native void queueRunnable(Runnable aRunnable);
+    protected native void queueRenderRunnable(Runnable aRunnable);
     protected native boolean platformExit();
 }
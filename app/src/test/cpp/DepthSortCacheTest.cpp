@@ -0,0 +1,480 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "DepthSortCache.h"
+#include "WidgetHierarchy.h"
+
+#include <gtest/gtest.h>
+
+#include <algorithm>
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstring>
+#include <random>
+#include <unordered_map>
+#include <vector>
+
+using namespace crow;
+
+namespace {
+
+// A widget of the transparent scene: a quad at the translation of its pose, facing its z axis.
+struct TestWidget {
+  int32_t handle;
+  int32_t layerPriority;
+  bool visible;
+  float pose[16];
+  float width;
+  float height;
+};
+
+struct TestNode {
+  int id;
+};
+
+struct TestPointer {
+  const TestNode* node;
+  TestWidget* hitWidget;
+};
+
+struct TestScene {
+  std::vector<TestWidget> widgets;
+  std::vector<TestNode> widgetNodes;
+  std::vector<TestNode> pointerNodes;
+  std::vector<TestPointer> pointers;
+  std::vector<const TestNode*> nodes;
+  WidgetHierarchy hierarchy;
+  float head[16];
+  float viewProjection[16];
+};
+
+void
+Identity(float aMatrix[16]) {
+  memset(aMatrix, 0, sizeof(float) * 16);
+  aMatrix[0] = aMatrix[5] = aMatrix[10] = aMatrix[15] = 1.0f;
+}
+
+void
+SetHead(TestScene& aScene, float aX, float aYaw) {
+  Identity(aScene.head);
+  aScene.head[0] = std::cos(aYaw);
+  aScene.head[2] = -std::sin(aYaw);
+  aScene.head[8] = std::sin(aYaw);
+  aScene.head[10] = std::cos(aYaw);
+  aScene.head[12] = aX;
+  aScene.head[13] = 1.6f;
+  // A perspective projection of the inverse of the head pose.
+  Identity(aScene.viewProjection);
+  aScene.viewProjection[0] = std::cos(aYaw);
+  aScene.viewProjection[8] = -std::sin(aYaw);
+  aScene.viewProjection[2] = std::sin(aYaw) * -1.0f;
+  aScene.viewProjection[10] = -std::cos(aYaw) * 1.0f;
+  aScene.viewProjection[11] = -1.0f;
+  aScene.viewProjection[12] = -aX;
+  aScene.viewProjection[13] = -1.6f;
+  aScene.viewProjection[14] = -0.2f;
+  aScene.viewProjection[15] = 0.0f;
+}
+
+// Stands for BrowserWorld::State::ComputeNormalizedZ(): intersects the gaze of the head with the
+// plane of the widget, and projects the hit point.
+float
+ComputeNormalizedZ(const TestWidget& aWidget, const float aHead[16], const float aViewProjection[16]) {
+  const float origin[3] = {aHead[12], aHead[13], aHead[14]};
+  const float direction[3] = {-aHead[8], -aHead[9], -aHead[10]};
+  const float normal[3] = {aWidget.pose[8], aWidget.pose[9], aWidget.pose[10]};
+  const float dot = direction[0] * normal[0] + direction[1] * normal[1] + direction[2] * normal[2];
+  float t = 0.0f;
+  if (std::fabs(dot) > 1e-6f) {
+    t = ((aWidget.pose[12] - origin[0]) * normal[0] + (aWidget.pose[13] - origin[1]) * normal[1] +
+         (aWidget.pose[14] - origin[2]) * normal[2]) / dot;
+  }
+  const float hit[4] = {origin[0] + direction[0] * t, origin[1] + direction[1] * t, origin[2] + direction[2] * t, 1.0f};
+  float result[4] = {};
+  for (int row = 0; row < 4; ++row) {
+    for (int column = 0; column < 4; ++column) {
+      result[row] += aViewProjection[column * 4 + row] * hit[column];
+    }
+  }
+  return std::fabs(result[3]) > 1e-6f ? result[2] / result[3] : 1.0f;
+}
+
+TestScene
+CreateScene(int aWidgetCount, std::mt19937& aRandom, bool aWithParents) {
+  std::uniform_real_distribution<float> position(-3.0f, 3.0f);
+  std::uniform_real_distribution<float> depth(-6.0f, -1.0f);
+  std::uniform_int_distribution<int> percent(0, 99);
+  TestScene scene;
+  scene.widgets.reserve(aWidgetCount);
+  scene.widgetNodes.reserve(aWidgetCount);
+  scene.pointerNodes.reserve(2);
+  for (int i = 0; i < aWidgetCount; ++i) {
+    TestWidget widget = {};
+    widget.handle = i + 1;
+    widget.layerPriority = percent(aRandom) < 10 ? 1 : 0;
+    widget.visible = percent(aRandom) < 90;
+    Identity(widget.pose);
+    widget.pose[12] = position(aRandom);
+    widget.pose[13] = position(aRandom);
+    widget.pose[14] = depth(aRandom);
+    widget.width = 1.0f;
+    widget.height = 0.5f;
+    scene.widgets.push_back(widget);
+    scene.widgetNodes.push_back({i});
+    int32_t parent = aWithParents && i > 0 && percent(aRandom) < 30 ? (int32_t) (percent(aRandom) % i) + 1 : 0;
+    scene.hierarchy.Add(widget.handle, parent);
+  }
+  for (int i = 0; i < 2; ++i) {
+    scene.pointerNodes.push_back({aWidgetCount + i});
+    scene.pointers.push_back({&scene.pointerNodes.back(), &scene.widgets[i % aWidgetCount]});
+  }
+  for (const TestNode& node: scene.widgetNodes) {
+    scene.nodes.push_back(&node);
+  }
+  for (const TestNode& node: scene.pointerNodes) {
+    scene.nodes.push_back(&node);
+  }
+  std::shuffle(scene.nodes.begin(), scene.nodes.end(), aRandom);
+  SetHead(scene, 0.0f, 0.0f);
+  return scene;
+}
+
+// The sort as BrowserWorld did it before: the owner of every node is looked up with a linear scan
+// of the widgets and pointers, the depth of every widget is computed again, and the comparator
+// looks both nodes up in a map.
+struct LegacySorter {
+  std::unordered_map<const TestNode*, std::pair<TestWidget*, float>> depthSorting;
+
+  void Sort(TestScene& aScene) {
+    depthSorting.clear();
+    for (const TestNode* node: aScene.nodes) {
+      TestWidget* target = nullptr;
+      float zDelta = 0.0f;
+      for (size_t i = 0; i < aScene.widgetNodes.size(); ++i) {
+        if (&aScene.widgetNodes[i] == node) {
+          target = &aScene.widgets[i];
+          break;
+        }
+      }
+      if (!target) {
+        for (const TestPointer& pointer: aScene.pointers) {
+          if (pointer.node == node) {
+            target = pointer.hitWidget;
+            zDelta = 0.02f;
+            break;
+          }
+        }
+      }
+      if (!target || !target->visible) {
+        depthSorting.emplace(node, std::make_pair(target, 1.0f));
+        continue;
+      }
+      depthSorting.emplace(node, std::make_pair(target, ComputeNormalizedZ(*target, aScene.head, aScene.viewProjection) - zDelta));
+    }
+
+    std::sort(aScene.nodes.begin(), aScene.nodes.end(), [&](const TestNode* a, const TestNode* b) {
+      auto da = depthSorting.find(a);
+      auto db = depthSorting.find(b);
+      TestWidget* wa = da->second.first;
+      TestWidget* wb = db->second.first;
+      if (wa && wb && wa->visible && wb->visible) {
+        if (aScene.hierarchy.IsParent(wa->handle, wb->handle)) {
+          return true;
+        } else if (aScene.hierarchy.IsParent(wb->handle, wa->handle)) {
+          return false;
+        } else if (wa->layerPriority != wb->layerPriority) {
+          return wa->layerPriority > wb->layerPriority;
+        }
+      }
+      return da->second.second < db->second.second;
+    });
+  }
+};
+
+// The sort as BrowserWorld::State::SortWidgets() does it now.
+struct CachedSorter {
+  struct Entry {
+    TestWidget* widget;
+    int pointerIndex;
+    float zDelta;
+  };
+  std::unordered_map<const TestNode*, Entry> nodes;
+  std::unordered_map<const TestNode*, DepthSortKey> depthSorting;
+  std::vector<Entry> targets;
+  std::vector<float> poses;
+  std::vector<DepthSortKey> keys;
+  DepthSortCache cache;
+  int sorts = 0;
+
+  // The table is filled as the nodes are attached.
+  explicit CachedSorter(TestScene& aScene) {
+    for (size_t i = 0; i < aScene.widgetNodes.size(); ++i) {
+      nodes[&aScene.widgetNodes[i]] = {&aScene.widgets[i], -1, 0.0f};
+    }
+    for (size_t i = 0; i < aScene.pointers.size(); ++i) {
+      nodes[aScene.pointers[i].node] = {nullptr, (int) i, 0.02f};
+    }
+  }
+
+  void Sort(TestScene& aScene) {
+    float pose[50];
+    memcpy(pose, aScene.head, sizeof(float) * 16);
+    memcpy(pose + 16, aScene.viewProjection, sizeof(float) * 16);
+    const size_t count = aScene.nodes.size();
+    targets.resize(count);
+    poses.resize(count * 18);
+    cache.BeginFrame();
+    cache.Track(pose, 32);
+    for (size_t i = 0; i < count; ++i) {
+      Entry& entry = targets[i];
+      entry = nodes.find(aScene.nodes[i])->second;
+      if (entry.pointerIndex >= 0) {
+        entry.widget = aScene.pointers[entry.pointerIndex].hitWidget;
+      }
+      cache.TrackId((uint64_t) (uintptr_t) aScene.nodes[i]);
+      cache.TrackId((uint64_t) (uintptr_t) entry.widget);
+      if (!entry.widget || !entry.widget->visible) {
+        continue;
+      }
+      float* widgetPose = &poses[i * 18];
+      memcpy(widgetPose, entry.widget->pose, sizeof(float) * 16);
+      widgetPose[16] = entry.widget->width;
+      widgetPose[17] = entry.widget->height;
+      cache.Track(widgetPose, 18);
+      cache.TrackId((uint64_t) entry.widget->layerPriority);
+    }
+
+    if (!cache.NeedsSort()) {
+      return;
+    }
+
+    keys.resize(count);
+    for (size_t i = 0; i < count; ++i) {
+      const Entry& entry = targets[i];
+      DepthSortKey& key = keys[i];
+      key = DepthSortKey();
+      if (!entry.widget || !entry.widget->visible) {
+        continue;
+      }
+      key.handle = entry.widget->handle;
+      key.layerPriority = entry.widget->layerPriority;
+      memcpy(pose + 32, &poses[i * 18], sizeof(float) * 18);
+      if (!cache.GetDepth(key.handle, pose, 50, key.z)) {
+        key.z = ComputeNormalizedZ(*entry.widget, aScene.head, aScene.viewProjection);
+        cache.SetDepth(key.handle, pose, 50, key.z);
+      }
+      key.z -= entry.zDelta;
+    }
+
+    if (IsDepthSorted(keys, aScene.hierarchy)) {
+      return;
+    }
+    sorts++;
+    depthSorting.clear();
+    for (size_t i = 0; i < count; ++i) {
+      depthSorting.emplace(aScene.nodes[i], keys[i]);
+    }
+    std::sort(aScene.nodes.begin(), aScene.nodes.end(), [&](const TestNode* a, const TestNode* b) {
+      return DrawsBefore(depthSorting.find(a)->second, depthSorting.find(b)->second, aScene.hierarchy);
+    });
+  }
+};
+
+template<typename T>
+double MeasureMicros(int aIterations, T aOperation) {
+  auto start = std::chrono::steady_clock::now();
+  for (int i = 0; i < aIterations; ++i) {
+    aOperation();
+  }
+  std::chrono::duration<double, std::micro> elapsed = std::chrono::steady_clock::now() - start;
+  return elapsed.count() / aIterations;
+}
+
+// Copies a scene, with the nodes and pointers of the copy pointing to its own nodes and widgets.
+TestScene
+CopyScene(const TestScene& aScene) {
+  TestScene result = aScene;
+  result.nodes.clear();
+  for (const TestNode* node: aScene.nodes) {
+    const size_t id = (size_t) node->id;
+    const bool isPointer = id >= aScene.widgets.size();
+    result.nodes.push_back(isPointer ? &result.pointerNodes[id - aScene.widgets.size()] : &result.widgetNodes[id]);
+  }
+  for (size_t i = 0; i < result.pointers.size(); ++i) {
+    result.pointers[i].node = &result.pointerNodes[i];
+    result.pointers[i].hitWidget = &result.widgets[aScene.pointers[i].hitWidget - aScene.widgets.data()];
+  }
+  return result;
+}
+
+// The handle and depth of the widget each node is drawn over, in draw order. Nodes with the same
+// ones can be drawn in any order.
+std::vector<std::pair<int32_t, float>>
+DrawOrder(const TestScene& aScene, const LegacySorter& aSorter) {
+  std::unordered_map<int, std::pair<int32_t, float>> keys;
+  for (const auto& entry: aSorter.depthSorting) {
+    const TestWidget* widget = entry.second.first;
+    keys[entry.first->id] = {widget && widget->visible ? widget->handle : 0, entry.second.second};
+  }
+  std::vector<std::pair<int32_t, float>> result;
+  for (const TestNode* node: aScene.nodes) {
+    result.push_back(keys[node->id]);
+  }
+  return result;
+}
+
+} // namespace
+
+TEST(DepthSortCache, DrawsBefore) {
+  WidgetHierarchy hierarchy;
+  hierarchy.Add(1, 0);
+  hierarchy.Add(2, 1);
+  hierarchy.Add(3, 0);
+
+  // Children before their parents, whatever their depth.
+  EXPECT_TRUE(DrawsBefore({2, 0, 0.9f}, {1, 0, 0.1f}, hierarchy));
+  EXPECT_FALSE(DrawsBefore({1, 0, 0.1f}, {2, 0, 0.9f}, hierarchy));
+  // Then higher layer priorities.
+  EXPECT_TRUE(DrawsBefore({3, 1, 0.9f}, {1, 0, 0.1f}, hierarchy));
+  // Then nearer first.
+  EXPECT_TRUE(DrawsBefore({3, 0, 0.1f}, {1, 0, 0.9f}, hierarchy));
+  // Nodes without a visible widget are only sorted by depth.
+  EXPECT_TRUE(DrawsBefore({0, 0, 0.1f}, {1, 5, 0.9f}, hierarchy));
+  EXPECT_FALSE(DrawsBefore({0, 0, 1.0f}, {0, 0, 1.0f}, hierarchy));
+
+  EXPECT_TRUE(IsDepthSorted({{2, 0, 0.9f}, {1, 0, 0.1f}, {3, 0, 0.5f}}, hierarchy));
+  EXPECT_FALSE(IsDepthSorted({{3, 0, 0.5f}, {0, 0, 0.2f}}, hierarchy));
+}
+
+TEST(DepthSortCache, SortsOnlyAfterChangesBeyondEpsilon) {
+  DepthSortCache cache;
+  const float head[3] = {0.0f, 1.6f, 0.0f};
+  auto frame = [&](float aOffset, uint64_t aId) {
+    cache.BeginFrame();
+    cache.Track(head, 3);
+    cache.Track(aOffset);
+    cache.TrackId(aId);
+    return cache.NeedsSort();
+  };
+
+  EXPECT_TRUE(frame(0.0f, 1));
+  EXPECT_FALSE(frame(0.0f, 1));
+  EXPECT_FALSE(frame(DepthSortCache::kEpsilon * 0.5f, 1));
+  EXPECT_TRUE(frame(0.0f, 2));
+  EXPECT_FALSE(frame(0.0f, 2));
+
+  // A drift smaller than the epsilon on every frame still sorts once it adds up.
+  int sorts = 0;
+  for (int i = 1; i <= 10; ++i) {
+    sorts += frame(DepthSortCache::kEpsilon * 0.4f * (float) i, 2) ? 1 : 0;
+  }
+  EXPECT_GE(sorts, 1);
+  EXPECT_LE(sorts, 4);
+
+  cache.Invalidate();
+  EXPECT_TRUE(frame(DepthSortCache::kEpsilon * 4.0f, 2));
+
+  // A different number of values is always a change.
+  cache.BeginFrame();
+  cache.Track(head, 2);
+  EXPECT_TRUE(cache.NeedsSort());
+}
+
+TEST(DepthSortCache, CachesDepthPerWidget) {
+  DepthSortCache cache;
+  float pose[4] = {1.0f, 2.0f, 3.0f, 4.0f};
+  float depth = 0.0f;
+  EXPECT_FALSE(cache.GetDepth(7, pose, 4, depth));
+
+  cache.SetDepth(7, pose, 4, 0.25f);
+  EXPECT_TRUE(cache.GetDepth(7, pose, 4, depth));
+  EXPECT_EQ(0.25f, depth);
+  EXPECT_FALSE(cache.GetDepth(8, pose, 4, depth));
+  EXPECT_FALSE(cache.GetDepth(7, pose, 3, depth));
+
+  pose[2] += DepthSortCache::kEpsilon * 0.5f;
+  EXPECT_TRUE(cache.GetDepth(7, pose, 4, depth));
+  pose[2] += DepthSortCache::kEpsilon * 4.0f;
+  EXPECT_FALSE(cache.GetDepth(7, pose, 4, depth));
+
+  cache.SetDepth(7, pose, 4, 0.5f);
+  cache.RemoveDepth(7);
+  EXPECT_FALSE(cache.GetDepth(7, pose, 4, depth));
+}
+
+TEST(DepthSortCache, MatchesSortingEveryFrame) {
+  std::mt19937 random(7);
+  std::uniform_int_distribution<int> percent(0, 99);
+  std::uniform_real_distribution<float> offset(-0.5f, 0.5f);
+  int sorts = 0;
+  int frames = 0;
+  for (int sceneIndex = 0; sceneIndex < 50; ++sceneIndex) {
+    // Without parents, the comparator is a strict weak ordering and both sorts give one order.
+    TestScene legacyScene = CreateScene(4 + sceneIndex % 20, random, false);
+    TestScene cachedScene = CopyScene(legacyScene);
+
+    LegacySorter legacy;
+    CachedSorter cached(cachedScene);
+    float headX = 0.0f;
+    for (int frame = 0; frame < 40; ++frame) {
+      const int change = percent(random);
+      if (change < 20) {
+        headX += offset(random);
+      }
+      const size_t moved = (size_t) percent(random) % legacyScene.widgets.size();
+      const float delta = change >= 20 && change < 40 ? offset(random) : 0.0f;
+      const size_t hit = (size_t) percent(random) % legacyScene.widgets.size();
+      const bool retarget = change >= 40 && change < 50;
+      for (TestScene* scene: {&legacyScene, &cachedScene}) {
+        SetHead(*scene, headX, 0.0f);
+        scene->widgets[moved].pose[14] += delta;
+        if (retarget) {
+          scene->pointers[0].hitWidget = &scene->widgets[hit];
+        }
+      }
+
+      legacy.Sort(legacyScene);
+      cached.Sort(cachedScene);
+      frames++;
+      ASSERT_EQ(DrawOrder(legacyScene, legacy), DrawOrder(cachedScene, legacy)) << "scene " << sceneIndex << " frame " << frame;
+    }
+    sorts += cached.sorts;
+  }
+  EXPECT_LT(sorts, frames / 2);
+}
+
+TEST(DepthSortCache, Benchmark) {
+  std::mt19937 random(11);
+  for (int count: {8, 32, 128}) {
+    TestScene legacyScene = CreateScene(count, random, true);
+    TestScene cachedScene = CopyScene(legacyScene);
+    LegacySorter legacy;
+    CachedSorter cached(cachedScene);
+    const int iterations = 20000 / count;
+
+    double legacyStill = MeasureMicros(iterations, [&] { legacy.Sort(legacyScene); });
+    cached.Sort(cachedScene);
+    double cachedStill = MeasureMicros(iterations, [&] { cached.Sort(cachedScene); });
+
+    // Only the head moves: every depth is computed again, but the order rarely changes.
+    float headX = 0.0f;
+    double legacyMoving = MeasureMicros(iterations, [&] {
+      headX += 0.001f;
+      SetHead(legacyScene, headX, 0.0f);
+      legacy.Sort(legacyScene);
+    });
+    headX = 0.0f;
+    double cachedMoving = MeasureMicros(iterations, [&] {
+      headX += 0.001f;
+      SetHead(cachedScene, headX, 0.0f);
+      cached.Sort(cachedScene);
+    });
+
+    printf("DepthSortCache.Benchmark(%d nodes): still head %.2f us -> %.2f us, moving head %.2f us -> %.2f us per frame\n",
+           count + 2, legacyStill, cachedStill, legacyMoving, cachedMoving);
+    EXPECT_LT(cachedStill, legacyStill);
+  }
+}
@@ -0,0 +1,295 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "RayPicker.h"
+
+#include <gtest/gtest.h>
+
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <random>
+#include <vector>
+
+using namespace crow;
+
+namespace {
+
+struct Vec {
+  float x, y, z;
+  Vec operator+(const Vec& o) const { return {x + o.x, y + o.y, z + o.z}; }
+  Vec operator-(const Vec& o) const { return {x - o.x, y - o.y, z - o.z}; }
+  Vec operator*(float s) const { return {x * s, y * s, z * s}; }
+  float Dot(const Vec& o) const { return x * o.x + y * o.y + z * o.z; }
+  float Magnitude() const { return std::sqrt(Dot(*this)); }
+};
+
+// A widget quad: a rectangle in the local XY plane, rotated and translated into the world.
+struct TestQuad {
+  Vec axes[3]; // Rotation columns.
+  Vec translation;
+  Vec min, max;
+  bool enabled;
+
+  Vec ToWorld(const Vec& p) const { return axes[0] * p.x + axes[1] * p.y + axes[2] * p.z + translation; }
+
+  // The same math as Quad::TestIntersection(), which BrowserWorld only counts when inside,
+  // including the inverse of the world transform computed on every test.
+  bool Test(const Vec& aStart, const Vec& aDirection, float& aDistance) const {
+    if (!enabled) {
+      return false;
+    }
+    const float kEpsilon = 0.00000001f;
+    Vec inverse[3];
+    Invert(inverse);
+    Vec offset = aStart - translation;
+    Vec point = inverse[0] * offset.x + inverse[1] * offset.y + inverse[2] * offset.z;
+    Vec direction = inverse[0] * aDirection.x + inverse[1] * aDirection.y + inverse[2] * aDirection.z;
+    Vec normal{0.0f, 0.0f, 1.0f};
+    const float dotNormals = direction.Dot(normal);
+    if (dotNormals > -kEpsilon) {
+      return false;
+    }
+    const float dotV = (min - point).Dot(normal);
+    if ((dotV < kEpsilon) && (dotV > -kEpsilon)) {
+      return false;
+    }
+    const float length = dotV / dotNormals;
+    Vec result = point + (direction * length);
+    const bool inside = result.x >= min.x && result.y >= min.y && result.z >= min.z - 0.1f &&
+                        result.x <= max.x && result.y <= max.y && result.z <= max.z + 0.1f;
+    aDistance = (ToWorld(result) - aStart).Magnitude();
+    return inside;
+  }
+
+  // Columns of the inverse of the rotation, by cofactors as for any affine transform.
+  void Invert(Vec aInverse[3]) const {
+    const Vec& a = axes[0];
+    const Vec& b = axes[1];
+    const Vec& c = axes[2];
+    const Vec r0{b.y * c.z - b.z * c.y, c.y * a.z - c.z * a.y, a.y * b.z - a.z * b.y};
+    const Vec r1{b.z * c.x - b.x * c.z, c.z * a.x - c.x * a.z, a.z * b.x - a.x * b.z};
+    const Vec r2{b.x * c.y - b.y * c.x, c.x * a.y - c.y * a.x, a.x * b.y - a.y * b.x};
+    const float determinant = a.x * r0.x + a.y * r1.x + a.z * r2.x;
+    const float scale = 1.0f / determinant;
+    aInverse[0] = r0 * scale;
+    aInverse[1] = r1 * scale;
+    aInverse[2] = r2 * scale;
+  }
+
+  // As Widget::GetPickingBounds().
+  PickingBounds Bounds() const {
+    PickingBounds bounds;
+    if (!enabled) {
+      return bounds;
+    }
+    for (int corner = 0; corner < 8; ++corner) {
+      Vec local{(corner & 1) ? max.x : min.x, (corner & 2) ? max.y : min.y, (corner & 4) ? max.z + 0.1f : min.z - 0.1f};
+      Vec world = ToWorld(local);
+      bounds.Extend(world.x, world.y, world.z);
+    }
+    return bounds;
+  }
+};
+
+struct Ray {
+  Vec start;
+  Vec direction;
+};
+
+// Windows, tab bars, keyboards and prompts scattered around the user, some of them hidden,
+// overlapping or duplicated so that there are ties.
+std::vector<TestQuad> CreateScene(std::mt19937& aRandom, int aCount) {
+  std::uniform_real_distribution<float> angle(-3.14159f, 3.14159f);
+  std::uniform_real_distribution<float> tilt(-0.5f, 0.5f);
+  std::uniform_real_distribution<float> size(0.2f, 1.5f);
+  std::uniform_real_distribution<float> distance(0.5f, 4.0f);
+  std::uniform_real_distribution<float> height(-1.0f, 1.5f);
+  std::vector<TestQuad> quads;
+  for (int i = 0; i < aCount; ++i) {
+    if (!quads.empty() && aRandom() % 8 == 0) {
+      quads.push_back(quads[aRandom() % quads.size()]);
+      continue;
+    }
+    const float yaw = angle(aRandom);
+    const float pitch = tilt(aRandom);
+    // Facing the origin: the local Z axis points back to the user.
+    Vec forward{std::sin(yaw) * std::cos(pitch), std::sin(pitch), std::cos(yaw) * std::cos(pitch)};
+    Vec right{std::cos(yaw), 0.0f, -std::sin(yaw)};
+    Vec up{forward.y * right.z - forward.z * right.y, forward.z * right.x - forward.x * right.z, forward.x * right.y - forward.y * right.x};
+    TestQuad quad;
+    quad.axes[0] = right;
+    quad.axes[1] = up;
+    quad.axes[2] = forward;
+    const float d = distance(aRandom);
+    quad.translation = Vec{-forward.x * d, height(aRandom), -forward.z * d};
+    const float w = size(aRandom);
+    const float h = size(aRandom);
+    quad.min = Vec{-w * 0.5f, -h * 0.5f, 0.0f};
+    quad.max = Vec{w * 0.5f, h * 0.5f, 0.0f};
+    quad.enabled = aRandom() % 6 != 0;
+    quads.push_back(quad);
+  }
+  return quads;
+}
+
+std::vector<Ray> CreateRays(std::mt19937& aRandom, int aCount) {
+  std::uniform_real_distribution<float> offset(-0.3f, 0.3f);
+  std::uniform_real_distribution<float> component(-1.0f, 1.0f);
+  std::vector<Ray> rays;
+  for (int i = 0; i < aCount; ++i) {
+    Vec direction{component(aRandom), component(aRandom) * 0.5f, component(aRandom)};
+    direction = direction * (1.0f / direction.Magnitude());
+    rays.push_back({Vec{offset(aRandom), 1.2f + offset(aRandom), offset(aRandom)}, direction});
+  }
+  return rays;
+}
+
+const float kFarClip = 300.0f;
+
+// The loop in BrowserWorld::State::UpdateControllers() before.
+int PickAll(const std::vector<TestQuad>& aQuads, const Ray& aRay, float& aDistance) {
+  int hit = -1;
+  aDistance = kFarClip;
+  for (size_t i = 0; i < aQuads.size(); ++i) {
+    float distance = 0.0f;
+    if (aQuads[i].Test(aRay.start, aRay.direction, distance) && distance < aDistance) {
+      hit = (int) i;
+      aDistance = distance;
+    }
+  }
+  return hit;
+}
+
+int PickWithBounds(RayPicker& aPicker, const std::vector<TestQuad>& aQuads, const Ray& aRay, float& aDistance) {
+  const float origin[3] = {aRay.start.x, aRay.start.y, aRay.start.z};
+  const float direction[3] = {aRay.direction.x, aRay.direction.y, aRay.direction.z};
+  float distance = 0.0f;
+  aDistance = kFarClip;
+  return aPicker.Pick(origin, direction, kFarClip, [&](size_t aIndex, float& aResult) {
+    if (!aQuads[aIndex].Test(aRay.start, aRay.direction, distance)) {
+      return false;
+    }
+    aResult = distance;
+    return true;
+  }, [&](size_t) {
+    aDistance = distance;
+  });
+}
+
+void AddScene(RayPicker& aPicker, const std::vector<TestQuad>& aQuads) {
+  aPicker.Clear();
+  for (const TestQuad& quad: aQuads) {
+    aPicker.Add(quad.Bounds());
+  }
+}
+
+} // namespace
+
+TEST(RayPicker, LineDistance) {
+  PickingBounds bounds;
+  bounds.Extend(-1.0f, -1.0f, -5.0f);
+  bounds.Extend(1.0f, 1.0f, -4.0f);
+  const float origin[3] = {0.0f, 0.0f, 0.0f};
+  const float forward[3] = {0.0f, 0.0f, -1.0f};
+  const float backward[3] = {0.0f, 0.0f, 1.0f};
+  const float up[3] = {0.0f, 1.0f, 0.0f};
+  float distance = 0.0f;
+  ASSERT_TRUE(bounds.LineDistance(origin, forward, distance));
+  EXPECT_NEAR(4.0f - RayPicker::kBoundsPadding, distance, 1e-5f);
+  // Points behind the origin can be hit too.
+  ASSERT_TRUE(bounds.LineDistance(origin, backward, distance));
+  EXPECT_NEAR(4.0f - RayPicker::kBoundsPadding, distance, 1e-5f);
+  EXPECT_FALSE(bounds.LineDistance(origin, up, distance));
+  EXPECT_FALSE(PickingBounds().LineDistance(origin, forward, distance));
+
+  const float inside[3] = {0.0f, 0.0f, -4.5f};
+  ASSERT_TRUE(bounds.LineDistance(inside, up, distance));
+  EXPECT_EQ(0.0f, distance);
+}
+
+TEST(RayPicker, UnboundedItemsAreAlwaysTested) {
+  RayPicker picker;
+  picker.AddUnbounded();
+  picker.Add(PickingBounds());
+  const float origin[3] = {0.0f, 0.0f, 0.0f};
+  const float direction[3] = {0.0f, 0.0f, -1.0f};
+  std::vector<size_t> tested;
+  int hit = picker.Pick(origin, direction, kFarClip, [&](size_t aIndex, float& aDistance) {
+    tested.push_back(aIndex);
+    aDistance = 1.0f;
+    return true;
+  }, [](size_t) {});
+  EXPECT_EQ(0, hit);
+  EXPECT_EQ(std::vector<size_t>({0}), tested);
+}
+
+TEST(RayPicker, MatchesTestingEveryWidget) {
+  std::mt19937 random(7);
+  RayPicker picker;
+  int hits = 0;
+  for (int scene = 0; scene < 200; ++scene) {
+    std::vector<TestQuad> quads = CreateScene(random, 1 + (int) (random() % 30));
+    AddScene(picker, quads);
+    for (const Ray& ray: CreateRays(random, 50)) {
+      float expectedDistance = 0.0f;
+      float distance = 0.0f;
+      int expected = PickAll(quads, ray, expectedDistance);
+      int hit = PickWithBounds(picker, quads, ray, distance);
+      ASSERT_EQ(expected, hit);
+      EXPECT_EQ(expectedDistance, distance);
+      if (hit >= 0) {
+        hits++;
+      }
+    }
+  }
+  // Make sure the scenes are not trivially missed.
+  EXPECT_GT(hits, 1000);
+}
+
+TEST(RayPicker, Benchmark) {
+  std::mt19937 random(11);
+  const int widgets = 24;
+  std::vector<TestQuad> quads = CreateScene(random, widgets);
+  // Two hands and gaze.
+  std::vector<Ray> rays = CreateRays(random, 3);
+  RayPicker picker;
+
+  // Widgets keep their bounds until they are moved.
+  std::vector<PickingBounds> bounds;
+  for (const TestQuad& quad: quads) {
+    bounds.push_back(quad.Bounds());
+  }
+
+  const int frames = 20000;
+  size_t exactTests = 0;
+  int checksum = 0;
+  auto start = std::chrono::steady_clock::now();
+  for (int frame = 0; frame < frames; ++frame) {
+    for (const Ray& ray: rays) {
+      float distance;
+      checksum += PickAll(quads, ray, distance);
+    }
+  }
+  std::chrono::duration<double, std::micro> all = std::chrono::steady_clock::now() - start;
+
+  start = std::chrono::steady_clock::now();
+  for (int frame = 0; frame < frames; ++frame) {
+    picker.Clear();
+    for (const PickingBounds& widgetBounds: bounds) {
+      picker.Add(widgetBounds);
+    }
+    for (const Ray& ray: rays) {
+      float distance;
+      checksum -= PickWithBounds(picker, quads, ray, distance);
+      exactTests += picker.GetExactTestCount();
+    }
+  }
+  std::chrono::duration<double, std::micro> bounded = std::chrono::steady_clock::now() - start;
+
+  EXPECT_EQ(0, checksum);
+  printf("RayPicker.Benchmark(%d widgets, %zu rays): every widget %.2f us/frame, bounds %.2f us/frame, %.2f exact tests/ray\n",
+         widgets, rays.size(), all.count() / frames, bounded.count() / frames, (double) exactTests / (frames * rays.size()));
+}
@@ -0,0 +1,205 @@
+/* -*- Mode: C++; tab-width: 20; indent-tabs-mode: nil; c-basic-offset: 2 -*-
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+#include "WidgetHierarchy.h"
+
+#include <gtest/gtest.h>
+
+#include <algorithm>
+#include <chrono>
+#include <cstdio>
+#include <random>
+#include <unordered_map>
+#include <vector>
+
+using namespace crow;
+
+namespace {
+
+// The widget list as BrowserWorld kept it before, looked up with a linear scan.
+struct LegacyWidget {
+  int32_t handle;
+  int32_t parentHandle;
+};
+
+struct LegacyWidgets {
+  std::vector<LegacyWidget> widgets;
+
+  const LegacyWidget* GetWidget(int32_t aHandle) const {
+    for (const LegacyWidget& widget: widgets) {
+      if (widget.handle == aHandle) {
+        return &widget;
+      }
+    }
+    return nullptr;
+  }
+
+  bool IsParent(const LegacyWidget& aChild, const LegacyWidget& aParent) const {
+    if (aChild.parentHandle == aParent.handle) {
+      return true;
+    }
+    if (aChild.parentHandle > 0) {
+      const LegacyWidget* next = GetWidget(aChild.parentHandle);
+      if (next) {
+        return IsParent(*next, aParent);
+      }
+    }
+    return false;
+  }
+
+  int ParentCount(const LegacyWidget& aWidget) const {
+    int result = 0;
+    const LegacyWidget* current = &aWidget;
+    while (current && current->parentHandle > 0) {
+      current = GetWidget(current->parentHandle);
+      if (current) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  // BrowserWorld::UpdateVisibleWidgets() before, copying the list into the comparator.
+  std::vector<LegacyWidget> SortByParent() const {
+    std::vector<LegacyWidget> sorted = widgets;
+    std::sort(sorted.begin(), sorted.end(), [=](const LegacyWidget& a, const LegacyWidget& b) {
+      int parentsA = ParentCount(a);
+      int parentsB = ParentCount(b);
+      if (parentsA != parentsB) {
+        return parentsA < parentsB;
+      }
+      return IsParent(b, a);
+    });
+    return sorted;
+  }
+};
+
+// Random forests, with some parents that were never added, as when a parent widget is removed.
+void CreateRandomScene(std::mt19937& aRandom, int aCount, WidgetHierarchy& aHierarchy, LegacyWidgets& aLegacy) {
+  std::vector<int32_t> handles;
+  for (int i = 0; i < aCount; ++i) {
+    int32_t handle = i + 1;
+    int32_t parent = 0;
+    int choice = (int) (aRandom() % 10);
+    if (choice < 6 && !handles.empty()) {
+      parent = handles[aRandom() % handles.size()];
+    } else if (choice == 6) {
+      parent = aCount + 100 + i;
+    }
+    handles.push_back(handle);
+    aHierarchy.Add(handle, parent);
+    aLegacy.widgets.push_back({handle, parent});
+  }
+}
+
+void ExpectParentFirst(const WidgetHierarchy& aHierarchy) {
+  const std::vector<int32_t>& order = aHierarchy.GetOrder();
+  ASSERT_EQ(order.size(), aHierarchy.Size());
+  std::unordered_map<int32_t, size_t> positions;
+  for (size_t i = 0; i < order.size(); ++i) {
+    positions[order[i]] = i;
+  }
+  for (size_t i = 0; i < order.size(); ++i) {
+    if (i > 0) {
+      EXPECT_LE(aHierarchy.ParentCount(order[i - 1]), aHierarchy.ParentCount(order[i]));
+    }
+    auto parent = positions.find(aHierarchy.GetParent(order[i]));
+    if (parent != positions.end()) {
+      EXPECT_LT(parent->second, i);
+    }
+  }
+}
+
+template<typename T>
+double MeasureMicros(int aIterations, T aOperation) {
+  auto start = std::chrono::steady_clock::now();
+  for (int i = 0; i < aIterations; ++i) {
+    aOperation();
+  }
+  std::chrono::duration<double, std::micro> elapsed = std::chrono::steady_clock::now() - start;
+  return elapsed.count() / aIterations;
+}
+
+} // namespace
+
+TEST(WidgetHierarchy, MatchesLegacyLookups) {
+  std::mt19937 random(42);
+  for (int scene = 0; scene < 20; ++scene) {
+    WidgetHierarchy hierarchy;
+    LegacyWidgets legacy;
+    CreateRandomScene(random, 60, hierarchy, legacy);
+
+    for (const LegacyWidget& child: legacy.widgets) {
+      EXPECT_EQ(legacy.ParentCount(child), hierarchy.ParentCount(child.handle));
+      for (const LegacyWidget& parent: legacy.widgets) {
+        EXPECT_EQ(legacy.IsParent(child, parent), hierarchy.IsParent(child.handle, parent.handle));
+      }
+    }
+    ExpectParentFirst(hierarchy);
+  }
+}
+
+TEST(WidgetHierarchy, OrderFollowsChanges) {
+  WidgetHierarchy hierarchy;
+  hierarchy.Add(1, 0);
+  hierarchy.Add(2, 3);
+  hierarchy.Add(3, 0);
+  EXPECT_EQ(std::vector<int32_t>({1, 3, 2}), hierarchy.GetOrder());
+
+  EXPECT_FALSE(hierarchy.SetParent(2, 3));
+  EXPECT_TRUE(hierarchy.SetParent(3, 2));
+  EXPECT_TRUE(hierarchy.SetParent(2, 1));
+  EXPECT_EQ(std::vector<int32_t>({1, 2, 3}), hierarchy.GetOrder());
+  EXPECT_TRUE(hierarchy.IsParent(3, 1));
+  EXPECT_EQ(2, hierarchy.ParentCount(3));
+
+  // Children of a removed widget become roots.
+  hierarchy.Remove(2);
+  EXPECT_EQ(std::vector<int32_t>({1, 3}), hierarchy.GetOrder());
+  EXPECT_EQ(0, hierarchy.ParentCount(3));
+  EXPECT_TRUE(hierarchy.IsParent(3, 2));
+  EXPECT_FALSE(hierarchy.IsParent(3, 1));
+  EXPECT_FALSE(hierarchy.SetParent(2, 0));
+}
+
+TEST(WidgetHierarchy, CyclesTerminate) {
+  WidgetHierarchy hierarchy;
+  hierarchy.Add(1, 2);
+  hierarchy.Add(2, 1);
+  hierarchy.Add(3, 1);
+  EXPECT_FALSE(hierarchy.IsParent(1, 3));
+  EXPECT_TRUE(hierarchy.IsParent(3, 2));
+  EXPECT_EQ(3u, hierarchy.GetOrder().size());
+}
+
+TEST(WidgetHierarchy, NestedWidgetsBenchmark) {
+  const int count = 200;
+  WidgetHierarchy hierarchy;
+  LegacyWidgets legacy;
+  // Added children first, the worst case for the legacy sort.
+  for (int32_t handle = count; handle > 0; --handle) {
+    hierarchy.Add(handle, handle - 1);
+    legacy.widgets.push_back({handle, handle - 1});
+  }
+
+  std::vector<int32_t> legacyOrder;
+  for (const LegacyWidget& widget: legacy.SortByParent()) {
+    legacyOrder.push_back(widget.handle);
+  }
+  EXPECT_EQ(legacyOrder, hierarchy.GetOrder());
+  ExpectParentFirst(hierarchy);
+
+  double legacyMicros = MeasureMicros(5, [&] { legacy.SortByParent(); });
+  double cachedMicros = MeasureMicros(1000, [&] { hierarchy.GetOrder(); });
+  // Detaching the deepest widget and attaching it again forces the order to be computed again.
+  double changedMicros = MeasureMicros(200, [&] {
+    hierarchy.SetParent(count, 0);
+    hierarchy.SetParent(count, count - 1);
+    hierarchy.GetOrder();
+  });
+  printf("WidgetHierarchy.NestedWidgets(%d): legacy sort %.1f us, cached order %.3f us, after a parent change %.1f us\n",
+         count, legacyMicros, cachedMicros, changedMicros);
+  EXPECT_LT(changedMicros, legacyMicros);
+}
@@ -0,0 +1,136 @@
+package com.igalia.wolvic;
+
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.utils.UrlUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.regex.Pattern;
+
+public class UrlUtilsBenchmark {
+
+    // A mix of what usually gets typed in the URL bar.
+    private static final String[] INPUTS = {
+            "wolvic.com",
+            "https://www.wolvic.com/en/",
+            "sublevel.example.uvwxyz",
+            "121.25.63.2",
+            "http://[2001:db8::1]:8080/path",
+            "192.168.1.1:3000",
+            "how to install wolvic",
+            "localhost",
+            "about://history",
+            "https://en.wikipedia.org/wiki/Virtual_reality?action=history#section",
+    };
+
+    // URLs of open pages, which are classified again on every navigation and tab bar refresh.
+    private static final String[] PAGES = {
+            "https://www.wolvic.com/en/",
+            "https://en.wikipedia.org/wiki/Virtual_reality?action=history#section",
+            "about://history",
+            "https://www.youtube.com/watch?v=dQw4w9WgXcQ",
+            "http://192.168.1.1:3000/admin",
+            "file:///sdcard/Download/video.mp4",
+    };
+
+    // The regular expressions UrlUtils used before the hand-written scanners, kept as a baseline.
+    private static final Pattern LEGACY_DOMAIN_PATTERN = Pattern.compile("^(http:\\/\\/www\\.|https:\\/\\/www\\.|http:\\/\\/|https:\\/\\/)?[a-zA-Z0-9]+([\\-\\.]{1}[a-zA-Z0-9]+)*\\.[a-zA-Z]{2,24}(:[0-9]{1,5})?(\\/[^ ]*)?$");
+    private static final Pattern LEGACY_IP_PATTERN = Pattern.compile("^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])(:[0-9]+)?(/[^ ]*)?");
+    private static final Pattern LEGACY_LOCALHOST_PATTERN = Pattern.compile("^(localhost)(:[0-9]+)?(/[^ ]*)?", Pattern.CASE_INSENSITIVE);
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    @Test
+    public void isDomain() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String input : INPUTS) {
+                if (UrlUtils.isDomain(input)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void isIPUri() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String input : INPUTS) {
+                if (UrlUtils.isIPUri(input)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void isDomainRegex() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String input : INPUTS) {
+                if (LEGACY_DOMAIN_PATTERN.matcher(input).find()) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void isIPUriRegex() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String input : INPUTS) {
+                String uri = UrlUtils.stripProtocol(input).trim();
+                if (LEGACY_LOCALHOST_PATTERN.matcher(uri).find() || LEGACY_IP_PATTERN.matcher(uri).find()) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void getHost() throws Exception {
+        mBenchmark.measure(() -> {
+            int length = 0;
+            for (String page : PAGES) {
+                length += UrlUtils.getHost(page).length();
+            }
+            return length;
+        });
+    }
+
+    @Test
+    public void getHostURL() throws Exception {
+        mBenchmark.measure(() -> {
+            int length = 0;
+            for (String page : PAGES) {
+                try {
+                    length += new URL(page).getHost().length();
+                } catch (MalformedURLException e) {
+                    length += page.length();
+                }
+            }
+            return length;
+        });
+    }
+
+    @Test
+    public void getContentType() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String page : PAGES) {
+                count += UrlUtils.getContentType(page).ordinal();
+            }
+            return count;
+        });
+    }
+}
@@ -60,6 +60,10 @@ public class UrlUtilsTest {
                 {"1211.25.63.2", UrlUtils.TEST_SEARCH_URL + "1211.25.63.2"},
                 {"http://1211.25.63.2", UrlUtils.TEST_SEARCH_URL + "http://1211.25.63.2"},
                 {"http://11.222.333.4", UrlUtils.TEST_SEARCH_URL + "http://11.222.333.4"},
+                {"192.168.1.1/admin", "http://192.168.1.1/admin"},
+                {"localhost/index.html", "http://localhost/index.html"},
+                {"www.example.com/path?q=1", "http://www.example.com/path?q=1"},
+                {"example.c0m", UrlUtils.TEST_SEARCH_URL + "example.c0m"},
                 {"about://config", "about://config"},
                 {"file:///tmp/data", "file:///tmp/data"},
                 {"ftp://example.com", "ftp://example.com"},
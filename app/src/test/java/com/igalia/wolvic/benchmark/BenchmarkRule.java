@@ -0,0 +1,165 @@
+package com.igalia.wolvic.benchmark;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures the average time of an operation in the style of a JMH average time benchmark: a few
+ * warmup iterations followed by measured iterations of a fixed duration, reporting the median of
+ * the iterations. It runs in the same JVM as the test, so benchmarks can use Robolectric.
+ *
+ * Each test method measures one operation with {@link #measure(Operation)}. Results are appended
+ * to a JSON report per benchmark class in the directory given by the wolvic.benchmark.reportDir
+ * system property, and compared with the report of the same name in wolvic.benchmark.baseline,
+ * failing the test when it got slower than wolvic.benchmark.threshold. See
+ * tools/gradle/benchmark.gradle.
+ */
+public class BenchmarkRule extends TestWatcher {
+
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final long ITERATION_TIME_NS = 100_000_000L;
+    private static final double DEFAULT_THRESHOLD = 0.15;
+
+    private static final Gson sGson = new GsonBuilder().setPrettyPrinting().create();
+
+    // Results are folded in here so the JIT can not drop the measured code.
+    private static volatile int sSink;
+
+    private Description mDescription;
+
+    @Override
+    protected void starting(Description aDescription) {
+        mDescription = aDescription;
+    }
+
+    /**
+     * Runs the operation repeatedly, records its average time per operation under the name of the
+     * current test method and fails if it regressed compared with the baseline.
+     * @return the median time per operation in nanoseconds.
+     */
+    public double measure(@NonNull Operation aOperation) throws Exception {
+        if (mDescription == null) {
+            throw new IllegalStateException("BenchmarkRule must be used as a @Rule");
+        }
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runIteration(aOperation);
+        }
+        double[] samples = new double[MEASUREMENT_ITERATIONS];
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            samples[i] = runIteration(aOperation);
+        }
+        Arrays.sort(samples);
+        double median = (samples[(samples.length - 1) / 2] + samples[samples.length / 2]) / 2;
+
+        String suite = mDescription.getTestClass() != null ?
+                mDescription.getTestClass().getSimpleName() : mDescription.getClassName();
+        String name = mDescription.getMethodName();
+        System.out.println(String.format(Locale.US, "%s.%s: %.1f ns/op (min %.1f, max %.1f)",
+                suite, name, median, samples[0], samples[samples.length - 1]));
+
+        JsonObject result = new JsonObject();
+        result.addProperty("nsPerOp", median);
+        result.addProperty("min", samples[0]);
+        result.addProperty("max", samples[samples.length - 1]);
+        result.addProperty("iterations", MEASUREMENT_ITERATIONS);
+        writeResult(suite, name, result);
+        checkBaseline(suite, name, median);
+
+        return median;
+    }
+
+    private static double runIteration(@NonNull Operation aOperation) throws Exception {
+        long operations = 0;
+        int sink = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            Object result = aOperation.run();
+            sink += result != null ? result.hashCode() : 0;
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_TIME_NS);
+        sSink ^= sink;
+        return (double) elapsed / operations;
+    }
+
+    private static void writeResult(@NonNull String aSuite, @NonNull String aName, @NonNull JsonObject aResult) throws IOException {
+        String reportDir = System.getProperty("wolvic.benchmark.reportDir");
+        if (reportDir == null) {
+            return;
+        }
+        File dir = new File(reportDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create the benchmark report directory " + dir);
+        }
+        File file = new File(dir, aSuite + ".json");
+        JsonObject report = readReport(file);
+        if (report == null) {
+            report = new JsonObject();
+        }
+        report.add(aName, aResult);
+        try (Writer writer = new FileWriter(file)) {
+            sGson.toJson(report, writer);
+        }
+    }
+
+    private static void checkBaseline(@NonNull String aSuite, @NonNull String aName, double aNsPerOp) throws IOException {
+        String baselineDir = System.getProperty("wolvic.benchmark.baseline");
+        if (baselineDir == null) {
+            return;
+        }
+        JsonObject baseline = readReport(new File(baselineDir, aSuite + ".json"));
+        if (baseline == null || !baseline.has(aName)) {
+            System.out.println(aSuite + "." + aName + ": no baseline");
+            return;
+        }
+        double threshold = DEFAULT_THRESHOLD;
+        try {
+            threshold = Double.parseDouble(System.getProperty("wolvic.benchmark.threshold", String.valueOf(DEFAULT_THRESHOLD)));
+        } catch (NumberFormatException ignored) {
+        }
+        double expected = baseline.getAsJsonObject(aName).get("nsPerOp").getAsDouble();
+        double change = (aNsPerOp - expected) / expected;
+        if (change > threshold) {
+            throw new AssertionError(String.format(Locale.US,
+                    "%s.%s regressed by %.1f%% (%.1f ns/op, baseline %.1f ns/op, threshold %.1f%%)",
+                    aSuite, aName, change * 100, aNsPerOp, expected, threshold * 100));
+        }
+    }
+
+    private static JsonObject readReport(@NonNull File aFile) throws IOException {
+        if (!aFile.isFile()) {
+            return null;
+        }
+        try (Reader reader = new FileReader(aFile)) {
+            JsonElement element = JsonParser.parseReader(reader);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid benchmark report " + aFile + ": " + e.getMessage());
+        }
+    }
+}
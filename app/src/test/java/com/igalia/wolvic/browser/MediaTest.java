@@ -0,0 +1,106 @@
+package com.igalia.wolvic.browser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import com.igalia.wolvic.browser.api.WMediaSession;
+import com.igalia.wolvic.browser.api.WSession;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class MediaTest {
+
+    private static final double MAX_ERROR = 0.05;
+
+    // Media does not use the sessions, it only passes them to its listeners.
+    private final WSession mSession = null;
+    private final WMediaSession mMediaSession = null;
+    private ShadowLooper mLooper;
+
+    @Before
+    public void setUp() {
+        mLooper = shadowOf(Looper.getMainLooper());
+        mLooper.idle();
+    }
+
+    private void advance(long aMillis) {
+        // The main looper is paused, so this only moves the clock forward.
+        mLooper.idleFor(Duration.ofMillis(aMillis));
+    }
+
+    private Media playing(double aPosition, double aRate) {
+        Media media = new Media();
+        media.onPlay(mSession, mMediaSession);
+        media.onPositionState(mSession, mMediaSession, new WMediaSession.PositionState(600, aPosition, aRate));
+        return media;
+    }
+
+    @Test
+    public void backgroundMediaDoesNotPostTasks() {
+        List<Media> tabs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tabs.add(playing(i, 1.0));
+        }
+        advance(10_000);
+
+        assertTrue(mLooper.isIdle());
+        assertEquals(Duration.ZERO, mLooper.getNextScheduledTaskTime());
+        for (int i = 0; i < tabs.size(); i++) {
+            assertEquals(i + 10.0, tabs.get(i).getCurrentTime(), MAX_ERROR);
+        }
+    }
+
+    @Test
+    public void extrapolatesAfterSeekAndRateChange() {
+        Media media = playing(0, 1.0);
+        advance(1_500);
+        assertEquals(1.5, media.getCurrentTime(), MAX_ERROR);
+
+        media.onPositionState(mSession, mMediaSession, new WMediaSession.PositionState(600, 120, 1.0));
+        advance(250);
+        assertEquals(120.25, media.getCurrentTime(), MAX_ERROR);
+
+        media.onPositionState(mSession, mMediaSession, new WMediaSession.PositionState(600, media.getCurrentTime(), 2.0));
+        advance(1_000);
+        assertEquals(122.25, media.getCurrentTime(), MAX_ERROR);
+
+        media.onPositionState(mSession, mMediaSession, new WMediaSession.PositionState(600, 30, 0.5));
+        advance(3_000);
+        assertEquals(31.5, media.getCurrentTime(), MAX_ERROR);
+    }
+
+    @Test
+    public void positionStopsWhilePaused() {
+        Media media = playing(10, 1.0);
+        advance(2_000);
+        media.onPause(mSession, mMediaSession);
+        advance(5_000);
+        assertEquals(12.0, media.getCurrentTime(), MAX_ERROR);
+
+        media.onPlay(mSession, mMediaSession);
+        advance(1_000);
+        assertEquals(13.0, media.getCurrentTime(), MAX_ERROR);
+    }
+
+    @Test
+    public void positionStopsAtTheEnd() {
+        Media media = playing(595, 1.0);
+        assertFalse(media.isEnded());
+        advance(10_000);
+        assertEquals(600.0, media.getCurrentTime(), MAX_ERROR);
+        assertTrue(media.isEnded());
+    }
+}
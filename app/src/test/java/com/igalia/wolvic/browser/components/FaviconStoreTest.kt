@@ -0,0 +1,72 @@
+package com.igalia.wolvic.browser.components
+
+import android.graphics.Bitmap
+import com.igalia.wolvic.TestApplication
+import mozilla.components.browser.icons.IconRequest
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(manifest = Config.NONE, application = TestApplication::class)
+class FaviconStoreTest {
+
+    private val small = IconRequest.Size.DEFAULT
+    private val large = IconRequest.Size.LAUNCHER
+
+    private fun bitmap(): Bitmap = Bitmap.createBitmap(16, 16, Bitmap.Config.ARGB_8888)
+
+    private fun empty() = FaviconStore.Record("wolvic.com", arrayOfNulls(IconRequest.Size.values().size), 0)
+
+    @Test
+    fun generatedIconsAreNotStored() {
+        val real = bitmap()
+        val generated = bitmap()
+        val record = empty().with(small, real, false).with(large, generated, true)
+
+        // Both are served from memory...
+        assertSame(real, record.get(small))
+        assertSame(generated, record.get(large))
+        assertFalse(record.isGenerated(small))
+        assertTrue(record.isGenerated(large))
+
+        // ...but only the real one is written.
+        val stored = record.real()
+        assertSame(real, stored.get(small))
+        assertNull(stored.get(large))
+    }
+
+    @Test
+    fun realIconsReplaceGeneratedOnes() {
+        val firstReal = bitmap()
+        val generated = bitmap()
+        val secondReal = bitmap()
+        val record = empty()
+            .with(small, firstReal, false)
+            .with(large, generated, true)
+            .with(large, secondReal, false)
+
+        assertSame(firstReal, record.get(small))
+        assertSame(secondReal, record.get(large))
+        assertFalse(record.isGenerated(small))
+        assertFalse(record.isGenerated(large))
+        assertSame(record, record.real())
+    }
+
+    @Test
+    fun realIconsDropTheGeneratedLargerSizes() {
+        val generated = bitmap()
+        val real = bitmap()
+        val record = empty().with(large, generated, true).with(small, real, false)
+
+        // The generated icon must not be served once there is a real one for the host.
+        assertSame(real, record.get(small))
+        assertNull(record.get(large))
+        assertNull(record.real().get(large))
+    }
+}
@@ -0,0 +1,139 @@
+package com.igalia.wolvic.browser.components
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import mozilla.components.concept.storage.VisitType
+import mozilla.components.feature.top.sites.TopSite
+import mozilla.components.feature.top.sites.TopSitesFrecencyConfig
+import mozilla.components.feature.top.sites.TopSitesProviderConfig
+import mozilla.components.feature.top.sites.TopSitesStorage
+import mozilla.components.support.base.observer.Observable
+import mozilla.components.support.base.observer.ObserverRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class TopSitesRepositoryTest {
+
+    // Stands for the history and the pinned sites, counting the frecency queries.
+    private class FakeTopSitesStorage : TopSitesStorage,
+        Observable<TopSitesStorage.Observer> by ObserverRegistry() {
+
+        val sites = mutableListOf<TopSite>(
+            TopSite.Frecent(1, "Wolvic", "https://wolvic.com", 0),
+            TopSite.Frecent(2, "Igalia", "https://igalia.com", 0)
+        )
+        var queries = 0
+        // When set, queries wait for it to be completed.
+        var gate: CompletableDeferred<Unit>? = null
+
+        override fun addTopSite(title: String, url: String, isDefault: Boolean) {
+            sites.add(0, TopSite.Pinned(sites.size + 1L, title, url, 0))
+            notifyObservers { onStorageUpdated() }
+        }
+
+        override fun removeTopSite(topSite: TopSite) {
+            sites.remove(topSite)
+            notifyObservers { onStorageUpdated() }
+        }
+
+        override fun updateTopSite(topSite: TopSite, title: String, url: String) {
+            removeTopSite(topSite)
+            addTopSite(title, url)
+        }
+
+        override suspend fun getTopSites(
+            totalSites: Int,
+            frecencyConfig: TopSitesFrecencyConfig?,
+            providerConfig: TopSitesProviderConfig?
+        ): List<TopSite> {
+            queries++
+            gate?.await()
+            return sites.take(totalSites)
+        }
+    }
+
+    private class NewTabPage : TopSitesRepository.Listener {
+        val updates = mutableListOf<List<TopSite>>()
+
+        override fun onTopSitesUpdated(topSites: List<TopSite>) {
+            updates.add(topSites)
+        }
+    }
+
+    private lateinit var storage: FakeTopSitesStorage
+    private lateinit var repository: TopSitesRepository
+
+    @Before
+    fun setUp() {
+        storage = FakeTopSitesStorage()
+        repository = TopSitesRepository(
+            { storage },
+            CoroutineScope(Dispatchers.Unconfined),
+            Dispatchers.Unconfined
+        )
+    }
+
+    @Test
+    fun `Opening new tab pages queries the storage once`() {
+        storage.gate = CompletableDeferred()
+        val pages = List(8) { NewTabPage() }
+        pages.forEach { repository.addListener(it) }
+        storage.gate!!.complete(Unit)
+
+        val late = NewTabPage()
+        repository.addListener(late)
+
+        assertEquals(1, storage.queries)
+        (pages + late).forEach {
+            assertEquals(1, it.updates.size)
+            assertEquals(storage.sites, it.updates[0])
+        }
+    }
+
+    @Test
+    fun `Pin changes are published to every page`() {
+        val pages = List(3) { NewTabPage() }
+        pages.forEach { repository.addListener(it) }
+
+        repository.addPinnedSite("Example", "https://example.com")
+
+        assertEquals(2, storage.queries)
+        pages.forEach {
+            assertEquals(2, it.updates.size)
+            assertEquals("https://example.com", it.updates[1][0].url)
+        }
+    }
+
+    @Test
+    fun `Changes without listeners are computed by the next one`() {
+        val page = NewTabPage()
+        repository.addListener(page)
+        repository.removeListener(page)
+
+        repository.invalidate()
+        repository.invalidate()
+        assertEquals(1, storage.queries)
+
+        repository.addListener(page)
+        assertEquals(2, storage.queries)
+    }
+
+    @Test
+    fun `Only visits that can add a page to the list are relevant`() {
+        // Nothing to update before the list is computed.
+        assertFalse(repository.canAdd("https://example.com", VisitType.LINK))
+
+        repository.addListener(NewTabPage())
+
+        assertTrue(repository.canAdd("https://example.com", VisitType.LINK))
+        assertTrue(repository.canAdd("https://example.com", VisitType.TYPED))
+        assertFalse(repository.canAdd("https://example.com", VisitType.RELOAD))
+        assertFalse(repository.canAdd("https://example.com", VisitType.REDIRECT_TEMPORARY))
+        assertFalse(repository.canAdd("https://wolvic.com", VisitType.LINK))
+        assertFalse(repository.canAdd("about:blank", VisitType.TYPED))
+    }
+}
@@ -0,0 +1,95 @@
+package com.igalia.wolvic.browser.engine;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import android.app.Activity;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Session lookups in the {@link SessionStore}, which the UI does on most tab and navigation events.
+ * The store is filled with suspended sessions, so no runtime is needed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class SessionStoreBenchmark {
+
+    private static final int SESSIONS = 100;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private List<Session> mSessions;
+    private String[] mIds;
+    private String[] mUris;
+    private int mNext;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        SessionChangeListener listener = mock(SessionChangeListener.class, withSettings().stubOnly());
+
+        // SessionStore.initialize() needs a runtime, so the sessions are added directly.
+        Field field = SessionStore.class.getDeclaredField("mSessions");
+        field.setAccessible(true);
+        mSessions = (List<Session>) field.get(SessionStore.get());
+
+        mIds = new String[SESSIONS];
+        mUris = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            SessionState state = new SessionState();
+            state.mUri = "https://www.example" + i + ".com/index.html";
+            state.mTitle = "Example " + i;
+            state.mLastUse = (i * 7919L) % SESSIONS;
+            state.mSettings = new SessionSettings.Builder().withPrivateBrowsing(i % 10 == 0).build();
+            Session session = Session.createSuspendedSession(activity, null, state, listener);
+            mSessions.add(session);
+            mIds[i] = session.getId();
+            mUris[i] = state.mUri;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (Session session : new ArrayList<>(mSessions)) {
+            session.shutdown();
+        }
+        mSessions.clear();
+    }
+
+    @Test
+    public void getSession() throws Exception {
+        mBenchmark.measure(() -> SessionStore.get().getSession(mIds[next()]));
+    }
+
+    @Test
+    public void getSessionByUri() throws Exception {
+        mBenchmark.measure(() -> SessionStore.get().getSessionByUri(mUris[next()]));
+    }
+
+    @Test
+    public void getSortedSessions() throws Exception {
+        mBenchmark.measure(() -> SessionStore.get().getSortedSessions(false).size());
+    }
+
+    private int next() {
+        mNext = (mNext + 37) % SESSIONS;
+        return mNext;
+    }
+}
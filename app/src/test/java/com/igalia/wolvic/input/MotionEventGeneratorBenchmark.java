@@ -0,0 +1,56 @@
+package com.igalia.wolvic.input;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.ui.widgets.Widget;
+import com.igalia.wolvic.ui.widgets.WidgetManagerDelegate;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Dispatch of the controller pointer to the widgets, which runs for every controller on every frame.
+ * Each operation is a pointer moving over two widgets, with a click on the second one.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class MotionEventGeneratorBenchmark {
+
+    private static final int DEVICE = 0;
+    private static final int FRAMES = 30;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private WidgetManagerDelegate mWidgetManager;
+    private Widget mFirstWidget;
+    private Widget mSecondWidget;
+
+    @Before
+    public void setUp() {
+        // Stub only mocks don't record the invocations, which would grow without bounds.
+        mWidgetManager = mock(WidgetManagerDelegate.class, withSettings().stubOnly());
+        mFirstWidget = mock(Widget.class, withSettings().stubOnly());
+        mSecondWidget = mock(Widget.class, withSettings().stubOnly());
+    }
+
+    @Test
+    public void dispatch() throws Exception {
+        mBenchmark.measure(() -> {
+            for (int frame = 0; frame < FRAMES; frame++) {
+                Widget widget = frame < FRAMES / 2 ? mFirstWidget : mSecondWidget;
+                boolean pressed = frame >= FRAMES - 10 && frame < FRAMES - 5;
+                MotionEventGenerator.dispatch(mWidgetManager, widget, DEVICE, true, pressed, frame * 10.0f, 100.0f);
+            }
+            MotionEventGenerator.dispatch(mWidgetManager, null, DEVICE, true, false, 0, 0);
+            return null;
+        });
+    }
+}
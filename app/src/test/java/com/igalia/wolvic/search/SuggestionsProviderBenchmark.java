@@ -0,0 +1,86 @@
+package com.igalia.wolvic.search;
+
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.search.suggestions.SuggestionsProvider;
+import com.igalia.wolvic.ui.widgets.SuggestionsWidget.SuggestionItem;
+import com.igalia.wolvic.ui.widgets.SuggestionsWidget.SuggestionItem.Type;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replays what {@link SuggestionsProvider#getSuggestions()} does with the results of each source,
+ * without the executors: search engine suggestions, then up to 100 bookmarks and 100 history items,
+ * sorting after each source and removing duplicated URLs at the end.
+ */
+public class SuggestionsProviderBenchmark {
+
+    private static final int SEARCH_SUGGESTIONS = 10;
+    private static final int BOOKMARKS = 100;
+    private static final int HISTORY = 100;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private final Comparator<SuggestionItem> mComparator = new SuggestionsProvider.DefaultSuggestionsComparator();
+    private List<SuggestionItem> mSearchSuggestions;
+    private List<SuggestionItem> mBookmarks;
+    private List<SuggestionItem> mHistory;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        mSearchSuggestions = createItems(random, Type.SUGGESTION, SEARCH_SUGGESTIONS);
+        mBookmarks = createItems(random, Type.BOOKMARK, BOOKMARKS);
+        mHistory = createItems(random, Type.HISTORY, HISTORY);
+    }
+
+    @Test
+    public void sort() throws Exception {
+        List<SuggestionItem> all = new ArrayList<>();
+        all.addAll(mSearchSuggestions);
+        all.addAll(mBookmarks);
+        all.addAll(mHistory);
+        mBenchmark.measure(() -> {
+            List<SuggestionItem> items = new ArrayList<>(all);
+            items.sort(mComparator);
+            return items.get(0);
+        });
+    }
+
+    @Test
+    public void mergeAndRemoveDuplicates() throws Exception {
+        mBenchmark.measure(() -> {
+            List<SuggestionItem> items = new ArrayList<>(mSearchSuggestions);
+            items.sort(mComparator);
+            items.addAll(mBookmarks);
+            items.sort(mComparator);
+            items.addAll(mHistory);
+            items.sort(mComparator);
+
+            items.sort(mComparator);
+            Set<String> urls = new HashSet<>();
+            return items.stream().filter(item -> urls.add(item.url)).collect(Collectors.toList());
+        });
+    }
+
+    private static List<SuggestionItem> createItems(Random aRandom, Type aType, int aCount) {
+        List<SuggestionItem> items = new ArrayList<>(aCount);
+        for (int i = 0; i < aCount; i++) {
+            // Sites come from a small range, so sources share URLs and there are duplicates to remove.
+            int site = aRandom.nextInt(aCount * 3);
+            String url = "https://site" + site + ".example.com/page/" + (site % 7);
+            items.add(SuggestionItem.create("Page " + site, url, null, aType, aRandom.nextInt(1000)));
+        }
+        return items;
+    }
+}
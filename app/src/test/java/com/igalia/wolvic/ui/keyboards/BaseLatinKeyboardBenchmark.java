@@ -0,0 +1,96 @@
+package com.igalia.wolvic.ui.keyboards;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.browser.SettingsStore;
+import com.igalia.wolvic.utils.DictionaryUtils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Random;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class BaseLatinKeyboardBenchmark {
+
+    private static final int DICTIONARY_WORDS = 5000;
+    // Typing a few words one letter at a time, as the keyboard sees them.
+    private static final String[] WORDS = { "virtual", "reality", "browser", "wolvic", "keyboard", "the" };
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private EnglishKeyboard mKeyboard;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        SettingsStore.getInstance(context).setLatinAutoComplete(true);
+        createDictionary(context);
+
+        mKeyboard = new EnglishKeyboard(context);
+        // Loads the keyboard layout and the dictionary.
+        mKeyboard.getAlphabeticKeyboard();
+    }
+
+    @Test
+    public void getCandidates() throws Exception {
+        mBenchmark.measure(() -> {
+            int count = 0;
+            for (String word : WORDS) {
+                for (int i = 1; i <= word.length(); i++) {
+                    KeyboardInterface.CandidatesResult result = mKeyboard.getCandidates(word.substring(0, i));
+                    count += result != null ? result.words.size() : 0;
+                }
+            }
+            return count;
+        });
+    }
+
+    private static void createDictionary(Context aContext) {
+        File file = aContext.getDatabasePath(DictionaryUtils.getExternalDicFullName(Locale.ENGLISH.toString()));
+        if (file.exists()) {
+            return;
+        }
+        file.getParentFile().mkdirs();
+        try (SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(file, null)) {
+            db.execSQL("CREATE TABLE autocorrect (word TEXT, originalFreq INTEGER)");
+            db.beginTransaction();
+            try {
+                Random random = new Random(42);
+                ContentValues values = new ContentValues();
+                for (String word : WORDS) {
+                    values.put("word", word);
+                    values.put("originalFreq", 255);
+                    db.insert("autocorrect", null, values);
+                }
+                for (int i = 0; i < DICTIONARY_WORDS; i++) {
+                    StringBuilder word = new StringBuilder();
+                    int length = 2 + random.nextInt(9);
+                    for (int k = 0; k < length; k++) {
+                        word.append((char) ('a' + random.nextInt(26)));
+                    }
+                    values.put("word", word.toString());
+                    values.put("originalFreq", random.nextInt(255));
+                    db.insert("autocorrect", null, values);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.igalia.wolvic.ui.keyboards;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.LruCache;
+
+import com.igalia.wolvic.TestApplication;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class KeyboardDictionariesTest {
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mFile = new File(mFolder.getRoot(), "xx_XX_wordlist.db");
+        createDictionary(mFile);
+    }
+
+    private static void createDictionary(File aFile) {
+        SQLiteDatabase database = SQLiteDatabase.openOrCreateDatabase(aFile, null);
+        database.execSQL("CREATE TABLE IF NOT EXISTS words (word TEXT)");
+        database.close();
+    }
+
+    @Test
+    public void databasesAreShared() {
+        SQLiteDatabase database = KeyboardDictionaries.get().getDatabase(mFile);
+        assertTrue(database.isOpen());
+        assertSame(database, KeyboardDictionaries.get().getDatabase(mFile));
+        assertNull(KeyboardDictionaries.get().getDatabase(new File(mFolder.getRoot(), "missing.db")));
+    }
+
+    @Test
+    public void downloadedDictionariesAreReopened() {
+        SQLiteDatabase database = KeyboardDictionaries.get().getDatabase(mFile);
+        LruCache<String, String> cache = KeyboardDictionaries.get().getCache("xx_XX");
+        cache.put("wor", "word");
+
+        KeyboardDictionaries.get().onDictionaryChanged(mFile, "xx_XX");
+        assertFalse(database.isOpen());
+        assertEquals(0, cache.size());
+        assertNotSame(database, KeyboardDictionaries.get().getDatabase(mFile));
+    }
+
+    @Test
+    public void modifiedDictionariesAreReopened() {
+        SQLiteDatabase database = KeyboardDictionaries.get().getDatabase(mFile);
+        LruCache<String, String> cache = KeyboardDictionaries.get().getCache("xx_XX");
+        cache.put("wor", "word");
+
+        assertTrue(mFile.setLastModified(mFile.lastModified() - 60_000));
+        SQLiteDatabase reopened = KeyboardDictionaries.get().getDatabase(mFile);
+        assertNotSame(database, reopened);
+        assertFalse(database.isOpen());
+        assertTrue(reopened.isOpen());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.igalia.wolvic.ui.widgets;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.browser.engine.SessionSettings;
+import com.igalia.wolvic.browser.engine.SessionState;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+
+/**
+ * Serialization of the tabs saved by {@link Windows} when the windows state is stored, which
+ * happens on every pause of the app. Uses the same Gson configuration as Windows.
+ */
+public class WindowsStateBenchmark {
+
+    private static final int TABS = 50;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private final Type mType = new TypeToken<ArrayList<SessionState>>() {}.getType();
+    private ArrayList<SessionState> mTabs;
+    private String mJson;
+
+    @Before
+    public void setUp() {
+        mTabs = new ArrayList<>(TABS);
+        for (int i = 0; i < TABS; i++) {
+            SessionState state = new SessionState();
+            state.mUri = "https://www.example" + i + ".com/articles/virtual-reality?page=" + i;
+            state.mTitle = "Example article " + i + " - Virtual reality on the web";
+            state.mPreviousUri = "https://www.example" + i + ".com/";
+            state.mLastUse = 1700000000000L + i;
+            state.mSettings = new SessionSettings.Builder().withSuspendMediaWhenInactive(true).build();
+            mTabs.add(state);
+        }
+        mJson = new GsonBuilder().setPrettyPrinting().create().toJson(mTabs, mType);
+    }
+
+    @Test
+    public void save() throws Exception {
+        mBenchmark.measure(() -> {
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            return gson.toJson(mTabs, mType).length();
+        });
+    }
+
+    @Test
+    public void restore() throws Exception {
+        mBenchmark.measure(() -> {
+            Gson gson = new GsonBuilder().create();
+            ArrayList<SessionState> tabs = gson.fromJson(mJson, mType);
+            return tabs.size();
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.igalia.wolvic.ui.widgets.prompts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.igalia.wolvic.browser.api.WSession.PromptDelegate.ChoicePrompt.Choice;
+
+import org.junit.Test;
+
+public class ChoiceListTest {
+
+    private static class TestChoice implements Choice {
+        private final String mLabel;
+        private final boolean mSelected;
+        private final Choice[] mItems;
+
+        TestChoice(String aLabel, boolean aSelected, Choice... aItems) {
+            mLabel = aLabel;
+            mSelected = aSelected;
+            mItems = aItems.length > 0 ? aItems : null;
+        }
+
+        @Override
+        public boolean disabled() {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public String icon() {
+            return null;
+        }
+
+        @NonNull
+        @Override
+        public String id() {
+            return mLabel;
+        }
+
+        @Nullable
+        @Override
+        public Choice[] items() {
+            return mItems;
+        }
+
+        @NonNull
+        @Override
+        public String label() {
+            return mLabel;
+        }
+
+        @Override
+        public boolean selected() {
+            return mSelected;
+        }
+
+        @Override
+        public boolean separator() {
+            return false;
+        }
+    }
+
+    private static Choice choice(String aLabel) {
+        return new TestChoice(aLabel, false);
+    }
+
+    private final ChoiceList mList = new ChoiceList(new Choice[]{
+            choice("Andorra"),
+            new TestChoice("Europe", false,
+                    choice("France"),
+                    new TestChoice("Spain", true),
+                    choice("Portugal")),
+            new TestChoice("Americas", false,
+                    choice("Canada"),
+                    choice("Panama")),
+            choice("Antarctica"),
+    });
+
+    private String visibleLabels() {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < mList.getCount(); i++) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(mList.get(mList.getPosition(i)).label());
+        }
+        return labels.toString();
+    }
+
+    @Test
+    public void flattensGroupsInOrder() {
+        assertEquals(9, mList.getCount());
+        assertEquals("Andorra,Europe,France,Spain,Portugal,Americas,Canada,Panama,Antarctica", visibleLabels());
+        assertTrue(mList.isGroup(5));
+        assertFalse(mList.isGroup(6));
+        assertEquals(3, mList.getInitialSelection().nextSetBit(0));
+    }
+
+    @Test
+    public void resolvesPositionsInAnyOrder() {
+        ChoiceList list = new ChoiceList(new Choice[]{
+                new TestChoice("Group", false, choice("One"), choice("Two")),
+                choice("Three"),
+        });
+        assertEquals("Three", list.get(3).label());
+        assertEquals("Two", list.get(2).label());
+        assertEquals("Group", list.get(0).label());
+    }
+
+    @Test
+    public void filtersItemsAndKeepsTheirGroups() {
+        assertTrue(mList.setFilter("an"));
+        assertEquals("Andorra,Europe,France,Americas,Canada,Panama,Antarctica", visibleLabels());
+
+        assertTrue(mList.setFilter("ana"));
+        assertEquals("Americas,Canada,Panama", visibleLabels());
+        assertEquals(-1, mList.indexOf(0));
+        assertEquals(2, mList.indexOf(7));
+
+        assertFalse(mList.setFilter(" ANA "));
+
+        assertTrue(mList.setFilter("p"));
+        assertEquals("Europe,Spain,Portugal,Americas,Panama", visibleLabels());
+
+        assertTrue(mList.setFilter(""));
+        assertEquals(9, mList.getCount());
+        assertEquals(4, mList.indexOf(4));
+    }
+}
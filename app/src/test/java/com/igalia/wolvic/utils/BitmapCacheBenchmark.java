@@ -0,0 +1,81 @@
+package com.igalia.wolvic.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Tab snapshots stored and read back from the {@link BitmapCache}. Both executors run tasks in
+ * place, so storing a snapshot includes the PNG encode and the disk write.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class BitmapCacheBenchmark {
+
+    private static final int SESSIONS = 32;
+    private static final int SNAPSHOT_WIDTH = 256;
+    private static final int SNAPSHOT_HEIGHT = 144;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private BitmapCache mCache;
+    private Bitmap mBitmap;
+    private String[] mKeys;
+    private int mNext;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        Executor direct = Runnable::run;
+        mCache = new BitmapCache(context, direct, direct);
+        mCache.onCreate();
+
+        mBitmap = Bitmap.createBitmap(SNAPSHOT_WIDTH, SNAPSHOT_HEIGHT, Bitmap.Config.ARGB_8888);
+        mBitmap.eraseColor(Color.DKGRAY);
+        mKeys = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            mKeys[i] = "session-" + i;
+            mCache.addBitmap(mKeys[i], mBitmap);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        mCache.onDestroy();
+    }
+
+    @Test
+    public void addBitmap() throws Exception {
+        mBenchmark.measure(() -> {
+            String key = nextKey();
+            mCache.addBitmap(key, mBitmap);
+            return key;
+        });
+    }
+
+    @Test
+    public void getBitmap() throws Exception {
+        mBenchmark.measure(() -> mCache.getBitmap(nextKey()).get());
+    }
+
+    private String nextKey() {
+        mNext = (mNext + 1) % SESSIONS;
+        return mKeys[mNext];
+    }
+}
@@ -0,0 +1,55 @@
+package com.igalia.wolvic.utils;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.nio.file.Files;
+
+/**
+ * What loading a face of a downloaded environment costs before and after it is transcoded: a full
+ * size JPG face is decoded to RGBA, while its transcoded KTX face is read as it is uploaded.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class EnvironmentTranscoderBenchmark {
+
+    private static final int FACE_SIZE = 1024;
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    private File mJpgFace;
+    private File mKtxFace;
+
+    @Before
+    public void setUp() throws Exception {
+        File source = mFolder.newFolder("source");
+        File target = new File(mFolder.getRoot(), "target");
+        EnvironmentTranscoderTest.writeFaces(source, "", "jpg", FACE_SIZE);
+        EnvironmentTranscoder.transcode(source, target, EnvironmentTranscoderTest.IMAGE_IO_DECODER);
+        mJpgFace = new File(source, "posx.jpg");
+        mKtxFace = new File(target, "posx.ktx");
+    }
+
+    @Test
+    public void decodeJpgFace() throws Exception {
+        mBenchmark.measure(() -> EnvironmentTranscoderTest.IMAGE_IO_DECODER.decode(mJpgFace));
+    }
+
+    @Test
+    public void readKtxFace() throws Exception {
+        mBenchmark.measure(() -> Files.readAllBytes(mKtxFace.toPath()));
+    }
+}
@@ -0,0 +1,254 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.igalia.wolvic.TestApplication;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class EnvironmentTranscoderTest {
+
+    private static final String[] FACES = {"posx", "negx", "posy", "negy", "posz", "negz"};
+    private static final int[][] MODIFIER_TABLES = {
+            {2, 8, -2, -8}, {5, 17, -5, -17}, {9, 29, -9, -29}, {13, 42, -13, -42},
+            {18, 60, -18, -60}, {24, 80, -24, -80}, {33, 106, -33, -106}, {47, 183, -47, -183}
+    };
+
+    // Decodes the faces with ImageIO, as BitmapFactory is not available on the host.
+    static final EnvironmentTranscoder.FaceDecoder IMAGE_IO_DECODER = file -> {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            return null;
+        }
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        return new EnvironmentTranscoder.Face(image.getWidth(), image.getHeight(), pixels);
+    };
+
+    @Rule
+    public final TemporaryFolder mFolder = new TemporaryFolder();
+
+    static int[] createFace(int size, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int red = x * 255 / size;
+                int green = y * 255 / size;
+                int blue = Math.min(255, Math.max(0, 128 + random.nextInt(32) - 16));
+                pixels[y * size + x] = 0xFF000000 | (red << 16) | (green << 8) | blue;
+            }
+        }
+        return pixels;
+    }
+
+    static void writeFaces(File directory, String colorSpace, String format, int size) throws IOException {
+        for (int i = 0; i < FACES.length; i++) {
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(0, 0, size, size, createFace(size, i), 0, size);
+            ImageIO.write(image, format, new File(directory, FACES[i] + colorSpace + "." + format));
+        }
+    }
+
+    // Reference decoder of the individual and differential modes.
+    static int[] decodeEtc(byte[] data, int width, int height) {
+        int[] pixels = new int[width * height];
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+        for (int by = 0; by < height; by += 4) {
+            for (int bx = 0; bx < width; bx += 4) {
+                long block = buffer.getLong();
+                boolean differential = ((block >>> 33) & 1) != 0;
+                boolean flip = ((block >>> 32) & 1) != 0;
+                int[][] colors = new int[2][3];
+                for (int c = 0; c < 3; c++) {
+                    int shift = 56 - c * 8;
+                    if (differential) {
+                        int base = (int) ((block >>> (shift + 3)) & 0x1F);
+                        int delta = (int) ((block >>> shift) & 0x7);
+                        delta = delta >= 4 ? delta - 8 : delta;
+                        int second = base + delta;
+                        assertTrue(second >= 0 && second <= 31);
+                        colors[0][c] = (base << 3) | (base >> 2);
+                        colors[1][c] = (second << 3) | (second >> 2);
+                    } else {
+                        int first = (int) ((block >>> (shift + 4)) & 0xF);
+                        int second = (int) ((block >>> shift) & 0xF);
+                        colors[0][c] = (first << 4) | first;
+                        colors[1][c] = (second << 4) | second;
+                    }
+                }
+                int[] tables = {(int) ((block >>> 37) & 7), (int) ((block >>> 34) & 7)};
+                for (int x = 0; x < 4; x++) {
+                    for (int y = 0; y < 4; y++) {
+                        int index = x * 4 + y;
+                        int subBlock = flip ? y / 2 : x / 2;
+                        int selector = (int) (((block >>> (16 + index)) & 1) << 1 | ((block >>> index) & 1));
+                        int modifier = MODIFIER_TABLES[tables[subBlock]][selector];
+                        int pixel = 0xFF000000;
+                        for (int c = 0; c < 3; c++) {
+                            pixel |= Math.min(255, Math.max(0, colors[subBlock][c] + modifier)) << (16 - c * 8);
+                        }
+                        pixels[(by + y) * width + bx + x] = pixel;
+                    }
+                }
+            }
+        }
+        return pixels;
+    }
+
+    static double psnr(int[] expected, int[] actual) {
+        double error = 0;
+        for (int i = 0; i < expected.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int delta = ((expected[i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF);
+                error += delta * delta;
+            }
+        }
+        double mse = error / (expected.length * 3.0);
+        return mse == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255 * 255 / mse);
+    }
+
+    @Test
+    public void encodedBlocksDecodeCloseToTheSource() {
+        int size = 64;
+        int[] face = createFace(size, 1);
+        byte[] data = EnvironmentTranscoder.encodeEtc2(face, size, size);
+        assertEquals(size * size / 2, data.length);
+        assertTrue(psnr(face, decodeEtc(data, size, size)) > 32);
+
+        int[] solid = new int[16 * 16];
+        Arrays.fill(solid, 0xFF336699);
+        int[] decoded = decodeEtc(EnvironmentTranscoder.encodeEtc2(solid, 16, 16), 16, 16);
+        assertTrue(psnr(solid, decoded) > 36);
+
+        // Sharp edges between the sub blocks need the individual mode.
+        int[] edges = new int[16 * 16];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = (i % 16) % 4 < 2 ? 0xFF000000 : 0xFFFFFFFF;
+        }
+        assertTrue(psnr(edges, decodeEtc(EnvironmentTranscoder.encodeEtc2(edges, 16, 16), 16, 16)) > 30);
+    }
+
+    @Test
+    public void writesKtxFacesLikeTheBuiltinOnes() throws IOException {
+        byte[] data = new byte[8 * 8 / 2];
+        for (boolean srgb : new boolean[]{false, true}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            EnvironmentTranscoder.writeKtx(out, data, 8, 8, srgb);
+            byte[] ktx = out.toByteArray();
+            assertEquals(12 + 13 * 4 + 4 + data.length, ktx.length);
+            assertArrayEquals(new byte[]{(byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'},
+                    Arrays.copyOf(ktx, 12));
+            ByteBuffer header = ByteBuffer.wrap(ktx, 12, 14 * 4).order(ByteOrder.LITTLE_ENDIAN);
+            int[] expected = {0x04030201, 0, 1, 0, srgb ? 0x9275 : 0x9274, 0x1907, 8, 8, 0, 0, 1, 1, 0, data.length};
+            for (int value : expected) {
+                assertEquals(value, header.getInt());
+            }
+        }
+    }
+
+    @Test
+    public void transcodesEveryColorSpace() throws IOException {
+        File source = mFolder.newFolder("source");
+        File target = new File(mFolder.getRoot(), "target");
+        writeFaces(source, "", "png", 32);
+        writeFaces(source, "_srgb", "jpg", 32);
+
+        EnvironmentTranscoder.Result result = EnvironmentTranscoder.transcode(source, target, IMAGE_IO_DECODER);
+        assertNotNull(result);
+        assertEquals(12, result.faces);
+        assertEquals(12 * 32 * 32 * 4, result.uncompressedBytes);
+        assertEquals(12 * 32 * 32 / 2, result.compressedBytes);
+        for (String face : FACES) {
+            byte[] ktx = Files.readAllBytes(new File(target, face + ".ktx").toPath());
+            assertEquals(0x9274, ByteBuffer.wrap(ktx, 28, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+            ktx = Files.readAllBytes(new File(target, face + "_srgb.ktx").toPath());
+            assertEquals(0x9275, ByteBuffer.wrap(ktx, 28, 4).order(ByteOrder.LITTLE_ENDIAN).getInt());
+        }
+        assertFalse(new File(target.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void environmentsWithKtxFacesAreNotTranscoded() throws IOException {
+        File source = mFolder.newFolder("source");
+        for (String face : FACES) {
+            assertTrue(new File(source, face + ".ktx").createNewFile());
+        }
+        writeFaces(source, "", "png", 8);
+        File target = new File(mFolder.getRoot(), "target");
+
+        assertNull(EnvironmentTranscoder.transcode(source, target, IMAGE_IO_DECODER));
+        assertFalse(EnvironmentTranscoder.isTranscoded(source, target));
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void transcodedFacesAreUsedUntilTheSourceChanges() throws IOException {
+        File source = mFolder.newFolder("source");
+        File target = new File(mFolder.getRoot(), "wolvic_1");
+        writeFaces(source, "", "png", 16);
+        assertFalse(EnvironmentTranscoder.isTranscoded(source, target));
+
+        assertNotNull(EnvironmentTranscoder.transcode(source, target, IMAGE_IO_DECODER));
+        assertTrue(EnvironmentTranscoder.isTranscoded(source, target));
+        // A cache hit does not decode anything.
+        assertNull(EnvironmentTranscoder.transcode(source, target, file -> {
+            throw new AssertionError("Decoded " + file);
+        }));
+
+        // Another version of the environment has its own faces.
+        assertFalse(EnvironmentTranscoder.isTranscoded(source, new File(mFolder.getRoot(), "wolvic_2")));
+
+        // The environment was unzipped again.
+        File face = new File(source, "negy.png");
+        assertTrue(face.setLastModified(face.lastModified() - 10000));
+        assertFalse(EnvironmentTranscoder.isTranscoded(source, target));
+        assertNotNull(EnvironmentTranscoder.transcode(source, target, IMAGE_IO_DECODER));
+        assertTrue(EnvironmentTranscoder.isTranscoded(source, target));
+
+        // A face of the cache went missing.
+        assertTrue(new File(target, "posz.ktx").delete());
+        assertFalse(EnvironmentTranscoder.isTranscoded(source, target));
+    }
+
+    @Test
+    public void failuresLeaveNoTranscodedFaces() throws IOException {
+        File source = mFolder.newFolder("source");
+        File target = new File(mFolder.getRoot(), "target");
+        writeFaces(source, "", "png", 16);
+
+        assertNull(EnvironmentTranscoder.transcode(source, target, file ->
+                file.getName().startsWith("posz") ? null : IMAGE_IO_DECODER.decode(file)));
+        assertFalse(target.exists());
+        assertFalse(new File(target.getPath() + ".tmp").exists());
+
+        // Sizes that are not multiples of the block size can't be encoded.
+        source = mFolder.newFolder("odd");
+        writeFaces(source, "", "png", 10);
+        assertNull(EnvironmentTranscoder.transcode(source, target, IMAGE_IO_DECODER));
+        assertFalse(target.exists());
+    }
+}
@@ -0,0 +1,90 @@
+package com.igalia.wolvic.utils;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.igalia.wolvic.R;
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+import com.igalia.wolvic.ui.adapters.Language;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures the language catalog work done by the application on every configuration change,
+ * with the cached catalog and with the catalogs rebuilt every time, as they were before, as a
+ * baseline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class LocaleUtilsBenchmark {
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    // What VRBrowserApplication.onConfigurationChanged does.
+    private Object onConfigurationChanged() {
+        Context context = LocaleUtils.init(mContext);
+        return LocaleUtils.getDisplayLanguage(context);
+    }
+
+    // The supported languages, as they were labeled before on every init, update and lookup of the
+    // display language.
+    private static Map<String, Language> legacySupportedLanguages(Context aContext) {
+        Map<String, Language> languages = new LinkedHashMap<>();
+        Locale[] locales = {
+                new Locale("en","US"), new Locale("en","GB"),
+                new Locale.Builder().setLanguage("zh").setScript("Hans").setRegion("CN").build(),
+                new Locale("ja","JP"), new Locale("fr","FR"), new Locale("de","DE"),
+                new Locale("es","ES"), new Locale("es"), new Locale("ru","RU"), new Locale("ko","KR"),
+                new Locale("da","DK"), new Locale("fi","FI"), new Locale("uk","UA"),
+                new Locale("gl", "ES"), new Locale("pt","PT"), new Locale("pt","BR")
+        };
+        int[] displayNames = {
+                R.string.settings_language_english_us, R.string.settings_language_english_uk,
+                R.string.settings_language_simplified_chinese,
+                R.string.settings_language_japanese, R.string.settings_language_french, R.string.settings_language_german,
+                R.string.settings_language_spanish_spain, R.string.settings_language_spanish, R.string.settings_language_russian, R.string.settings_language_korean,
+                R.string.settings_language_danish, R.string.settings_language_finnish, R.string.settings_language_ukrainian,
+                R.string.settings_language_galician, R.string.settings_language_portuguese, R.string.settings_language_portuguese_br
+        };
+        for (int i = 0; i < locales.length; i++) {
+            languages.put(locales[i].toLanguageTag(), new Language(locales[i],
+                    StringUtils.getStringByLocale(aContext, displayNames[i], locales[i])));
+        }
+        return languages;
+    }
+
+    @Test
+    public void configurationChange() throws Exception {
+        mBenchmark.measure(this::onConfigurationChanged);
+    }
+
+    @Test
+    public void configurationChangeLegacyBaseline() throws Exception {
+        mBenchmark.measure(() -> {
+            // init built both catalogs, and getDisplayLanguage the supported languages again.
+            LocaleUtilsTest.legacyLanguages(mContext);
+            legacySupportedLanguages(mContext);
+            legacySupportedLanguages(mContext);
+            return onConfigurationChanged();
+        });
+    }
+}
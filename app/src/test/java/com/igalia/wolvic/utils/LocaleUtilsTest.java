@@ -0,0 +1,87 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.igalia.wolvic.R;
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.ui.adapters.Language;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class LocaleUtilsTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    // The catalog of every available locale, as it was built before on every init and update.
+    static Map<String, Language> legacyLanguages(Context aContext) {
+        Map<String, Language> languages = new LinkedHashMap<>();
+        languages.put(LocaleUtils.DEFAULT_LANGUAGE_ID, new Language(
+                Locale.getDefault(), aContext.getString(R.string.settings_language_follow_device)));
+        Stream.of(Locale.getAvailableLocales())
+                .sorted((o1, o2) -> o1.getDisplayName().compareTo(o2.getDisplayName()))
+                .forEachOrdered(item -> languages.put(item.toLanguageTag(), new Language(item)));
+        return languages;
+    }
+
+    private static List<String> displayNames(List<Language> aLanguages) {
+        return aLanguages.stream().map(Language::getDisplayName).collect(Collectors.toList());
+    }
+
+    private static Language findLanguage(List<Language> aLanguages, String aLanguageTag) {
+        return aLanguages.stream()
+                .filter(language -> language.getLanguageTag().equals(aLanguageTag))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    @Test
+    public void catalogMatchesLegacyOrder() {
+        LocaleUtils.init(mContext);
+        List<Language> legacy = new ArrayList<>(legacyLanguages(mContext).values());
+        List<Language> languages = LocaleUtils.getAvailableLanguages(mContext);
+
+        assertEquals(displayNames(legacy.subList(1, legacy.size())), displayNames(languages.subList(1, languages.size())));
+    }
+
+    @Test
+    public void displayNamesFollowTheDisplayLanguage() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            LocaleUtils.init(mContext);
+            Locale.setDefault(Locale.US);
+            Language german = findLanguage(LocaleUtils.getAvailableLanguages(mContext), "de-DE");
+            assertEquals(StringUtils.capitalize(Locale.GERMANY.getDisplayName(Locale.US)) + " [de-DE]", german.getDisplayName());
+
+            Locale.setDefault(Locale.FRANCE);
+            Language relabeled = findLanguage(LocaleUtils.getAvailableLanguages(mContext), "de-DE");
+            assertSame(german, relabeled);
+            assertEquals(StringUtils.capitalize(Locale.GERMANY.getDisplayName(Locale.FRANCE)) + " [de-DE]", relabeled.getDisplayName());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
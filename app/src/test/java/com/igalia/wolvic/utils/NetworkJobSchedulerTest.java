@@ -0,0 +1,325 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.igalia.wolvic.TestApplication;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class NetworkJobSchedulerTest {
+
+    private static class FakeConnectivity extends ConnectivityReceiver {
+        boolean connected = true;
+        boolean metered;
+
+        FakeConnectivity(@NonNull Context aContext) {
+            super(aContext);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public boolean isMetered() {
+            return metered;
+        }
+    }
+
+    // Runs the scheduled tasks on the main looper, whose clock is moved forward by the tests.
+    private static class LooperScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        private class Task extends FutureTask<Void> implements ScheduledFuture<Void> {
+            private final long mTime;
+
+            Task(@NonNull Runnable aCommand, long aTime) {
+                super(aCommand, null);
+                mTime = aTime;
+            }
+
+            @Override
+            public long getDelay(@NonNull TimeUnit aUnit) {
+                return aUnit.convert(mTime - SystemClock.uptimeMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public int compareTo(@NonNull Delayed aOther) {
+                return Long.compare(getDelay(TimeUnit.MILLISECONDS), aOther.getDelay(TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public boolean cancel(boolean aMayInterruptIfRunning) {
+                mHandler.removeCallbacks(this);
+                return super.cancel(aMayInterruptIfRunning);
+            }
+        }
+
+        @NonNull
+        @Override
+        public ScheduledFuture<?> schedule(@NonNull Runnable aCommand, long aDelay, @NonNull TimeUnit aUnit) {
+            long delay = aUnit.toMillis(aDelay);
+            Task task = new Task(aCommand, SystemClock.uptimeMillis() + delay);
+            mHandler.postDelayed(task, delay);
+            return task;
+        }
+
+        @NonNull
+        @Override
+        public <V> ScheduledFuture<V> schedule(@NonNull Callable<V> aCallable, long aDelay, @NonNull TimeUnit aUnit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @NonNull
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(@NonNull Runnable aCommand, long aInitialDelay, long aPeriod, @NonNull TimeUnit aUnit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @NonNull
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(@NonNull Runnable aCommand, long aInitialDelay, long aDelay, @NonNull TimeUnit aUnit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(@NonNull Runnable aCommand) {
+            mHandler.post(aCommand);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @NonNull
+        @Override
+        public List<Runnable> shutdownNow() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long aTimeout, @NonNull TimeUnit aUnit) {
+            return false;
+        }
+    }
+
+    private static class CountingJob implements NetworkJobScheduler.Job {
+        int runs;
+        int failures;
+        boolean fail;
+        Exception error;
+
+        @Override
+        public void run() throws Exception {
+            runs++;
+            if (fail) {
+                throw new Exception("Failure " + runs);
+            }
+        }
+
+        @Override
+        public void onFailed(@NonNull Exception aError) {
+            failures++;
+            error = aError;
+        }
+    }
+
+    private ShadowLooper mLooper;
+    private FakeConnectivity mConnectivity;
+    private NetworkJobScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mLooper = shadowOf(Looper.getMainLooper());
+        mConnectivity = new FakeConnectivity(ApplicationProvider.getApplicationContext());
+        // Jobs run synchronously, in the thread that dispatches them.
+        mScheduler = new NetworkJobScheduler(mConnectivity, Runnable::run, new LooperScheduler());
+        mScheduler.init();
+    }
+
+    @After
+    public void tearDown() {
+        mScheduler.end();
+    }
+
+    private void advance(long aMillis) {
+        mLooper.idleFor(Duration.ofMillis(aMillis));
+    }
+
+    private void setConnected(boolean aConnected) {
+        mConnectivity.connected = aConnected;
+        mScheduler.OnConnectivityChanged(aConnected);
+    }
+
+    @Test
+    public void jobsWithTheSameKeyAreMerged() {
+        setConnected(false);
+        CountingJob first = new CountingJob();
+        CountingJob second = new CountingJob();
+        assertTrue(mScheduler.schedule("props", 0, first));
+        assertFalse(mScheduler.schedule("props", 0, second));
+        assertEquals(0, first.runs);
+
+        setConnected(true);
+        assertEquals(1, first.runs);
+        assertEquals(0, second.runs);
+
+        // The key is free again once the job has finished.
+        assertTrue(mScheduler.schedule("props", 0, second));
+        assertEquals(1, second.runs);
+    }
+
+    @Test
+    public void pendingJobsCanBeCancelled() {
+        setConnected(false);
+        CountingJob job = new CountingJob();
+        mScheduler.schedule("region", 0, job);
+        assertFalse(mScheduler.isConnected());
+        assertTrue(mScheduler.cancel("region"));
+        assertFalse(mScheduler.cancel("region"));
+
+        setConnected(true);
+        assertEquals(0, job.runs);
+    }
+
+    @Test
+    public void deferredJobsRunOnceStartupFinishes() {
+        CountingJob deferred = new CountingJob();
+        CountingJob immediate = new CountingJob();
+        mScheduler.schedule("addons", NetworkJobScheduler.FLAG_DEFERRED, deferred);
+        mScheduler.schedule("vosk", 0, immediate);
+        assertEquals(0, deferred.runs);
+        assertEquals(1, immediate.runs);
+
+        mScheduler.onStartupFinished();
+        assertEquals(1, deferred.runs);
+
+        // Later deferred jobs run right away.
+        CountingJob late = new CountingJob();
+        mScheduler.schedule("experiences", NetworkJobScheduler.FLAG_DEFERRED, late);
+        assertEquals(1, late.runs);
+    }
+
+    @Test
+    public void deferredJobsRunAfterTheStartupTimeout() {
+        CountingJob deferred = new CountingJob();
+        mScheduler.schedule("addons", NetworkJobScheduler.FLAG_DEFERRED, deferred);
+
+        advance(14_999);
+        assertEquals(0, deferred.runs);
+        advance(1);
+        assertEquals(1, deferred.runs);
+    }
+
+    @Test
+    public void unmeteredJobsWaitForAnUnmeteredNetwork() {
+        mConnectivity.metered = true;
+        CountingJob unmetered = new CountingJob();
+        CountingJob any = new CountingJob();
+        mScheduler.schedule("addons", NetworkJobScheduler.FLAG_UNMETERED, unmetered);
+        mScheduler.schedule("props", 0, any);
+        assertEquals(0, unmetered.runs);
+        assertEquals(1, any.runs);
+
+        // Still metered after a reconnection.
+        setConnected(true);
+        assertEquals(0, unmetered.runs);
+
+        mConnectivity.metered = false;
+        setConnected(true);
+        assertEquals(1, unmetered.runs);
+    }
+
+    @Test
+    public void failedJobsAreRetriedWithBackoff() {
+        CountingJob job = new CountingJob();
+        job.fail = true;
+        mScheduler.schedule("props", 0, job);
+        assertEquals(1, job.runs);
+
+        long backoff = 30_000;
+        for (int attempt = 2; attempt <= 6; attempt++) {
+            advance(backoff - 1);
+            assertEquals(attempt - 1, job.runs);
+            advance(1);
+            assertEquals(attempt, job.runs);
+            backoff *= 2;
+        }
+
+        // The last attempt failed, so the job is dropped and reported.
+        assertEquals(1, job.failures);
+        assertEquals("Failure 6", job.error.getMessage());
+        advance(TimeUnit.HOURS.toMillis(2));
+        assertEquals(6, job.runs);
+        assertTrue(mScheduler.schedule("props", 0, new CountingJob()));
+    }
+
+    @Test
+    public void retriesWaitForTheNetwork() {
+        CountingJob job = new CountingJob();
+        job.fail = true;
+        mScheduler.schedule("props", 0, job);
+        job.fail = false;
+
+        setConnected(false);
+        advance(60_000);
+        assertEquals(1, job.runs);
+
+        setConnected(true);
+        assertEquals(2, job.runs);
+        assertNull(job.error);
+    }
+
+    @Test
+    public void jobsWithoutRetryFailOnce() {
+        CountingJob job = new CountingJob();
+        job.fail = true;
+        mScheduler.schedule("vosk", NetworkJobScheduler.FLAG_NO_RETRY, job);
+        assertEquals(1, job.runs);
+        assertEquals(1, job.failures);
+
+        advance(TimeUnit.HOURS.toMillis(2));
+        assertEquals(1, job.runs);
+    }
+}
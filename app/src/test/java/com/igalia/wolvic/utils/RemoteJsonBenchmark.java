@@ -0,0 +1,72 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.igalia.wolvic.benchmark.BenchmarkRule;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Parses a large synthetic experiences payload with the shared {@link RemoteJson} adapters, and
+ * with a new reflective Gson instance per payload, which is how it was parsed before, as a
+ * baseline.
+ */
+public class RemoteJsonBenchmark {
+
+    private static final int CATEGORIES = 40;
+    private static final int EXPERIENCES_PER_CATEGORY = 50;
+    private static final String[] LANGUAGES = {"en", "es", "fr", "de", "it", "ja", "ko", "zh-CN", "pt", "nl"};
+
+    @Rule
+    public final BenchmarkRule mBenchmark = new BenchmarkRule();
+
+    private static String sJson;
+
+    @BeforeClass
+    public static void createPayload() {
+        JsonObject categories = new JsonObject();
+        for (int c = 0; c < CATEGORIES; c++) {
+            JsonObject translations = new JsonObject();
+            for (String language : LANGUAGES) {
+                translations.addProperty(language, "Category " + c + " (" + language + ")");
+            }
+            JsonArray items = new JsonArray();
+            for (int i = 0; i < EXPERIENCES_PER_CATEGORY; i++) {
+                JsonObject experience = new JsonObject();
+                experience.addProperty("title", "Experience " + c + "." + i);
+                experience.addProperty("thumbnail", "https://example.com/thumbnails/" + c + "/" + i + ".jpg");
+                experience.addProperty("url", "https://example.com/experiences/" + c + "/" + i);
+                experience.addProperty("device", i % 2 == 0 ? "all" : "standalone");
+                items.add(experience);
+            }
+            JsonObject category = new JsonObject();
+            category.add("translations", translations);
+            category.add("items", items);
+            categories.add("category" + c, category);
+        }
+        JsonObject root = new JsonObject();
+        root.add("categories", categories);
+        sJson = root.toString();
+    }
+
+    private static RemoteExperiences parseWithReflection() {
+        return new GsonBuilder().create().fromJson(sJson, RemoteExperiences.class);
+    }
+
+    @Test
+    public void parseWithSharedAdapters() throws Exception {
+        assertEquals(CATEGORIES * EXPERIENCES_PER_CATEGORY, RemoteJson.parseExperiences(sJson).getAllExperiences().size());
+        mBenchmark.measure(() -> RemoteJson.parseExperiences(sJson));
+    }
+
+    @Test
+    public void parseWithReflectionBaseline() throws Exception {
+        assertEquals(CATEGORIES * EXPERIENCES_PER_CATEGORY, parseWithReflection().getAllExperiences().size());
+        mBenchmark.measure(RemoteJsonBenchmark::parseWithReflection);
+    }
+}
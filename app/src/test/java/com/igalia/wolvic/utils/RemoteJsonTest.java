@@ -0,0 +1,195 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the {@link RemoteJson} adapters against reflective Gson, which is how the payloads were
+ * parsed before. Complete payloads must give the same objects. Where a field is missing or null,
+ * reflection leaves a null in a non-null Kotlin property, and the adapters use an empty value.
+ */
+public class RemoteJsonTest {
+
+    private static final Gson sReflectiveGson = new Gson();
+
+    private static final String PROPERTIES = "{" +
+            "\"75\": {" +
+            "  \"whatsNewUrl\": \"https://wolvic.com/whats-new/75\"," +
+            "  \"environments\": [" +
+            "    {\"value\": \"cyberpunk\", \"title\": \"Cyberpunk\", \"thumbnail\": \"https://example.com/cyberpunk.png\", \"payload\": \"https://example.com/cyberpunk.zip\"}," +
+            "    {\"value\": \"space\", \"title\": \"Space\", \"thumbnail\": \"https://example.com/space.png\", \"payload\": \"https://example.com/space.zip\", \"extra\": {\"size\": 3}}" +
+            "  ]," +
+            "  \"dictionaries\": [{\"lang\": \"ja\", \"payload\": \"https://example.com/ja.zip\"}]" +
+            "}," +
+            "\"76\": {\"whatsNewUrl\": \"https://wolvic.com/whats-new/76\", \"environments\": [], \"dictionaries\": []}" +
+            "}";
+
+    private static final String ANNOUNCEMENTS = "{\"announcements\": [" +
+            "{\"id\": \"42\", \"date\": \"2025-01-15\"," +
+            " \"title\": {\"en\": \"Wolvic 1.8\", \"es\": \"Wolvic 1.8\"}," +
+            " \"body\": {\"en\": \"New environments\", \"es\": \"Nuevos entornos\"}," +
+            " \"image\": \"https://example.com/1.8.png\", \"link\": \"https://wolvic.com/blog/1.8\"}," +
+            "{\"id\": \"43\", \"date\": \"2025-02-01\", \"title\": {\"en\": \"Survey\"}, \"body\": {\"en\": \"Tell us\"}, \"priority\": 1}" +
+            "]}";
+
+    private static final String EXPERIENCES = "{\"categories\": {" +
+            "\"games\": {\"translations\": {\"en\": \"Games\", \"fr\": \"Jeux\"}, \"items\": [" +
+            "  {\"title\": \"Moon Rider\", \"thumbnail\": \"https://example.com/moon.jpg\", \"url\": \"https://moonrider.xyz\", \"device\": \"all\"}," +
+            "  {\"title\": \"Hubs\", \"thumbnail\": \"https://example.com/hubs.jpg\", \"url\": \"https://hubs.example.com\", \"device\": \"standalone\"}" +
+            "]}," +
+            "\"art\": {\"translations\": {\"en\": \"Art\"}, \"items\": []}" +
+            "}, \"version\": 2}";
+
+    private static final String HEYVR_EXPERIENCES = "[" +
+            "{\"title\": \"Arena\", \"thumbnail\": \"https://heyvr.io/arena.jpg\", \"url\": \"https://heyvr.io/game/arena\", \"device\": \"all\", \"rating\": 4.5}," +
+            "{\"title\": \"Puzzle\", \"thumbnail\": \"https://heyvr.io/puzzle.jpg\", \"url\": \"https://heyvr.io/game/puzzle\", \"device\": \"pc\"}" +
+            "]";
+
+    @Test
+    public void propertiesMatchReflection() {
+        Map<String, RemoteProperties> expected = sReflectiveGson.fromJson(PROPERTIES,
+                new TypeToken<Map<String, RemoteProperties>>() {}.getType());
+        Map<String, RemoteProperties> actual = RemoteJson.parseProperties(PROPERTIES);
+
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String version : expected.keySet()) {
+            RemoteProperties expectedProperties = expected.get(version);
+            RemoteProperties actualProperties = actual.get(version);
+            assertEquals(expectedProperties.getWhatsNewUrl(), actualProperties.getWhatsNewUrl());
+            assertArrayEquals(expectedProperties.getEnvironments(), actualProperties.getEnvironments());
+            assertArrayEquals(expectedProperties.getDictionaries(), actualProperties.getDictionaries());
+        }
+        Environment space = actual.get("75").getEnvironments()[1];
+        assertEquals("space", space.getValue());
+        assertEquals("Space", space.getTitle());
+        assertEquals("https://example.com/space.png", space.getThumbnail());
+        assertEquals("https://example.com/space.zip", space.getPayload());
+    }
+
+    @Test
+    public void announcementsMatchReflection() {
+        RemoteAnnouncements expected = sReflectiveGson.fromJson(ANNOUNCEMENTS, RemoteAnnouncements.class);
+        RemoteAnnouncements actual = RemoteJson.parseAnnouncements(ANNOUNCEMENTS);
+
+        assertEquals(expected.getAnnouncements().size(), actual.getAnnouncements().size());
+        for (int i = 0; i < expected.getAnnouncements().size(); i++) {
+            Announcement expectedAnnouncement = expected.getAnnouncements().get(i);
+            Announcement actualAnnouncement = actual.getAnnouncements().get(i);
+            assertEquals(expectedAnnouncement.getId(), actualAnnouncement.getId());
+            assertEquals(expectedAnnouncement.getDate(), actualAnnouncement.getDate());
+            assertEquals(expectedAnnouncement.getTitle(), actualAnnouncement.getTitle());
+            assertEquals(expectedAnnouncement.getBody(), actualAnnouncement.getBody());
+            assertEquals(expectedAnnouncement.getImage(), actualAnnouncement.getImage());
+            assertEquals(expectedAnnouncement.getLink(), actualAnnouncement.getLink());
+        }
+        assertNull(actual.getAnnouncements().get(1).getImage());
+        assertNull(actual.getAnnouncements().get(1).getLink());
+    }
+
+    @Test
+    public void experiencesMatchReflection() {
+        RemoteExperiences expected = sReflectiveGson.fromJson(EXPERIENCES, RemoteExperiences.class);
+        RemoteExperiences actual = RemoteJson.parseExperiences(EXPERIENCES);
+
+        assertEquals(expected.getCategoryNames(), actual.getCategoryNames());
+        for (String name : expected.getCategoryNames()) {
+            assertEquals(expected.getTranslationsForCategory(name), actual.getTranslationsForCategory(name));
+            assertExperiencesEqual(expected.getExperiencesForCategory(name), actual.getExperiencesForCategory(name));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void heyVRExperiencesMatchReflection() {
+        Experience[] expected = sReflectiveGson.fromJson(HEYVR_EXPERIENCES, Experience[].class);
+        Experience[] actual = RemoteJson.parseExperienceList(HEYVR_EXPERIENCES);
+
+        assertExperiencesEqual(Arrays.asList(expected), Arrays.asList(actual));
+    }
+
+    @Test
+    public void nullPayloadsAreNull() {
+        assertNull(RemoteJson.parseProperties(null));
+        assertNull(RemoteJson.parseAnnouncements(null));
+        assertNull(RemoteJson.parseExperiences(null));
+        assertNull(RemoteJson.parseExperienceList(null));
+        assertNull(RemoteJson.parseExperiences("null"));
+    }
+
+    @Test
+    public void missingAndNullStringsAreEmpty() {
+        String json = "[{\"title\": \"Arena\", \"url\": null}]";
+        Experience expected = sReflectiveGson.fromJson(json, Experience[].class)[0];
+        Experience actual = RemoteJson.parseExperienceList(json)[0];
+
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertNull(expected.getUrl());
+        assertNull(expected.getThumbnail());
+        assertEquals("", actual.getUrl());
+        assertEquals("", actual.getThumbnail());
+        assertEquals("", actual.getDevice());
+
+        Map<String, RemoteProperties> properties = RemoteJson.parseProperties("{\"75\": {\"whatsNewUrl\": null}}");
+        assertEquals("", properties.get("75").getWhatsNewUrl());
+        assertNull(properties.get("75").getEnvironments());
+        assertNull(properties.get("75").getDictionaries());
+    }
+
+    @Test
+    public void missingAndNullCollectionsAreEmpty() {
+        RemoteAnnouncements announcements = RemoteJson.parseAnnouncements("{}");
+        assertEquals(sReflectiveGson.fromJson("{}", RemoteAnnouncements.class), announcements);
+        assertTrue(announcements.getAnnouncements().isEmpty());
+
+        Announcement announcement = RemoteJson.parseAnnouncements(
+                "{\"announcements\": [{\"id\": \"1\", \"title\": null, \"body\": {\"en\": \"Body\", \"es\": null}}]}")
+                .getAnnouncements().get(0);
+        assertEquals(Collections.emptyMap(), announcement.getTitle());
+        assertEquals(Collections.singletonMap("en", "Body"), announcement.getBody());
+        assertEquals("", announcement.getDate());
+
+        RemoteExperiences experiences = RemoteJson.parseExperiences(
+                "{\"categories\": {\"games\": {\"translations\": {\"en\": \"Games\"}}, \"art\": null}}");
+        assertEquals(Collections.singletonList("games"), experiences.getCategoryNames());
+        assertTrue(experiences.getExperiencesForCategory("games").isEmpty());
+        assertEquals(sReflectiveGson.fromJson("{}", RemoteExperiences.class), RemoteJson.parseExperiences("{}"));
+        assertTrue(RemoteJson.parseExperiences("{\"categories\": null}").getCategories().isEmpty());
+    }
+
+    @Test
+    public void nullItemsAreSkipped() {
+        Experience[] experiences = RemoteJson.parseExperienceList(
+                "[null, {\"title\": \"Arena\", \"thumbnail\": \"t\", \"url\": \"u\", \"device\": \"all\"}]");
+        assertEquals(1, experiences.length);
+        assertEquals(new Experience("Arena", "t", "u", "all"), experiences[0]);
+
+        Map<String, RemoteProperties> properties = RemoteJson.parseProperties(
+                "{\"75\": {\"whatsNewUrl\": \"w\", \"environments\": [null], \"dictionaries\": [null, {\"lang\": \"ja\"}]}}");
+        assertEquals(0, properties.get("75").getEnvironments().length);
+        assertArrayEquals(new Dictionary[]{new Dictionary("ja", "")}, properties.get("75").getDictionaries());
+    }
+
+    private static void assertExperiencesEqual(List<Experience> aExpected, List<Experience> aActual) {
+        assertEquals(aExpected.size(), aActual.size());
+        for (int i = 0; i < aExpected.size(); i++) {
+            Experience expected = aExpected.get(i);
+            Experience actual = aActual.get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getThumbnail(), actual.getThumbnail());
+            assertEquals(expected.getUrl(), actual.getUrl());
+            assertEquals(expected.getDevice(), actual.getDevice());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.igalia.wolvic.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.igalia.wolvic.ui.widgets.Windows;
+
+import org.junit.Test;
+
+public class UrlInfoTest {
+
+    @Test
+    public void classifiesDomains() {
+        assertTrue(UrlInfo.isDomain("example.com"));
+        assertTrue(UrlInfo.isDomain("https://www.example.com:8080/path?q=1"));
+        assertTrue(UrlInfo.isDomain("example.com\n"));
+        assertFalse(UrlInfo.isDomain("example.c0m"));
+        assertFalse(UrlInfo.isDomain("example.com."));
+        assertFalse(UrlInfo.isDomain("ex--ample.com"));
+        assertFalse(UrlInfo.isDomain("example.com:123456"));
+        assertFalse(UrlInfo.isDomain("example.com/a b"));
+        assertFalse(UrlInfo.isDomain("HTTP://example.com"));
+    }
+
+    @Test
+    public void classifiesAddresses() {
+        assertTrue(UrlInfo.isIPUri("121.25.63.2"));
+        assertTrue(UrlInfo.isIPUri("http://LOCALHOST:8080/"));
+        assertFalse(UrlInfo.isIPUri("1211.25.63.2"));
+        assertFalse(UrlInfo.isIPUri("http://11.222.333.4"));
+        assertFalse(UrlInfo.isIPUri("01.2.3.4"));
+        assertFalse(UrlInfo.isIPUri("data:text/html,localhost"));
+        assertTrue(UrlInfo.isLocalIP(" 192.168.1.1/ "));
+        assertTrue(UrlInfo.isLocalIP("http://localhost"));
+        assertFalse(UrlInfo.isLocalIP("8.8.8.8"));
+    }
+
+    @Test
+    public void readsHostAndPort() {
+        UrlInfo info = UrlInfo.of("https://www.example.com:8080/path?q=1");
+        assertEquals("https", info.getScheme());
+        assertEquals("www.example.com", info.getHost());
+        assertEquals(8080, info.getPort());
+
+        assertEquals("example.com", UrlInfo.of("http://example.com?q=a/b").getHost());
+        assertEquals("example.com", UrlInfo.of("http://user@example.com/").getHost());
+        assertEquals("[::1]", UrlInfo.of("http://[::1]:80/").getHost());
+        assertEquals("", UrlInfo.of("file:///sdcard/video.mp4").getHost());
+        assertEquals("about://history", UrlInfo.of("about://history").getHost());
+        assertNull(UrlInfo.of("example.com").getScheme());
+        assertEquals(UrlInfo.NO_PORT, UrlInfo.of("https://example.com/").getPort());
+    }
+
+    @Test
+    public void classifiesInternalPages() {
+        assertEquals(Windows.ContentType.HISTORY, UrlInfo.of("ABOUT://HISTORY").getContentType());
+        assertEquals(Windows.ContentType.WEB_CONTENT, UrlInfo.of("https://example.com").getContentType());
+        assertTrue(UrlInfo.of(UrlUtils.ABOUT_PRIVATE).isAboutPage());
+        assertTrue(UrlInfo.of("blob:https://example.com/1234").isBlobUri());
+        assertSame(UrlInfo.of("https://example.com"), UrlInfo.of("https://example.com"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.igalia.wolvic.browser.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.igalia.wolvic.TestApplication;
+import com.igalia.wolvic.browser.api.WAutocomplete;
+
+import org.chromium.wolvic.PasswordForm;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Interleaves login saves and fetches the way AutocompleteStorageProxy does: the cache is
+ * invalidated when a save starts and again once the write has landed.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, application = TestApplication.class)
+public class LoginCacheTest {
+
+    private static final String REALM = "https://example.com/";
+
+    private final LoginCache mCache = new LoginCache();
+
+    private static WAutocomplete.LoginEntry[] logins(String password) {
+        return new WAutocomplete.LoginEntry[]{
+                new WAutocomplete.LoginEntry.Builder()
+                        .guid("guid")
+                        .origin("https://example.com")
+                        .username("user")
+                        .password(password)
+                        .build()
+        };
+    }
+
+    @Test
+    public void fetchesAreCached() {
+        assertNull(mCache.getAllLogins());
+        mCache.putAllLogins(mCache.getGeneration(), logins("old"));
+        mCache.putLoginsForSignonRealm(mCache.getGeneration(), REALM, logins("old"));
+
+        PasswordForm[] forms = mCache.getAllLogins();
+        assertNotNull(forms);
+        assertEquals("old", forms[0].getPassword());
+        assertEquals("old", mCache.getLoginsForSignonRealm(REALM)[0].getPassword());
+    }
+
+    @Test
+    public void fetchDuringSaveDoesNotCacheOldRows() {
+        mCache.putAllLogins(mCache.getGeneration(), logins("old"));
+
+        // The save starts, then a form fill misses the cache and reads the storage before the
+        // write has landed.
+        mCache.invalidate();
+        assertNull(mCache.getAllLogins());
+        int fetch = mCache.getGeneration();
+        mCache.putAllLogins(fetch, logins("old"));
+        mCache.putLoginsForSignonRealm(fetch, REALM, logins("old"));
+
+        // The write lands.
+        mCache.invalidate();
+        assertNull(mCache.getAllLogins());
+        assertNull(mCache.getLoginsForSignonRealm(REALM));
+
+        fetch = mCache.getGeneration();
+        mCache.putAllLogins(fetch, logins("new"));
+        assertEquals("new", mCache.getAllLogins()[0].getPassword());
+    }
+
+    @Test
+    public void fetchStartedBeforeSaveIsDropped() {
+        int fetch = mCache.getGeneration();
+
+        // The save starts and lands while the fetch is in flight.
+        mCache.invalidate();
+        mCache.invalidate();
+
+        mCache.putLoginsForSignonRealm(fetch, REALM, logins("old"));
+        assertNull(mCache.getLoginsForSignonRealm(REALM));
+    }
+
+    @Test
+    public void overlappingSavesDropFetchesUntilTheLastWriteLands() {
+        // Two saves start.
+        mCache.invalidate();
+        mCache.invalidate();
+        // The first one lands, and a fetch reads the storage before the second one has.
+        mCache.invalidate();
+        int fetch = mCache.getGeneration();
+        // The second one lands.
+        mCache.invalidate();
+
+        mCache.putAllLogins(fetch, logins("first"));
+        assertNull(mCache.getAllLogins());
+    }
+}
@@ -135,6 +135,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
     private final Handler mMainHandler = new Handler(Looper.getMainLooper());
     private static final String KEEP_SCREEN_ON_COMMAND = "input touchscreen tap 1 1";
     private static final int KEEP_SCREEN_ON_DELAY = 10_000;
+    private static final int MEDIA_SEEKBAR_DELAY = 500;
 
     private final Runnable keepScreenOnRunnable = new Runnable() {
         @Override
@@ -249,7 +250,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
         }
 
         runVRBrowserActivityCallback(activity -> activity.recenterUIYaw(WidgetManagerDelegate.YAW_TARGET_ALL));
-        queueRunnable(this::calibrateController);
+        queueRenderRunnable(this::calibrateController);
     }
 
     private void onConnectionStateChanged(PhoneUIViewModel.ConnectionState connectionState) {
@@ -389,7 +390,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
 
         final float[] quaternion = fromSensorManagerToWorld(event.values);
 
-        queueRunnable(() -> setControllerOrientation(quaternion[0], quaternion[1], quaternion[2], quaternion[3]));
+        queueRenderRunnable(() -> setControllerOrientation(quaternion[0], quaternion[1], quaternion[2], quaternion[3]));
 
         mBinding.realignButton.updatePosition(-quaternion[1], -quaternion[0]);
 
@@ -416,7 +417,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
 
         final float xx = aEvent.getX(0);
         final float yy = aEvent.getY(0);
-        queueRunnable(() -> touchEvent(false, xx, yy));
+        queueRenderRunnable(() -> touchEvent(false, xx, yy));
         return true;
     }
 
@@ -429,7 +430,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
         // This check is needed to prevent a crash when pausing before 3D mode has started.
         if (mActivePresentation != null) {
             synchronized (mRenderLock) {
-                queueRunnable(activityPausedRunnable);
+                queueRenderRunnable(activityPausedRunnable);
                 try {
                     mRenderLock.wait();
                 } catch(InterruptedException e) {
@@ -460,7 +461,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
             keepScreenOn(true);
         }
 
-        queueRunnable(activityResumedRunnable);
+        queueRenderRunnable(activityResumedRunnable);
     }
 
     @Override
@@ -469,7 +470,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
         super.onDestroy();
         unregisterReceiver(mUsbPermissionReceiver);
         synchronized (mRenderLock) {
-            if (queueRunnable(activityDestroyedRunnable)) {
+            if (queueRenderRunnable(activityDestroyedRunnable)) {
                 try {
                     mRenderLock.wait();
                 } catch (InterruptedException e) {
@@ -479,7 +480,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
         }
     }
 
-    boolean queueRunnable(@NonNull Runnable aRunnable) {
+    boolean queueRenderRunnable(@NonNull Runnable aRunnable) {
         if (mActivePresentation != null) {
             mActivePresentation.mGLView.queueEvent(aRunnable);
             return true;
@@ -564,6 +565,15 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
         private final WidgetManagerDelegate mDelegate;
         private final TrayDelegate mTrayDelegate;
         private WMediaSession.Delegate mMediaSessionDelegate;
+        private Media mMedia;
+        // The position is extrapolated by Media, so it is read periodically while playing.
+        private final Runnable mMediaSeekbarRunnable = new Runnable() {
+            @Override
+            public void run() {
+                updateMediaSeekbar();
+                mMainHandler.postDelayed(this, MEDIA_SEEKBAR_DELAY);
+            }
+        };
         private GestureDetector mGestureDetector;
         private final Context mContext;
 
@@ -580,32 +590,48 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
 
             mViewModel.updateIsPlayingMedia(isAvailable);
 
-            Media media = getActiveMedia();
+            if (mMedia != null) {
+                mMedia.removeMediaListener(mMediaSessionDelegate);
+                mMediaSessionDelegate = null;
+                mMedia = null;
+            }
+            mMainHandler.removeCallbacks(mMediaSeekbarRunnable);
             if (!isAvailable) {
-                if (media != null) {
-                    media.removeMediaListener(mMediaSessionDelegate);
-                    mMediaSessionDelegate = null;
-                }
                 return;
             }
 
-            assert(media != null);
-            media.addMediaListener(new WMediaSession.Delegate() {
+            mMedia = getActiveMedia();
+            assert(mMedia != null);
+            mMediaSessionDelegate = new WMediaSession.Delegate() {
                 @Override
                 public void onPlay(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
                     mBinding.playButton.setIconResource(R.drawable.ic_icon_media_pause);
+                    mMainHandler.removeCallbacks(mMediaSeekbarRunnable);
+                    mMainHandler.post(mMediaSeekbarRunnable);
                 }
 
                 @Override
                 public void onPause(@NonNull WSession session, @NonNull WMediaSession mediaSession) {
                     mBinding.playButton.setIconResource(R.drawable.ic_icon_media_play);
+                    mMainHandler.removeCallbacks(mMediaSeekbarRunnable);
+                    updateMediaSeekbar();
                 }
 
                 @Override
                 public void onPositionState(@NonNull WSession session, @NonNull WMediaSession mediaSession, @NonNull WMediaSession.PositionState state) {
-                    mBinding.mediaSeekbar.setProgress((int) ((state.position / state.duration) * 100), false);
+                    updateMediaSeekbar();
                 }
-            });
+            };
+            mMedia.addMediaListener(mMediaSessionDelegate);
+            if (mMedia.isPlaying()) {
+                mMainHandler.post(mMediaSeekbarRunnable);
+            }
+        }
+
+        private void updateMediaSeekbar() {
+            if (mMedia != null && mMedia.getDuration() > 0) {
+                mBinding.mediaSeekbar.setProgress((int) ((mMedia.getCurrentTime() / mMedia.getDuration()) * 100), false);
+            }
         }
 
         @Override
@@ -736,26 +762,26 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
                 public boolean onSingleTapUp(MotionEvent e) {
                     // We should be really using onDown for this, but we cannot do that because
                     // onDown is the precursor of other events like onScroll.
-                    queueRunnable(() -> touchEvent(true, 0, 0));
+                    queueRenderRunnable(() -> touchEvent(true, 0, 0));
                     return true;
                 }
 
                 @Override
                 public boolean onSingleTapConfirmed(MotionEvent e) {
-                    queueRunnable(() -> touchEvent(false, 0, 0));
+                    queueRenderRunnable(() -> touchEvent(false, 0, 0));
                     return true;
                 }
 
                 @Override
                 public boolean onDoubleTap(MotionEvent e) {
-                    queueRunnable(() -> touchEvent(false, 0, 0));
+                    queueRenderRunnable(() -> touchEvent(false, 0, 0));
                     return true;
                 }
 
                 @Override
                 public void onLongPress(MotionEvent e) {
                     // Used to perform implement click and hold for scrolling or moving widgets.
-                    queueRunnable(() -> touchEvent(true, 0, 0));
+                    queueRenderRunnable(() -> touchEvent(true, 0, 0));
                 }
             });
 
@@ -764,7 +790,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
                     // Seems redundant with onSingleTapXXX events but we need to handle this for the
                     // onLongPress case. When that happens we don't get onSingleTapXXX gestures but
                     // we still need to notify that the touch event has ended.
-                    queueRunnable(() -> touchEvent(false, 0, 0));
+                    queueRenderRunnable(() -> touchEvent(false, 0, 0));
                 }
                 return mGestureDetector.onTouchEvent(event);
             });
@@ -783,7 +809,7 @@ public class PlatformActivity extends FragmentActivity implements SensorEventLis
 
     private void startIMUService() {
         Log.d(LOGTAG, "Starting IMU service");
-        VisionGlass.getInstance().startImu((w, x, y, z) -> queueRunnable(() -> setHead(x, y, z, w)));
+        VisionGlass.getInstance().startImu((w, x, y, z) -> queueRenderRunnable(() -> setHead(x, y, z, w)));
     }
 
     private final DisplayManager.DisplayListener mDisplayListener =